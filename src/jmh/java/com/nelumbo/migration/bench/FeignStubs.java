@@ -0,0 +1,76 @@
+package com.nelumbo.migration.bench;
+
+import com.nelumbo.migration.feign.CountryFeign;
+import com.nelumbo.migration.feign.dto.responses.CountryResponse;
+import com.nelumbo.migration.feign.dto.responses.DefaultResponse;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Clientes Feign sin red para los benchmarks que construyen el servicio.
+ */
+public final class FeignStubs {
+
+    private FeignStubs() {
+    }
+
+    /**
+     * Cliente que responde a todo con datos vacíos: una lista vacía si el método devuelve
+     * {@code DefaultResponse<List<...>>} y null en {@code data} si no.
+     */
+    public static <T> T empty(Class<T> feign) {
+        Object stub = Proxy.newProxyInstance(feign.getClassLoader(), new Class<?>[]{feign}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> feign.getSimpleName() + " stub";
+                };
+            }
+            if (method.getReturnType() != DefaultResponse.class) {
+                return null;
+            }
+            return new DefaultResponse<>(returnsList(method.getGenericReturnType()) ? List.of() : null);
+        });
+        return feign.cast(stub);
+    }
+
+    /**
+     * Países con un solo estado y una sola ciudad: {@link Workbooks#COUNTRY}, {@link Workbooks#STATE}
+     * y {@link Workbooks#CITY}.
+     */
+    public static CountryFeign countries() {
+        return new CountryFeign() {
+            @Override
+            public DefaultResponse<List<CountryResponse>> findAll() {
+                return new DefaultResponse<>(List.of(place(1L, Workbooks.COUNTRY)));
+            }
+
+            @Override
+            public DefaultResponse<List<CountryResponse>> findAllStatesByCountryId(Long countryId) {
+                return new DefaultResponse<>(List.of(place(10L, Workbooks.STATE)));
+            }
+
+            @Override
+            public DefaultResponse<List<CountryResponse>> findAllCitesByStateIdAndCountryId(Long countryId, Long stateId) {
+                return new DefaultResponse<>(List.of(place(100L, Workbooks.CITY)));
+            }
+        };
+    }
+
+    private static boolean returnsList(Type type) {
+        return type instanceof ParameterizedType response
+                && response.getActualTypeArguments()[0] instanceof ParameterizedType data
+                && data.getRawType() == List.class;
+    }
+
+    private static CountryResponse place(Long id, String name) {
+        CountryResponse place = new CountryResponse();
+        place.setId(id);
+        place.setName(name);
+        return place;
+    }
+}
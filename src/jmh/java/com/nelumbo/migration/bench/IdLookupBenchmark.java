@@ -0,0 +1,111 @@
+package com.nelumbo.migration.bench;
+
+import com.nelumbo.migration.registry.EntityType;
+import com.nelumbo.migration.registry.IdRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Búsqueda de ids por nombre, como resuelven las filas sus sucursales, cargos y jornadas:
+ * los mapas en memoria que usaban las cargas contra el {@link IdRegistry} en disco. Las filas
+ * corren en paralelo, así que se mide con varios hilos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class IdLookupBenchmark {
+
+    private static final int LOOKUPS = 1 << 14;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"hash-map", "concurrent-hash-map", "id-registry"})
+    public String strategy;
+
+    private Path dir;
+    private IdRegistry registry;
+    private Function<String, Long> lookup;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        Map<String, Long> ids = switch (strategy) {
+            case "hash-map" -> new HashMap<>();
+            case "concurrent-hash-map" -> new ConcurrentHashMap<>();
+            case "id-registry" -> null;
+            default -> throw new IllegalArgumentException("Strategy " + strategy + " not found");
+        };
+        if (ids == null) {
+            dir = Files.createTempDirectory("bench-registry");
+            registry = new IdRegistry(dir, false);
+        }
+        for (int i = 0; i < size; i++) {
+            if (ids != null) {
+                ids.put(name(i), (long) i);
+            } else {
+                registry.put(EntityType.STORE, name(i), (long) i);
+            }
+        }
+        lookup = ids != null ? ids::get : name -> registry.find(EntityType.STORE, name);
+
+        // Otras instancias de String que las guardadas, como las que llegan de las celdas; una de cada diez no existe
+        SplittableRandom random = new SplittableRandom(42);
+        keys = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            keys[i] = random.nextInt(10) == 0 ? "Desconocida " + i : name(random.nextInt(size));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        if (registry != null) {
+            registry.destroy();
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Long find(Cursor cursor) {
+        return lookup.apply(keys[cursor.next++ & (LOOKUPS - 1)]);
+    }
+
+    private static String name(int i) {
+        return "Sucursal " + i;
+    }
+}
@@ -0,0 +1,75 @@
+package com.nelumbo.migration.bench;
+
+import com.nelumbo.migration.excel.ExcelReader;
+import com.nelumbo.migration.excel.ReaderMode;
+import com.nelumbo.migration.excel.SheetSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Abrir un libro y recorrer todas las filas de datos de una hoja, como hace cada carga antes de
+ * repartir las filas. Cada operación lee el libro completo, así que se mide un tiro por iteración.
+ * En modo dom el libro de un millón de filas necesita varios GB de heap; con el -Xmx del fork
+ * puede terminar en OutOfMemoryError, que también es un dato.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WorkbookOpenBenchmark {
+
+    private static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"8"})
+    public int fields;
+
+    @Param({"STREAMING", "DOM"})
+    public ReaderMode mode;
+
+    private Path dir;
+    private FileUpload upload;
+    private ExcelReader reader;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        dir = Files.createTempDirectory("bench-workbooks");
+        upload = new FileUpload(Workbooks.compensationWorkbook(dir, rows, fields), XLSX);
+        reader = new ExcelReader(mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void readAllRows(Blackhole blackhole) throws IOException {
+        reader.forEachDataRow(upload, SheetSelector.named(Workbooks.COMPENSATIONS), null, blackhole::consume);
+    }
+}
@@ -0,0 +1,154 @@
+package com.nelumbo.migration.bench;
+
+import com.nelumbo.migration.excel.SheetCell;
+import com.nelumbo.migration.excel.SheetRow;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hojas sintéticas para los benchmarks, con la forma de las que suben los usuarios. Los valores
+ * son deterministas: la fila {@code n} es la misma en cada corrida.
+ */
+public final class Workbooks {
+
+    public static final String COMPENSATIONS = "compensation_categories";
+
+    public static final String COUNTRY = "México";
+    public static final String STATE = "Jalisco";
+    public static final String CITY = "Guadalajara";
+    public static final int WORK_POSITIONS = 100;
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(1970, 1, 1);
+
+    private Workbooks() {
+    }
+
+    /**
+     * Encabezados de compensaciones: code, denomination, status y {@code fields} campos adicionales.
+     */
+    public static SheetRow compensationHeader(int fields) {
+        SheetCell[] cells = new SheetCell[3 + fields];
+        cells[0] = SheetCell.ofString(0, "code");
+        cells[1] = SheetCell.ofString(1, "denomination");
+        cells[2] = SheetCell.ofString(2, "status");
+        for (int f = 0; f < fields; f++) {
+            cells[3 + f] = SheetCell.ofString(3 + f, "field_" + f);
+        }
+        return new SheetRow(0, cells);
+    }
+
+    /**
+     * Filas de compensaciones; los campos adicionales rotan entre texto, número, fecha y booleano.
+     */
+    public static List<SheetRow> compensationRows(int rows, int fields) {
+        List<SheetRow> result = new ArrayList<>(rows);
+        for (int r = 1; r <= rows; r++) {
+            SheetCell[] cells = new SheetCell[3 + fields];
+            cells[0] = SheetCell.ofNumeric(0, r, false);
+            cells[1] = SheetCell.ofString(1, "Compensación " + r);
+            cells[2] = SheetCell.ofString(2, r % 10 == 0 ? "inactive" : "active");
+            for (int f = 0; f < fields; f++) {
+                int column = 3 + f;
+                cells[column] = switch (f % 4) {
+                    case 0 -> SheetCell.ofString(column, "valor " + r + "_" + f);
+                    case 1 -> SheetCell.ofNumeric(column, r * 1.5 + f, false);
+                    case 2 -> SheetCell.ofNumeric(column, DateUtil.getExcelDate(FIRST_DATE.plusDays(r + f).atStartOfDay()), true);
+                    default -> SheetCell.ofBoolean(column, (r + f) % 2 == 0);
+                };
+            }
+            result.add(new SheetRow(r, cells));
+        }
+        return result;
+    }
+
+    /**
+     * Escribe la hoja de compensaciones como .xlsx con SXSSF, así que generar un millón de filas
+     * no necesita el libro en memoria.
+     */
+    public static Path compensationWorkbook(Path dir, int rows, int fields) throws IOException {
+        Path file = dir.resolve(COMPENSATIONS + "_" + rows + "x" + fields + ".xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(200);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            workbook.setCompressTempFiles(true);
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+            Sheet sheet = workbook.createSheet(COMPENSATIONS);
+
+            Row header = sheet.createRow(0);
+            SheetRow names = compensationHeader(fields);
+            for (int c = 0; c < names.getLastCellNum(); c++) {
+                header.createCell(c).setCellValue(names.getCell(c).getStringCellValue());
+            }
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue(r);
+                row.createCell(1).setCellValue("Compensación " + r);
+                row.createCell(2).setCellValue(r % 10 == 0 ? "inactive" : "active");
+                for (int f = 0; f < fields; f++) {
+                    Cell cell = row.createCell(3 + f);
+                    switch (f % 4) {
+                        case 0 -> cell.setCellValue("valor " + r + "_" + f);
+                        case 1 -> cell.setCellValue(r * 1.5 + f);
+                        case 2 -> {
+                            cell.setCellValue(FIRST_DATE.plusDays(r + f).atStartOfDay());
+                            cell.setCellStyle(dateStyle);
+                        }
+                        default -> cell.setCellValue((r + f) % 2 == 0);
+                    }
+                }
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    /**
+     * Filas de la hoja de perfiles con las columnas que lee la carga (0 a 25). Todas viven en
+     * {@link #COUNTRY}/{@link #STATE}/{@link #CITY} y tienen uno de {@link #WORK_POSITIONS} cargos.
+     */
+    public static List<SheetRow> profileRows(int rows) {
+        List<SheetRow> result = new ArrayList<>(rows);
+        for (int r = 1; r <= rows; r++) {
+            SheetCell[] cells = new SheetCell[26];
+            cells[0] = SheetCell.ofNumeric(0, 100000 + r, false);
+            cells[1] = SheetCell.ofString(1, "Nombre" + r);
+            cells[2] = SheetCell.ofString(2, "Segundo" + r);
+            cells[3] = SheetCell.ofString(3, "Apellido" + r);
+            cells[4] = SheetCell.ofString(4, "Materno" + r);
+            cells[5] = SheetCell.ofString(5, r % 2 == 0 ? "F" : "M");
+            cells[6] = SheetCell.ofString(6, "RFC" + r);
+            cells[7] = SheetCell.ofString(7, "CURP" + r);
+            cells[12] = SheetCell.ofString(12, "O+");
+            cells[13] = SheetCell.ofString(13, String.format("%02d/%02d/19%02d", 1 + r % 28, 1 + r % 12, 50 + r % 50));
+            cells[14] = SheetCell.ofString(14, "Soltero");
+            cells[15] = SheetCell.ofString(15, String.format("%02d/%02d/20%02d", 1 + r % 28, 1 + r % 12, r % 24));
+            cells[17] = SheetCell.ofString(17, "persona" + r + "@example.com");
+            cells[18] = SheetCell.ofNumeric(18, 33000000 + r, false);
+            cells[19] = SheetCell.ofString(19, "Calle " + r);
+            cells[20] = SheetCell.ofString(20, COUNTRY);
+            cells[21] = SheetCell.ofString(21, STATE);
+            cells[22] = SheetCell.ofString(22, CITY);
+            cells[25] = SheetCell.ofString(25, workPosition(r % WORK_POSITIONS));
+            result.add(new SheetRow(r, cells));
+        }
+        return result;
+    }
+
+    public static String workPosition(int index) {
+        return "Cargo " + index;
+    }
+}
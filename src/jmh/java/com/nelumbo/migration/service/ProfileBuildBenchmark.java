@@ -0,0 +1,56 @@
+package com.nelumbo.migration.service;
+
+import com.nelumbo.migration.bench.Workbooks;
+import com.nelumbo.migration.excel.SheetRow;
+import com.nelumbo.migration.feign.dto.requests.ProfileRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Armar las secciones de un perfil a partir de su fila: fechas, lugar de residencia y cargo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfileBuildBenchmark {
+
+    private static final int ROWS = 1 << 12;
+
+    private ServiceFixture fixture;
+    private SheetRow[] rows;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        fixture = new ServiceFixture();
+        rows = Workbooks.profileRows(ROWS).toArray(SheetRow[]::new);
+        // La primera resolución descarga el árbol geográfico; no es parte de lo que se mide
+        fixture.service.profileRequest(rows[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public ProfileRequest buildProfile() {
+        return fixture.service.profileRequest(rows[next++ & (ROWS - 1)]);
+    }
+}
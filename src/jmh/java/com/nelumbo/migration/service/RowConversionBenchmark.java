@@ -0,0 +1,79 @@
+package com.nelumbo.migration.service;
+
+import com.nelumbo.migration.bench.Workbooks;
+import com.nelumbo.migration.dispatch.RowTask;
+import com.nelumbo.migration.excel.ColumnPlan;
+import com.nelumbo.migration.excel.SheetRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lo que hace la carga de compensaciones antes de llamar a core-api: resolver los encabezados
+ * en un {@link ColumnPlan} y convertir las celdas de cada fila en {@code fieldsValues}. Está en
+ * el paquete del servicio para usar {@code prepareCompensations} sin hacerlo público; las filas
+ * ya están en memoria, así que solo se mide la conversión.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowConversionBenchmark {
+
+    private static final int ROWS = 1 << 12;
+
+    /** Campos adicionales de la hoja; las hojas anchas son las que más cuestan. */
+    @Param({"10", "50", "200"})
+    public int fields;
+
+    private ServiceFixture fixture;
+    private SheetRow header;
+    private ColumnPlan plan;
+    private SheetRow[] rows;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        fixture = new ServiceFixture();
+        header = Workbooks.compensationHeader(fields);
+        // Igual que la carga: todas las columnas salvo code, denomination y status son campos
+        plan = ColumnPlan.compile(header, "code", "denomination", "status");
+        rows = Workbooks.compensationRows(ROWS, fields).toArray(SheetRow[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public RowTask resolveHeader() {
+        return fixture.service.prepareCompensations(header);
+    }
+
+    @Benchmark
+    public ColumnPlan compilePlan() {
+        return ColumnPlan.compile(header, "code", "denomination", "status");
+    }
+
+    @Benchmark
+    public Map<String, Object> fieldsValues() {
+        return plan.fieldsValues(rows[next++ & (ROWS - 1)]);
+    }
+}
@@ -0,0 +1,50 @@
+package com.nelumbo.migration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nelumbo.migration.bench.FeignStubs;
+import com.nelumbo.migration.bench.Workbooks;
+import com.nelumbo.migration.cache.GeoGazetteer;
+import com.nelumbo.migration.feign.CompCategoriesFeign;
+import com.nelumbo.migration.registry.EntityType;
+import com.nelumbo.migration.registry.IdRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Servicio de migración sin red para los benchmarks: los clientes Feign que no se usan quedan en
+ * null, el gazetteer responde con {@link Workbooks#COUNTRY} y el registro de ids vive en un
+ * directorio temporal con los cargos de {@link Workbooks#profileRows}.
+ */
+class ServiceFixture implements AutoCloseable {
+
+    private final Path dir;
+    private final IdRegistry idRegistry;
+    private final GeoGazetteer geoGazetteer;
+    final MigrationService service;
+
+    ServiceFixture() throws IOException {
+        dir = Files.createTempDirectory("bench-service");
+        idRegistry = new IdRegistry(dir.resolve("registry"), false);
+        for (int i = 0; i < Workbooks.WORK_POSITIONS; i++) {
+            idRegistry.put(EntityType.WORK_POSITION, Workbooks.workPosition(i), (long) i + 1);
+        }
+        geoGazetteer = new GeoGazetteer(FeignStubs.countries(), new ObjectMapper(),
+                dir.resolve("gazetteer.json"), Duration.ofDays(7), Duration.ofMinutes(1), Duration.ofSeconds(10));
+        service = new MigrationService(null, null, null, null, null, FeignStubs.empty(CompCategoriesFeign.class),
+                null, null, null, null, null, geoGazetteer, null, null, idRegistry, null, null, new ObjectMapper());
+    }
+
+    @Override
+    public void close() throws IOException {
+        idRegistry.destroy();
+        geoGazetteer.destroy();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
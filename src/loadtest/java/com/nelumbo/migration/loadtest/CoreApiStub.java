@@ -0,0 +1,312 @@
+package com.nelumbo.migration.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in de core-api con todas las rutas que llaman los clientes Feign, sobre el
+ * {@link HttpServer} del JDK. Atiende con hilos de plataforma: las filas de la aplicación
+ * corren en hilos virtuales que pueden quedar fijos a su carrier mientras esperan la
+ * respuesta, y si el stub compartiera esos carriers no podría responder. Cada respuesta (salvo el login)
+ * espera la latencia sorteada de {@link LatencyDistribution}; con {@code errorRate} una parte
+ * de las peticiones responde 500 y con {@code rateLimit} las que pasan de ese número por
+ * segundo responden 429 con Retry-After, como el gateway de producción.
+ * <p>
+ * Las búsquedas de catálogos no encuentran nada y las altas devuelven un id nuevo con el
+ * nombre recibido, así que cada carga crea todas sus filas.
+ */
+@Slf4j
+public class CoreApiStub implements AutoCloseable {
+
+    private static final String BASE = "/core-api/v1/";
+    private static final String JSON = "application/json";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final RateLimit rateLimit;
+    private final AtomicLong ids = new AtomicLong(1_000_000);
+
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param rateLimit peticiones por segundo que acepta; 0 sin límite
+     */
+    public CoreApiStub(LatencyDistribution latency, double errorRate, int rateLimit) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.rateLimit = rateLimit > 0 ? new RateLimit(rateLimit) : null;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/core-api", this::handle);
+        this.server.start();
+        log.info("Stub de core-api en el puerto " + this.getPort() + " (latencia " + latency + ", errores " + errorRate
+                + ", límite " + (rateLimit > 0 ? rateLimit + "/s" : "ninguno") + ")");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Lo que recibió el stub desde la llamada anterior, y vuelve a contar desde cero.
+     */
+    public Stats drainStats() {
+        Map<String, Long> byRoute = new TreeMap<>();
+        requests.forEach((route, count) -> {
+            long value = count.sumThenReset();
+            if (value > 0) {
+                byRoute.put(route, value);
+            }
+        });
+        return new Stats(byRoute, injectedErrors.sumThenReset(), throttled.sumThenReset());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            URI uri = exchange.getRequestURI();
+            String path = uri.getPath().startsWith(BASE) ? uri.getPath().substring(BASE.length()) : uri.getPath();
+            String[] segments = path.split("/");
+            requests.computeIfAbsent(method + " " + route(segments), k -> new LongAdder()).increment();
+
+            boolean login = "login".equals(segments[0]);
+            if (!login) {
+                if (rateLimit != null && !rateLimit.tryAcquire()) {
+                    throttled.increment();
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    this.send(exchange, 429, null);
+                    return;
+                }
+                latency.sleep();
+                if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    injectedErrors.increment();
+                    this.send(exchange, 500, mapper.createObjectNode().put("message", "Injected error"));
+                    return;
+                }
+            }
+            JsonNode body = "POST".equals(method) ? this.readBody(exchange.getRequestBody()) : null;
+            Object response = this.route(method, segments, query(uri.getRawQuery()), body);
+            this.send(exchange, response == null && "POST".equals(method) ? 201 : 200, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Stub de core-api: " + e.getMessage());
+            exchange.sendResponseHeaders(500, -1);
+        }
+    }
+
+    /**
+     * Respuesta de cada ruta; null es una respuesta sin cuerpo.
+     */
+    private Object route(String method, String[] segments, Map<String, String> query, JsonNode body) {
+        String resource = segments[0];
+        return switch (method + " " + resource) {
+            case "POST login" -> data(mapper.createObjectNode().put("token", "stub-token"));
+            case "GET countries" -> data(this.countries(segments));
+            case "GET work-period-types" -> data(this.catalog(ReferenceData.FIXED_SCHEDULE, ReferenceData.VARIABLE_FREQUENCY));
+            case "GET work-period-max-durations" -> data(this.arrayOf(mapper.createObjectNode().put("id", 1).put("name", "48 horas")
+                    .put("duration", 48).put("keyword", ReferenceData.MAX_DURATION_KEYWORD)));
+            case "GET work-period-max-daily-durations" -> data(this.arrayOf(mapper.createObjectNode().put("id", 1)
+                    .put("name", ReferenceData.MAX_DAILY_DURATION + " horas").put("duration", ReferenceData.MAX_DAILY_DURATION)));
+            case "GET durations" -> data(this.arrayOf(mapper.createObjectNode().put("id", 1)
+                    .put("name", ReferenceData.TURN_DURATION + " minutos").put("amount", ReferenceData.TURN_DURATION)));
+            case "GET work-turn-types" -> data(this.catalog(ReferenceData.WORK_TURN_TYPES));
+            case "GET organization-entities" -> data(this.orgEntities(Long.parseLong(segments[1]), Long.parseLong(segments[3]),
+                    Integer.parseInt(query.getOrDefault("page", "0")), Integer.parseInt(query.getOrDefault("size", "200"))));
+            case "GET model-names", "GET compensation-categories", "GET compensation-tabs", "GET work-position-categories" ->
+                    data(mapper.createArrayNode());
+            case "GET work-periods" -> data(null);
+            case "POST cost-centers", "POST work-position-categories" -> data(this.created(body, "code", "denomination"));
+            case "POST stores" -> data(segments.length > 2 ? (Object) this.created(null) : this.created(body, "code", "denomination"));
+            case "POST work-positions" -> data(mapper.createObjectNode().set("workPosition", this.created(body, "denomination")));
+            case "POST profiles" -> data(this.created(null));
+            case "POST work-periods" -> data(this.created(body, "name"));
+            case "POST compensation-categories", "POST compensation-tabs", "PATCH profiles" -> null;
+            default -> throw new IllegalArgumentException("Route " + method + " /" + String.join("/", segments) + " not found");
+        };
+    }
+
+    private ArrayNode countries(String[] segments) {
+        if (segments.length == 1) {
+            return this.arrayOf(place(ReferenceData.COUNTRY_ID, ReferenceData.COUNTRY));
+        }
+        ArrayNode places = mapper.createArrayNode();
+        if (segments.length == 3) {
+            for (int s = 0; s < ReferenceData.STATES.length; s++) {
+                places.add(place(ReferenceData.stateId(s), ReferenceData.STATES[s]));
+            }
+        } else {
+            int state = (int) (Long.parseLong(segments[3]) - ReferenceData.stateId(0));
+            for (int c = 0; c < ReferenceData.CITIES_PER_STATE; c++) {
+                places.add(place(ReferenceData.cityId(state, c), ReferenceData.city(state, c)));
+            }
+        }
+        return places;
+    }
+
+    private ObjectNode orgEntities(long entityType, long parentId, int page, int size) {
+        List<Object[]> entities = ReferenceData.orgEntities(entityType, parentId);
+        int from = Math.min(page * size, entities.size());
+        int to = Math.min(from + size, entities.size());
+        ArrayNode content = mapper.createArrayNode();
+        for (Object[] entity : entities.subList(from, to)) {
+            content.add(place((Long) entity[1], (String) entity[0]));
+        }
+        int totalPages = (entities.size() + size - 1) / size;
+        ObjectNode result = mapper.createObjectNode();
+        result.set("content", content);
+        return result.put("number", page).put("totalPages", totalPages).put("last", page + 1 >= totalPages);
+    }
+
+    private ArrayNode catalog(String... names) {
+        ArrayNode catalog = mapper.createArrayNode();
+        for (int i = 0; i < names.length; i++) {
+            catalog.add(place(i + 1L, names[i]));
+        }
+        return catalog;
+    }
+
+    /**
+     * Alta con un id nuevo que devuelve los campos recibidos que core-api repite en su respuesta.
+     */
+    private ObjectNode created(JsonNode request, String... echoed) {
+        ObjectNode created = mapper.createObjectNode().put("id", ids.incrementAndGet());
+        for (String field : echoed) {
+            if (request != null && request.hasNonNull(field)) {
+                created.set(field, request.get(field));
+            }
+        }
+        return created;
+    }
+
+    private ArrayNode arrayOf(ObjectNode item) {
+        return mapper.createArrayNode().add(item);
+    }
+
+    private ObjectNode place(long id, String name) {
+        return mapper.createObjectNode().put("id", id).put("name", name);
+    }
+
+    private ObjectNode data(Object value) {
+        ObjectNode response = mapper.createObjectNode();
+        response.set("data", value == null ? null : mapper.valueToTree(value));
+        return response;
+    }
+
+    private JsonNode readBody(InputStream in) throws IOException {
+        byte[] bytes = in.readAllBytes();
+        return bytes.length == 0 ? null : mapper.readTree(bytes);
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Ruta sin los ids, para agrupar las peticiones: stores/{id}/details queda como stores/*&#47;details.
+     */
+    private static String route(String[] segments) {
+        StringBuilder route = new StringBuilder();
+        for (String segment : segments) {
+            route.append('/').append(!segment.isEmpty() && Character.isDigit(segment.charAt(0)) ? "*" : segment);
+        }
+        return route.toString();
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    query.put(pair.substring(0, equals), java.net.URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Ventana fija de un segundo: alcanza para reproducir los 429 de un gateway.
+     */
+    private static final class RateLimit {
+
+        private final int perSecond;
+        private long window;
+        private int used;
+
+        RateLimit(int perSecond) {
+            this.perSecond = perSecond;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime() / 1_000_000_000L;
+            if (now != window) {
+                window = now;
+                used = 0;
+            }
+            return ++used <= perSecond;
+        }
+    }
+
+    @Getter
+    public static final class Stats {
+
+        private final Map<String, Long> requests;
+        private final long injectedErrors;
+        private final long throttled;
+
+        Stats(Map<String, Long> requests, long injectedErrors, long throttled) {
+            this.requests = requests;
+            this.injectedErrors = injectedErrors;
+            this.throttled = throttled;
+        }
+
+        public long total() {
+            return requests.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
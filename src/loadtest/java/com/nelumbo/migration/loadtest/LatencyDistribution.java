@@ -0,0 +1,91 @@
+package com.nelumbo.migration.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latencia que agrega el stub a cada respuesta, en milisegundos. Se escribe como:
+ * <ul>
+ *     <li>{@code none}</li>
+ *     <li>{@code fixed:20}</li>
+ *     <li>{@code uniform:5-50}</li>
+ *     <li>{@code lognormal:20:200}: mediana y p99, con la cola larga de un servicio real</li>
+ * </ul>
+ */
+public abstract class LatencyDistribution {
+
+    /** z de la normal estándar en el percentil 99. */
+    private static final double Z_99 = 2.326348;
+
+    public static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        return switch (parts[0]) {
+            case "none" -> fixed(0);
+            case "fixed" -> fixed(Double.parseDouble(parts[1]));
+            case "uniform" -> {
+                String[] range = parts[1].split("-");
+                yield uniform(Double.parseDouble(range[0]), Double.parseDouble(range[1]));
+            }
+            case "lognormal" -> lognormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            default -> throw new IllegalArgumentException("Latency distribution " + spec + " not found");
+        };
+    }
+
+    public static LatencyDistribution fixed(double millis) {
+        return new LatencyDistribution(spec("fixed", millis)) {
+            @Override
+            public double nextMillis() {
+                return millis;
+            }
+        };
+    }
+
+    public static LatencyDistribution uniform(double minMillis, double maxMillis) {
+        return new LatencyDistribution("uniform:" + minMillis + "-" + maxMillis) {
+            @Override
+            public double nextMillis() {
+                return minMillis + ThreadLocalRandom.current().nextDouble() * (maxMillis - minMillis);
+            }
+        };
+    }
+
+    public static LatencyDistribution lognormal(double medianMillis, double p99Millis) {
+        if (medianMillis <= 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("Lognormal latency needs 0 < median <= p99");
+        }
+        double mu = Math.log(medianMillis);
+        double sigma = Math.log(p99Millis / medianMillis) / Z_99;
+        return new LatencyDistribution("lognormal:" + medianMillis + ":" + p99Millis) {
+            @Override
+            public double nextMillis() {
+                return Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+            }
+        };
+    }
+
+    private final String description;
+
+    private LatencyDistribution(String description) {
+        this.description = description;
+    }
+
+    public abstract double nextMillis();
+
+    /**
+     * Espera la latencia sorteada; el stub atiende cada petición en su propio hilo.
+     */
+    public void sleep() throws InterruptedException {
+        long nanos = (long) (this.nextMillis() * 1_000_000);
+        if (nanos > 0) {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private static String spec(String name, double millis) {
+        return millis == 0 ? "none" : name + ":" + millis;
+    }
+}
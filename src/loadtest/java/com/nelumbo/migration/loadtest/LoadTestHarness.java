@@ -0,0 +1,305 @@
+package com.nelumbo.migration.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nelumbo.migration.MigrationApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga de punta a punta: levanta el {@link CoreApiStub}, arranca la aplicación
+ * completa apuntando a él, sube el libro de {@link LoadWorkbooks} a cada endpoint de
+ * {@code MigrationController} y espera cada trabajo consultando {@code /migration/jobs/{id}}.
+ * Por endpoint informa filas por segundo, p50/p99 por fila de {@code migration.rows.duration},
+ * el heap y lo que recibió el stub. Se corre con {@code gradle loadTest}; argumentos con
+ * {@code -PloadTest="..."}:
+ * <ul>
+ *     <li>{@code --rows=1000}: filas de cada hoja</li>
+ *     <li>{@code --latency=lognormal:20:200}: ver {@link LatencyDistribution}</li>
+ *     <li>{@code --error-rate=0.01}: fracción de respuestas 500 del stub</li>
+ *     <li>{@code --rate-limit=500}: peticiones por segundo antes de responder 429 (0 sin límite)</li>
+ *     <li>{@code --result=outcomes}: formato de resultado de cada carga</li>
+ *     <li>{@code --endpoints=cost-centers,stores}: solo esos endpoints, en ese orden</li>
+ *     <li>{@code --app.<propiedad>=<valor>}: propiedad de la aplicación, p. ej.
+ *     {@code --app.migration.dispatch.concurrency=32}</li>
+ * </ul>
+ * El stub corre en la misma JVM, así que el heap medido incluye el suyo (pequeño: no guarda
+ * nada por petición). Los logs de la aplicación quedan en warn salvo que se pida otro nivel.
+ */
+public final class LoadTestHarness {
+
+    /**
+     * Endpoints en el orden en que se pueden cargar: cada hoja referencia lo que cargaron las anteriores.
+     */
+    private static final List<String> ENDPOINTS = List.of("load-compensations", "load-tabs", "load-work-position-categories",
+            "load-work-periods", "cost-centers", "stores", "stores-org-entities-details", "work-positions", "profiles",
+            "stores-work-periods", "workbook");
+
+    private static final String EXCEL = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final long POLL_MILLIS = 100;
+    private static final long PROGRESS_MILLIS = 5000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final String baseUrl;
+    private final MeterRegistry registry;
+    private final CoreApiStub stub;
+    private final String result;
+
+    private LoadTestHarness(String baseUrl, MeterRegistry registry, CoreApiStub stub, String result) {
+        this.baseUrl = baseUrl;
+        this.registry = registry;
+        this.stub = stub;
+        this.result = result;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argument " + arg + " is not --name=value");
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith("app.")) {
+                properties.put(name.substring(4), value);
+            } else {
+                options.put(name, value);
+            }
+        }
+        int rows = Integer.parseInt(options.getOrDefault("rows", "1000"));
+        List<String> endpoints = options.containsKey("endpoints")
+                ? Arrays.asList(options.get("endpoints").split(",")) : ENDPOINTS;
+
+        Path dir = Files.createTempDirectory("migration-loadtest");
+        Path workbook = LoadWorkbooks.write(dir, rows);
+        System.out.println("Libro de prueba: " + workbook + " (" + Files.size(workbook) / 1024 + " KB, " + rows + " filas por hoja)");
+
+        int exitCode;
+        try (CoreApiStub stub = new CoreApiStub(LatencyDistribution.parse(options.getOrDefault("latency", "none")),
+                Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                Integer.parseInt(options.getOrDefault("rate-limit", "0")));
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(MigrationApplication.class)
+                     .run(appArguments(dir, stub.getPort(), properties))) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            LoadTestHarness harness = new LoadTestHarness("http://localhost:" + port, context.getBean(MeterRegistry.class),
+                    stub, options.get("result"));
+            stub.drainStats();
+            List<Report> reports = new ArrayList<>();
+            for (String endpoint : endpoints) {
+                reports.add(harness.run(endpoint.trim(), workbook));
+            }
+            print(reports);
+            exitCode = reports.stream().allMatch(report -> "COMPLETED".equals(report.status)) ? 0 : 1;
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Propiedades de la aplicación como argumentos de línea de comandos, que tienen prioridad
+     * sobre application.yml. Todo lo que la aplicación escribe en disco va al directorio
+     * temporal de la corrida, así que cada corrida arranca sin ids ni diarios de las anteriores.
+     */
+    private static String[] appArguments(Path dir, int stubPort, Map<String, Object> overrides) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("core-api.url", "localhost:" + stubPort + "/core-api");
+        properties.put("server.port", 0);
+        properties.put("email", "loadtest@example.com");
+        properties.put("password", "loadtest");
+        properties.put("migration.jobs.spool-dir", dir.resolve("uploads").toString());
+        properties.put("migration.jobs.outcomes-dir", dir.resolve("outcomes").toString());
+        properties.put("migration.artifacts.dir", dir.resolve("artifacts").toString());
+        properties.put("migration.registry.dir", dir.resolve("registry").toString());
+        properties.put("migration.journal.dir", dir.resolve("journal").toString());
+        properties.put("migration.gazetteer.snapshot-path", dir.resolve("gazetteer.json").toString());
+        properties.put("logging.file.name", dir.resolve("migration.log").toString());
+        properties.put("logging.level.root", "warn");
+        properties.put("management.metrics.distribution.percentiles.migration.rows.duration", "0.5,0.99");
+        properties.putAll(overrides);
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    private Report run(String endpoint, Path workbook) throws IOException, InterruptedException {
+        resetHeapPeaks();
+        long start = System.nanoTime();
+        JsonNode job = this.submit(endpoint, workbook);
+        String id = job.get("id").asText();
+        long maxHeapUsed = 0;
+        long lastProgress = start;
+        while (!finished(job)) {
+            Thread.sleep(POLL_MILLIS);
+            maxHeapUsed = Math.max(maxHeapUsed, memory.getHeapMemoryUsage().getUsed());
+            job = this.get("/migration/jobs/" + id);
+            if (System.nanoTime() - lastProgress > TimeUnit.MILLISECONDS.toNanos(PROGRESS_MILLIS)) {
+                lastProgress = System.nanoTime();
+                System.out.println(endpoint + ": " + job.get("processed").asLong() + " filas, " + job.get("status").asText());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Report report = new Report(endpoint, job.get("status").asText(), job.path("error").asText(null),
+                job.get("processed").asLong(), job.get("failed").asLong(), job.get("retries").asLong(), seconds,
+                maxHeapUsed, heapPeaks(), stub.drainStats());
+        for (Timer timer : registry.find("migration.rows.duration").tag("type", endpoint).timers()) {
+            report.sheets.add(new SheetLatency(timer.getId().getTag("sheet"), timer.takeSnapshot()));
+        }
+        System.out.println(endpoint + ": " + report.status + " en " + String.format("%.1f", seconds) + " s");
+        return report;
+    }
+
+    /**
+     * Sube el libro como multipart, armado a mano para no sumar dependencias al cliente.
+     */
+    private JsonNode submit(String endpoint, Path workbook) throws IOException, InterruptedException {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + workbook.getFileName() + "\"\r\n"
+                + "Content-Type: " + EXCEL + "\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/migration/" + endpoint
+                        + (result != null ? "?result=" + result : "")))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.concat(HttpRequest.BodyPublishers.ofString(head),
+                        HttpRequest.BodyPublishers.ofFile(workbook), HttpRequest.BodyPublishers.ofString(tail)))
+                .build();
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 202) {
+            throw new IllegalStateException("Migration " + endpoint + " answered " + response.statusCode() + ": "
+                    + new String(response.body()));
+        }
+        return mapper.readTree(response.body());
+    }
+
+    private JsonNode get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        return mapper.readTree(response.body());
+    }
+
+    private static boolean finished(JsonNode job) {
+        String status = job.get("status").asText();
+        return "COMPLETED".equals(status) || "FAILED".equals(status) || "CANCELLED".equals(status);
+    }
+
+    private static void resetHeapPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Suma de los picos de cada pool del heap: cota superior, como en los benchmarks de src/jmh.
+     */
+    private static long heapPeaks() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void print(List<Report> reports) {
+        System.out.println();
+        System.out.printf("%-30s %-10s %9s %7s %8s %9s %8s %12s %12s%n", "endpoint", "estado", "filas", "fallas",
+                "reintentos", "filas/s", "seg", "heap máx MB", "heap pico MB");
+        for (Report report : reports) {
+            System.out.printf("%-30s %-10s %9d %7d %8d %9.1f %8.1f %12.1f %12.1f%n", report.endpoint, report.status,
+                    report.processed, report.failed, report.retries, report.processed / report.seconds, report.seconds,
+                    report.maxHeapUsed / (1024.0 * 1024.0), report.heapPeak / (1024.0 * 1024.0));
+        }
+
+        System.out.println();
+        System.out.printf("%-30s %-26s %9s %10s %10s %10s%n", "endpoint", "hoja", "filas", "media ms", "p50 ms", "p99 ms");
+        for (Report report : reports) {
+            for (SheetLatency sheet : report.sheets) {
+                System.out.printf("%-30s %-26s %9d %10.2f %10.2f %10.2f%n", report.endpoint, sheet.sheet,
+                        sheet.snapshot.count(), sheet.snapshot.mean(TimeUnit.MILLISECONDS),
+                        sheet.percentile(0.5), sheet.percentile(0.99));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-30s %10s %8s %8s  %s%n", "endpoint", "peticiones", "500", "429", "rutas");
+        for (Report report : reports) {
+            System.out.printf("%-30s %10d %8d %8d  %s%n", report.endpoint, report.stubStats.total(),
+                    report.stubStats.getInjectedErrors(), report.stubStats.getThrottled(), report.stubStats.getRequests());
+        }
+        for (Report report : reports) {
+            if (report.error != null) {
+                System.out.println(report.endpoint + ": " + report.error);
+            }
+        }
+    }
+
+    private static final class Report {
+
+        private final String endpoint;
+        private final String status;
+        private final String error;
+        private final long processed;
+        private final long failed;
+        private final long retries;
+        private final double seconds;
+        private final long maxHeapUsed;
+        private final long heapPeak;
+        private final CoreApiStub.Stats stubStats;
+        private final List<SheetLatency> sheets = new ArrayList<>();
+
+        Report(String endpoint, String status, String error, long processed, long failed, long retries, double seconds,
+               long maxHeapUsed, long heapPeak, CoreApiStub.Stats stubStats) {
+            this.endpoint = endpoint;
+            this.status = status;
+            this.error = error;
+            this.processed = processed;
+            this.failed = failed;
+            this.retries = retries;
+            this.seconds = seconds;
+            this.maxHeapUsed = maxHeapUsed;
+            this.heapPeak = heapPeak;
+            this.stubStats = stubStats;
+        }
+    }
+
+    private record SheetLatency(String sheet, HistogramSnapshot snapshot) {
+
+        double percentile(double percentile) {
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                if (value.percentile() == percentile) {
+                    return value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
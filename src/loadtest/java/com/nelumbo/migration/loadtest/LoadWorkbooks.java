@@ -0,0 +1,279 @@
+package com.nelumbo.migration.loadtest;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Libro completo para la prueba de carga, con las once hojas en el orden que espera
+ * {@code /migration/workbook}: las seis de la migración por posición y las de catálogos por
+ * nombre. Cada hoja tiene {@code rows} filas y sus referencias apuntan a filas de las hojas
+ * anteriores y a {@link ReferenceData}, así que con el stub todas las filas se cargan.
+ */
+final class LoadWorkbooks {
+
+    /** Departamentos de cada sucursal; los cargos usan el primero. */
+    private static final int DEPARTMENTS_PER_STORE = 2;
+    /** Campos adicionales de compensaciones, tabuladores y categorías de cargos. */
+    private static final int EXTRA_FIELDS = 6;
+
+    private LoadWorkbooks() {
+    }
+
+    static Path write(Path dir, int rows) throws IOException {
+        Path file = dir.resolve("loadtest_" + rows + ".xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(200);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            workbook.setCompressTempFiles(true);
+            CellStyle timeStyle = workbook.createCellStyle();
+            timeStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("HH:mm"));
+
+            costCenters(workbook.createSheet("centro de costos"), rows);
+            stores(workbook.createSheet("sucursales"), rows);
+            storeOrgEntities(workbook.createSheet("sucursal_org_entities"), rows);
+            workPositions(workbook.createSheet("cargos"), rows);
+            profiles(workbook.createSheet("perfiles"), rows);
+            storeWorkPeriods(workbook.createSheet("sucursal_jornadas"), rows);
+            catalog(workbook.createSheet("compensation_categories"), rows, "Compensación ");
+            tabs(workbook.createSheet("compensation_tab"), rows);
+            catalog(workbook.createSheet("work_position_categories"), rows, "Categoría ");
+            workPeriods(workbook.createSheet("work_periods"), rows);
+            workTurns(workbook.createSheet("work_turns"), rows, timeStyle);
+
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    private static void costCenters(Sheet sheet, int rows) {
+        header(sheet, "code", "denomination", "country", "state", "city");
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(10000 + i);
+            row.createCell(1).setCellValue(costCenter(i));
+            location(row, 2, i);
+        }
+    }
+
+    private static void stores(Sheet sheet, int rows) {
+        header(sheet, "code", "denomination", "country", "state", "city", "address", "zipcode", "latitude", "longitude",
+                "georef_distance", "cost_center");
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(20000 + i);
+            row.createCell(1).setCellValue(store(i));
+            location(row, 2, i);
+            row.createCell(5).setCellValue("Avenida " + i);
+            row.createCell(6).setCellValue(44100 + i % 900);
+            row.createCell(7).setCellValue(20.6 + i % 100 / 1000.0);
+            row.createCell(8).setCellValue(-103.3 - i % 100 / 1000.0);
+            row.createCell(9).setCellValue(100);
+            row.createCell(10).setCellValue(costCenter(i));
+        }
+    }
+
+    private static void storeOrgEntities(Sheet sheet, int rows) {
+        header(sheet, "store", "region", "division", "zone", "departments");
+        for (int i = 0; i < rows; i++) {
+            int region = i % ReferenceData.REGIONS;
+            int division = i % ReferenceData.DIVISIONS_PER_REGION;
+            int zone = i % ReferenceData.ZONES_PER_DIVISION;
+            StringBuilder departments = new StringBuilder();
+            for (int d = 0; d < DEPARTMENTS_PER_STORE; d++) {
+                departments.append(d == 0 ? "" : ",").append(ReferenceData.department(department(i) + d));
+            }
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(store(i));
+            row.createCell(1).setCellValue(ReferenceData.region(region));
+            row.createCell(2).setCellValue(ReferenceData.division(region, division));
+            row.createCell(3).setCellValue(ReferenceData.zone(region, division, zone));
+            row.createCell(4).setCellValue(departments.toString());
+        }
+    }
+
+    private static void workPositions(Sheet sheet, int rows) {
+        header(sheet, "code", "denomination", "authorized_staff", "category", "store", "department");
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(30000 + i);
+            row.createCell(1).setCellValue(workPosition(i));
+            row.createCell(2).setCellValue(1 + i % 5);
+            row.createCell(3).setCellValue("Categoría " + i);
+            row.createCell(4).setCellValue(store(i));
+            row.createCell(5).setCellValue(ReferenceData.department(department(i)));
+        }
+    }
+
+    /**
+     * Las columnas que la carga de perfiles no lee quedan vacías, como en los archivos reales.
+     */
+    private static void profiles(Sheet sheet, int rows) {
+        header(sheet, "clave", "primer_nombre", "segundo_nombre", "primer_apellido", "segundo_apellido", "sexo", "rfc",
+                "curp", "", "", "", "", "grupo_sanguineo", "fecha_nacimiento", "estado_civil", "fecha_contratacion", "",
+                "email", "telefono", "direccion", "pais", "estado", "ciudad", "", "", "cargo");
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(100000 + i);
+            row.createCell(1).setCellValue("Nombre" + i);
+            row.createCell(2).setCellValue("Segundo" + i);
+            row.createCell(3).setCellValue("Apellido" + i);
+            row.createCell(4).setCellValue("Materno" + i);
+            row.createCell(5).setCellValue(i % 2 == 0 ? "F" : "M");
+            row.createCell(6).setCellValue("RFC" + i);
+            row.createCell(7).setCellValue("CURP" + i);
+            row.createCell(12).setCellValue("O+");
+            row.createCell(13).setCellValue(String.format("%02d/%02d/19%02d", 1 + i % 28, 1 + i % 12, 50 + i % 50));
+            row.createCell(14).setCellValue("Soltero");
+            row.createCell(15).setCellValue(String.format("%02d/%02d/20%02d", 1 + i % 28, 1 + i % 12, i % 24));
+            row.createCell(17).setCellValue("persona" + i + "@example.com");
+            row.createCell(18).setCellValue(33000000 + i);
+            row.createCell(19).setCellValue("Calle " + i);
+            location(row, 20, i);
+            row.createCell(25).setCellValue(workPosition(i));
+        }
+    }
+
+    private static void storeWorkPeriods(Sheet sheet, int rows) {
+        header(sheet, "store", "work_periods");
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(store(i));
+            row.createCell(1).setCellValue(workPeriod(i) + "," + workPeriod((i + 1) % rows));
+        }
+    }
+
+    /**
+     * Compensaciones y categorías de cargos: code, denomination, status y campos adicionales.
+     */
+    private static void catalog(Sheet sheet, int rows, String prefix) {
+        String[] names = new String[3 + EXTRA_FIELDS];
+        names[0] = "code";
+        names[1] = "denomination";
+        names[2] = "status";
+        fieldNames(names, 3);
+        header(sheet, names);
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(40000 + i);
+            row.createCell(1).setCellValue(prefix + i);
+            row.createCell(2).setCellValue(i % 10 == 0 ? "inactive" : "active");
+            fields(row, 3, i);
+        }
+    }
+
+    private static void tabs(Sheet sheet, int rows) {
+        String[] names = new String[5 + EXTRA_FIELDS];
+        names[0] = "code";
+        names[1] = "denomination";
+        names[2] = "status";
+        names[3] = "min_authorized_salary";
+        names[4] = "max_authorized_salary";
+        fieldNames(names, 5);
+        header(sheet, names);
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(50000 + i);
+            row.createCell(1).setCellValue("Tabulador " + i);
+            row.createCell(2).setCellValue("active");
+            row.createCell(3).setCellValue(8000 + i % 1000);
+            row.createCell(4).setCellValue(20000 + i % 1000);
+            fields(row, 5, i);
+        }
+    }
+
+    /**
+     * Las jornadas pares son de horario fijo y las impares de frecuencia variable.
+     */
+    private static void workPeriods(Sheet sheet, int rows) {
+        header(sheet, "name", "period_type", "keyword_max_duracion", "max_daily_duration");
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(workPeriod(i));
+            row.createCell(1).setCellValue(i % 2 == 0 ? "Horario Fijo" : "Frecuencia Variable");
+            row.createCell(2).setCellValue(ReferenceData.MAX_DURATION_KEYWORD);
+            row.createCell(3).setCellValue(ReferenceData.MAX_DAILY_DURATION);
+        }
+    }
+
+    /**
+     * Dos turnos por jornada: un día laboral de 09:00 a 17:00 y uno de descanso.
+     */
+    private static void workTurns(Sheet sheet, int rows, CellStyle timeStyle) {
+        header(sheet, "work_period", "from", "to", "day_of_week", "type", "duration");
+        int next = 1;
+        for (int i = 0; i < rows; i++) {
+            for (int turn = 0; turn < ReferenceData.WORK_TURN_TYPES.length; turn++) {
+                Row row = sheet.createRow(next++);
+                row.createCell(0).setCellValue(workPeriod(i));
+                row.createCell(1).setCellValue(9 / 24.0);
+                row.getCell(1).setCellStyle(timeStyle);
+                row.createCell(2).setCellValue(17 / 24.0);
+                row.getCell(2).setCellStyle(timeStyle);
+                row.createCell(3).setCellValue(1 + turn + i % 5);
+                row.createCell(4).setCellValue(ReferenceData.WORK_TURN_TYPES[turn]);
+                row.createCell(5).setCellValue(ReferenceData.TURN_DURATION);
+            }
+        }
+    }
+
+    private static void header(Sheet sheet, String... names) {
+        Row row = sheet.createRow(0);
+        for (int c = 0; c < names.length; c++) {
+            row.createCell(c).setCellValue(names[c]);
+        }
+    }
+
+    private static void location(Row row, int column, int i) {
+        int state = i % ReferenceData.STATES.length;
+        row.createCell(column).setCellValue(ReferenceData.COUNTRY);
+        row.createCell(column + 1).setCellValue(ReferenceData.STATES[state]);
+        row.createCell(column + 2).setCellValue(ReferenceData.city(state, i % ReferenceData.CITIES_PER_STATE));
+    }
+
+    private static void fieldNames(String[] names, int from) {
+        for (int f = 0; f < EXTRA_FIELDS; f++) {
+            names[from + f] = "field_" + f;
+        }
+    }
+
+    /**
+     * Campos adicionales alternando texto y número.
+     */
+    private static void fields(Row row, int from, int i) {
+        for (int f = 0; f < EXTRA_FIELDS; f++) {
+            if (f % 2 == 0) {
+                row.createCell(from + f).setCellValue("valor " + i + "_" + f);
+            } else {
+                row.createCell(from + f).setCellValue(i * 1.5 + f);
+            }
+        }
+    }
+
+    private static int department(int store) {
+        return store % (ReferenceData.DEPARTMENTS - DEPARTMENTS_PER_STORE + 1);
+    }
+
+    private static String costCenter(int i) {
+        return "Centro " + i;
+    }
+
+    private static String store(int i) {
+        return "Sucursal " + i;
+    }
+
+    private static String workPosition(int i) {
+        return "Cargo " + i;
+    }
+
+    private static String workPeriod(int i) {
+        return "Jornada " + i;
+    }
+}
@@ -0,0 +1,102 @@
+package com.nelumbo.migration.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de referencia que el stub de core-api devuelve y que los libros generados usan: el
+ * árbol geográfico, la jerarquía de entidades organizativas y los catálogos de jornadas.
+ * Los ids se derivan de la posición, así que stub y libros coinciden sin compartir estado.
+ */
+final class ReferenceData {
+
+    static final String COUNTRY = "México";
+    static final long COUNTRY_ID = 1;
+    static final String[] STATES = {"Jalisco", "Nuevo León", "Puebla", "Yucatán"};
+    static final int CITIES_PER_STATE = 5;
+
+    static final int REGIONS = 4;
+    static final int DIVISIONS_PER_REGION = 3;
+    static final int ZONES_PER_DIVISION = 3;
+    static final int DEPARTMENTS = 10;
+
+    // Tipos de entidad organizativa que pide la carga de sucursal_org_entities
+    static final long REGION = 2;
+    static final long DIVISION = 3;
+    static final long ZONE = 4;
+    static final long DEPARTMENT = 5;
+
+    static final String FIXED_SCHEDULE = "Fixed Scheduled/Regular shift";
+    static final String VARIABLE_FREQUENCY = "Variable frecuency shift";
+    static final String MAX_DURATION_KEYWORD = "MAX48";
+    static final int MAX_DAILY_DURATION = 8;
+    static final int TURN_DURATION = 60;
+    static final String[] WORK_TURN_TYPES = {"Laboral", "Descanso"};
+
+    private ReferenceData() {
+    }
+
+    static long stateId(int state) {
+        return 10 + state;
+    }
+
+    static String city(int state, int city) {
+        return "Ciudad " + (state + 1) + "-" + (city + 1);
+    }
+
+    static long cityId(int state, int city) {
+        return 100 + state * CITIES_PER_STATE + city;
+    }
+
+    static String region(int region) {
+        return "Región " + region;
+    }
+
+    static String division(int region, int division) {
+        return "División " + region + "." + division;
+    }
+
+    static String zone(int region, int division, int zone) {
+        return "Zona " + region + "." + division + "." + zone;
+    }
+
+    static String department(int department) {
+        return "Departamento " + department;
+    }
+
+    /**
+     * Instancias de un tipo de entidad bajo un padre, como las pagina core-api: nombre e id.
+     */
+    static List<Object[]> orgEntities(long entityType, long parentId) {
+        List<Object[]> entities = new ArrayList<>();
+        if (entityType == REGION && parentId == 1) {
+            for (int r = 0; r < REGIONS; r++) {
+                entities.add(new Object[]{region(r), regionId(r)});
+            }
+        } else if (entityType == DIVISION && parentId >= regionId(0) && parentId < regionId(REGIONS)) {
+            int r = (int) (parentId - regionId(0));
+            for (int d = 0; d < DIVISIONS_PER_REGION; d++) {
+                entities.add(new Object[]{division(r, d), divisionId(r, d)});
+            }
+        } else if (entityType == ZONE && parentId >= divisionId(0, 0) && parentId < divisionId(REGIONS, 0)) {
+            int r = (int) (parentId - divisionId(0, 0)) / 10;
+            int d = (int) (parentId - divisionId(0, 0)) % 10;
+            for (int z = 0; z < ZONES_PER_DIVISION; z++) {
+                entities.add(new Object[]{zone(r, d, z), divisionId(r, d) * 10 + z});
+            }
+        } else if (entityType == DEPARTMENT) {
+            for (int k = 0; k < DEPARTMENTS; k++) {
+                entities.add(new Object[]{department(k), 500L + k});
+            }
+        }
+        return entities;
+    }
+
+    private static long regionId(int region) {
+        return 200 + region;
+    }
+
+    private static long divisionId(int region, int division) {
+        return 3000 + region * 10L + division;
+    }
+}
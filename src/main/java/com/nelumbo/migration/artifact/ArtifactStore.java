@@ -0,0 +1,148 @@
+package com.nelumbo.migration.artifact;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Archivos de resultado de los trabajos (libros modificados y zips). Cada archivo va en su
+ * propio directorio dentro de {@code migration.artifacts.dir}, así que dos cargas con el mismo
+ * nombre de archivo no se pisan y el nombre original se conserva para la descarga.
+ * <p>
+ * Antes de crear un archivo se borran los que pasaron el ttl y, si aun así el directorio
+ * supera {@code max-size}, los más viejos hasta volver al límite.
+ */
+@Slf4j
+@Component
+public class ArtifactStore {
+
+    private final Path directory;
+    private final Duration ttl;
+    private final long maxBytes;
+
+    public ArtifactStore(@Value("${migration.artifacts.dir:./migration-data/artifacts}") Path directory,
+                         @Value("${migration.artifacts.ttl:24h}") Duration ttl,
+                         @Value("${migration.artifacts.max-size:2GB}") DataSize maxSize) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.ttl = ttl;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Ruta nueva y única para un archivo con ese nombre; el archivo todavía no existe.
+     */
+    public File newFile(String fileName) throws IOException {
+        this.evict();
+        Path artifactDir = Files.createDirectories(directory.resolve(UUID.randomUUID().toString()));
+        return artifactDir.resolve(safeName(fileName)).toFile();
+    }
+
+    /**
+     * Borra el archivo y su directorio si es del store; cualquier otro archivo se ignora.
+     */
+    public synchronized void delete(File artifact) {
+        if (artifact == null) {
+            return;
+        }
+        Path artifactDir = artifact.toPath().toAbsolutePath().normalize().getParent();
+        if (artifactDir != null && directory.equals(artifactDir.getParent())) {
+            this.deleteDir(artifactDir);
+        }
+    }
+
+    synchronized void evict() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(directory)) {
+            for (Path dir : (Iterable<Path>) dirs::iterator) {
+                if (Files.isDirectory(dir)) {
+                    try {
+                        entries.add(this.entry(dir));
+                    } catch (IOException e) {
+                        log.debug("Skipping artifact " + dir + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::modified));
+
+        Instant expired = Instant.now().minus(ttl);
+        long total = entries.stream().mapToLong(Entry::bytes).sum();
+        int evicted = 0;
+        long freed = 0;
+        for (Entry entry : entries) {
+            if (!entry.modified().isBefore(expired) && total <= maxBytes) {
+                break;
+            }
+            if (this.deleteDir(entry.dir())) {
+                total -= entry.bytes();
+                freed += entry.bytes();
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.info("Se borraron " + evicted + " archivos de resultado (" + freed / 1024 + " KB), quedan " + total / 1024 + " KB");
+        }
+    }
+
+    private Entry entry(Path dir) throws IOException {
+        long bytes = 0;
+        Instant modified = Files.getLastModifiedTime(dir).toInstant();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                bytes += Files.size(file);
+                Instant fileModified = Files.getLastModifiedTime(file).toInstant();
+                if (fileModified.isAfter(modified)) {
+                    modified = fileModified;
+                }
+            }
+        }
+        return new Entry(dir, bytes, modified);
+    }
+
+    private boolean deleteDir(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not delete artifact " + dir + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Solo el nombre, sin directorios que pudiera traer el nombre original del archivo subido.
+     */
+    private static String safeName(String fileName) {
+        Path name;
+        try {
+            name = fileName == null ? null : Paths.get(fileName.replace('\\', '/')).getFileName();
+        } catch (InvalidPathException e) {
+            name = null;
+        }
+        return name == null || name.toString().isBlank() || name.toString().equals("..") ? "result" : name.toString();
+    }
+
+    private record Entry(Path dir, long bytes, Instant modified) {
+    }
+}
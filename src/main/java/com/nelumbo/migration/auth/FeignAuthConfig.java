@@ -0,0 +1,57 @@
+package com.nelumbo.migration.auth;
+
+import com.nelumbo.migration.transport.BackoffRetryer;
+import com.nelumbo.migration.transport.RetryProperties;
+import com.nelumbo.migration.transport.TransientErrorDecoder;
+import feign.RequestInterceptor;
+import feign.RetryableException;
+import feign.codec.ErrorDecoder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collection;
+
+/**
+ * Autenticación de todos los clientes Feign contra core-api. El cliente de login queda fuera:
+ * es el que obtiene el token. {@link TokenManager} se busca de forma perezosa porque depende
+ * del propio cliente de login.
+ */
+@Configuration
+public class FeignAuthConfig {
+
+    /** Nombre del @FeignClient de login. */
+    public static final String LOGIN_CLIENT = "login";
+
+    @Bean
+    public RequestInterceptor authorizationInterceptor(ObjectProvider<TokenManager> tokenManager) {
+        return template -> {
+            if (LOGIN_CLIENT.equals(template.feignTarget().name())) {
+                return;
+            }
+            // En un reintento la plantilla ya trae el token anterior
+            template.removeHeader(HttpHeaders.AUTHORIZATION);
+            template.header(HttpHeaders.AUTHORIZATION, tokenManager.getObject().getAuthorization());
+        };
+    }
+
+    /**
+     * Un 401 invalida el token con el que se hizo la petición y la marca para reintento; el
+     * interceptor pone el token nuevo al repetirla. El resto de errores pasa por
+     * {@link TransientErrorDecoder}; los reintentos los decide {@link BackoffRetryer}.
+     */
+    @Bean
+    public ErrorDecoder unauthorizedErrorDecoder(ObjectProvider<TokenManager> tokenManager, RetryProperties retryProperties) {
+        ErrorDecoder delegate = new TransientErrorDecoder(retryProperties);
+        return (methodKey, response) -> {
+            Collection<String> authorization = response.request().headers().get(HttpHeaders.AUTHORIZATION);
+            if (response.status() != 401 || authorization == null || authorization.isEmpty()) {
+                return delegate.decode(methodKey, response);
+            }
+            tokenManager.getObject().invalidate(authorization.iterator().next());
+            return new RetryableException(response.status(), "Unauthorized, retrying with a new token",
+                    response.request().httpMethod(), (Long) null, response.request());
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.nelumbo.migration.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nelumbo.migration.feign.LoginFeign;
+import com.nelumbo.migration.feign.dto.requests.LoginRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token de core-api compartido por todos los clientes Feign. Se renueva antes de que venza
+ * ({@code refresh-before}) y, si varios hilos lo necesitan a la vez, solo uno hace el login y
+ * el resto espera ese mismo resultado.
+ */
+@Slf4j
+@Component
+public class TokenManager {
+
+    private static final String BEARER = "Bearer ";
+
+    private final LoginFeign loginFeign;
+    private final ObjectMapper objectMapper;
+    private final String email;
+    private final String password;
+    private final Duration defaultTtl;
+    private final Duration refreshBefore;
+
+    private volatile Token current;
+    private final AtomicReference<CompletableFuture<Token>> refreshing = new AtomicReference<>();
+
+    public TokenManager(LoginFeign loginFeign,
+                        ObjectMapper objectMapper,
+                        @Value("${email}") String email,
+                        @Value("${password}") String password,
+                        @Value("${migration.auth.default-ttl:30m}") Duration defaultTtl,
+                        @Value("${migration.auth.refresh-before:1m}") Duration refreshBefore) {
+        this.loginFeign = loginFeign;
+        this.objectMapper = objectMapper;
+        this.email = email;
+        this.password = password;
+        this.defaultTtl = defaultTtl;
+        this.refreshBefore = refreshBefore;
+    }
+
+    /**
+     * Valor del header Authorization ("Bearer ...").
+     */
+    public String getAuthorization() {
+        Token token = current;
+        if (token != null && Instant.now().isBefore(token.expiresAt.minus(refreshBefore))) {
+            return token.authorization;
+        }
+        return refresh().authorization;
+    }
+
+    /**
+     * Descarta el token si sigue siendo el que core-api rechazó. Si otro hilo ya lo renovó no
+     * se hace nada, así una ráfaga de 401 produce un solo login.
+     */
+    public void invalidate(String rejectedAuthorization) {
+        Token token = current;
+        if (token != null && token.authorization.equals(rejectedAuthorization)) {
+            synchronized (this) {
+                if (current == token) {
+                    log.info("Token rechazado por core-api, se hará login de nuevo");
+                    current = null;
+                }
+            }
+        }
+    }
+
+    private Token refresh() {
+        CompletableFuture<Token> mine = new CompletableFuture<>();
+        CompletableFuture<Token> inFlight = refreshing.compareAndExchange(null, mine);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            // Otro hilo pudo terminar el login entre la lectura de current y este punto
+            Token token = current;
+            if (token == null || !Instant.now().isBefore(token.expiresAt.minus(refreshBefore))) {
+                token = login();
+                current = token;
+            }
+            mine.complete(token);
+            return token;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshing.set(null);
+        }
+    }
+
+    private Token login() {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(password);
+        String token = loginFeign.login(loginRequest).getData().getToken();
+        Instant expiresAt = this.expiration(token);
+        log.info("Login en core-api, el token vence en " + Duration.between(Instant.now(), expiresAt).toSeconds() + "s");
+        return new Token(BEARER.concat(token), expiresAt);
+    }
+
+    /**
+     * Lee el claim {@code exp} del JWT; si el token no es un JWT se usa {@code default-ttl}.
+     */
+    private Instant expiration(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length == 3) {
+            try {
+                JsonNode claims = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+                if (claims.hasNonNull("exp")) {
+                    return Instant.ofEpochSecond(claims.get("exp").asLong());
+                }
+            } catch (Exception e) {
+                log.warn("Could not read token expiration: " + e.getMessage());
+            }
+        }
+        return Instant.now().plus(defaultTtl);
+    }
+
+    private static Token join(CompletableFuture<Token> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Token(String authorization, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.nelumbo.migration.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Códigos y denominaciones de un catálogo de core-api (categorías de compensación, tabuladores,
+ * categorías de puesto) para saber si una fila ya existe sin consultar a core-api por cada fila.
+ * El catálogo se pide una vez al crear el índice con una búsqueda vacía. simplified-search no
+ * informa un total, así que la precarga solo se da por completa si se conoce el límite de
+ * resultados de core-api y llegaron menos; si no, o si la búsqueda falla o no devuelve nada, el
+ * índice queda incompleto y las claves que no conoce se consultan con la búsqueda normal, una
+ * vez por clave.
+ * <p>
+ * Las claves se comparan sin distinguir mayúsculas, igual que antes con equalsIgnoreCase. Una
+ * denominación que otra fila de la carga está creando no se da por existente: la fila repetida
+ * espera a que la primera la cree o la libere.
+ */
+@Slf4j
+public class CatalogIndex<T> {
+
+    public enum Claim {
+        /** Ya existe un registro con esa denominación, en core-api o creado por otra fila. */
+        EXISTING,
+        /** Otro registro (de core-api o de otra fila de la carga) ya tiene ese código. */
+        CODE_TAKEN,
+        /** La fila puede crearse; al terminar debe llamar a {@link #created} o {@link #release}. */
+        CLAIMED
+    }
+
+    // Marca de las denominaciones que existen sin id conocido (catálogos que no devuelven id)
+    private static final Long NO_ID = -1L;
+
+    private final String catalogName;
+    private final Function<String, List<T>> search;
+    private final Function<T, String> code;
+    private final Function<T, String> denomination;
+    private final Function<T, Long> id;
+    private final Map<String, Long> denominations = new ConcurrentHashMap<>();
+    private final Set<String> codes = ConcurrentHashMap.newKeySet();
+    private final Set<String> searched = ConcurrentHashMap.newKeySet();
+    // Denominaciones reservadas por filas en vuelo; se completa con true si la fila la creó
+    private final Map<String, CompletableFuture<Boolean>> claimed = new ConcurrentHashMap<>();
+    private final boolean complete;
+
+    /**
+     * @param search      búsqueda simplificada del catálogo
+     * @param searchLimit máximo de resultados que devuelve core-api en una búsqueda; 0 si no se conoce
+     */
+    public CatalogIndex(String catalogName, Function<String, List<T>> search, Function<T, String> code,
+                        Function<T, String> denomination, Function<T, Long> id, int searchLimit) {
+        this.catalogName = catalogName;
+        this.search = search;
+        this.code = code;
+        this.denomination = denomination;
+        this.id = id;
+        this.complete = this.prefetch(searchLimit);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Reserva el código y la denominación para la fila. Con el índice incompleto consulta antes
+     * a core-api las claves que todavía no conoce. Si otra fila tiene reservada la misma
+     * denominación, espera a que esa fila termine.
+     */
+    public Claim claim(String rowCode, String rowDenomination) {
+        String codeKey = key(rowCode);
+        String denominationKey = key(rowDenomination);
+        if (!complete && !denominations.containsKey(denominationKey)) {
+            this.lookup(rowDenomination);
+            if (!denominations.containsKey(denominationKey) && !codes.contains(codeKey)) {
+                this.lookup(rowCode);
+            }
+        }
+
+        while (true) {
+            if (denominations.containsKey(denominationKey)) {
+                return Claim.EXISTING;
+            }
+            CompletableFuture<Boolean> claim = new CompletableFuture<>();
+            CompletableFuture<Boolean> inFlight = claimed.putIfAbsent(denominationKey, claim);
+            if (inFlight != null) {
+                // Si la otra fila la crea queda como existente; si la libera, esta fila la intenta
+                inFlight.join();
+                continue;
+            }
+            // La otra fila pudo terminar entre la consulta y la reserva
+            if (denominations.containsKey(denominationKey)) {
+                this.finish(denominationKey, true);
+                return Claim.EXISTING;
+            }
+            if (!codes.add(codeKey)) {
+                this.finish(denominationKey, false);
+                return Claim.CODE_TAKEN;
+            }
+            return Claim.CLAIMED;
+        }
+    }
+
+    /**
+     * Id del registro con esa denominación, o null si no se conoce.
+     */
+    public Long idOf(String rowDenomination) {
+        Long found = denominations.get(key(rowDenomination));
+        return NO_ID.equals(found) ? null : found;
+    }
+
+    /**
+     * Confirma la reserva de una fila que creó el registro; {@code createdId} puede ser null.
+     */
+    public void created(String rowDenomination, Long createdId) {
+        String denominationKey = key(rowDenomination);
+        denominations.put(denominationKey, createdId != null ? createdId : NO_ID);
+        this.finish(denominationKey, true);
+    }
+
+    /**
+     * Libera la reserva de una fila que no llegó a crearse.
+     */
+    public void release(String rowCode, String rowDenomination) {
+        codes.remove(key(rowCode));
+        this.finish(key(rowDenomination), false);
+    }
+
+    private void finish(String denominationKey, boolean created) {
+        CompletableFuture<Boolean> claim = claimed.remove(denominationKey);
+        if (claim != null) {
+            claim.complete(created);
+        }
+    }
+
+    private boolean prefetch(int searchLimit) {
+        List<T> all;
+        try {
+            all = search.apply("");
+        } catch (RuntimeException e) {
+            log.warn("Could not prefetch catalog " + catalogName + ", checking rows one by one: " + e.getMessage());
+            return false;
+        }
+        if (all == null || all.isEmpty()) {
+            log.info("Catalog " + catalogName + " prefetch returned no records, checking rows one by one");
+            return false;
+        }
+        this.absorb(all);
+        // Sin un límite conocido no se puede saber si core-api cortó la respuesta
+        boolean full = searchLimit > 0 && all.size() < searchLimit;
+        log.info("Catalog " + catalogName + " prefetched with " + all.size() + " records" + (full ? "" : " (may be incomplete)"));
+        return full;
+    }
+
+    private void lookup(String term) {
+        if (searched.add(key(term))) {
+            List<T> found = search.apply(term);
+            if (found != null) {
+                this.absorb(found);
+            }
+        }
+    }
+
+    private void absorb(List<T> records) {
+        for (T rec : records) {
+            String recordCode = code.apply(rec);
+            String recordDenomination = denomination.apply(rec);
+            if (recordCode != null) {
+                codes.add(key(recordCode));
+            }
+            if (recordDenomination != null) {
+                Long recordId = id.apply(rec);
+                denominations.merge(key(recordDenomination), recordId != null ? recordId : NO_ID,
+                        (old, found) -> NO_ID.equals(old) ? found : old);
+            }
+        }
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
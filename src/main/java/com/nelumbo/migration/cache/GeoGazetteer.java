@@ -0,0 +1,356 @@
+package com.nelumbo.migration.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nelumbo.migration.feign.CountryFeign;
+import com.nelumbo.migration.feign.dto.responses.CountryResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Árbol país → estado → ciudad indexado por nombre normalizado (sin mayúsculas ni acentos).
+ * Los países se cargan una sola vez, los estados al primer uso de cada país y las ciudades al
+ * primer uso de cada estado; a partir de ahí la resolución no hace llamadas a core-api.
+ * <p>
+ * Cada nivel guarda cuándo se descargó y se vuelve a pedir al usarlo después de
+ * {@code snapshot-max-age}, o antes si no tiene el nombre buscado y pasó {@code miss-refresh}
+ * desde la última consulta (un estado o ciudad que se agregó en core-api). Si core-api falla se
+ * sigue usando lo que ya se tenía y se reintenta pasado {@code miss-refresh}. El árbol se guarda en disco para que un reinicio no tenga que
+ * volver a descargarlo; se escribe en segundo plano, a lo sumo una vez por
+ * {@code snapshot-write-delay}, y no en cada nivel que se carga.
+ */
+@Slf4j
+@Component
+public class GeoGazetteer implements DisposableBean {
+
+    private final CountryFeign countryFeign;
+    private final ObjectMapper objectMapper;
+    private final Path snapshotPath;
+    private final long maxAgeMillis;
+    private final long missRefreshMillis;
+    private final long writeDelayMillis;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("gazetteer-snapshot").factory());
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Level<CountryNode> countries = new Level<>();
+
+    public GeoGazetteer(CountryFeign countryFeign,
+                        ObjectMapper objectMapper,
+                        @Value("${migration.gazetteer.snapshot-path:./migration-data/gazetteer.json}") Path snapshotPath,
+                        @Value("${migration.gazetteer.snapshot-max-age:7d}") Duration snapshotMaxAge,
+                        @Value("${migration.gazetteer.miss-refresh:1m}") Duration missRefresh,
+                        @Value("${migration.gazetteer.snapshot-write-delay:10s}") Duration snapshotWriteDelay) {
+        this.countryFeign = countryFeign;
+        this.objectMapper = objectMapper;
+        this.snapshotPath = snapshotPath;
+        this.maxAgeMillis = snapshotMaxAge.toMillis();
+        this.missRefreshMillis = missRefresh.toMillis();
+        this.writeDelayMillis = snapshotWriteDelay.toMillis();
+    }
+
+    @PostConstruct
+    void loadSnapshot() {
+        try {
+            if (!Files.exists(snapshotPath)) {
+                return;
+            }
+            Snapshot snapshot = objectMapper.readValue(snapshotPath.toFile(), Snapshot.class);
+            Map<String, CountryNode> loaded = new ConcurrentHashMap<>();
+            for (CountryEntry entry : snapshot.getCountries()) {
+                CountryNode node = new CountryNode(entry.getCountry());
+                if (entry.getStates() != null) {
+                    Map<String, StateNode> states = new ConcurrentHashMap<>();
+                    for (StateEntry state : entry.getStates()) {
+                        StateNode stateNode = new StateNode(state.getState());
+                        if (state.getCities() != null) {
+                            stateNode.cities.restore(index(state.getCities()), state.getCitiesFetchedAt());
+                        }
+                        states.put(Names.normalize(state.getState().getName()), stateNode);
+                    }
+                    node.states.restore(states, entry.getStatesFetchedAt());
+                }
+                loaded.put(Names.normalize(entry.getCountry().getName()), node);
+            }
+            countries.restore(loaded, snapshot.getFetchedAt());
+            log.info("Gazetteer cargado desde " + snapshotPath + " con " + loaded.size() + " países");
+        } catch (IOException e) {
+            log.error("Error reading gazetteer snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resuelve la terna (país, estado, ciudad). Lanza RuntimeException con el nivel que no existe.
+     */
+    public GeoLocation resolve(String country, String state, String city) {
+        CountryNode countryNode = countries.find(Names.normalize(country), this::fetchCountries);
+        if (countryNode == null) {
+            throw new RuntimeException("country ".concat(country).concat(" not found"));
+        }
+        StateNode stateNode = countryNode.states.find(Names.normalize(state), current -> this.fetchStates(countryNode, current));
+        if (stateNode == null) {
+            throw new RuntimeException("state ".concat(state).concat(" not found"));
+        }
+        CountryResponse cityResponse = stateNode.cities.find(Names.normalize(city),
+                current -> index(countryFeign.findAllCitesByStateIdAndCountryId(countryNode.country.getId(), stateNode.state.getId()).getData()));
+        if (cityResponse == null) {
+            throw new RuntimeException("city ".concat(city).concat(" not found"));
+        }
+        return new GeoLocation(countryNode.country, stateNode.state, cityResponse);
+    }
+
+    /**
+     * Escribe el snapshot ahora si hay cambios sin guardar.
+     */
+    void flushSnapshot() {
+        writeScheduled.set(false);
+        writeLock.lock();
+        try {
+            this.saveSnapshot();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        writer.shutdownNow();
+        if (writeScheduled.get()) {
+            this.flushSnapshot();
+        }
+    }
+
+    // Los nodos que ya existían se conservan, con los niveles de abajo que ya estaban cargados
+    private Map<String, CountryNode> fetchCountries(Map<String, CountryNode> current) {
+        Map<String, CountryNode> loaded = new ConcurrentHashMap<>();
+        for (CountryResponse country : countryFeign.findAll().getData()) {
+            String key = Names.normalize(country.getName());
+            CountryNode previous = current == null ? null : current.get(key);
+            boolean same = previous != null && Objects.equals(previous.country.getId(), country.getId());
+            loaded.putIfAbsent(key, same ? previous : new CountryNode(country));
+        }
+        return loaded;
+    }
+
+    private Map<String, StateNode> fetchStates(CountryNode countryNode, Map<String, StateNode> current) {
+        Map<String, StateNode> loaded = new ConcurrentHashMap<>();
+        for (CountryResponse state : countryFeign.findAllStatesByCountryId(countryNode.country.getId()).getData()) {
+            String key = Names.normalize(state.getName());
+            StateNode previous = current == null ? null : current.get(key);
+            boolean same = previous != null && Objects.equals(previous.state.getId(), state.getId());
+            loaded.putIfAbsent(key, same ? previous : new StateNode(state));
+        }
+        return loaded;
+    }
+
+    private void scheduleSnapshot() {
+        if (writeScheduled.compareAndSet(false, true)) {
+            try {
+                writer.schedule(this::flushSnapshot, writeDelayMillis, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // El writer ya se cerró: se guarda en destroy
+                log.debug("Gazetteer snapshot write not scheduled: " + e.getMessage());
+            }
+        }
+    }
+
+    private void saveSnapshot() {
+        Map<String, CountryNode> current = countries.entries;
+        if (current == null) {
+            return;
+        }
+        List<CountryEntry> entries = new ArrayList<>(current.size());
+        for (CountryNode node : current.values()) {
+            Map<String, StateNode> stateNodes = node.states.entries;
+            List<StateEntry> states = null;
+            if (stateNodes != null) {
+                states = new ArrayList<>(stateNodes.size());
+                for (StateNode stateNode : stateNodes.values()) {
+                    Map<String, CountryResponse> cityNodes = stateNode.cities.entries;
+                    List<CountryResponse> cities = cityNodes == null ? null : new ArrayList<>(cityNodes.values());
+                    states.add(new StateEntry(stateNode.state, stateNode.cities.fetchedAt, cities));
+                }
+            }
+            entries.add(new CountryEntry(node.country, node.states.fetchedAt, states));
+        }
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            // Se escribe a un temporal y se renombra para no dejar un snapshot a medias
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), new Snapshot(countries.fetchedAt, entries));
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Error writing gazetteer snapshot: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, CountryResponse> index(List<CountryResponse> list) {
+        Map<String, CountryResponse> map = new ConcurrentHashMap<>();
+        for (CountryResponse item : list) {
+            map.putIfAbsent(Names.normalize(item.getName()), item);
+        }
+        return map;
+    }
+
+    /**
+     * Un nivel del árbol (los países, los estados de un país o las ciudades de un estado).
+     * {@code fetchedAt} es la última descarga exitosa y es lo que se guarda en el snapshot;
+     * {@code checkedAt} es el último intento, para no repetir la consulta en cada fila mientras
+     * core-api falla o mientras se busca un nombre que no existe. Usa ReentrantLock porque las
+     * filas corren en hilos virtuales.
+     */
+    /**
+     * Un nivel del árbol. {@code fetchedAt} es cuándo se descargó lo que tiene y decide si venció;
+     * {@code checkedAt} es el último intento de descargarlo, haya funcionado o no, y solo espacia
+     * los reintentos y las consultas por nombres que faltan a uno por {@code miss-refresh}.
+     */
+    private final class Level<T> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Map<String, T> entries;
+        private volatile Long fetchedAt;
+        private volatile long checkedAt;
+
+        void restore(Map<String, T> loaded, Long loadedAt) {
+            entries = loaded;
+            // Un snapshot sin fecha (de una versión anterior) se usa, pero se renueva en el primer uso
+            fetchedAt = loadedAt;
+            checkedAt = 0;
+        }
+
+        T find(String key, Function<Map<String, T>, Map<String, T>> fetch) {
+            Map<String, T> current = entries;
+            if (current != null) {
+                T found = current.get(key);
+                if (this.isUsable(found)) {
+                    return found;
+                }
+            }
+            lock.lock();
+            try {
+                // Otro hilo pudo renovarlo mientras se esperaba el lock
+                current = entries;
+                if (current != null) {
+                    T found = current.get(key);
+                    if (this.isUsable(found)) {
+                        return found;
+                    }
+                }
+                checkedAt = System.currentTimeMillis();
+                try {
+                    Map<String, T> loaded = fetch.apply(current);
+                    entries = loaded;
+                    fetchedAt = System.currentTimeMillis();
+                    scheduleSnapshot();
+                    return loaded.get(key);
+                } catch (RuntimeException e) {
+                    if (current == null) {
+                        throw e;
+                    }
+                    // Sigue vencido: se vuelve a intentar pasado miss-refresh y no pasado max-age
+                    log.warn("Could not refresh gazetteer level, keeping the previous one: " + e.getMessage());
+                    return current.get(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Si lo que ya se tiene alcanza para responder sin volver a pedir el nivel a core-api.
+         */
+        private boolean isUsable(T found) {
+            if (System.currentTimeMillis() - checkedAt < missRefreshMillis) {
+                return true;
+            }
+            return found != null && !this.isExpired();
+        }
+
+        private boolean isExpired() {
+            Long fetched = fetchedAt;
+            return fetched == null || System.currentTimeMillis() - fetched >= maxAgeMillis;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class GeoLocation {
+        private final CountryResponse country;
+        private final CountryResponse state;
+        private final CountryResponse city;
+    }
+
+    private final class CountryNode {
+        private final CountryResponse country;
+        private final Level<StateNode> states = new Level<>();
+
+        CountryNode(CountryResponse country) {
+            this.country = country;
+        }
+    }
+
+    private final class StateNode {
+        private final CountryResponse state;
+        private final Level<CountryResponse> cities = new Level<>();
+
+        StateNode(CountryResponse state) {
+            this.state = state;
+        }
+    }
+
+    /**
+     * Árbol guardado en disco. Las fechas son milisegundos desde la época de la última descarga
+     * de cada nivel; null en los snapshots anteriores, que se renuevan al usarse.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Snapshot {
+        private Long fetchedAt;
+        private List<CountryEntry> countries = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CountryEntry {
+        private CountryResponse country;
+        private Long statesFetchedAt;
+        private List<StateEntry> states;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class StateEntry {
+        private CountryResponse state;
+        private Long citiesFetchedAt;
+        private List<CountryResponse> cities;
+    }
+}
@@ -0,0 +1,29 @@
+package com.nelumbo.migration.cache;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de nombres para usarlos como clave de los índices en memoria.
+ */
+public final class Names {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private Names() {
+    }
+
+    /**
+     * Clave de búsqueda: sin acentos, en minúsculas y con los espacios colapsados,
+     * de modo que "Nuevo León", "nuevo leon" y " NUEVO  LEON" coinciden.
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,89 @@
+package com.nelumbo.migration.cache;
+
+import com.nelumbo.migration.feign.OrgEntityFeign;
+import com.nelumbo.migration.feign.dto.Page;
+import com.nelumbo.migration.feign.dto.responses.OrgEntityResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Instancias de entidades organizativas por (tipo de entidad, padre) → nombre normalizado → id.
+ * Cada nivel se pide a core-api por páginas y solo hasta encontrar el nombre buscado; lo leído
+ * queda en memoria, así que un departamento se carga una vez por carga y no una vez por fila.
+ * Cada nivel usa ReentrantLock y no synchronized porque las filas corren en hilos virtuales.
+ */
+public class OrgEntityHierarchy {
+
+    private final OrgEntityFeign orgEntityFeign;
+    private final int pageSize;
+    private final Map<Long, Level> levels = new ConcurrentHashMap<>();
+
+    public OrgEntityHierarchy(OrgEntityFeign orgEntityFeign, int pageSize) {
+        this.orgEntityFeign = orgEntityFeign;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Id de la instancia con ese nombre bajo el padre dado. Lanza RuntimeException si no existe.
+     */
+    public Long resolve(long entityType, long parentId, String name, String entityName) {
+        Long id = levels.computeIfAbsent(key(entityType, parentId), k -> new Level(entityType, parentId))
+                .find(Names.normalize(name));
+        if (id == null) {
+            throw new RuntimeException(entityName.concat(" ").concat(name).concat(" not found"));
+        }
+        return id;
+    }
+
+    private static long key(long entityType, long parentId) {
+        return (entityType << 48) ^ parentId;
+    }
+
+    private final class Level {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long entityType;
+        private final long parentId;
+        private final Map<String, Long> ids = new HashMap<>();
+        private int nextPage;
+        private boolean complete;
+
+        private Level(long entityType, long parentId) {
+            this.entityType = entityType;
+            this.parentId = parentId;
+        }
+
+        Long find(String name) {
+            lock.lock();
+            try {
+                Long id = ids.get(name);
+                while (id == null && !complete) {
+                    this.loadNextPage();
+                    id = ids.get(name);
+                }
+                return id;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void loadNextPage() {
+            Page<OrgEntityResponse> page = orgEntityFeign.findAllInstancesParentOrganizationEntityDetail(
+                    entityType, parentId, nextPage, pageSize).getData();
+            if (page == null || page.getContent() == null || page.getContent().isEmpty()) {
+                complete = true;
+                return;
+            }
+            for (OrgEntityResponse entity : page.getContent()) {
+                ids.putIfAbsent(Names.normalize(entity.getName()), entity.getId());
+            }
+            nextPage++;
+            // Sin datos de paginación se asume que core-api devolvió todo en una sola página
+            complete = Boolean.TRUE.equals(page.getLast())
+                    || (page.getTotalPages() != null ? nextPage >= page.getTotalPages() : page.getLast() == null);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.nelumbo.migration.cache;
+
+import com.nelumbo.migration.feign.DurationsFeign;
+import com.nelumbo.migration.feign.WorkPeriodsMaxDailyDurationsFeign;
+import com.nelumbo.migration.feign.WorkPeriodsMaxDurationsFeign;
+import com.nelumbo.migration.feign.WorkPeriodsTypesFeign;
+import com.nelumbo.migration.feign.WorkTurnTypesFeign;
+import com.nelumbo.migration.feign.dto.responses.DurationsResponse;
+import com.nelumbo.migration.feign.dto.responses.WorkPeriodMaxDailyDurationsResponse;
+import com.nelumbo.migration.feign.dto.responses.WorkPeriodMaxDurationsResponse;
+import com.nelumbo.migration.feign.dto.responses.WorkPeriodTypeResponse;
+import com.nelumbo.migration.feign.dto.responses.WorkTurnTypesResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Catálogos de referencia de las jornadas (tipos de periodo, duraciones máximas, duraciones
+ * máximas diarias, duraciones y tipos de turno). Se descargan una vez y se comparten entre todas
+ * las cargas hasta que vence el ttl; el primero que pide un snapshot vencido lo renueva y el
+ * resto espera ese mismo resultado. Si la renovación falla se sigue usando el snapshot anterior.
+ * Usa ReentrantLock y no synchronized porque las filas corren en hilos virtuales.
+ */
+@Slf4j
+@Component
+public class WorkPeriodCatalogue {
+
+    private final WorkPeriodsTypesFeign workPeriodsTypesFeign;
+    private final WorkPeriodsMaxDurationsFeign workPeriodsMaxDurationsFeign;
+    private final WorkPeriodsMaxDailyDurationsFeign workPeriodsMaxDailyDurationsFeign;
+    private final DurationsFeign durationsFeign;
+    private final WorkTurnTypesFeign workTurnTypesFeign;
+    private final Duration ttl;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    public WorkPeriodCatalogue(WorkPeriodsTypesFeign workPeriodsTypesFeign,
+                               WorkPeriodsMaxDurationsFeign workPeriodsMaxDurationsFeign,
+                               WorkPeriodsMaxDailyDurationsFeign workPeriodsMaxDailyDurationsFeign,
+                               DurationsFeign durationsFeign,
+                               WorkTurnTypesFeign workTurnTypesFeign,
+                               @Value("${migration.work-periods.catalogue-ttl:15m}") Duration ttl) {
+        this.workPeriodsTypesFeign = workPeriodsTypesFeign;
+        this.workPeriodsMaxDurationsFeign = workPeriodsMaxDurationsFeign;
+        this.workPeriodsMaxDailyDurationsFeign = workPeriodsMaxDailyDurationsFeign;
+        this.durationsFeign = durationsFeign;
+        this.workTurnTypesFeign = workTurnTypesFeign;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Snapshot vigente. Una carga debe pedirlo una vez y usar el mismo en todas sus filas.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        lock.lock();
+        try {
+            current = snapshot;
+            if (current != null && !current.isExpired()) {
+                return current;
+            }
+            try {
+                snapshot = this.download();
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e;
+                }
+                log.warn("Could not refresh work period catalogue, keeping the previous snapshot: " + e.getMessage());
+                snapshot = current.extended(ttl);
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Snapshot download() {
+        Snapshot loaded = new Snapshot(
+                workPeriodsTypesFeign.findAllWorkPeriodTypes().getData(),
+                workPeriodsMaxDurationsFeign.findAllWorkPeriodsMaxDurations().getData(),
+                workPeriodsMaxDailyDurationsFeign.findAllWorkPeriodsMaxDailyDurations().getData(),
+                durationsFeign.findAllDurations().getData(),
+                workTurnTypesFeign.findAllWorkTurnTypes().getData(),
+                Instant.now().plus(ttl));
+        log.info("Catálogos de jornadas descargados, vigentes por " + ttl);
+        return loaded;
+    }
+
+    /**
+     * Índices inmutables de los catálogos. Las duraciones se buscan por su valor entero en un
+     * arreglo y los nombres y keywords en un mapa, así que ninguna búsqueda recorre las listas.
+     * Todos los métodos lanzan RuntimeException si el valor no existe en core-api.
+     */
+    public static final class Snapshot {
+
+        private final Map<String, Long> workPeriodTypes;
+        private final Map<String, Long> maxDurations;
+        private final IntIndex maxDailyDurations;
+        private final IntIndex durations;
+        private final Map<String, Long> workTurnTypes;
+        private final Instant expiresAt;
+
+        public Snapshot(List<WorkPeriodTypeResponse> workPeriodTypes,
+                        List<WorkPeriodMaxDurationsResponse> maxDurations,
+                        List<WorkPeriodMaxDailyDurationsResponse> maxDailyDurations,
+                        List<DurationsResponse> durations,
+                        List<WorkTurnTypesResponse> workTurnTypes,
+                        Instant expiresAt) {
+            this.workPeriodTypes = byName(workPeriodTypes, WorkPeriodTypeResponse::getName, WorkPeriodTypeResponse::getId);
+            this.maxDurations = byName(maxDurations, WorkPeriodMaxDurationsResponse::getKeyword, WorkPeriodMaxDurationsResponse::getId);
+            this.maxDailyDurations = IntIndex.of(maxDailyDurations, WorkPeriodMaxDailyDurationsResponse::getDuration, WorkPeriodMaxDailyDurationsResponse::getId);
+            this.durations = IntIndex.of(durations, DurationsResponse::getAmount, DurationsResponse::getId);
+            this.workTurnTypes = byName(workTurnTypes, WorkTurnTypesResponse::getName, WorkTurnTypesResponse::getId);
+            this.expiresAt = expiresAt;
+        }
+
+        private Snapshot(Snapshot previous, Instant expiresAt) {
+            this.workPeriodTypes = previous.workPeriodTypes;
+            this.maxDurations = previous.maxDurations;
+            this.maxDailyDurations = previous.maxDailyDurations;
+            this.durations = previous.durations;
+            this.workTurnTypes = previous.workTurnTypes;
+            this.expiresAt = expiresAt;
+        }
+
+        public long workPeriodTypeId(String name) {
+            return found(workPeriodTypes.get(key(name)), "work period type " + name);
+        }
+
+        public long maxDurationId(String keyword) {
+            return found(maxDurations.get(key(keyword)), "max_duration with keyword " + keyword);
+        }
+
+        public long maxDailyDurationId(int hours) {
+            return found(maxDailyDurations.get(hours), "max_daily_duration " + hours);
+        }
+
+        public long durationId(int amount) {
+            return found(durations.get(amount), "duration " + amount);
+        }
+
+        public long workTurnTypeId(String name) {
+            return found(workTurnTypes.get(key(name)), "work turn type " + name);
+        }
+
+        boolean isExpired() {
+            return Instant.now().isAfter(expiresAt);
+        }
+
+        Snapshot extended(Duration ttl) {
+            return new Snapshot(this, Instant.now().plus(ttl));
+        }
+
+        private static long found(Long id, String what) {
+            if (id == null) {
+                throw new RuntimeException(what.concat(" not found"));
+            }
+            return id;
+        }
+
+        private static long found(long id, String what) {
+            if (id == IntIndex.MISSING) {
+                throw new RuntimeException(what.concat(" not found"));
+            }
+            return id;
+        }
+
+        private static <T> Map<String, Long> byName(List<T> records, Function<T, String> name, Function<T, Long> id) {
+            Map<String, Long> index = new HashMap<>();
+            if (records != null) {
+                for (T rec : records) {
+                    if (name.apply(rec) != null && id.apply(rec) != null) {
+                        // Se queda el primero, igual que findFirst
+                        index.putIfAbsent(key(name.apply(rec)), id.apply(rec));
+                    }
+                }
+            }
+            return index;
+        }
+
+        private static String key(String value) {
+            return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Valor entero → id. Con valores entre 0 y {@link #DENSE_LIMIT} es un arreglo indexado por el
+     * valor; si no, un arreglo ordenado con búsqueda binaria.
+     */
+    static final class IntIndex {
+
+        static final long MISSING = Long.MIN_VALUE;
+        private static final int DENSE_LIMIT = 1 << 16;
+
+        private final long[] dense;
+        private final int[] keys;
+        private final long[] ids;
+
+        private IntIndex(long[] dense, int[] keys, long[] ids) {
+            this.dense = dense;
+            this.keys = keys;
+            this.ids = ids;
+        }
+
+        static <T> IntIndex of(List<T> records, ToIntFunction<T> value, Function<T, Long> id) {
+            List<T> usable = records == null ? List.of() : records.stream().filter(rec -> id.apply(rec) != null).toList();
+            int min = usable.stream().mapToInt(value).min().orElse(0);
+            int max = usable.stream().mapToInt(value).max().orElse(-1);
+            if (min >= 0 && max < DENSE_LIMIT) {
+                long[] dense = new long[max + 1];
+                Arrays.fill(dense, MISSING);
+                for (T rec : usable) {
+                    int v = value.applyAsInt(rec);
+                    if (dense[v] == MISSING) {
+                        dense[v] = id.apply(rec);
+                    }
+                }
+                return new IntIndex(dense, null, null);
+            }
+            List<T> sorted = usable.stream().sorted((a, b) -> Integer.compare(value.applyAsInt(a), value.applyAsInt(b))).toList();
+            int[] keys = new int[sorted.size()];
+            long[] ids = new long[sorted.size()];
+            int n = 0;
+            for (T rec : sorted) {
+                int v = value.applyAsInt(rec);
+                if (n == 0 || keys[n - 1] != v) {
+                    keys[n] = v;
+                    ids[n] = id.apply(rec);
+                    n++;
+                }
+            }
+            return new IntIndex(null, Arrays.copyOf(keys, n), Arrays.copyOf(ids, n));
+        }
+
+        long get(int value) {
+            if (dense != null) {
+                return value >= 0 && value < dense.length ? dense[value] : MISSING;
+            }
+            int i = Arrays.binarySearch(keys, value);
+            return i >= 0 ? ids[i] : MISSING;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.nelumbo.migration.controller;
+
+import com.nelumbo.migration.job.JobResponse;
+import com.nelumbo.migration.job.JobService;
+import com.nelumbo.migration.job.MigrationJob;
+import com.nelumbo.migration.job.OutcomeLog;
+import com.nelumbo.migration.job.ProgressStreams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/migration/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private static final String APPLICATION_EXCEL = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final String APPLICATION_ZIP = "application/zip";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    // Atributos con los que Tomcat envía el archivo con sendfile, sin pasar por la JVM
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Por debajo de esto copiar es igual de rápido (el mismo umbral que el DefaultServlet de Tomcat)
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private final JobService jobService;
+    private final ProgressStreams progressStreams;
+
+    @GetMapping("{id}")
+    public ResponseEntity<JobResponse> findJob(@PathVariable String id) {
+        return jobService.find(id)
+                .map(job -> ResponseEntity.ok(JobResponse.of(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("{id}")
+    public ResponseEntity<JobResponse> cancelJob(@PathVariable String id) {
+        return jobService.cancel(id)
+                .map(job -> ResponseEntity.accepted().body(JobResponse.of(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Avance del trabajo en vivo (Server-Sent Events) hasta que termina; ver {@link ProgressStreams}.
+     */
+    @GetMapping(value = "{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@PathVariable String id) {
+        return jobService.find(id)
+                .map(job -> ResponseEntity.ok(progressStreams.subscribe(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("{id}/result")
+    public ResponseEntity<Resource> downloadResult(@PathVariable String id, HttpServletRequest request) {
+        MigrationJob job = jobService.find(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!job.getStatus().isFinished()) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        if (job.getResult() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return processFile(job.getResult(), request);
+    }
+
+    /**
+     * Log NDJSON con el resultado de cada fila; con {@code failedOnly} solo las filas con error.
+     */
+    @GetMapping("{id}/outcomes")
+    public ResponseEntity<Resource> downloadOutcomes(@PathVariable String id,
+                                                     @RequestParam(defaultValue = "false") boolean failedOnly,
+                                                     HttpServletRequest request) {
+        MigrationJob job = jobService.find(id).orElse(null);
+        if (job == null || job.getOutcomes() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!job.getStatus().isFinished()) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        OutcomeLog outcomes = job.getOutcomes();
+        return processFile((failedOnly ? outcomes.getFailuresPath() : outcomes.getPath()).toFile(), request);
+    }
+
+    /**
+     * Descarga con soporte de Range. Los libros y zips grandes se envían con sendfile cuando el
+     * conector lo permite; el resto (y los pedidos de varios rangos) los copia Spring desde un
+     * {@link FileSystemResource}, que cierra el archivo al terminar.
+     */
+    private ResponseEntity<Resource> processFile(File modifiedFile, HttpServletRequest request) {
+        if (!modifiedFile.isFile()) {
+            // Se borró al vencer su ttl
+            return ResponseEntity.notFound().build();
+        }
+        FileSystemResource resource = new FileSystemResource(modifiedFile);
+        String contentType = contentType(modifiedFile);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment().filename(modifiedFile.getName(), StandardCharsets.UTF_8).build());
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // El NDJSON se deja a Spring para que salga comprimido; sendfile no pasa por la compresión
+        if (!APPLICATION_NDJSON.equals(contentType) && modifiedFile.length() >= SENDFILE_MIN_SIZE
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            ResponseEntity<Resource> sent = this.sendfile(modifiedFile, resource, headers, request);
+            if (sent != null) {
+                return sent;
+            }
+        }
+        return ResponseEntity.ok().headers(headers).body(resource);
+    }
+
+    /**
+     * Responde sin cuerpo y deja a Tomcat enviar el archivo, o null si el pedido de rangos no
+     * es de un solo rango válido.
+     */
+    private ResponseEntity<Resource> sendfile(File file, FileSystemResource resource, HttpHeaders headers, HttpServletRequest request) {
+        long length = file.length();
+        long start = 0;
+        long end = length;
+        HttpStatus status = HttpStatus.OK;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() != 1) {
+                    return null;
+                }
+                ResourceRegion region = ranges.get(0).toResourceRegion(resource);
+                start = region.getPosition();
+                end = start + region.getCount();
+            } catch (IllegalArgumentException e) {
+                // Spring responde 416
+                return null;
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_START, start);
+        request.setAttribute(SENDFILE_END, end);
+        headers.setContentLength(end - start);
+        return ResponseEntity.status(status).headers(headers).build();
+    }
+
+    private static String contentType(File file) {
+        if (file.getName().endsWith(".zip")) {
+            return APPLICATION_ZIP;
+        }
+        if (file.getName().endsWith(".json")) {
+            return MediaType.APPLICATION_JSON_VALUE;
+        }
+        return file.getName().endsWith(".ndjson") ? APPLICATION_NDJSON : APPLICATION_EXCEL;
+    }
+}
@@ -1,108 +1,249 @@
 package com.nelumbo.migration.controller;
 
+import com.nelumbo.migration.excel.InputFormat;
+import com.nelumbo.migration.job.JobResponse;
+import com.nelumbo.migration.job.JobService;
+import com.nelumbo.migration.job.JobWork;
+import com.nelumbo.migration.job.MigrationJob;
+import com.nelumbo.migration.job.ResultFormat;
+import com.nelumbo.migration.orchestration.WorkbookOrchestrator;
 import com.nelumbo.migration.service.MigrationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.InputStreamResource;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-
+import java.net.URI;
+
+/**
+ * Cada carga se encola como un trabajo y se responde de inmediato con su id; el avance se
+ * consulta en {@code /migration/jobs/{id}} y el archivo modificado en {@code /migration/jobs/{id}/result}.
+ * Con {@code ?result=outcomes} la carga no reescribe el libro y el resultado es el log NDJSON
+ * por fila, que de todos modos se puede descargar en {@code /migration/jobs/{id}/outcomes}.
+ * Volver a subir el mismo archivo retoma la carga anterior según su diario; con
+ * {@code ?resume=false} el diario se descarta y se procesan todas las filas.
+ * <p>
+ * Además del .xlsx, cada carga acepta su hoja como CSV o NDJSON, con gzip opcional, ya sea como
+ * archivo multipart o como cuerpo de la petición ({@code Content-Type: text/csv} o
+ * {@code application/x-ndjson}); en este último caso se procesa mientras se sube.
+ */
 @Slf4j
 @RestController
 @RequestMapping("/migration")
 @RequiredArgsConstructor
 public class MigrationController {
 
-    private static final String APPLICATION_EXCEL = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-    private static final String ATTACHMENT_FILENAME = "attachment; filename=";
-    private static final String ERROR_EXCEL = "Error returning modified Excel file: ";
+    private static final String ERROR_UPLOAD = "Error storing uploaded file: ";
 
     private final MigrationService migrationService;
+    private final JobService jobService;
+    private final WorkbookOrchestrator workbookOrchestrator;
+
+    /**
+     * Libro completo: las hojas de centros de costos a sucursal_jornadas en las posiciones 0 a 5
+     * y las de compensaciones, tabuladores, categorías y jornadas por nombre.
+     */
+    @PostMapping(value = "workbook", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> migrateWorkbook(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume) {
+        return submit("workbook", file, result, resume);
+    }
 
-    @PostMapping("cost-centers")
-    public ResponseEntity<Void> migrateCostCenters(@RequestPart(value = "file") MultipartFile file){
-        migrationService.migrateCostCenters(file);
-        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    @PostMapping(value = "cost-centers", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> migrateCostCenters(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume){
+        return submit("cost-centers", file, result, resume);
     }
 
-    @PostMapping("stores")
-    public ResponseEntity<Void> migrateStores(@RequestPart(value = "file") MultipartFile file){
-        migrationService.migrateStores(file);
-        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    @PostMapping(value = "stores", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> migrateStores(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume){
+        return submit("stores", file, result, resume);
     }
 
-    @PostMapping("stores-org-entities-details")
-    public ResponseEntity<Void> migrateStoresOrgEntities(@RequestPart(value = "file") MultipartFile file){
-        migrationService.migrateStoresOrgEntities(file);
-        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    @PostMapping(value = "stores-org-entities-details", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> migrateStoresOrgEntities(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume){
+        return submit("stores-org-entities-details", file, result, resume);
     }
 
-    @PostMapping("work-positions")
-    public ResponseEntity<Void> migrateWorkPositions(@RequestPart(value = "file") MultipartFile file){
-        migrationService.migrateWorkPositions(file);
-        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    @PostMapping(value = "work-positions", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> migrateWorkPositions(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume){
+        return submit("work-positions", file, result, resume);
     }
 
-    @PostMapping("profiles")
-    public ResponseEntity<Void> migrateProfiles(@RequestPart(value = "file") MultipartFile file){
-        migrationService.migrateProfiles(file);
-        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    @PostMapping(value = "profiles", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> migrateProfiles(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume){
+        return submit("profiles", file, result, resume);
     }
-    @PostMapping("stores-work-periods")
-    public ResponseEntity<Void> migrateStoreWorkPeriods(@RequestPart(value = "file") MultipartFile file){
-        migrationService.migrateStoreWorkPeriods(file);
-        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    @PostMapping(value = "stores-work-periods", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> migrateStoreWorkPeriods(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume){
+        return submit("stores-work-periods", file, result, resume);
     }
-    @PostMapping("/load-compensations")
-    public ResponseEntity<InputStreamResource> cargarCompensaciones(@RequestPart(value = "file") MultipartFile file) {
-        File modifiedFile = migrationService.cargarCompensaciones(file);
-        return  processFile(modifiedFile);
+    @PostMapping(value = "/load-compensations", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> cargarCompensaciones(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume) {
+        return submit("load-compensations", file, result, resume);
     }
 
-    @PostMapping("/load-tabs")
-    public ResponseEntity<InputStreamResource> loadTabs(@RequestPart(value = "file") MultipartFile file) {
-        File modifiedFile = migrationService.loadTabs(file);
-        return  processFile(modifiedFile);
+    @PostMapping(value = "/load-tabs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> loadTabs(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume) {
+        return submit("load-tabs", file, result, resume);
     }
 
-    @PostMapping("/load-work-position-categories")
-    public ResponseEntity<InputStreamResource> loadWorkPositionCategories(@RequestPart(value = "file") MultipartFile file) {
-        File modifiedFile = migrationService.loadWorkPositionCategories(file);
-        return  processFile(modifiedFile);
+    @PostMapping(value = "/load-work-position-categories", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> loadWorkPositionCategories(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume) {
+        return submit("load-work-position-categories", file, result, resume);
     }
 
-    @PostMapping("/load-work-periods")
-    public ResponseEntity<InputStreamResource> loadWorkPoeriods(@RequestPart(value = "file") MultipartFile file) {
-        File modifiedFile = migrationService.loadWorkPeriods(file);
-        return  processFile(modifiedFile);
+    @PostMapping(value = "/load-work-periods", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> loadWorkPoeriods(@RequestPart(value = "file") MultipartFile file,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume) {
+        return submit("load-work-periods", file, result, resume);
     }
 
-    private ResponseEntity<InputStreamResource> processFile(File modifiedFile) {
+    /**
+     * Cualquier carga con el archivo CSV o NDJSON (con gzip opcional) como cuerpo de la petición
+     * en vez de multipart. El trabajo se encola antes de leer el cuerpo y procesa las filas a
+     * medida que llegan; se responde cuando terminó de llegar el archivo.
+     */
+    @PostMapping(value = "{type}", consumes = {InputFormat.TEXT_CSV, InputFormat.APPLICATION_NDJSON})
+    public ResponseEntity<JobResponse> migrateStream(@PathVariable String type,
+            @RequestParam(value = "result", required = false) String result,
+            @RequestParam(value = "resume", defaultValue = "true") boolean resume,
+            @RequestParam(value = "fileName", required = false) String fileName,
+            HttpServletRequest request) {
+        JobWork work = this.work(type);
+        if ("workbook".equals(type)) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "The workbook migration needs an .xlsx file");
+        }
+        ResultFormat resultFormat = resultFormat(result);
+        InputFormat format = InputFormat.of(null, request.getContentType());
+        String name = fileName != null ? fileName
+                : type + format.getExtension() + ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING)) ? ".gz" : "");
         try {
-            InputStreamResource resource = new InputStreamResource(new FileInputStream(modifiedFile));
+            return accepted(jobService.submit(type, name, format.getContentType(), request.getInputStream(), work, resultFormat, resume));
+        } catch (IOException e) {
+            log.error(ERROR_UPLOAD + " {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, ATTACHMENT_FILENAME + modifiedFile.getName());
+    /**
+     * Valida una de las hojas de centros de costos a sucursal_jornadas sin escribir en core-api.
+     * El resultado del trabajo es un reporte JSON con las filas inválidas y una estimación de las
+     * llamadas y el tiempo que tomaría la carga; las referencias se resuelven contra lo que ya
+     * está cargado, así que las hojas deben validarse en el orden en que se cargan.
+     */
+    @PostMapping(value = "{type}/validate", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobResponse> validate(@PathVariable String type, @RequestPart(value = "file") MultipartFile file) {
+        JobWork work = this.validation(type);
+        try {
+            return accepted(jobService.submit(type + "-validation", file, work));
+        } catch (IOException e) {
+            log.error(ERROR_UPLOAD + " {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .contentLength(modifiedFile.length())
-                    .contentType(MediaType.parseMediaType(APPLICATION_EXCEL))
-                    .body(resource);
+    private ResponseEntity<JobResponse> submit(String type, MultipartFile file, String result, boolean resume) {
+        JobWork work = this.work(type);
+        ResultFormat resultFormat = resultFormat(result);
+        try {
+            return accepted(jobService.submit(type, file, work, resultFormat, resume));
         } catch (IOException e) {
-            log.error(ERROR_EXCEL + " {}", e.getMessage());
+            log.error(ERROR_UPLOAD + " {}", e.getMessage());
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    private JobWork work(String type) {
+        return switch (type) {
+            case "workbook" -> workbookOrchestrator::run;
+            case "cost-centers" -> (upload, job) -> {
+                migrationService.migrateCostCenters(upload, job);
+                return null;
+            };
+            case "stores" -> (upload, job) -> {
+                migrationService.migrateStores(upload, job);
+                return null;
+            };
+            case "stores-org-entities-details" -> (upload, job) -> {
+                migrationService.migrateStoresOrgEntities(upload, job);
+                return null;
+            };
+            case "work-positions" -> (upload, job) -> {
+                migrationService.migrateWorkPositions(upload, job);
+                return null;
+            };
+            case "profiles" -> (upload, job) -> {
+                migrationService.migrateProfiles(upload, job);
+                return null;
+            };
+            case "stores-work-periods" -> (upload, job) -> {
+                migrationService.migrateStoreWorkPeriods(upload, job);
+                return null;
+            };
+            case "load-compensations" -> migrationService::cargarCompensaciones;
+            case "load-tabs" -> migrationService::loadTabs;
+            case "load-work-position-categories" -> migrationService::loadWorkPositionCategories;
+            case "load-work-periods" -> migrationService::loadWorkPeriods;
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Migration " + type + " not found");
+        };
+    }
+
+    private JobWork validation(String type) {
+        return switch (type) {
+            case "cost-centers" -> migrationService::validateCostCenters;
+            case "stores" -> migrationService::validateStores;
+            case "stores-org-entities-details" -> migrationService::validateStoresOrgEntities;
+            case "work-positions" -> migrationService::validateWorkPositions;
+            case "profiles" -> migrationService::validateProfiles;
+            case "stores-work-periods" -> migrationService::validateStoreWorkPeriods;
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Validation of " + type + " not found");
+        };
+    }
+
+    private static ResultFormat resultFormat(String result) {
+        try {
+            return ResultFormat.of(result);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<JobResponse> accepted(MigrationJob migrationJob) {
+        JobResponse job = JobResponse.of(migrationJob);
+        return ResponseEntity.accepted()
+                .location(URI.create("/migration/jobs/" + job.getId()))
+                .body(job);
+    }
 }
@@ -0,0 +1,81 @@
+package com.nelumbo.migration.dispatch;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Datos del trabajo y de la fila en curso para las llamadas a core-api que se hacen desde el
+ * hilo actual: el presupuesto de reintentos y, dentro de una fila, las claves de idempotencia.
+ * Las llamadas de Feign son síncronas, así que el interceptor y el retryer corren en el mismo
+ * hilo que la fila.
+ */
+public final class CallContext {
+
+    private static final ThreadLocal<CallContext> CURRENT = new ThreadLocal<>();
+
+    @Getter
+    private final String jobId;
+    @Getter
+    private final String jobType;
+    private final RetryBudget budget;
+    private final String rowSeed;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private CallContext(String jobId, String jobType, RetryBudget budget, String rowSeed) {
+        this.jobId = jobId;
+        this.jobType = jobType;
+        this.budget = budget;
+        this.rowSeed = rowSeed;
+    }
+
+    public static CallContext forJob(String jobId, String jobType, RetryBudget budget) {
+        return new CallContext(jobId, jobType, budget, null);
+    }
+
+    /**
+     * Contexto de una fila del trabajo; la semilla sale de la hoja y del contenido de la fila,
+     * así que la misma fila genera las mismas claves en cada corrida.
+     */
+    public CallContext forRow(String sheetName, long contentHash) {
+        return new CallContext(jobId, jobType, budget, sheetName + ":" + Long.toHexString(contentHash));
+    }
+
+    public static CallContext current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(CallContext context, Callable<T> work) throws Exception {
+        CallContext previous = CURRENT.get();
+        CURRENT.set(context);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public RetryBudget budget() {
+        return budget;
+    }
+
+    /**
+     * Clave de la siguiente petición que crea algo en core-api durante esta fila, o null fuera
+     * de una fila. Las peticiones de una fila salen siempre en el mismo orden, así que la n-ésima
+     * recibe la misma clave en cada corrida.
+     */
+    public String nextIdempotencyKey() {
+        if (rowSeed == null) {
+            return null;
+        }
+        String name = rowSeed + ":" + sequence.incrementAndGet();
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
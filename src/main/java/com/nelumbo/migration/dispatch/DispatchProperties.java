@@ -0,0 +1,36 @@
+package com.nelumbo.migration.dispatch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "migration.dispatch")
+public class DispatchProperties {
+
+    public enum Mode {
+        SEQUENTIAL,
+        CONCURRENT
+    }
+
+    private Mode mode = Mode.CONCURRENT;
+
+    /** Filas en vuelo por hoja cuando la hoja no tiene un límite propio. */
+    private int concurrency = 8;
+
+    /** Límite por hoja, con el nombre de la hoja como clave. */
+    private Map<String, Integer> sheets = new HashMap<>();
+
+    public int concurrencyFor(String sheetName) {
+        if (mode == Mode.SEQUENTIAL) {
+            return 1;
+        }
+        return Math.max(1, sheets.getOrDefault(sheetName, concurrency));
+    }
+}
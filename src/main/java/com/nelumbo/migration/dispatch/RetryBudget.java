@@ -0,0 +1,40 @@
+package com.nelumbo.migration.dispatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reintentos que le quedan a un trabajo. Se comparte entre todas sus filas, así que una
+ * caída larga de core-api agota el presupuesto y las filas siguientes fallan de inmediato en
+ * vez de esperar cada una su propio backoff.
+ */
+public final class RetryBudget {
+
+    public static final RetryBudget UNLIMITED = new RetryBudget(Integer.MAX_VALUE);
+
+    private final AtomicInteger remaining;
+    private final AtomicLong used = new AtomicLong();
+
+    public RetryBudget(int retries) {
+        this.remaining = new AtomicInteger(Math.max(0, retries));
+    }
+
+    /**
+     * Toma un reintento del presupuesto; false si ya no quedan.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = remaining.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!remaining.compareAndSet(current, current == Integer.MAX_VALUE ? current : current - 1));
+        used.incrementAndGet();
+        return true;
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+}
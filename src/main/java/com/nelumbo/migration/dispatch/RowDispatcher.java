@@ -0,0 +1,60 @@
+package com.nelumbo.migration.dispatch;
+
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import com.nelumbo.migration.transport.LimiterProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reparte las filas de las hojas en hilos virtuales. Cada fila bloquea en llamadas a core-api,
+ * así que un hilo virtual por fila es barato; el límite de filas en vuelo lo pone cada
+ * {@link SheetDispatch} según {@link DispatchProperties}.
+ * <p>
+ * Con el limitador adaptativo activo ese límite sube hasta {@code migration.limiter.max-limit}:
+ * las filas de más esperan turno en el limitador de cada endpoint, que es el que decide cuántas
+ * peticiones salen, y así puede crecer hasta su máximo cuando core-api responde rápido.
+ */
+@Component
+@RequiredArgsConstructor
+public class RowDispatcher implements DisposableBean {
+
+    private final DispatchProperties properties;
+    private final LimiterProperties limiterProperties;
+    private final MigrationMetrics metrics;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SheetDispatch open(String sheetName, RowProgress progress, Consumer<RowOutcome> sink) {
+        return new SheetDispatch(sheetName, progress, sink, metrics.rows(sheetName), executor, this.concurrencyFor(sheetName));
+    }
+
+    /**
+     * Corre {@code task} en los mismos hilos virtuales que las filas; para trabajo que bloquea en
+     * llamadas a core-api fuera de una {@link SheetDispatch}, como la validación.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Filas en vuelo de la hoja; en modo secuencial siempre una.
+     */
+    public int concurrencyFor(String sheetName) {
+        int concurrency = properties.concurrencyFor(sheetName);
+        if (concurrency == 1 || !limiterProperties.isEnabled()) {
+            return concurrency;
+        }
+        return Math.max(concurrency, limiterProperties.getMaxLimit());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
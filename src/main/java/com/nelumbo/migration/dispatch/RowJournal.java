@@ -0,0 +1,47 @@
+package com.nelumbo.migration.dispatch;
+
+import com.nelumbo.migration.excel.SheetRow;
+
+/**
+ * Diario de las filas de una hoja: qué se intentó y cómo terminó cada fila, para retomar una
+ * carga interrumpida sin volver a enviar lo que ya quedó en core-api.
+ */
+public interface RowJournal {
+
+    RowJournal NONE = new RowJournal() {
+        @Override
+        public RowOutcome confirmed(SheetRow row) {
+            return null;
+        }
+
+        @Override
+        public boolean inFlight(SheetRow row) {
+            return false;
+        }
+
+        @Override
+        public void intent(SheetRow row) {
+        }
+
+        @Override
+        public void record(SheetRow row, RowOutcome outcome) {
+        }
+    };
+
+    /**
+     * Resultado exitoso de una corrida anterior para esta misma fila (mismo contenido), o null.
+     */
+    RowOutcome confirmed(SheetRow row);
+
+    /**
+     * Indica si una corrida anterior empezó la fila pero no alcanzó a registrar el resultado.
+     */
+    boolean inFlight(SheetRow row);
+
+    /**
+     * Se registra antes de enviar la fila a core-api.
+     */
+    void intent(SheetRow row);
+
+    void record(SheetRow row, RowOutcome outcome);
+}
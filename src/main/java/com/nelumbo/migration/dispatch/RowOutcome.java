@@ -0,0 +1,61 @@
+package com.nelumbo.migration.dispatch;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Resultado de procesar una fila. Se calcula en el hilo que procesa la fila y se aplica
+ * después, en el hilo dueño del workbook (celda en verde o celda con el error).
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class RowOutcome {
+
+    public enum Status {
+        /** La fila se insertó en core-api. */
+        CREATED,
+        /** Ya existía en core-api, no se volvió a insertar. */
+        EXISTING,
+        /** No se pudo procesar. */
+        FAILED
+    }
+
+    private final int rowNum;
+    private final Status status;
+    /** Columna que se pinta de verde cuando la fila queda migrada. */
+    private final int markColumn;
+    private final Long createdId;
+    private final String message;
+    /** Filas de la hoja hija que se consumieron junto con esta fila (p. ej. work_turns). */
+    private final List<Integer> childRows;
+
+    public static RowOutcome created(int markColumn, Long createdId) {
+        return new RowOutcome(-1, Status.CREATED, markColumn, createdId, null, List.of());
+    }
+
+    public static RowOutcome created(int markColumn, Long createdId, List<Integer> childRows) {
+        return new RowOutcome(-1, Status.CREATED, markColumn, createdId, null, List.copyOf(childRows));
+    }
+
+    public static RowOutcome existing(int markColumn, Long id) {
+        return new RowOutcome(-1, Status.EXISTING, markColumn, id, null, List.of());
+    }
+
+    public static RowOutcome failed(String message) {
+        return new RowOutcome(-1, Status.FAILED, -1, null, message, List.of());
+    }
+
+    /**
+     * Copia del resultado asociada a la fila procesada; la asigna el dispatcher.
+     */
+    public RowOutcome at(int rowNum) {
+        return new RowOutcome(rowNum, status, markColumn, createdId, message, childRows);
+    }
+
+    public boolean isSuccess() {
+        return status != Status.FAILED;
+    }
+}
@@ -0,0 +1,58 @@
+package com.nelumbo.migration.dispatch;
+
+/**
+ * Recibe el resultado de cada fila a medida que termina y decide si la hoja debe seguir
+ * procesándose. Se llama desde los hilos que procesan las filas.
+ */
+public interface RowProgress {
+
+    RowProgress NONE = new RowProgress() {
+        @Override
+        public void record(RowOutcome outcome) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    void record(RowOutcome outcome);
+
+    /**
+     * Igual que {@link #record(RowOutcome)}, con la hoja a la que pertenece la fila.
+     */
+    default void record(String sheetName, RowOutcome outcome) {
+        record(outcome);
+    }
+
+    boolean isCancelled();
+
+    /**
+     * Filas de datos que tiene la hoja, si se conocen antes de recorrerla; sirve para estimar
+     * cuánto falta.
+     */
+    default void expect(String sheetName, int rows) {
+    }
+
+    /**
+     * Diario donde se registran las filas de la hoja.
+     */
+    default RowJournal journal(String sheetName) {
+        return RowJournal.NONE;
+    }
+
+    /**
+     * Reintentos disponibles para las llamadas a core-api de las filas.
+     */
+    default RetryBudget retryBudget() {
+        return RetryBudget.UNLIMITED;
+    }
+
+    /**
+     * false si la carga solo entrega el resultado por fila y no hace falta reescribir el libro.
+     */
+    default boolean writesWorkbook() {
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.nelumbo.migration.dispatch;
+
+import com.nelumbo.migration.excel.SheetRow;
+
+/**
+ * Decide si una fila que quedó a medias en una corrida anterior alcanzó a crearse en core-api.
+ * Devuelve el resultado si lo puede confirmar, o null para volver a procesar la fila.
+ */
+@FunctionalInterface
+public interface RowReconciler {
+
+    RowOutcome reconcile(SheetRow row) throws Exception;
+}
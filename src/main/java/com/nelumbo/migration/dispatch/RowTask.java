@@ -0,0 +1,13 @@
+package com.nelumbo.migration.dispatch;
+
+import com.nelumbo.migration.excel.SheetRow;
+
+/**
+ * Lógica de una fila. Puede ejecutarse en cualquier hilo: solo debe leer la {@link SheetRow}
+ * recibida y nunca el workbook.
+ */
+@FunctionalInterface
+public interface RowTask {
+
+    RowOutcome process(SheetRow row) throws Exception;
+}
@@ -0,0 +1,146 @@
+package com.nelumbo.migration.dispatch;
+
+import com.nelumbo.migration.excel.SheetRow;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Procesamiento de las filas de una hoja. El hilo que lee el archivo llama a {@link #submit};
+ * las filas se ejecutan en el executor con a lo sumo {@code limit} filas en vuelo, y los
+ * resultados se entregan al {@code sink} siempre en el hilo que llama a submit/close, así que
+ * el sink puede modificar el workbook de POI sin sincronización. Si el {@link RowProgress}
+ * pide cancelar, {@link #submit} lanza {@link CancellationException} y no se envían más filas.
+ */
+@Slf4j
+public class SheetDispatch implements AutoCloseable {
+
+    private final String sheetName;
+    private final Consumer<RowOutcome> sink;
+    private final RowProgress progress;
+    private final RowJournal journal;
+    private final ObjLongConsumer<RowOutcome> meter;
+    private final CallContext context;
+    private RowReconciler reconciler;
+    private final ExecutorService executor;
+    private final int limit;
+    private final Semaphore permits;
+    private final Queue<RowOutcome> completed = new ConcurrentLinkedQueue<>();
+
+    SheetDispatch(String sheetName, RowProgress progress, Consumer<RowOutcome> sink, ObjLongConsumer<RowOutcome> meter,
+                  ExecutorService executor, int limit) {
+        this.sheetName = sheetName;
+        this.sink = sink;
+        this.meter = meter;
+        this.progress = progress;
+        this.journal = progress.journal(sheetName);
+        // Se abre en el hilo del trabajo; las filas heredan su contexto aunque corran en otros hilos
+        CallContext job = CallContext.current();
+        this.context = job != null ? job : CallContext.forJob(null, null, progress.retryBudget());
+        this.executor = executor;
+        this.limit = limit;
+        this.permits = new Semaphore(limit);
+    }
+
+    /**
+     * Forma de confirmar, al retomar una carga, las filas que quedaron a medias; sin él esas
+     * filas se vuelven a procesar.
+     */
+    public SheetDispatch reconcileWith(RowReconciler reconciler) {
+        this.reconciler = reconciler;
+        return this;
+    }
+
+    public void submit(SheetRow row, RowTask task) {
+        if (progress.isCancelled()) {
+            throw new CancellationException("Sheet " + sheetName + " cancelled before row " + (row.getRowNum() + 1));
+        }
+        RowOutcome confirmed = journal.confirmed(row);
+        if (confirmed != null) {
+            // Ya quedó en core-api en una corrida anterior
+            RowOutcome outcome = confirmed.at(row.getRowNum());
+            progress.record(sheetName, outcome);
+            meter.accept(outcome, 0);
+            sink.accept(outcome);
+            return;
+        }
+        if (limit == 1) {
+            sink.accept(execute(row, task));
+            return;
+        }
+        acquire(1);
+        try {
+            executor.execute(() -> {
+                try {
+                    completed.add(execute(row, task));
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        drain();
+    }
+
+    /**
+     * Espera a que terminen las filas en vuelo y entrega sus resultados.
+     */
+    @Override
+    public void close() {
+        if (limit > 1) {
+            acquire(limit);
+            permits.release(limit);
+        }
+        drain();
+    }
+
+    private RowOutcome execute(SheetRow row, RowTask task) {
+        long start = System.nanoTime();
+        RowOutcome outcome;
+        try {
+            RowOutcome result = CallContext.call(context.forRow(sheetName, row.contentHash()), () -> {
+                if (reconciler != null && journal.inFlight(row)) {
+                    RowOutcome reconciled = reconciler.reconcile(row);
+                    if (reconciled != null) {
+                        log.info("Row " + (row.getRowNum() + 1) + " in sheet " + sheetName + " was already created, reconciled from the journal");
+                        return reconciled;
+                    }
+                }
+                journal.intent(row);
+                return task.process(row);
+            });
+            outcome = (result != null ? result : RowOutcome.created(0, null)).at(row.getRowNum());
+        } catch (Exception e) {
+            log.error("Error processing row " + (row.getRowNum() + 1) + " in sheet " + sheetName + ": " + e.getMessage());
+            outcome = RowOutcome.failed(e.getMessage()).at(row.getRowNum());
+        }
+        journal.record(row, outcome);
+        progress.record(sheetName, outcome);
+        meter.accept(outcome, System.nanoTime() - start);
+        return outcome;
+    }
+
+    private void drain() {
+        RowOutcome outcome;
+        while ((outcome = completed.poll()) != null) {
+            sink.accept(outcome);
+        }
+    }
+
+    private void acquire(int count) {
+        try {
+            permits.acquire(count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dispatching sheet " + sheetName, e);
+        }
+    }
+}
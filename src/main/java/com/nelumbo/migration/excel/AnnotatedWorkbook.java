@@ -0,0 +1,162 @@
+package com.nelumbo.migration.excel;
+
+import com.nelumbo.migration.dispatch.RowOutcome;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Libro de resultado escrito en streaming con SXSSF: las filas se escriben en orden y solo las
+ * últimas {@code window} quedan en memoria; las anteriores ya están en un archivo temporal.
+ * El libro leído no hace falta, así que la memoria no depende de la cantidad de filas.
+ * <p>
+ * Cada hoja guarda las filas enviadas que aún no tienen resultado y las escribe en cuanto la
+ * fila más antigua termina; como las filas en vuelo están limitadas por el dispatcher, esa
+ * ventana de reordenamiento también lo está. Solo se usa desde el hilo que reparte las filas.
+ */
+public class AnnotatedWorkbook implements AutoCloseable {
+
+    private final SXSSFWorkbook workbook;
+    private final CellStyle markStyle;
+    private final CellStyle dateStyle;
+
+    public AnnotatedWorkbook(int window) {
+        this.workbook = new SXSSFWorkbook(window);
+        workbook.setCompressTempFiles(true);
+        this.markStyle = workbook.createCellStyle();
+        ((XSSFCellStyle) markStyle).setFillForegroundColor(new XSSFColor(java.awt.Color.GREEN, null));
+        markStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        this.dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat((short) BuiltinFormats.getBuiltinFormat("m/d/yy"));
+    }
+
+    public AnnotatedSheet sheet(String name) {
+        return new AnnotatedSheet(workbook.createSheet(name));
+    }
+
+    public void write(File target) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target.toPath()))) {
+            workbook.write(out);
+        }
+    }
+
+    /**
+     * Cierra el libro y borra los archivos temporales de las filas ya escritas.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.close();
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    public final class AnnotatedSheet {
+
+        private final SXSSFSheet sheet;
+        private final ArrayDeque<SheetRow> pending = new ArrayDeque<>();
+        private final Map<Integer, RowOutcome> outcomes = new HashMap<>();
+        private int maxPending;
+
+        private AnnotatedSheet(SXSSFSheet sheet) {
+            this.sheet = sheet;
+        }
+
+        /**
+         * Fila enviada a procesar; se escribe cuando llegue su resultado y el de las anteriores.
+         */
+        public void pending(SheetRow row) {
+            pending.add(row);
+            maxPending = Math.max(maxPending, pending.size());
+        }
+
+        public void complete(RowOutcome outcome) {
+            outcomes.put(outcome.getRowNum(), outcome);
+            SheetRow head;
+            while ((head = pending.peek()) != null && outcomes.containsKey(head.getRowNum())) {
+                pending.poll();
+                this.write(head, outcomes.remove(head.getRowNum()));
+            }
+        }
+
+        /**
+         * Escribe sin marca las filas que quedaron sin resultado (la carga se canceló).
+         */
+        public void finish() {
+            SheetRow row;
+            while ((row = pending.poll()) != null) {
+                this.write(row, outcomes.remove(row.getRowNum()));
+            }
+        }
+
+        /**
+         * Escribe la fila de inmediato; las filas deben llegar en orden.
+         *
+         * @param markColumn columna que se pinta de verde, o -1
+         * @param error      mensaje que se agrega en una celda al final, o null
+         */
+        public void write(SheetRow row, int markColumn, String error) {
+            Row out = sheet.createRow(row.getRowNum());
+            for (int i = 0; i < row.getLastCellNum(); i++) {
+                SheetCell value = row.getCell(i);
+                if (value != null) {
+                    Cell cell = out.createCell(i);
+                    copy(value, cell);
+                    if (i == markColumn) {
+                        cell.setCellStyle(markStyle);
+                    }
+                }
+            }
+            if (error != null) {
+                out.createCell(row.getPhysicalNumberOfCells()).setCellValue("Error: " + error);
+            }
+        }
+
+        private void write(SheetRow row, RowOutcome outcome) {
+            if (outcome == null) {
+                this.write(row, -1, null);
+            } else if (outcome.isSuccess()) {
+                this.write(row, outcome.getMarkColumn(), null);
+            } else {
+                this.write(row, -1, outcome.getMessage());
+            }
+        }
+
+        /** Mayor cantidad de filas que esperaron a una anterior para escribirse. */
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        private void copy(SheetCell value, Cell cell) {
+            switch (value.getCellType()) {
+                case STRING -> cell.setCellValue(value.getStringCellValue());
+                case NUMERIC -> {
+                    cell.setCellValue(value.getNumericCellValue());
+                    if (value.isDateFormatted()) {
+                        cell.setCellStyle(dateStyle);
+                    }
+                }
+                case BOOLEAN -> cell.setCellValue(value.getBooleanCellValue());
+                case ERROR -> cell.setCellErrorValue(FormulaError.NA.getCode());
+                default -> cell.setBlank();
+            }
+        }
+    }
+}
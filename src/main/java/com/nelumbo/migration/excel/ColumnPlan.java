@@ -0,0 +1,119 @@
+package com.nelumbo.migration.excel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encabezados de una hoja resueltos una sola vez por carga: las columnas propias de la carga
+ * ({@code code}, {@code denomination}, ...) quedan por nombre y el resto como campos adicionales
+ * en arreglos paralelos de nombre y posición. Convertir una fila recorre esos arreglos sin volver
+ * a comparar nombres, y el tipo de cada celda (fecha incluida) ya viene decidido por el lector.
+ * <p>
+ * Es inmutable, así que la comparten todas las filas de la hoja aunque corran en paralelo.
+ */
+public final class ColumnPlan {
+
+    private final String[] reserved;
+    private final int[] reservedColumns;
+    private final String[] fieldNames;
+    private final int[] fieldColumns;
+
+    private ColumnPlan(String[] reserved, int[] reservedColumns, String[] fieldNames, int[] fieldColumns) {
+        this.reserved = reserved;
+        this.reservedColumns = reservedColumns;
+        this.fieldNames = fieldNames;
+        this.fieldColumns = fieldColumns;
+    }
+
+    /**
+     * Resuelve la fila de encabezados. Los nombres de {@code reserved} se buscan sin distinguir
+     * mayúsculas; si uno se repite vale la última columna, como el resto de los encabezados.
+     */
+    public static ColumnPlan compile(SheetRow header, String... reserved) {
+        int[] reservedColumns = new int[reserved.length];
+        Arrays.fill(reservedColumns, -1);
+        int columns = header.getPhysicalNumberOfCells();
+        String[] fieldNames = new String[columns];
+        int[] fieldColumns = new int[columns];
+        int fields = 0;
+
+        for (int i = 0; i < columns; i++) {
+            SheetCell columnName = header.getCell(i);
+            if (columnName == null) {
+                throw new IllegalArgumentException("ColumnName can not be null, column: " + i);
+            }
+            String name = columnName.getStringCellValue();
+            int r = indexOf(reserved, name);
+            if (r >= 0) {
+                reservedColumns[r] = i;
+            } else {
+                fieldNames[fields] = name;
+                fieldColumns[fields] = i;
+                fields++;
+            }
+        }
+        return new ColumnPlan(reserved.clone(), reservedColumns, Arrays.copyOf(fieldNames, fields),
+                Arrays.copyOf(fieldColumns, fields));
+    }
+
+    /**
+     * Posición de una columna reservada, o -1 si la hoja no la tiene.
+     */
+    public int column(String name) {
+        int r = indexOf(reserved, name);
+        if (r < 0) {
+            throw new IllegalArgumentException("Column " + name + " not found in the plan");
+        }
+        return reservedColumns[r];
+    }
+
+    /**
+     * Si la hoja tiene todas estas columnas reservadas.
+     */
+    public boolean hasColumns(String... names) {
+        for (String name : names) {
+            if (this.column(name) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getFieldCount() {
+        return fieldNames.length;
+    }
+
+    /**
+     * Campos adicionales de la fila por nombre de columna, en un mapa del tamaño justo. Las
+     * celdas vacías quedan con valor null.
+     */
+    public Map<String, Object> fieldsValues(SheetRow row) {
+        Map<String, Object> values = HashMap.newHashMap(fieldNames.length);
+        for (int f = 0; f < fieldNames.length; f++) {
+            values.put(fieldNames[f], value(row.getCell(fieldColumns[f])));
+        }
+        return values;
+    }
+
+    private static Object value(SheetCell cell) {
+        if (cell == null) {
+            return null;
+        }
+        return switch (cell.getCellType()) {
+            case STRING -> cell.getStringCellValue();
+            case NUMERIC -> cell.isDateFormatted() ? cell.getDateCellValue() : cell.getNumericCellValue();
+            case BOOLEAN -> cell.getBooleanCellValue();
+            default -> null;
+        };
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,166 @@
+package com.nelumbo.migration.excel;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parser de CSV (RFC 4180) que emite una {@link SheetRow} por registro mientras lee, igual que
+ * {@link StreamingSheetParser} con el XML de una hoja: el registro {@code n} es la fila {@code n},
+ * así que la fila 0 son los nombres de las columnas. Los campos vacíos no generan celda y los
+ * registros sin ningún valor no se emiten, como las filas vacías de un libro.
+ * <p>
+ * El separador (coma, punto y coma, tabulador o barra) se detecta en la primera línea.
+ */
+class CsvSheetParser {
+
+    private static final char[] DELIMITERS = {',', ';', '\t', '|'};
+    // Límite de caracteres de una celda de Excel; un campo más largo suele ser una comilla sin cerrar
+    private static final int MAX_FIELD_LENGTH = 32_767;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BitSet columns;
+
+    CsvSheetParser(BitSet columns) {
+        this.columns = columns;
+    }
+
+    void parse(Reader in, Consumer<SheetRow> consumer) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        // Hasta tener la primera línea, para detectar el separador aunque el lector entregue de a poco
+        int length = 0;
+        int read;
+        while (length < buffer.length && !hasLineEnd(buffer, length) && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+            length += read;
+        }
+        if (length == 0) {
+            return;
+        }
+        int pos = buffer[0] == '\uFEFF' ? 1 : 0;
+        char delimiter = detectDelimiter(buffer, pos, length);
+
+        List<SheetCell> rowCells = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int rowNum = 0;
+        int column = 0;
+        boolean quoted = false;
+        boolean quote = false;
+        boolean lastWasCr = false;
+
+        while (length > 0) {
+            for (; pos < length; pos++) {
+                char ch = buffer[pos];
+                if (lastWasCr) {
+                    lastWasCr = false;
+                    if (ch == '\n') {
+                        continue;
+                    }
+                }
+                if (quoted) {
+                    if (quote) {
+                        quote = false;
+                        if (ch == '"') {
+                            // Comilla escapada ("")
+                            field.append('"');
+                            continue;
+                        }
+                        quoted = false;
+                    } else if (ch == '"') {
+                        quote = true;
+                        continue;
+                    } else {
+                        this.append(field, ch, rowNum);
+                        continue;
+                    }
+                }
+                if (ch == delimiter) {
+                    this.addCell(rowCells, column++, field);
+                } else if (ch == '\n' || ch == '\r') {
+                    this.addCell(rowCells, column, field);
+                    this.emit(rowNum++, rowCells, consumer);
+                    column = 0;
+                    lastWasCr = ch == '\r';
+                } else if (ch == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else {
+                    this.append(field, ch, rowNum);
+                }
+            }
+            length = in.read(buffer);
+            pos = 0;
+        }
+        if (quoted && !quote) {
+            throw new IllegalArgumentException("Row " + (rowNum + 1) + " has an unclosed quote");
+        }
+        this.addCell(rowCells, column, field);
+        this.emit(rowNum, rowCells, consumer);
+    }
+
+    private void append(StringBuilder field, char ch, int rowNum) {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Row " + (rowNum + 1) + " has a field longer than " + MAX_FIELD_LENGTH
+                    + " characters, check for an unclosed quote");
+        }
+        field.append(ch);
+    }
+
+    private void addCell(List<SheetCell> rowCells, int column, StringBuilder field) {
+        if (!field.isEmpty() && (columns == null || columns.get(column))) {
+            rowCells.add(SheetCell.parse(column, field.toString()));
+        }
+        field.setLength(0);
+    }
+
+    private void emit(int rowNum, List<SheetCell> rowCells, Consumer<SheetRow> consumer) {
+        if (rowCells.isEmpty()) {
+            return;
+        }
+        SheetCell[] cells = new SheetCell[rowCells.get(rowCells.size() - 1).getColumnIndex() + 1];
+        for (SheetCell cell : rowCells) {
+            cells[cell.getColumnIndex()] = cell;
+        }
+        rowCells.clear();
+        consumer.accept(new SheetRow(rowNum, cells));
+    }
+
+    private static boolean hasLineEnd(char[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\n' || buffer[i] == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * El separador que más aparece fuera de comillas en la primera línea; coma si no aparece ninguno.
+     */
+    static char detectDelimiter(char[] buffer, int from, int length) {
+        int[] counts = new int[DELIMITERS.length];
+        boolean quoted = false;
+        for (int i = from; i < length; i++) {
+            char ch = buffer[i];
+            if (ch == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (ch == '\n' || ch == '\r')) {
+                break;
+            } else if (!quoted) {
+                for (int d = 0; d < DELIMITERS.length; d++) {
+                    if (ch == DELIMITERS[d]) {
+                        counts[d]++;
+                    }
+                }
+            }
+        }
+        int best = 0;
+        for (int d = 1; d < DELIMITERS.length; d++) {
+            if (counts[d] > counts[best]) {
+                best = d;
+            }
+        }
+        return DELIMITERS[best];
+    }
+}
@@ -0,0 +1,48 @@
+package com.nelumbo.migration.excel;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Este formato es de fecha" para las celdas leídas en modo DOM. DateUtil.isCellDateFormatted
+ * parsea el texto del formato en cada celda; los libros usan pocos formatos distintos, así que
+ * la decisión se guarda por texto de formato (el lector en streaming la guarda por estilo).
+ */
+final class DateFormats {
+
+    // Tope de formatos guardados; más allá se decide sin guardar
+    private static final int MAX_FORMATS = 1024;
+    private static final Map<String, Boolean> DATE_FORMATS = new ConcurrentHashMap<>();
+
+    private DateFormats() {
+    }
+
+    /**
+     * Lo mismo que DateUtil.isCellDateFormatted para una celda numérica sin formato condicional.
+     */
+    static boolean isDateFormatted(Cell cell) {
+        CellStyle style = cell.getCellStyle();
+        if (style == null || !DateUtil.isValidExcelDate(cell.getNumericCellValue())) {
+            return false;
+        }
+        if (DateUtil.isInternalDateFormat(style.getDataFormat())) {
+            return true;
+        }
+        String format = style.getDataFormatString();
+        if (format == null || format.isEmpty()) {
+            return false;
+        }
+        Boolean cached = DATE_FORMATS.get(format);
+        if (cached == null) {
+            cached = DateUtil.isADateFormat(-1, format);
+            if (DATE_FORMATS.size() < MAX_FORMATS) {
+                DATE_FORMATS.put(format, cached);
+            }
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,233 @@
+package com.nelumbo.migration.excel;
+
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lee una sola hoja de un archivo Excel y entrega sus filas una a una.
+ * En modo {@link ReaderMode#STREAMING} no se construye el workbook: se abre el zip en modo
+ * lectura, se parsea únicamente el XML de la hoja pedida y se descartan las columnas que el
+ * llamador no necesita.
+ * <p>
+ * Los archivos CSV y NDJSON ({@link InputFormat}), con o sin gzip, tienen una sola hoja que
+ * responde a cualquier {@link SheetSelector}; se leen siempre en streaming y mientras se leen,
+ * así que una subida que todavía está llegando se procesa a medida que llega.
+ */
+@Slf4j
+@Component
+public class ExcelReader {
+
+    private static final int TEXT_BUFFER_SIZE = 64 * 1024;
+
+    private final ReaderMode mode;
+    private final MigrationMetrics metrics;
+
+    @Autowired
+    public ExcelReader(@Value("${migration.excel.reader-mode:streaming}") ReaderMode mode, MigrationMetrics metrics) {
+        this.mode = mode;
+        this.metrics = metrics;
+    }
+
+    public ExcelReader(ReaderMode mode) {
+        this(mode, MigrationMetrics.NONE);
+    }
+
+    /**
+     * Carga el workbook completo, para las hojas que se modifican y se devuelven al usuario.
+     */
+    public Workbook openWorkbook(MultipartFile file) throws IOException {
+        if (!InputFormat.of(file).isWorkbook()) {
+            throw new IllegalArgumentException("File " + file.getOriginalFilename() + " is not an .xlsx workbook");
+        }
+        long start = System.nanoTime();
+        try {
+            return new XSSFWorkbook(file.getInputStream());
+        } finally {
+            metrics.parsed("dom", file.getSize(), start);
+        }
+    }
+
+    /**
+     * Recorre las filas de datos (a partir de la fila 1, la 0 son los nombres de las columnas).
+     *
+     * @param columns columnas que usa el llamador; null para leerlas todas
+     */
+    public void forEachDataRow(MultipartFile file, SheetSelector selector, int[] columns, Consumer<SheetRow> consumer) throws IOException {
+        forEachDataRow(file, selector, columns, rows -> { }, consumer);
+    }
+
+    /**
+     * Igual que {@link #forEachDataRow(MultipartFile, SheetSelector, int[], Consumer)}; antes de la
+     * primera fila informa a {@code dataRows} cuántas filas de datos tiene la hoja, si el archivo
+     * lo declara.
+     */
+    public void forEachDataRow(MultipartFile file, SheetSelector selector, int[] columns, IntConsumer dataRows,
+                               Consumer<SheetRow> consumer) throws IOException {
+        forEachRow(file, selector, columns, rows -> dataRows.accept(Math.max(0, rows - 1)), row -> {
+            if (row.getRowNum() > 0) {
+                consumer.accept(row);
+            }
+        });
+    }
+
+    /**
+     * Recorre todas las filas físicas de la hoja, incluida la de encabezados.
+     */
+    public void forEachRow(MultipartFile file, SheetSelector selector, int[] columns, Consumer<SheetRow> consumer) throws IOException {
+        forEachRow(file, selector, columns, rows -> { }, consumer);
+    }
+
+    /**
+     * Igual que {@link #forEachRow(MultipartFile, SheetSelector, int[], Consumer)}; antes de la primera
+     * fila informa a {@code sheetRows} cuántas filas tiene la hoja, si el archivo lo declara.
+     */
+    public void forEachRow(MultipartFile file, SheetSelector selector, int[] columns, IntConsumer sheetRows,
+                           Consumer<SheetRow> consumer) throws IOException {
+        BitSet projection = toBitSet(columns);
+        InputFormat format = InputFormat.of(file);
+        if (!format.isWorkbook()) {
+            long start = System.nanoTime();
+            try {
+                readText(file, format, projection, consumer);
+            } finally {
+                metrics.parsed(format.name().toLowerCase(Locale.ROOT), file.getSize(), start);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (mode == ReaderMode.DOM) {
+                readDom(file, selector, projection, sheetRows, consumer);
+            } else {
+                readStreaming(file, selector, projection, sheetRows, consumer);
+            }
+        } finally {
+            metrics.parsed(mode.name().toLowerCase(Locale.ROOT), file.getSize(), start);
+        }
+    }
+
+    private void readStreaming(MultipartFile file, SheetSelector selector, BitSet projection, IntConsumer sheetRows,
+                               Consumer<SheetRow> consumer) throws IOException {
+        // OPCPackage sobre un archivo usa acceso aleatorio al zip; sobre un InputStream lo inflaría completo
+        Path spooled = Files.createTempFile("migration-", ".xlsx");
+        try {
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (OPCPackage pkg = OPCPackage.open(spooled.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+                StylesTable styles = reader.getStylesTable();
+                StreamingSheetParser parser = new StreamingSheetParser(sharedStrings, styles, projection);
+
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                int index = 0;
+                while (sheets.hasNext()) {
+                    try (InputStream sheetData = sheets.next()) {
+                        if (selector.matches(index, sheets.getSheetName())) {
+                            log.info("Leyendo en streaming la hoja: " + sheets.getSheetName());
+                            parser.parse(sheetData, sheetRows, consumer);
+                            return;
+                        }
+                    }
+                    index++;
+                }
+                throw new IllegalArgumentException("Sheet " + selector + " not found");
+            }
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Error reading sheet " + selector + ": " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    private void readDom(MultipartFile file, SheetSelector selector, BitSet projection, IntConsumer sheetRows,
+                         Consumer<SheetRow> consumer) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
+            Sheet sheet = selector.getIndex() != null ? workbook.getSheetAt(selector.getIndex()) : workbook.getSheet(selector.getName());
+            if (sheet == null) {
+                throw new IllegalArgumentException("Sheet " + selector + " not found");
+            }
+            sheetRows.accept(sheet.getLastRowNum() + 1);
+            Iterator<Row> rows = sheet.rowIterator();
+            while (rows.hasNext()) {
+                consumer.accept(SheetRow.of(rows.next(), projection));
+            }
+        }
+    }
+
+    private void readText(MultipartFile file, InputFormat format, BitSet projection, Consumer<SheetRow> consumer) throws IOException {
+        log.info("Leyendo en streaming el " + format + " " + file.getOriginalFilename());
+        try (InputStream in = decompressed(file.getInputStream())) {
+            if (format == InputFormat.CSV) {
+                new CsvSheetParser(projection).parse(new InputStreamReader(in, StandardCharsets.UTF_8), consumer);
+            } else {
+                new NdjsonSheetParser(projection).parse(in, consumer);
+            }
+        }
+    }
+
+    /**
+     * Descomprime el contenido si empieza con la firma de gzip.
+     */
+    private static InputStream decompressed(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, TEXT_BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >>> 8)) {
+            // GZIPInputStream.available() dice 1 hasta el final aunque leer bloquee; con eso el
+            // InputStreamReader esperaría a llenar su buffer en vez de entregar lo que ya llegó
+            return new FilterInputStream(new GZIPInputStream(buffered, TEXT_BUFFER_SIZE)) {
+                @Override
+                public int available() {
+                    return 0;
+                }
+            };
+        }
+        return buffered;
+    }
+
+    private static BitSet toBitSet(int[] columns) {
+        if (columns == null) {
+            return null;
+        }
+        BitSet bitSet = new BitSet();
+        for (int column : columns) {
+            bitSet.set(column);
+        }
+        return bitSet;
+    }
+}
@@ -0,0 +1,87 @@
+package com.nelumbo.migration.excel;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Locale;
+
+/**
+ * Formato del archivo subido, según la extensión del nombre original (sin {@code .gz}) o, si no
+ * la tiene, según el Content-Type. Los archivos de texto pueden venir comprimidos con gzip
+ * cualquiera sea su nombre; se reconocen por su contenido.
+ */
+public enum InputFormat {
+    /** Libro de Excel; es el único formato con varias hojas. */
+    XLSX(".xlsx", null),
+    /** Valores separados por coma, punto y coma, tabulador o barra; la primera fila son los nombres de las columnas. */
+    CSV(".csv", "text/csv"),
+    /** Un objeto JSON por línea; las llaves del primero son los nombres de las columnas. */
+    NDJSON(".ndjson", "application/x-ndjson");
+
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final String GZIP = ".gz";
+
+    private final String extension;
+    private final String contentType;
+
+    InputFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public static InputFormat of(MultipartFile file) {
+        return of(file.getOriginalFilename(), file.getContentType());
+    }
+
+    public static InputFormat of(String fileName, String contentType) {
+        String name = stripGzip(fileName);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (name.endsWith(".xlsx") || contentType == null) {
+            return XLSX;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith(TEXT_CSV)) {
+            return CSV;
+        }
+        if (type.startsWith(APPLICATION_NDJSON)) {
+            return NDJSON;
+        }
+        return XLSX;
+    }
+
+    public boolean isWorkbook() {
+        return this == XLSX;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Nombre del libro de resultado para un archivo de este formato: los de texto se devuelven
+     * como {@code .xlsx} con el mismo nombre.
+     */
+    public String workbookName(String fileName) {
+        if (this == XLSX || fileName == null) {
+            return fileName;
+        }
+        String name = fileName.toLowerCase(Locale.ROOT).endsWith(GZIP) ? fileName.substring(0, fileName.length() - GZIP.length()) : fileName;
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name) + XLSX.extension;
+    }
+
+    private static String stripGzip(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(GZIP) ? name.substring(0, name.length() - GZIP.length()) : name;
+    }
+}
@@ -0,0 +1,145 @@
+package com.nelumbo.migration.excel;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Parser de NDJSON (un valor JSON por línea) que emite una {@link SheetRow} por línea mientras
+ * lee. Las líneas pueden ser:
+ * <ul>
+ *     <li>objetos: las llaves del primero, en su orden, son las columnas y forman la fila 0; el
+ *     primer objeto es la fila 1. Las llaves que no estén en el primer objeto se ignoran</li>
+ *     <li>arreglos: el primero son los nombres de las columnas y los demás los valores por posición,
+ *     como un CSV</li>
+ * </ul>
+ * Los strings quedan como texto, los números numéricos y los null sin celda.
+ */
+@Slf4j
+class NdjsonSheetParser {
+
+    private static final ObjectReader READER = new ObjectMapper().readerFor(JsonNode.class);
+
+    private final BitSet columns;
+
+    NdjsonSheetParser(BitSet columns) {
+        this.columns = columns;
+    }
+
+    void parse(InputStream in, Consumer<SheetRow> consumer) throws IOException {
+        Map<String, Integer> header = null;
+        boolean objects = false;
+        long ignoredKeys = 0;
+        int rowNum = 0;
+
+        try (MappingIterator<JsonNode> lines = READER.readValues(in)) {
+            while (lines.hasNextValue()) {
+                JsonNode line = lines.nextValue();
+                if (header == null) {
+                    objects = line.isObject();
+                    if (!objects && !line.isArray()) {
+                        throw new IllegalArgumentException("First NDJSON line must be an object or an array of column names");
+                    }
+                    header = new LinkedHashMap<>();
+                    Iterator<String> names = objects ? line.fieldNames() : this.texts(line);
+                    while (names.hasNext()) {
+                        header.putIfAbsent(names.next(), header.size());
+                    }
+                    consumer.accept(this.headerRow(header));
+                    rowNum++;
+                    if (!objects) {
+                        continue;
+                    }
+                }
+                if (line.isObject() != objects || !(line.isObject() || line.isArray())) {
+                    throw new IllegalArgumentException("Row " + (rowNum + 1) + " must be " + (objects ? "an object" : "an array")
+                            + " like the first NDJSON line");
+                }
+                List<SheetCell> rowCells = new ArrayList<>();
+                if (objects) {
+                    for (Iterator<Map.Entry<String, JsonNode>> fields = line.fields(); fields.hasNext(); ) {
+                        Map.Entry<String, JsonNode> field = fields.next();
+                        Integer column = header.get(field.getKey());
+                        if (column == null) {
+                            ignoredKeys++;
+                        } else {
+                            this.addCell(rowCells, column, field.getValue());
+                        }
+                    }
+                } else {
+                    for (int column = 0; column < line.size(); column++) {
+                        this.addCell(rowCells, column, line.get(column));
+                    }
+                }
+                this.emit(rowNum++, rowCells, consumer);
+            }
+        }
+        if (ignoredKeys > 0) {
+            log.warn("Se ignoraron " + ignoredKeys + " valores con llaves que no están en la primera línea del NDJSON");
+        }
+    }
+
+    private Iterator<String> texts(JsonNode array) {
+        List<String> names = new ArrayList<>();
+        array.forEach(name -> names.add(name.asText()));
+        return names.iterator();
+    }
+
+    private SheetRow headerRow(Map<String, Integer> header) {
+        List<SheetCell> rowCells = new ArrayList<>();
+        header.forEach((name, column) -> {
+            if (columns == null || columns.get(column)) {
+                rowCells.add(SheetCell.ofText(column, name));
+            }
+        });
+        return toRow(0, rowCells);
+    }
+
+    private void addCell(List<SheetCell> rowCells, int column, JsonNode value) {
+        if (value == null || value.isNull() || (columns != null && !columns.get(column))) {
+            return;
+        }
+        if (value.isNumber()) {
+            rowCells.add(SheetCell.parse(column, value.asText()));
+        } else if (value.isBoolean()) {
+            rowCells.add(SheetCell.ofBoolean(column, value.booleanValue()));
+        } else if (value.isTextual()) {
+            if (!value.textValue().isEmpty()) {
+                rowCells.add(SheetCell.ofText(column, value.textValue()));
+            }
+        } else {
+            // Objetos y arreglos anidados quedan como su JSON
+            rowCells.add(SheetCell.ofText(column, value.toString()));
+        }
+    }
+
+    private void emit(int rowNum, List<SheetCell> rowCells, Consumer<SheetRow> consumer) {
+        if (!rowCells.isEmpty()) {
+            consumer.accept(toRow(rowNum, rowCells));
+        }
+    }
+
+    private static SheetRow toRow(int rowNum, List<SheetCell> rowCells) {
+        int width = 0;
+        for (SheetCell cell : rowCells) {
+            width = Math.max(width, cell.getColumnIndex() + 1);
+        }
+        SheetCell[] cells = new SheetCell[width];
+        for (SheetCell cell : rowCells) {
+            cells[cell.getColumnIndex()] = cell;
+        }
+        return new SheetRow(rowNum, cells);
+    }
+}
@@ -0,0 +1,8 @@
+package com.nelumbo.migration.excel;
+
+public enum ReaderMode {
+    /** Lectura por eventos (StAX): solo se abre la hoja pedida y la memoria es constante. */
+    STREAMING,
+    /** Carga completa del workbook con XSSFWorkbook. */
+    DOM
+}
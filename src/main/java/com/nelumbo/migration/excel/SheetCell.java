@@ -0,0 +1,217 @@
+package com.nelumbo.migration.excel;
+
+import lombok.Getter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+/**
+ * Valor inmutable de una celda, desacoplado del modelo de POI.
+ * Expone los mismos getters que {@link Cell} para que la lógica de filas no cambie
+ * al leer en modo streaming o en modo DOM.
+ * <p>
+ * Las celdas de archivos de texto (CSV, NDJSON) son permisivas: guardan el texto original y lo
+ * convierten a número, booleano o fecha si se pide, porque en texto no hay tipo de celda.
+ */
+@Getter
+public final class SheetCell {
+
+    // Hasta 15 dígitos significativos, como guarda Excel los números; sin ceros a la izquierda,
+    // que en claves como "007" son parte del valor
+    private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9]\\d{0,14})(\\.\\d{1,15})?([eE][-+]?\\d{1,3})?");
+    // Lo que se acepta como número al pedir el valor numérico de un texto, ceros a la izquierda incluidos
+    private static final Pattern NUMERIC_TEXT = Pattern.compile("[-+]?\\d+(\\.\\d+)?([eE][-+]?\\d+)?");
+    private static final Pattern ISO_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}([T ]\\d{2}:\\d{2}(:\\d{2})?)?");
+    private static final long DAY_MILLIS = 86_400_000L;
+    // Día 0 de las fechas de Excel (sistema 1900): 31/12/1899
+    private static final long EXCEL_EPOCH_DAY = LocalDate.of(1899, 12, 31).toEpochDay();
+    // Antes de 1901 TimeZone y ZoneRules difieren en las zonas con hora solar local
+    private static final long FIRST_ZONED_DAY = LocalDate.of(1901, 1, 1).toEpochDay();
+
+    private final int columnIndex;
+    private final CellType cellType;
+    private final String stringValue;
+    private final double numericValue;
+    private final boolean booleanValue;
+    private final boolean dateFormatted;
+    /** Celda leída de un archivo de texto; {@code stringValue} es el texto original. */
+    private final boolean text;
+
+    private SheetCell(int columnIndex, CellType cellType, String stringValue, double numericValue,
+                      boolean booleanValue, boolean dateFormatted, boolean text) {
+        this.columnIndex = columnIndex;
+        this.cellType = cellType;
+        this.stringValue = stringValue;
+        this.numericValue = numericValue;
+        this.booleanValue = booleanValue;
+        this.dateFormatted = dateFormatted;
+        this.text = text;
+    }
+
+    public static SheetCell ofString(int columnIndex, String value) {
+        return new SheetCell(columnIndex, CellType.STRING, value, 0d, false, false, false);
+    }
+
+    public static SheetCell ofNumeric(int columnIndex, double value, boolean dateFormatted) {
+        return new SheetCell(columnIndex, CellType.NUMERIC, null, value, false, dateFormatted, false);
+    }
+
+    public static SheetCell ofBoolean(int columnIndex, boolean value) {
+        return new SheetCell(columnIndex, CellType.BOOLEAN, null, 0d, value, false, false);
+    }
+
+    public static SheetCell ofBlank(int columnIndex) {
+        return new SheetCell(columnIndex, CellType.BLANK, null, 0d, false, false, false);
+    }
+
+    public static SheetCell ofError(int columnIndex) {
+        return new SheetCell(columnIndex, CellType.ERROR, null, 0d, false, false, false);
+    }
+
+    /**
+     * Texto de un archivo de texto que se conserva como texto (un string de NDJSON).
+     */
+    public static SheetCell ofText(int columnIndex, String value) {
+        return new SheetCell(columnIndex, CellType.STRING, value, 0d, false, false, true);
+    }
+
+    /**
+     * Valor de un campo CSV con el tipo que le daría Excel al abrir el archivo: los números
+     * quedan numéricos y las fechas ISO ({@code 2024-01-31}, con hora opcional) numéricas con
+     * formato de fecha; el resto queda como texto.
+     */
+    public static SheetCell parse(int columnIndex, String value) {
+        if (NUMBER.matcher(value).matches()) {
+            return new SheetCell(columnIndex, CellType.NUMERIC, value, Double.parseDouble(value), false, false, true);
+        }
+        LocalDateTime date = isoDate(value);
+        if (date != null) {
+            return new SheetCell(columnIndex, CellType.NUMERIC, value, DateUtil.getExcelDate(date), false, true, true);
+        }
+        return ofText(columnIndex, value);
+    }
+
+    /**
+     * Copia el valor de una celda de POI. Las fórmulas se resuelven con su valor cacheado.
+     */
+    public static SheetCell of(Cell cell) {
+        int column = cell.getColumnIndex();
+        CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+        return switch (type) {
+            case STRING -> ofString(column, cell.getStringCellValue());
+            case NUMERIC -> ofNumeric(column, cell.getNumericCellValue(), DateFormats.isDateFormatted(cell));
+            case BOOLEAN -> ofBoolean(column, cell.getBooleanCellValue());
+            case ERROR -> ofError(column);
+            default -> ofBlank(column);
+        };
+    }
+
+    public String getStringCellValue() {
+        if (text) {
+            return stringValue;
+        }
+        return switch (cellType) {
+            case STRING -> stringValue;
+            case BLANK -> "";
+            default -> throw typeMismatch(CellType.STRING);
+        };
+    }
+
+    public double getNumericCellValue() {
+        return switch (cellType) {
+            case NUMERIC -> numericValue;
+            case BLANK -> 0d;
+            case STRING -> {
+                if (text && NUMERIC_TEXT.matcher(stringValue.trim()).matches()) {
+                    yield Double.parseDouble(stringValue.trim());
+                }
+                throw typeMismatch(CellType.NUMERIC);
+            }
+            default -> throw typeMismatch(CellType.NUMERIC);
+        };
+    }
+
+    public boolean getBooleanCellValue() {
+        return switch (cellType) {
+            case BOOLEAN -> booleanValue;
+            case BLANK -> false;
+            case STRING -> {
+                if (text && ("true".equalsIgnoreCase(stringValue) || "false".equalsIgnoreCase(stringValue))) {
+                    yield Boolean.parseBoolean(stringValue);
+                }
+                throw typeMismatch(CellType.BOOLEAN);
+            }
+            default -> throw typeMismatch(CellType.BOOLEAN);
+        };
+    }
+
+    public Date getDateCellValue() {
+        if (cellType == CellType.BLANK) {
+            return null;
+        }
+        if (text && cellType == CellType.STRING) {
+            LocalDateTime date = isoDate(stringValue.trim());
+            if (date == null) {
+                throw typeMismatch(CellType.NUMERIC);
+            }
+            return javaDate(DateUtil.getExcelDate(date));
+        }
+        return javaDate(getNumericCellValue());
+    }
+
+    /**
+     * Lo mismo que DateUtil.getJavaDate (zona horaria por defecto, sin redondear segundos) pero
+     * con aritmética sobre el día de época: sin Calendar ni BigDecimal por celda, que es lo más
+     * caro al convertir columnas de fechas. Los casos donde Calendar y java.time no coinciden
+     * (horas repetidas o saltadas por cambio de horario y fechas anteriores a 1901) siguen yendo
+     * a DateUtil.
+     */
+    private static Date javaDate(double excelDate) {
+        if (!DateUtil.isValidExcelDate(excelDate)) {
+            return null;
+        }
+        int wholeDays = (int) Math.floor(excelDate);
+        int millisInDay = (int) ((excelDate - wholeDays) * DAY_MILLIS + 0.5);
+        // Excel cuenta un 29/02/1900 que no existió: desde el día 61 hay un día de más
+        long epochDay = EXCEL_EPOCH_DAY + (wholeDays < 61 ? wholeDays : wholeDays - 1);
+        ZoneId zone = ZoneId.systemDefault();
+        ZoneRules rules = zone.getRules();
+        if (rules.isFixedOffset()) {
+            long offsetMillis = rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L;
+            return new Date(epochDay * DAY_MILLIS + millisInDay - offsetMillis);
+        }
+        LocalDateTime local = LocalDate.ofEpochDay(epochDay).atStartOfDay().plusNanos(millisInDay * 1_000_000L);
+        if (epochDay < FIRST_ZONED_DAY || rules.getTransition(local) != null) {
+            return DateUtil.getJavaDate(excelDate);
+        }
+        return Date.from(local.atZone(zone).toInstant());
+    }
+
+    private static LocalDateTime isoDate(String value) {
+        if (!ISO_DATE.matcher(value).matches()) {
+            return null;
+        }
+        try {
+            return value.length() == 10
+                    ? LocalDate.parse(value).atTime(LocalTime.MIDNIGHT)
+                    : LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private IllegalStateException typeMismatch(CellType expected) {
+        // Mismo mensaje que POI para que los errores registrados por fila no cambien
+        return new IllegalStateException("Cannot get a " + expected + " value from a " + cellType + " cell");
+    }
+}
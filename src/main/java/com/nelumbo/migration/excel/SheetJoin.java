@@ -0,0 +1,96 @@
+package com.nelumbo.migration.excel;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Filas de una hoja hija agrupadas por la columna que las une con la hoja padre (por ejemplo
+ * work_turns por el nombre de su work_period). La hoja hija se recorre una sola vez y cada fila
+ * padre recibe sus hijas sin volver a leer la hoja. Las llaves se comparan sin distinguir
+ * mayúsculas ni espacios a los lados; las filas se conservan en el orden de la hoja.
+ * <p>
+ * Las filas ya están copiadas, así que el índice puede leerse desde cualquier hilo.
+ */
+public final class SheetJoin {
+
+    private final Map<String, List<SheetRow>> children;
+    private final int size;
+
+    private SheetJoin(Map<String, List<SheetRow>> children, int size) {
+        this.children = children;
+        this.size = size;
+    }
+
+    /**
+     * Copia las filas de datos de la hoja hija (a partir de la 1) y las agrupa por la llave.
+     */
+    public static SheetJoin index(Sheet childSheet, int keyColumn) {
+        List<SheetRow> rows = new ArrayList<>();
+        for (int j = 1; j < childSheet.getPhysicalNumberOfRows(); j++) {
+            Row row = childSheet.getRow(j);
+            if (row != null) {
+                rows.add(SheetRow.of(row, null));
+            }
+        }
+        return index(rows, keyColumn);
+    }
+
+    /**
+     * Agrupa filas ya copiadas, por ejemplo las que entrega {@link ExcelReader}.
+     * Las filas sin llave se descartan.
+     */
+    public static SheetJoin index(Iterable<SheetRow> rows, int keyColumn) {
+        Map<String, List<SheetRow>> children = new HashMap<>();
+        int size = 0;
+        for (SheetRow row : rows) {
+            String key = key(row.getCell(keyColumn));
+            if (key == null) {
+                continue;
+            }
+            children.computeIfAbsent(key, k -> new ArrayList<>(4)).add(row);
+            size++;
+        }
+        return new SheetJoin(children, size);
+    }
+
+    /**
+     * Filas hijas de la llave dada, o una lista vacía si no tiene.
+     */
+    public List<SheetRow> childrenOf(String parentKey) {
+        return parentKey == null ? List.of() : children.getOrDefault(normalize(parentKey), List.of());
+    }
+
+    /** Cantidad de filas hijas con llave. */
+    public int size() {
+        return size;
+    }
+
+    /** Cantidad de llaves distintas. */
+    public int keys() {
+        return children.size();
+    }
+
+    private static String key(SheetCell cell) {
+        if (cell == null) {
+            return null;
+        }
+        if (cell.getCellType() == CellType.STRING) {
+            return normalize(cell.getStringCellValue());
+        }
+        if (cell.getCellType() == CellType.NUMERIC) {
+            return normalize("" + (long) cell.getNumericCellValue());
+        }
+        return null;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,97 @@
+package com.nelumbo.migration.excel;
+
+import lombok.Getter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.util.BitSet;
+
+/**
+ * Fila desacoplada del workbook: guarda solo los valores de las columnas proyectadas,
+ * por lo que puede procesarse fuera del hilo que lee el archivo.
+ */
+public final class SheetRow {
+
+    private static final SheetCell[] EMPTY = new SheetCell[0];
+
+    @Getter
+    private final int rowNum;
+    private final SheetCell[] cells;
+
+    public SheetRow(int rowNum, SheetCell[] cells) {
+        this.rowNum = rowNum;
+        this.cells = cells == null ? EMPTY : cells;
+    }
+
+    /**
+     * Copia una fila de POI respetando la proyección de columnas (null = todas).
+     */
+    public static SheetRow of(Row row, BitSet columns) {
+        int lastCellNum = Math.max(row.getLastCellNum(), 0);
+        SheetCell[] cells = new SheetCell[lastCellNum];
+        for (int c = 0; c < lastCellNum; c++) {
+            if (columns != null && !columns.get(c)) {
+                continue;
+            }
+            Cell cell = row.getCell(c);
+            if (cell != null) {
+                cells[c] = SheetCell.of(cell);
+            }
+        }
+        return new SheetRow(row.getRowNum(), cells);
+    }
+
+    /**
+     * Devuelve la celda de la columna o null si está vacía o fuera de la proyección.
+     */
+    public SheetCell getCell(int column) {
+        return column >= 0 && column < cells.length ? cells[column] : null;
+    }
+
+    public int getLastCellNum() {
+        return cells.length;
+    }
+
+    /**
+     * Hash de 64 bits de los valores de la fila; identifica si la fila cambió entre dos cargas.
+     */
+    public long contentHash() {
+        long h = 0xcbf29ce484222325L;
+        for (SheetCell cell : cells) {
+            if (cell == null) {
+                continue;
+            }
+            h = mix(h, cell.getColumnIndex());
+            h = mix(h, cell.getCellType().ordinal());
+            switch (cell.getCellType()) {
+                case STRING -> {
+                    String value = cell.getStringCellValue();
+                    for (int i = 0; i < value.length(); i++) {
+                        h = mix(h, value.charAt(i));
+                    }
+                }
+                case NUMERIC -> h = mix(h, Double.doubleToLongBits(cell.getNumericCellValue()));
+                case BOOLEAN -> h = mix(h, cell.getBooleanCellValue() ? 1 : 0);
+                default -> {
+                }
+            }
+        }
+        return h;
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value;
+        h *= 0x100000001b3L;
+        return h ^ (h >>> 29);
+    }
+
+    public int getPhysicalNumberOfCells() {
+        int count = 0;
+        for (SheetCell cell : cells) {
+            if (cell != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,33 @@
+package com.nelumbo.migration.excel;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Identifica la hoja a leer, por posición o por nombre.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SheetSelector {
+
+    private final Integer index;
+    private final String name;
+
+    public static SheetSelector at(int index) {
+        return new SheetSelector(index, null);
+    }
+
+    public static SheetSelector named(String name) {
+        return new SheetSelector(null, name);
+    }
+
+    public boolean matches(int sheetIndex, String sheetName) {
+        return index != null ? index == sheetIndex : name.equals(sheetName);
+    }
+
+    @Override
+    public String toString() {
+        return index != null ? "#" + index : name;
+    }
+}
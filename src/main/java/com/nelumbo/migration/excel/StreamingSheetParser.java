@@ -0,0 +1,205 @@
+package com.nelumbo.migration.excel;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Parser StAX del XML de una hoja (sheetN.xml). Emite una {@link SheetRow} por cada
+ * elemento {@code <row>} sin construir el modelo de la hoja, así que la memoria usada
+ * depende del ancho de la fila y no de la cantidad de filas.
+ */
+class StreamingSheetParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final SharedStrings sharedStrings;
+    private final StylesTable styles;
+    private final BitSet columns;
+    // Cache de "este estilo es fecha": DateUtil.isADateFormat parsea el formato cada vez
+    private final List<Boolean> dateStyles = new ArrayList<>();
+
+    StreamingSheetParser(SharedStrings sharedStrings, StylesTable styles, BitSet columns) {
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        this.columns = columns;
+    }
+
+    /**
+     * @param sheetRows recibe la cantidad de filas que declara la hoja en {@code <dimension>},
+     *                  si la declara, antes de la primera fila
+     */
+    void parse(InputStream sheetData, IntConsumer sheetRows, Consumer<SheetRow> consumer) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(sheetData);
+        try {
+            List<SheetCell> rowCells = new ArrayList<>();
+            int rowNum = -1;
+            int nextColumn = 0;
+
+            // Estado de la celda actual
+            int column = -1;
+            String type = null;
+            int styleIndex = 0;
+            String value = null;
+            StringBuilder inlineText = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "dimension" -> {
+                            int lastRow = lastRowOf(reader.getAttributeValue(null, "ref"));
+                            if (lastRow > 0) {
+                                sheetRows.accept(lastRow);
+                            }
+                        }
+                        case "row" -> {
+                            String r = reader.getAttributeValue(null, "r");
+                            rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                            nextColumn = 0;
+                            rowCells.clear();
+                        }
+                        case "c" -> {
+                            String ref = reader.getAttributeValue(null, "r");
+                            column = ref != null ? columnOf(ref) : nextColumn;
+                            nextColumn = column + 1;
+                            type = reader.getAttributeValue(null, "t");
+                            String s = reader.getAttributeValue(null, "s");
+                            styleIndex = s != null ? Integer.parseInt(s) : 0;
+                            value = null;
+                            inlineText = null;
+                        }
+                        case "v" -> {
+                            if (isProjected(column)) {
+                                value = reader.getElementText();
+                            }
+                        }
+                        case "is" -> inlineText = new StringBuilder();
+                        case "t" -> {
+                            if (inlineText != null && isProjected(column)) {
+                                inlineText.append(reader.getElementText());
+                            }
+                        }
+                        default -> {
+                            // f, rPr, extLst... no aportan al valor
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String localName = reader.getLocalName();
+                    if ("c".equals(localName)) {
+                        if (isProjected(column)) {
+                            rowCells.add(toCell(column, type, styleIndex, value, inlineText));
+                        }
+                        column = -1;
+                    } else if ("row".equals(localName)) {
+                        consumer.accept(toRow(rowNum, rowCells));
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Número de la última fila de una referencia como {@code A1:K5000}; 0 si no se puede leer.
+     */
+    static int lastRowOf(String ref) {
+        if (ref == null) {
+            return 0;
+        }
+        String last = ref.substring(ref.indexOf(':') + 1);
+        int digits = 0;
+        while (digits < last.length() && !Character.isDigit(last.charAt(digits))) {
+            digits++;
+        }
+        try {
+            return digits < last.length() ? Integer.parseInt(last.substring(digits)) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private boolean isProjected(int column) {
+        return column >= 0 && (columns == null || columns.get(column));
+    }
+
+    private SheetCell toCell(int column, String type, int styleIndex, String value, StringBuilder inlineText) {
+        if (inlineText != null) {
+            return SheetCell.ofString(column, inlineText.toString());
+        }
+        if (value == null) {
+            return SheetCell.ofBlank(column);
+        }
+        if (type == null || "n".equals(type)) {
+            return SheetCell.ofNumeric(column, Double.parseDouble(value), isDateStyle(styleIndex));
+        }
+        return switch (type) {
+            case "s" -> SheetCell.ofString(column, sharedStrings.getItemAt(Integer.parseInt(value)).getString());
+            case "str", "inlineStr" -> SheetCell.ofString(column, value);
+            case "b" -> SheetCell.ofBoolean(column, "1".equals(value) || "true".equalsIgnoreCase(value));
+            case "e" -> SheetCell.ofError(column);
+            default -> SheetCell.ofString(column, value);
+        };
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        if (styles == null || styleIndex < 0 || styleIndex >= styles.getNumCellStyles()) {
+            return false;
+        }
+        while (dateStyles.size() <= styleIndex) {
+            dateStyles.add(null);
+        }
+        Boolean cached = dateStyles.get(styleIndex);
+        if (cached == null) {
+            XSSFCellStyle style = styles.getStyleAt(styleIndex);
+            cached = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+            dateStyles.set(styleIndex, cached);
+        }
+        return cached;
+    }
+
+    private static SheetRow toRow(int rowNum, List<SheetCell> rowCells) {
+        int width = 0;
+        for (SheetCell cell : rowCells) {
+            width = Math.max(width, cell.getColumnIndex() + 1);
+        }
+        SheetCell[] cells = new SheetCell[width];
+        for (SheetCell cell : rowCells) {
+            cells[cell.getColumnIndex()] = cell;
+        }
+        return new SheetRow(rowNum, cells);
+    }
+
+    /**
+     * Convierte la referencia "AB12" en el índice de columna (base 0).
+     */
+    static int columnOf(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char ch = cellReference.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            column = column * 26 + (ch - 'A' + 1);
+        }
+        return column - 1;
+    }
+}
@@ -8,12 +8,12 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
-@FeignClient(name= "compCategory", url="localhost:8080/core-api/v1/compensation-categories")
+@FeignClient(name= "compCategory", url="${core-api.url:localhost:8080/core-api}/v1/compensation-categories")
 public interface CompCategoriesFeign {
 
     @GetMapping("/simplified-search")
-    DefaultResponse<List<CompCategoriesResponse>> simplifiedSearch(@RequestHeader("Authorization") String token, @RequestParam String search);
+    DefaultResponse<List<CompCategoriesResponse>> simplifiedSearch(@RequestParam String search);
 
     @PostMapping
-    void createCompensationCategories(@RequestHeader("Authorization") String token, @RequestBody CompCategoriesRequest compCategory);
+    void createCompensationCategories(@RequestBody CompCategoriesRequest compCategory);
 }
@@ -7,11 +7,10 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
-@FeignClient(name= "modelNames", url="localhost:8080/core-api/v1/model-names")
+@FeignClient(name= "modelNames", url="${core-api.url:localhost:8080/core-api}/v1/model-names")
 public interface ModelNamesFeign {
 
     @GetMapping("/{keyword}}/model-fields")
     DefaultResponse<List<ModelFieldsResponse>> findModelFieldsByKeyword(
-            @RequestHeader("Authorization") String token,
             @PathVariable String keyword);
 }
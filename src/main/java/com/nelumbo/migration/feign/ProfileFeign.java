@@ -9,13 +9,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
-@FeignClient(name = "profiles", url="localhost:8080/core-api/v1/profiles")
+@FeignClient(name = "profiles", url="${core-api.url:localhost:8080/core-api}/v1/profiles")
 public interface ProfileFeign {
     @PostMapping
-    DefaultResponse<ProfileResponse> createProfile(@RequestHeader("Authorization") String token,
-                                                   @RequestBody ProfileRequest profileRequest);
+    DefaultResponse<ProfileResponse> createProfile(@RequestBody ProfileRequest profileRequest);
     @PatchMapping(value = "/{profileId}/image")
-    void updateImageUrlByProfileId(@RequestHeader("Authorization") String token,
-                                   @PathVariable Long profileId,
+    void updateImageUrlByProfileId(@PathVariable Long profileId,
                                    @RequestBody FileRequest request);
 }
@@ -10,19 +10,15 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 
-@FeignClient(name = "store", url="localhost:8080/core-api/v1/stores")
+@FeignClient(name = "store", url="${core-api.url:localhost:8080/core-api}/v1/stores")
 public interface StoreFeign {
     @PostMapping
-    DefaultResponse<StoreResponse> createStore(@RequestHeader("Authorization") String token,
-                                               @RequestBody StoreRequest storeRequest);
+    DefaultResponse<StoreResponse> createStore(@RequestBody StoreRequest storeRequest);
     @PostMapping(path = "/{storeId}/details")
-    DefaultResponse<StoreDetailResponse> createStoreDetails(@RequestHeader("Authorization") String token,
-                                                            @RequestBody StoreDetailRequest storeDetailRequest,
+    DefaultResponse<StoreDetailResponse> createStoreDetails(@RequestBody StoreDetailRequest storeDetailRequest,
                                                             @PathVariable Long storeId);
     @PostMapping(path = "/{storeId}/work-periods")
-    void createStoreWorkPeriods(@RequestHeader("Authorization") String token,
-                                @RequestBody StoreWorkPeriodRequest storeWorkPeriodRequest,
+    void createStoreWorkPeriods(@RequestBody StoreWorkPeriodRequest storeWorkPeriodRequest,
                                 @PathVariable Long storeId);
 }
\ No newline at end of file
@@ -8,12 +8,12 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
-@FeignClient(name= "tabs", url="localhost:8080/core-api/v1/compensation-tabs")
+@FeignClient(name= "tabs", url="${core-api.url:localhost:8080/core-api}/v1/compensation-tabs")
 public interface TabsFeign {
 
     @GetMapping("/simplified-search")
-    DefaultResponse<List<TabsResponse>> simplifiedSearch(@RequestHeader("Authorization") String token, @RequestParam String search);
+    DefaultResponse<List<TabsResponse>> simplifiedSearch(@RequestParam String search);
 
     @PostMapping
-    void createTab(@RequestHeader("Authorization") String token, @RequestBody TabsRequest tabsRequest);
+    void createTab(@RequestBody TabsRequest tabsRequest);
 }
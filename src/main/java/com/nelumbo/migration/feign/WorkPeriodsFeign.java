@@ -6,12 +6,12 @@ import com.nelumbo.migration.feign.dto.responses.WorkPeriodResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
-@FeignClient(name= "workPeriods", url="localhost:8080/core-api/v1/work-periods")
+@FeignClient(name= "workPeriods", url="${core-api.url:localhost:8080/core-api}/v1/work-periods")
 public interface WorkPeriodsFeign {
 
     @GetMapping("/findone-by-name")
-    DefaultResponse<WorkPeriodResponse> findOneByName(@RequestHeader("Authorization") String token, @RequestParam String name);
+    DefaultResponse<WorkPeriodResponse> findOneByName(@RequestParam String name);
 
     @PostMapping
-    DefaultResponse<WorkPeriodResponse> createWorkPeriods(@RequestHeader("Authorization") String token, @RequestBody WorkPeriodRequest workPeriodRequest);
+    DefaultResponse<WorkPeriodResponse> createWorkPeriods(@RequestBody WorkPeriodRequest workPeriodRequest);
 }
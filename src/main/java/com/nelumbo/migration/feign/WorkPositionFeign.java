@@ -6,11 +6,9 @@ import com.nelumbo.migration.feign.dto.responses.WorkPositionDetailResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 
-@FeignClient(name = "work-positions", url="localhost:8080/core-api/v1/work-positions")
+@FeignClient(name = "work-positions", url="${core-api.url:localhost:8080/core-api}/v1/work-positions")
 public interface WorkPositionFeign {
     @PostMapping
-    DefaultResponse<WorkPositionDetailResponse> createWorkPosition(@RequestHeader("Authorization") String token,
-                                                                   @RequestBody WorkPositionRequest workPositionRequest);
+    DefaultResponse<WorkPositionDetailResponse> createWorkPosition(@RequestBody WorkPositionRequest workPositionRequest);
 }
\ No newline at end of file
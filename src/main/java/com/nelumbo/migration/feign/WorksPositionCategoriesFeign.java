@@ -8,12 +8,12 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
-@FeignClient(name= "workPositionsCategories", url="localhost:8080/core-api/v1/work-position-categories")
+@FeignClient(name= "workPositionsCategories", url="${core-api.url:localhost:8080/core-api}/v1/work-position-categories")
 public interface WorksPositionCategoriesFeign {
 
     @GetMapping("/simplified-search")
-    DefaultResponse<List<WorkPositionCategoryResponse>> simplifiedSearch(@RequestHeader("Authorization") String token, @RequestParam String search);
+    DefaultResponse<List<WorkPositionCategoryResponse>> simplifiedSearch(@RequestParam String search);
 
     @PostMapping
-    DefaultResponse<WorkPositionCategoryResponse> createWorkPositionCategory(@RequestHeader("Authorization") String token, @RequestBody WorkPositionCategoryRequest workPositionCategoryRequest);
+    DefaultResponse<WorkPositionCategoryResponse> createWorkPositionCategory(@RequestBody WorkPositionCategoryRequest workPositionCategoryRequest);
 }
@@ -8,4 +8,7 @@ import java.util.List;
 @Setter
 public class Page <T>{
     private List<T> content;
+    private Integer number;
+    private Integer totalPages;
+    private Boolean last;
 }
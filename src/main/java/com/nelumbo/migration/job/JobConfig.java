@@ -0,0 +1,24 @@
+package com.nelumbo.migration.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class JobConfig {
+
+    /**
+     * Pool donde corren los trabajos de migración, separado de los hilos de Tomcat.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor migrationJobExecutor(@Value("${migration.jobs.workers:2}") int workers,
+                                                       @Value("${migration.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("migration-job-");
+        return executor;
+    }
+}
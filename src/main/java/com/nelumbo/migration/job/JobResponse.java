@@ -0,0 +1,37 @@
+package com.nelumbo.migration.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Getter
+@AllArgsConstructor
+public class JobResponse {
+
+    private String id;
+    private String type;
+    private String fileName;
+    private JobStatus status;
+    private long processed;
+    private long succeeded;
+    private long failed;
+    /** Llamadas a core-api repetidas por errores transitorios. */
+    private long retries;
+    private double rowsPerSecond;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+    private boolean resultAvailable;
+    private Map<String, String> stages;
+
+    public static JobResponse of(MigrationJob job) {
+        return new JobResponse(job.getId(), job.getType(), job.getFileName(), job.getStatus(),
+                job.getProcessed().get(), job.getSucceeded().get(), job.getFailed().get(), job.getRetryBudget().getUsed(), job.getRowsPerSecond(),
+                job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(), job.getError(), job.getResult() != null,
+                job.getStages().isEmpty() ? null : new TreeMap<>(job.getStages()));
+    }
+}
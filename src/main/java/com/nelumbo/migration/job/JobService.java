@@ -0,0 +1,191 @@
+package com.nelumbo.migration.job;
+
+import com.nelumbo.migration.artifact.ArtifactStore;
+import com.nelumbo.migration.dispatch.CallContext;
+import com.nelumbo.migration.dispatch.RetryBudget;
+import com.nelumbo.migration.journal.JobJournal;
+import com.nelumbo.migration.journal.JournalStore;
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import com.nelumbo.migration.progress.ProgressFeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobService {
+
+    private final ThreadPoolTaskExecutor migrationJobExecutor;
+    private final JournalStore journalStore;
+    private final ArtifactStore artifactStore;
+    private final MigrationMetrics metrics;
+
+    private static final int STREAMED_JOURNAL_KEY_BYTES = 64 * 1024;
+
+    private final Map<String, MigrationJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${migration.jobs.spool-dir:./migration-data/uploads}")
+    private Path spoolDir;
+
+    @Value("${migration.jobs.outcomes-dir:./migration-data/outcomes}")
+    private Path outcomesDir;
+
+    @Value("${migration.jobs.retention:24h}")
+    private Duration retention;
+
+    @Value("${migration.progress.buffer-size:8192}")
+    private int progressBufferSize;
+
+    @Value("${migration.progress.latest-errors:10}")
+    private int progressLatestErrors;
+
+    @Value("${migration.retry.budget-per-job:500}")
+    private int retryBudgetPerJob;
+
+    /**
+     * Guarda una copia del archivo y encola el trabajo; responde sin esperar a que empiece.
+     */
+    public MigrationJob submit(String type, MultipartFile file, JobWork work) throws IOException {
+        return this.submit(type, file, work, ResultFormat.WORKBOOK, true);
+    }
+
+    /**
+     * Con {@code resume} en false no se retoma el diario de una carga anterior del mismo archivo.
+     */
+    public MigrationJob submit(String type, MultipartFile file, JobWork work, ResultFormat resultFormat,
+                               boolean resume) throws IOException {
+        MigrationJob job = this.newJob(type, file.getOriginalFilename(), resultFormat);
+        this.enqueue(job, SpooledUpload.spool(file, spoolDir), work, resume);
+        return job;
+    }
+
+    /**
+     * Encola el trabajo antes de recibir el archivo y lo copia a disco desde {@code body} en este
+     * hilo; el trabajo empieza a leer las filas mientras el archivo sigue llegando. Vuelve cuando
+     * se recibió todo el archivo.
+     */
+    public MigrationJob submit(String type, String fileName, String contentType, InputStream body, JobWork work,
+                               ResultFormat resultFormat, boolean resume) throws IOException {
+        MigrationJob job = this.newJob(type, fileName, resultFormat);
+        SpooledUpload upload = SpooledUpload.open(fileName, contentType, spoolDir);
+        this.enqueue(job, upload, work, resume);
+        upload.receive(body);
+        log.info("Trabajo " + job.getId() + ": archivo " + fileName + " recibido (" + upload.getSize() / 1024 + " KB)");
+        return job;
+    }
+
+    private MigrationJob newJob(String type, String fileName, ResultFormat resultFormat) {
+        this.purgeFinished();
+
+        MigrationJob job = new MigrationJob(UUID.randomUUID().toString(), type, fileName, resultFormat,
+                new ProgressFeed(progressBufferSize, progressLatestErrors));
+        job.setRetryBudget(new RetryBudget(retryBudgetPerJob));
+        return job;
+    }
+
+    private void enqueue(MigrationJob job, SpooledUpload upload, JobWork work, boolean resume) {
+        jobs.put(job.getId(), job);
+        try {
+            migrationJobExecutor.execute(() -> this.run(job, upload, work, resume));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            upload.delete();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many migration jobs queued");
+        }
+        log.info("Trabajo " + job.getId() + " encolado: " + job.getType() + " con el archivo " + job.getFileName());
+    }
+
+    public Optional<MigrationJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public Optional<MigrationJob> cancel(String id) {
+        MigrationJob job = jobs.get(id);
+        if (job != null && job.cancel()) {
+            log.info("Se pidió cancelar el trabajo " + id);
+        }
+        return Optional.ofNullable(job);
+    }
+
+    private void run(MigrationJob job, SpooledUpload upload, JobWork work, boolean resume) {
+        try {
+            if (!job.start()) {
+                return;
+            }
+            log.info("Inicia el trabajo " + job.getId() + ": " + job.getType());
+            File result;
+            try (OutcomeLog outcomes = OutcomeLog.open(outcomesDir, job.getId());
+                 JobJournal journal = this.openJournal(job, upload, resume)) {
+                // El log queda en el trabajo después de cerrarse para poder descargarlo
+                job.setOutcomes(outcomes);
+                job.setJournal(journal);
+                result = CallContext.call(CallContext.forJob(job.getId(), job.getType(), job.getRetryBudget()), () -> work.run(upload, job));
+                if (result == null && job.getResultFormat() == ResultFormat.OUTCOMES) {
+                    result = outcomes.getPath().toFile();
+                }
+                // Sin filas a medias ni etapas fallidas no queda nada que retomar
+                if (!job.isCancelled() && !job.getStages().containsValue("FAILED") && !journal.hasRowsInFlight()) {
+                    journal.finish();
+                }
+            } finally {
+                job.setJournal(null);
+            }
+            job.complete(result);
+            log.info("Termina el trabajo " + job.getId() + " (" + job.getStatus() + "): " + job.getProcessed() + " filas, "
+                    + job.getFailed() + " con error, " + job.getRetryBudget().getUsed() + " reintentos");
+        } catch (Exception e) {
+            log.error("Error in job " + job.getId() + ": " + e.getMessage());
+            job.fail(e.getMessage());
+        } finally {
+            upload.delete();
+        }
+    }
+
+    /**
+     * El diario se identifica por el hash del archivo; una subida que todavía está llegando se
+     * identifica por el de su comienzo. Alcanza para retomar la misma carga porque el diario
+     * solo da por hecha una fila si su contenido no cambió.
+     */
+    private JobJournal openJournal(MigrationJob job, SpooledUpload upload, boolean resume) throws IOException {
+        if (!upload.isStreamed()) {
+            return journalStore.open(job.getType(), upload.getPath(), resume);
+        }
+        try (InputStream in = upload.getInputStream()) {
+            return journalStore.open(job.getType(), new ByteArrayInputStream(in.readNBytes(STREAMED_JOURNAL_KEY_BYTES)), resume);
+        }
+    }
+
+    private void purgeFinished() {
+        Instant limit = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (!job.getStatus().isFinished() || !job.getFinishedAt().isBefore(limit)) {
+                return false;
+            }
+            if (job.getOutcomes() != null) {
+                job.getOutcomes().delete();
+            }
+            artifactStore.delete(job.getResult());
+            metrics.removeJob(job.getId());
+            return true;
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.nelumbo.migration.job;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+
+/**
+ * Lo que hace un trabajo con el archivo subido. Devuelve el archivo de resultado, o null si
+ * la carga no genera uno.
+ */
+@FunctionalInterface
+public interface JobWork {
+
+    File run(MultipartFile file, MigrationJob job) throws Exception;
+}
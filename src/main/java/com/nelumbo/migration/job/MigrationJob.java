@@ -0,0 +1,168 @@
+package com.nelumbo.migration.job;
+
+import com.nelumbo.migration.dispatch.RetryBudget;
+import com.nelumbo.migration.dispatch.RowJournal;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import com.nelumbo.migration.dispatch.RowProgress;
+import com.nelumbo.migration.journal.JobJournal;
+import com.nelumbo.migration.progress.ProgressFeed;
+import lombok.Getter;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Una carga de archivo que corre en el pool de trabajos. Los contadores se actualizan desde
+ * los hilos que procesan las filas y se leen desde las peticiones de consulta.
+ */
+@Getter
+public class MigrationJob implements RowProgress {
+
+    private final String id;
+    private final String type;
+    private final String fileName;
+    private final ResultFormat resultFormat;
+    private final ProgressFeed feed;
+    private final Instant createdAt = Instant.now();
+
+    private final AtomicLong expected = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    /** Estado de cada etapa cuando el trabajo carga el libro completo. */
+    private final Map<String, String> stages = new ConcurrentHashMap<>();
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile File result;
+    private volatile JobJournal journal;
+    private volatile RetryBudget retryBudget = RetryBudget.UNLIMITED;
+    private volatile OutcomeLog outcomes;
+
+    public MigrationJob(String id, String type, String fileName, ResultFormat resultFormat, ProgressFeed feed) {
+        this.id = id;
+        this.type = type;
+        this.fileName = fileName;
+        this.resultFormat = resultFormat;
+        this.feed = feed;
+    }
+
+    @Override
+    public void record(RowOutcome outcome) {
+        processed.incrementAndGet();
+        if (outcome.isSuccess()) {
+            succeeded.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void record(String sheetName, RowOutcome outcome) {
+        this.record(outcome);
+        feed.publish(sheetName, outcome);
+        OutcomeLog current = outcomes;
+        if (current != null) {
+            current.append(sheetName, outcome);
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    @Override
+    public void expect(String sheetName, int rows) {
+        expected.addAndGet(Math.max(0, rows));
+    }
+
+    @Override
+    public RowJournal journal(String sheetName) {
+        JobJournal current = journal;
+        return current == null ? RowJournal.NONE : current.sheet(sheetName);
+    }
+
+    @Override
+    public RetryBudget retryBudget() {
+        return retryBudget;
+    }
+
+    @Override
+    public boolean writesWorkbook() {
+        return resultFormat == ResultFormat.WORKBOOK;
+    }
+
+    public void stage(String name, String status) {
+        stages.put(name, status);
+    }
+
+    void setJournal(JobJournal journal) {
+        this.journal = journal;
+    }
+
+    void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    void setOutcomes(OutcomeLog outcomes) {
+        this.outcomes = outcomes;
+    }
+
+    /**
+     * Filas por segundo desde que empezó el trabajo hasta ahora o hasta que terminó.
+     */
+    public double getRowsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return processed.get() * 1000.0 / millis;
+    }
+
+    /**
+     * Marca el trabajo para cancelarse. Si aún no ha empezado queda cancelado de una vez;
+     * si está corriendo, se detiene antes de la siguiente fila.
+     */
+    synchronized boolean cancel() {
+        if (status.isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        if (status == JobStatus.QUEUED) {
+            status = JobStatus.CANCELLED;
+            finishedAt = Instant.now();
+        }
+        return true;
+    }
+
+    synchronized boolean start() {
+        if (status != JobStatus.QUEUED) {
+            return false;
+        }
+        status = JobStatus.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    synchronized void complete(File result) {
+        this.result = result;
+        status = cancelRequested ? JobStatus.CANCELLED : JobStatus.COMPLETED;
+        finishedAt = Instant.now();
+    }
+
+    synchronized void fail(String error) {
+        this.error = error;
+        status = JobStatus.FAILED;
+        finishedAt = Instant.now();
+    }
+}
@@ -0,0 +1,111 @@
+package com.nelumbo.migration.job;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resultado de cada fila de un trabajo en NDJSON, una línea por fila a medida que terminan:
+ * {@code {"sheet":"tabs","row":12,"status":"FAILED","error":"..."}}. Las líneas van a disco
+ * por un buffer, así que el log no crece en memoria con el tamaño del archivo. Las filas con
+ * error se escriben además en un segundo archivo para descargarlas sin filtrar el completo.
+ * <p>
+ * El número de fila es el de Excel (la fila de encabezados es la 1).
+ */
+@Slf4j
+public class OutcomeLog implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Getter
+    private final Path path;
+    @Getter
+    private final Path failuresPath;
+    private final Writer all;
+    private final Writer failures;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean writable = true;
+
+    private OutcomeLog(Path path, Path failuresPath) throws IOException {
+        this.path = path;
+        this.failuresPath = failuresPath;
+        this.all = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.failures = Files.newBufferedWriter(failuresPath, StandardCharsets.UTF_8);
+    }
+
+    public static OutcomeLog open(Path directory, String jobId) throws IOException {
+        Files.createDirectories(directory);
+        return new OutcomeLog(directory.resolve(jobId + ".ndjson"), directory.resolve(jobId + ".failed.ndjson"));
+    }
+
+    /**
+     * Agrega la línea de la fila. Se llama desde los hilos que procesan las filas; un error de
+     * escritura se registra una vez y no detiene la carga.
+     */
+    public void append(String sheetName, RowOutcome outcome) {
+        Line line = new Line(sheetName, outcome.getRowNum() + 1, outcome.getStatus(), outcome.getCreatedId(), outcome.getMessage());
+        String json;
+        try {
+            json = MAPPER.writeValueAsString(line);
+        } catch (IOException e) {
+            log.error("Error serializing outcome of row " + line.row() + " in sheet " + sheetName + ": " + e.getMessage());
+            return;
+        }
+        lock.lock();
+        try {
+            if (!writable) {
+                return;
+            }
+            all.write(json);
+            all.write('\n');
+            if (!outcome.isSuccess()) {
+                failures.write(json);
+                failures.write('\n');
+            }
+        } catch (IOException e) {
+            writable = false;
+            log.error("Error writing outcome log " + path + ", no more rows will be logged: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            writable = false;
+            all.close();
+            failures.close();
+        } catch (IOException e) {
+            log.error("Error closing outcome log " + path + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void delete() {
+        try {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(failuresPath);
+        } catch (IOException e) {
+            log.warn("Could not delete outcome log " + path + ": " + e.getMessage());
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Line(String sheet, int row, RowOutcome.Status status, Long id, String error) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.nelumbo.migration.job;
+
+import com.nelumbo.migration.progress.EventRing;
+import com.nelumbo.migration.progress.RowEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suscripciones SSE al avance de un trabajo. Cada suscriptor tiene un hilo virtual que cada
+ * {@code tick} lee del {@link com.nelumbo.migration.progress.ProgressFeed} del trabajo y envía:
+ * <ul>
+ *     <li>{@code rows}: arreglo con el resultado de las filas que terminaron desde el último envío</li>
+ *     <li>{@code lagged}: filas que el suscriptor no alcanzó a leer antes de que se sobrescribieran</li>
+ *     <li>{@code progress}: {@link ProgressUpdate} cada {@code aggregate-interval} y al terminar</li>
+ * </ul>
+ * Un cliente lento solo frena su propio hilo; mientras tanto pierde filas (las recibe muestreadas)
+ * y si un envío tarda más de {@code max-send-time} se le corta la conexión.
+ */
+@Slf4j
+@Component
+public class ProgressStreams {
+
+    private final Map<String, AtomicInteger> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${migration.progress.tick:250ms}")
+    private Duration tick;
+
+    @Value("${migration.progress.aggregate-interval:1s}")
+    private Duration aggregateInterval;
+
+    @Value("${migration.progress.batch-size:1024}")
+    private int batchSize;
+
+    @Value("${migration.progress.max-subscribers:8}")
+    private int maxSubscribers;
+
+    @Value("${migration.progress.max-send-time:10s}")
+    private Duration maxSendTime;
+
+    @Value("${migration.progress.timeout:30m}")
+    private Duration timeout;
+
+    public SseEmitter subscribe(MigrationJob job) {
+        AtomicInteger count = subscribers.computeIfAbsent(job.getId(), id -> new AtomicInteger());
+        if (count.incrementAndGet() > maxSubscribers) {
+            this.release(job.getId(), count);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many subscribers for job " + job.getId());
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(job, emitter);
+        emitter.onCompletion(subscriber::stop);
+        emitter.onTimeout(subscriber::stop);
+        emitter.onError(e -> subscriber.stop());
+        try {
+            Thread.ofVirtual().name("migration-progress-" + job.getId()).start(() -> {
+                try {
+                    subscriber.run();
+                } finally {
+                    this.release(job.getId(), count);
+                }
+            });
+        } catch (RuntimeException e) {
+            this.release(job.getId(), count);
+            throw e;
+        }
+        return emitter;
+    }
+
+    private void release(String jobId, AtomicInteger count) {
+        if (count.decrementAndGet() <= 0) {
+            subscribers.remove(jobId, count);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final MigrationJob job;
+        private final SseEmitter emitter;
+        private volatile boolean running = true;
+
+        Subscriber(MigrationJob job, SseEmitter emitter) {
+            this.job = job;
+            this.emitter = emitter;
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        void run() {
+            EventRing<RowEvent> rows = job.getFeed().rows();
+            // Arranca con las filas que siguen en el buffer, así que una suscripción tardía ve lo reciente
+            EventRing.Cursor cursor = rows.oldest();
+            long lastAggregate = 0;
+            try {
+                while (running) {
+                    boolean finished = job.getStatus().isFinished();
+                    List<RowEvent> batch = new ArrayList<>();
+                    rows.read(cursor, batchSize, batch::add);
+                    long skipped = cursor.takeSkipped();
+                    if (skipped > 0) {
+                        this.send("lagged", Map.of("skipped", skipped));
+                    }
+                    if (!batch.isEmpty()) {
+                        this.send("rows", batch);
+                    }
+                    long now = System.nanoTime();
+                    if (finished || now - lastAggregate >= aggregateInterval.toNanos()) {
+                        this.send("progress", ProgressUpdate.of(job));
+                        lastAggregate = now;
+                    }
+                    if (finished && cursor.position() >= rows.published()) {
+                        emitter.complete();
+                        return;
+                    }
+                    Thread.sleep(tick);
+                }
+            } catch (SlowSubscriberException e) {
+                log.warn("Dropping slow progress subscriber of job " + job.getId() + ": " + e.getMessage());
+                emitter.completeWithError(e);
+            } catch (IOException | IllegalStateException e) {
+                // El cliente cerró la conexión o el emitter ya terminó
+                log.debug("Progress subscriber of job " + job.getId() + " closed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            }
+        }
+
+        private void send(String name, Object data) throws IOException {
+            long start = System.nanoTime();
+            emitter.send(SseEmitter.event().name(name).data(data));
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > maxSendTime.toNanos()) {
+                throw new SlowSubscriberException("sending " + name + " took " + Duration.ofNanos(elapsed).toMillis() + " ms");
+            }
+        }
+    }
+
+    private static final class SlowSubscriberException extends RuntimeException {
+
+        SlowSubscriberException(String message) {
+            super(message);
+        }
+    }
+}
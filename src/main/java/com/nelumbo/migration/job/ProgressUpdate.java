@@ -0,0 +1,32 @@
+package com.nelumbo.migration.job;
+
+import com.nelumbo.migration.progress.ProgressFeed;
+import com.nelumbo.migration.progress.RowEvent;
+
+import java.util.List;
+
+/**
+ * Resumen periódico que reciben los suscriptores de {@code /migration/jobs/{id}/events}.
+ *
+ * @param expected      filas de datos de las hojas ya abiertas; 0 si no se conocen
+ * @param rowsPerSecond velocidad suavizada (EWMA) de las últimas muestras
+ * @param etaSeconds    segundos estimados para terminar, o null si no se puede estimar
+ */
+public record ProgressUpdate(JobStatus status, long expected, long processed, long succeeded, long failed,
+                             long retries, double rowsPerSecond, Long etaSeconds, List<RowEvent> latestErrors) {
+
+    public static ProgressUpdate of(MigrationJob job) {
+        ProgressFeed feed = job.getFeed();
+        long processed = job.getProcessed().get();
+        long expected = job.getExpected().get();
+        double rate = feed.rate(processed, job.getRowsPerSecond());
+        Long eta = null;
+        if (job.getStatus().isFinished()) {
+            eta = 0L;
+        } else if (expected > 0 && rate > 0) {
+            eta = (long) Math.ceil(Math.max(0, expected - processed) / rate);
+        }
+        return new ProgressUpdate(job.getStatus(), expected, processed, job.getSucceeded().get(), job.getFailed().get(),
+                job.getRetryBudget().getUsed(), rate, eta, feed.latestErrors());
+    }
+}
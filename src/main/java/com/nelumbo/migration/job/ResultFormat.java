@@ -0,0 +1,24 @@
+package com.nelumbo.migration.job;
+
+import java.util.Locale;
+
+/**
+ * Qué devuelve {@code /migration/jobs/{id}/result} al terminar una carga.
+ */
+public enum ResultFormat {
+    /** El libro subido con las filas migradas en verde y una celda con el error en las demás. */
+    WORKBOOK,
+    /** Solo el log NDJSON con el resultado de cada fila; la carga no reescribe el libro. */
+    OUTCOMES;
+
+    public static ResultFormat of(String value) {
+        if (value == null || value.isBlank()) {
+            return WORKBOOK;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown result format " + value + ", expected workbook or outcomes");
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.nelumbo.migration.job;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Copia en disco de un archivo subido. El {@link MultipartFile} de la petición deja de existir
+ * cuando la petición responde, así que el trabajo lee esta copia.
+ * <p>
+ * Una subida recibida con {@link #receive(InputStream)} se puede leer mientras llega: los
+ * lectores que alcanzan el final de lo recibido esperan a que llegue más o a que termine.
+ */
+class SpooledUpload implements MultipartFile {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final String name;
+    private final String originalFilename;
+    private final String contentType;
+    private final Path path;
+    private final boolean streamed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition arrived = lock.newCondition();
+    private long received;
+    private boolean receiving;
+    private IOException failure;
+
+    private SpooledUpload(String name, String originalFilename, String contentType, Path path, boolean streamed) {
+        this.name = name;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.path = path;
+        this.streamed = streamed;
+        this.receiving = streamed;
+    }
+
+    static SpooledUpload spool(MultipartFile file, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path path = Files.createTempFile(directory, "upload-", null);
+        file.transferTo(path);
+        return new SpooledUpload(file.getName(), file.getOriginalFilename(), file.getContentType(), path, false);
+    }
+
+    /**
+     * Subida vacía que se llena con {@link #receive(InputStream)}.
+     */
+    static SpooledUpload open(String originalFilename, String contentType, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path path = Files.createTempFile(directory, "upload-", null);
+        return new SpooledUpload("file", originalFilename, contentType, path, true);
+    }
+
+    /**
+     * Copia el cuerpo de la petición al archivo y avisa a los lectores en cada bloque. Si la
+     * copia falla, los lectores reciben el mismo error.
+     */
+    void receive(InputStream body) throws IOException {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try (OutputStream out = Files.newOutputStream(path)) {
+            int read;
+            while ((read = body.read(chunk)) > 0) {
+                out.write(chunk, 0, read);
+                this.signal(read, null);
+            }
+        } catch (IOException e) {
+            this.signal(0, new IOException("Upload interrupted: " + e.getMessage(), e));
+            throw e;
+        }
+        lock.lock();
+        try {
+            receiving = false;
+            arrived.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signal(int bytes, IOException error) {
+        lock.lock();
+        try {
+            received += bytes;
+            if (error != null) {
+                failure = error;
+                receiving = false;
+            }
+            arrived.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Espera a que haya más de {@code position} bytes o a que la subida termine.
+     *
+     * @return false si la subida terminó y no hay más bytes
+     */
+    private boolean await(long position) throws IOException {
+        lock.lock();
+        try {
+            while (position >= received && receiving) {
+                arrived.await();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return position < received;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the upload", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * La subida se recibió con {@link #receive(InputStream)}, aunque ya haya terminado.
+     */
+    boolean isStreamed() {
+        return streamed;
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // El directorio de subidas se puede limpiar a mano si queda algún archivo
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return streamed ? new FollowingInputStream(Files.newInputStream(path)) : Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Lee el archivo de la subida; al llegar al final espera a que llegue más en vez de terminar.
+     */
+    private final class FollowingInputStream extends FilterInputStream {
+
+        private long position;
+
+        FollowingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return this.read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (!SpooledUpload.this.await(position)) {
+                    return -1;
+                }
+                int read = in.read(b, off, len);
+                if (read > 0) {
+                    position += read;
+                    return read;
+                }
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(CHUNK_SIZE, Math.max(n, 1))];
+            long skipped = 0;
+            int read;
+            while (skipped < n && (read = this.read(buffer, 0, (int) Math.min(buffer.length, n - skipped))) > 0) {
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+    }
+}
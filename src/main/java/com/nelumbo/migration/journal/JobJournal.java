@@ -0,0 +1,237 @@
+package com.nelumbo.migration.journal;
+
+import com.nelumbo.migration.dispatch.RowJournal;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import com.nelumbo.migration.excel.SheetRow;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de escritura anticipada de un archivo subido. Por cada fila se escribe INTENT antes
+ * de llamar a core-api y DONE/FAILED al terminar; los registros son de tamaño fijo y llevan
+ * CRC, así que un registro cortado al final se descarta al abrir. Una carga que terminó sin
+ * filas a medias marca su diario con {@link #finish()} y el archivo se borra al cerrarlo.
+ * <p>
+ * Usa ReentrantLock y no synchronized porque las filas corren en hilos virtuales. Los INTENT se
+ * sincronizan a disco en grupo: una fila que espera mientras otra hace force no vuelve a hacerlo
+ * si ese force ya cubrió su registro.
+ */
+@Slf4j
+public class JobJournal implements AutoCloseable {
+
+    private static final byte INTENT = 1;
+    private static final byte DONE = 2;
+    private static final byte FAILED = 3;
+    private static final int RECORD_SIZE = 1 + 4 + 4 + 8 + 8 + 2 + 4;
+    private static final long NO_ID = Long.MIN_VALUE;
+
+    @Getter
+    private final Path path;
+    private final boolean sync;
+    private final FileChannel channel;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Runnable onClose;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    // Bytes escritos y bytes que ya se sincronizaron a disco
+    private volatile long written;
+    private long forced;
+    private volatile boolean finished;
+
+    @Getter
+    private int confirmedRows;
+    @Getter
+    private int inFlightRows;
+
+    JobJournal(Path path, boolean sync, Runnable onClose) throws IOException {
+        this.path = path;
+        this.sync = sync;
+        this.onClose = onClose;
+        long valid = this.replay();
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > valid) {
+            log.warn("Discarding " + (channel.size() - valid) + " bytes at the end of " + path);
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        written = valid;
+        forced = valid;
+        for (Entry entry : entries.values()) {
+            if (entry.kind == DONE) {
+                confirmedRows++;
+            } else if (entry.kind == INTENT) {
+                inFlightRows++;
+            }
+        }
+    }
+
+    public RowJournal sheet(String sheetName) {
+        int sheet = sheetName.hashCode();
+        return new RowJournal() {
+            @Override
+            public RowOutcome confirmed(SheetRow row) {
+                Entry entry = entries.get(key(sheet, row.getRowNum()));
+                if (entry == null || entry.kind != DONE || entry.contentHash != row.contentHash()) {
+                    return null;
+                }
+                return RowOutcome.existing(entry.markColumn, entry.id == NO_ID ? null : entry.id);
+            }
+
+            @Override
+            public boolean inFlight(SheetRow row) {
+                Entry entry = entries.get(key(sheet, row.getRowNum()));
+                return entry != null && entry.kind == INTENT && entry.contentHash == row.contentHash();
+            }
+
+            @Override
+            public void intent(SheetRow row) {
+                try {
+                    write(INTENT, sheet, row, NO_ID, 0, sync);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error writing journal " + path + ": " + e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public void record(SheetRow row, RowOutcome outcome) {
+                try {
+                    if (outcome.isSuccess()) {
+                        Long id = outcome.getCreatedId();
+                        write(DONE, sheet, row, id == null ? NO_ID : id, outcome.getMarkColumn(), false);
+                    } else {
+                        write(FAILED, sheet, row, NO_ID, 0, false);
+                    }
+                } catch (IOException e) {
+                    // Sin el DONE la fila quedará a medias y se reconciliará al retomar
+                    log.error("Error writing journal " + path + ": " + e.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Si alguna fila quedó con INTENT y sin DONE/FAILED.
+     */
+    public boolean hasRowsInFlight() {
+        return entries.values().stream().anyMatch(entry -> entry.kind == INTENT);
+    }
+
+    /**
+     * La carga terminó: no hay nada que retomar y el diario se borra al cerrarse.
+     */
+    public void finish() {
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.force(false);
+            channel.close();
+            // Se borra antes de liberar el archivo para que otra subida no lo abra a medio borrar
+            if (finished) {
+                Files.deleteIfExists(path);
+            }
+        } finally {
+            onClose.run();
+        }
+    }
+
+    private void write(byte kind, int sheet, SheetRow row, long id, int markColumn, boolean force) throws IOException {
+        long contentHash = row.contentHash();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(kind).putInt(sheet).putInt(row.getRowNum()).putLong(contentHash).putLong(id).putShort((short) markColumn);
+        record.putInt(crc(record.array()));
+        record.flip();
+        long end;
+        writeLock.lock();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            end = written += RECORD_SIZE;
+        } finally {
+            writeLock.unlock();
+        }
+        if (force) {
+            this.force(end);
+        }
+        entries.put(key(sheet, row.getRowNum()), new Entry(kind, contentHash, id, markColumn));
+    }
+
+    /**
+     * Sincroniza a disco al menos hasta {@code end}; un solo force cubre todo lo escrito antes
+     * de empezarlo, incluidos los registros de las filas que esperan el lock.
+     */
+    private void force(long end) throws IOException {
+        forceLock.lock();
+        try {
+            if (forced >= end) {
+                return;
+            }
+            long target = written;
+            channel.force(false);
+            forced = target;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Carga el estado de cada fila y devuelve el largo de la parte válida del archivo.
+     */
+    private long replay() throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long valid = 0;
+        byte[] record = new byte[RECORD_SIZE];
+        try (InputStream in = Files.newInputStream(path);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16))) {
+            while (true) {
+                data.readFully(record);
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                if (buffer.getInt(RECORD_SIZE - 4) != crc(record)) {
+                    break;
+                }
+                byte kind = buffer.get();
+                int sheet = buffer.getInt();
+                int rowNum = buffer.getInt();
+                entries.put(key(sheet, rowNum), new Entry(kind, buffer.getLong(), buffer.getLong(), buffer.getShort()));
+                valid += RECORD_SIZE;
+            }
+        } catch (EOFException e) {
+            // Fin del archivo o último registro incompleto
+        }
+        return valid;
+    }
+
+    private static long key(int sheet, int rowNum) {
+        return ((long) sheet << 32) | (rowNum & 0xffffffffL);
+    }
+
+    private static int crc(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, RECORD_SIZE - 4);
+        return (int) crc.getValue();
+    }
+
+    private record Entry(byte kind, long contentHash, long id, int markColumn) {
+    }
+}
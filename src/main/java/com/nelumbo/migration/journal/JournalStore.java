@@ -0,0 +1,113 @@
+package com.nelumbo.migration.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Un diario por tipo de carga y contenido del archivo (SHA-256): volver a subir el mismo
+ * archivo retoma donde quedó la carga anterior. Los diarios sin escrituras por más tiempo que
+ * la retención de los trabajos se borran al abrir uno nuevo.
+ */
+@Slf4j
+@Component
+public class JournalStore {
+
+    private final Path directory;
+    private final boolean sync;
+    private final Duration retention;
+    private final Set<Path> open = ConcurrentHashMap.newKeySet();
+
+    public JournalStore(@Value("${migration.journal.dir:./migration-data/journal}") Path directory,
+                        @Value("${migration.journal.sync:true}") boolean sync,
+                        @Value("${migration.journal.retention:${migration.jobs.retention:24h}}") Duration retention) {
+        this.directory = directory;
+        this.sync = sync;
+        this.retention = retention;
+    }
+
+    public JobJournal open(String type, Path file, boolean resume) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return this.open(type, in, resume);
+        }
+    }
+
+    /**
+     * Abre el diario identificado por el contenido que entrega {@code content}. Con
+     * {@code resume} en false se descarta lo que hubiera de una carga anterior y todas las
+     * filas se vuelven a procesar.
+     */
+    public JobJournal open(String type, InputStream content, boolean resume) throws IOException {
+        Files.createDirectories(directory);
+        this.purgeExpired();
+        Path path = directory.resolve(type + "-" + sha256(content) + ".wal");
+        if (!open.add(path)) {
+            throw new IllegalStateException("The same file is already being migrated as " + type);
+        }
+        try {
+            if (!resume && Files.deleteIfExists(path)) {
+                log.info("Se descarta el diario " + path.getFileName() + ": la carga " + type + " empieza de cero");
+            }
+            JobJournal journal = new JobJournal(path, sync, () -> open.remove(path));
+            if (journal.getConfirmedRows() > 0 || journal.getInFlightRows() > 0) {
+                log.info("Se retoma la carga " + type + " desde " + path.getFileName() + ": " + journal.getConfirmedRows()
+                        + " filas confirmadas, " + journal.getInFlightRows() + " a medias");
+            }
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            open.remove(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Borra los diarios que nadie tiene abiertos y que no se escriben desde antes de la retención.
+     */
+    void purgeExpired() {
+        FileTime limit = FileTime.from(Instant.now().minus(retention));
+        try (Stream<Path> journals = Files.list(directory)) {
+            journals.filter(path -> path.getFileName().toString().endsWith(".wal"))
+                    // Se reclama como si se abriera para que otra subida no lo abra mientras se borra
+                    .filter(open::add)
+                    .forEach(path -> {
+                        try {
+                            if (Files.getLastModifiedTime(path).compareTo(limit) < 0 && Files.deleteIfExists(path)) {
+                                log.info("Se borra el diario vencido " + path.getFileName());
+                            }
+                        } catch (IOException e) {
+                            log.warn("Error deleting journal " + path + ": " + e.getMessage());
+                        } finally {
+                            open.remove(path);
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Error listing journals in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static String sha256(InputStream content) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new DigestInputStream(content, digest).transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
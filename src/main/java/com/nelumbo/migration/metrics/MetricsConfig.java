@@ -0,0 +1,14 @@
+package com.nelumbo.migration.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public RequestTimingCapability requestTimingCapability(MeterRegistry registry) {
+        return new RequestTimingCapability(registry);
+    }
+}
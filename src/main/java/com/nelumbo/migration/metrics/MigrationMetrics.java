@@ -0,0 +1,128 @@
+package com.nelumbo.migration.metrics;
+
+import com.nelumbo.migration.dispatch.CallContext;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas de la migración: filas por hoja, lectura de workbooks y concurrencia hacia core-api.
+ * El tiempo de cada método Feign lo registra {@link RequestTimingCapability} y la cola de
+ * trabajos la instrumenta Spring Boot como {@code executor.*{name=migrationJobExecutor}}.
+ * <p>
+ * Las métricas de un trabajo llevan el tag {@code type} del {@link CallContext} del hilo que las
+ * pide; fuera de un trabajo vale "none". Solo los contadores de filas llevan además el id del
+ * trabajo ({@code job}): los histogramas tendrían una serie por cubo y trabajo. Esos contadores
+ * se quitan con {@link #removeJob} cuando el trabajo deja de conservarse.
+ */
+@Component
+public class MigrationMetrics {
+
+    /** Métricas que no se publican, para usar fuera del contexto de Spring. */
+    public static final MigrationMetrics NONE = new MigrationMetrics(new SimpleMeterRegistry());
+
+    private static final String NO_JOB = "none";
+
+    private final MeterRegistry registry;
+
+    public MigrationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Cuenta las filas de una hoja según su resultado y registra cuánto tardó cada una, en
+     * nanosegundos; las filas que no se procesaron (confirmadas por el diario) llegan con 0 y
+     * solo se cuentan. Debe pedirse en el hilo del trabajo.
+     */
+    public ObjLongConsumer<RowOutcome> rows(String sheetName) {
+        Tags tags = jobTags().and("sheet", sheetName);
+        Map<RowOutcome.Status, Counter> counters = new EnumMap<>(RowOutcome.Status.class);
+        for (RowOutcome.Status status : RowOutcome.Status.values()) {
+            counters.put(status, registry.counter("migration.rows", tags.and("outcome", status.name().toLowerCase(Locale.ROOT))));
+        }
+        Timer duration = Timer.builder("migration.rows.duration").tags(typeTags().and("sheet", sheetName)).register(registry);
+        return (outcome, nanos) -> {
+            counters.get(outcome.getStatus()).increment();
+            if (nanos > 0) {
+                duration.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * Registra la lectura de un workbook que empezó en {@code startNanos} y el tamaño del archivo.
+     * En streaming la lectura incluye la entrega de cada fila al llamador.
+     */
+    public void parsed(String mode, long bytes, long startNanos) {
+        Tags tags = typeTags().and("mode", mode);
+        DistributionSummary.builder("migration.workbook.size").baseUnit("bytes").tags(tags)
+                .register(registry).record(bytes);
+        Timer.builder("migration.workbook.parse").tags(tags).register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publica el límite y las peticiones en vuelo de un endpoint de core-api.
+     */
+    public <T> void endpoint(String endpoint, T limiter, ToDoubleFunction<T> inFlight, ToDoubleFunction<T> limit) {
+        Gauge.builder("migration.core-api.in-flight", limiter, inFlight).tag("endpoint", endpoint).register(registry);
+        Gauge.builder("migration.core-api.limit", limiter, limit).tag("endpoint", endpoint).register(registry);
+    }
+
+    /**
+     * Latencia media de las llamadas exitosas a los métodos Feign cuya clave empieza con
+     * {@code endpointPrefix} (por ejemplo {@code StoreFeign#createStore}), o null si todavía no hubo.
+     */
+    public Duration meanLatency(String endpointPrefix) {
+        long count = 0;
+        double totalNanos = 0;
+        for (Timer timer : registry.find("migration.core-api.requests").timers()) {
+            String endpoint = timer.getId().getTag("endpoint");
+            String status = timer.getId().getTag("status");
+            if (endpoint != null && endpoint.startsWith(endpointPrefix) && status != null && status.startsWith("2")) {
+                count += timer.count();
+                totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+            }
+        }
+        return count == 0 ? null : Duration.ofNanos((long) (totalNanos / count));
+    }
+
+    /**
+     * Quita las métricas que llevan el id del trabajo, para que cada trabajo no deje series para
+     * siempre en el registro (y en Prometheus).
+     */
+    public void removeJob(String jobId) {
+        for (Meter meter : registry.getMeters()) {
+            if (jobId.equals(meter.getId().getTag("job"))) {
+                registry.remove(meter);
+            }
+        }
+    }
+
+    private static Tags jobTags() {
+        CallContext context = CallContext.current();
+        String job = context != null && context.getJobId() != null ? context.getJobId() : NO_JOB;
+        return typeTags().and("job", job);
+    }
+
+    private static Tags typeTags() {
+        CallContext context = CallContext.current();
+        String type = context != null && context.getJobType() != null ? context.getJobType() : NO_JOB;
+        return Tags.of("type", type);
+    }
+}
@@ -0,0 +1,65 @@
+package com.nelumbo.migration.metrics;
+
+import com.nelumbo.migration.dispatch.CallContext;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de cada llamada a core-api por método Feign ({@code migration.core-api.requests}),
+ * con el estado HTTP y el tipo de migración. Va lo más cerca posible del cliente HTTP, así que
+ * no cuenta la espera en el limitador de concurrencia ni los reintentos.
+ */
+public class RequestTimingCapability implements Capability, Ordered {
+
+    private final MeterRegistry registry;
+
+    public RequestTimingCapability(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> this.execute(client, request, options);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private Response execute(Client client, Request request, Request.Options options) throws IOException {
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            Response response = client.execute(request, options);
+            status = String.valueOf(response.status());
+            return response;
+        } finally {
+            CallContext context = CallContext.current();
+            Timer.builder("migration.core-api.requests")
+                    .tag("endpoint", endpoint(request))
+                    .tag("status", status)
+                    .tag("type", context != null && context.getJobType() != null ? context.getJobType() : "none")
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Clave del método Feign, por ejemplo StoreFeign#createStore(StoreRequest).
+     */
+    public static String endpoint(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+            return request.requestTemplate().methodMetadata().configKey();
+        }
+        return request.httpMethod() + " " + request.url();
+    }
+}
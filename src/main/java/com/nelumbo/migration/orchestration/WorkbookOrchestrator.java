@@ -0,0 +1,156 @@
+package com.nelumbo.migration.orchestration;
+
+import com.nelumbo.migration.artifact.ArtifactStore;
+import com.nelumbo.migration.dispatch.CallContext;
+import com.nelumbo.migration.excel.InputFormat;
+import com.nelumbo.migration.job.MigrationJob;
+import com.nelumbo.migration.service.MigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Carga el libro completo en una sola subida. Cada etapa arranca apenas terminan las etapas de
+ * las que depende, así que las independientes (compensaciones, tabuladores, categorías de
+ * cargos, jornadas) corren en paralelo y el tiempo total se acerca al de la ruta crítica.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkbookOrchestrator implements DisposableBean {
+
+    private static final String MODIFIED = "modified_";
+
+    private final MigrationService migrationService;
+    private final ArtifactStore artifactStore;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Corre todas las etapas y devuelve un zip con los libros modificados de las cargas que los
+     * generan, o null si ninguna lo generó.
+     */
+    public File run(MultipartFile file, MigrationJob job) throws IOException {
+        if (!InputFormat.of(file).isWorkbook()) {
+            throw new IllegalArgumentException("The workbook migration needs an .xlsx file with every sheet; "
+                    + "upload CSV or NDJSON files to each sheet's endpoint");
+        }
+        // Las etapas corren en otros hilos: llevan el contexto del trabajo (reintentos y tags de métricas)
+        CallContext context = CallContext.current();
+        Map<WorkbookStage, CompletableFuture<File>> stages = new EnumMap<>(WorkbookStage.class);
+        for (WorkbookStage stage : WorkbookStage.values()) {
+            job.stage(stage.name(), "PENDING");
+            CompletableFuture<?>[] dependencies = stage.getDependencies().stream()
+                    .map(stages::get)
+                    .toArray(CompletableFuture[]::new);
+            // Las etapas siguientes y el final esperan a que el estado SKIPPED ya esté puesto
+            CompletableFuture<File> future = CompletableFuture.allOf(dependencies)
+                    .thenApplyAsync(ignored -> this.runStage(stage, file, job, context), executor)
+                    .whenComplete((result, e) -> {
+                        if (e != null && !"FAILED".equals(job.getStages().get(stage.name()))) {
+                            // No llegó a correr porque falló una etapa de la que depende
+                            job.stage(stage.name(), "SKIPPED");
+                        }
+                    });
+            stages.put(stage, future);
+        }
+
+        CompletableFuture.allOf(stages.values().toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .join();
+
+        List<File> results = new ArrayList<>();
+        stages.forEach((stage, future) -> {
+            File result = future.exceptionally(e -> null).join();
+            if (result != null) {
+                results.add(result);
+            }
+        });
+        return results.isEmpty() ? null : this.zip(results, file);
+    }
+
+    private File runStage(WorkbookStage stage, MultipartFile file, MigrationJob job, CallContext context) {
+        long start = System.currentTimeMillis();
+        job.stage(stage.name(), "RUNNING");
+        log.info("Inicia la etapa " + stage + " del trabajo " + job.getId());
+        try {
+            File result = CallContext.call(context, () -> this.stageResult(stage, file, job));
+            job.stage(stage.name(), "COMPLETED");
+            log.info("Termina la etapa " + stage + " en " + (System.currentTimeMillis() - start) + " ms");
+            return result;
+        } catch (Exception e) {
+            job.stage(stage.name(), "FAILED");
+            log.error("Error in stage " + stage + ": " + e.getMessage());
+            throw new CompletionException(e);
+        }
+    }
+
+    private File stageResult(WorkbookStage stage, MultipartFile file, MigrationJob job) {
+        return switch (stage) {
+            case COST_CENTERS -> {
+                migrationService.migrateCostCenters(file, job);
+                yield null;
+            }
+            case STORES -> {
+                migrationService.migrateStores(file, job);
+                yield null;
+            }
+            case STORES_ORG_ENTITIES -> {
+                migrationService.migrateStoresOrgEntities(file, job);
+                yield null;
+            }
+            case WORK_POSITION_CATEGORIES -> migrationService.loadWorkPositionCategories(file, job);
+            case WORK_POSITIONS -> {
+                migrationService.migrateWorkPositions(file, job);
+                yield null;
+            }
+            case PROFILES -> {
+                migrationService.migrateProfiles(file, job);
+                yield null;
+            }
+            case WORK_PERIODS -> migrationService.loadWorkPeriods(file, job);
+            case STORE_WORK_PERIODS -> {
+                migrationService.migrateStoreWorkPeriods(file, job);
+                yield null;
+            }
+            case COMPENSATIONS -> migrationService.cargarCompensaciones(file, job);
+            case TABS -> migrationService.loadTabs(file, job);
+        };
+    }
+
+    private File zip(List<File> files, MultipartFile file) throws IOException {
+        File zipFile = artifactStore.newFile(MODIFIED + file.getOriginalFilename() + ".zip");
+        try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)))) {
+            for (File result : files) {
+                out.putNextEntry(new ZipEntry(result.getName()));
+                Files.copy(result.toPath(), out);
+                out.closeEntry();
+            }
+        }
+        // Los libros de cada etapa ya van dentro del zip
+        files.forEach(artifactStore::delete);
+        return zipFile;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,30 @@
+package com.nelumbo.migration.orchestration;
+
+import java.util.List;
+
+/**
+ * Etapas de la carga del libro completo y de qué etapas dependen (los ids que leen del
+ * registro). Cada etapa solo depende de etapas declaradas antes.
+ */
+public enum WorkbookStage {
+    COST_CENTERS,
+    STORES(COST_CENTERS),
+    STORES_ORG_ENTITIES(STORES),
+    WORK_POSITION_CATEGORIES,
+    WORK_POSITIONS(STORES_ORG_ENTITIES, WORK_POSITION_CATEGORIES),
+    PROFILES(WORK_POSITIONS),
+    WORK_PERIODS,
+    STORE_WORK_PERIODS(STORES, WORK_PERIODS),
+    COMPENSATIONS,
+    TABS;
+
+    private final List<WorkbookStage> dependencies;
+
+    WorkbookStage(WorkbookStage... dependencies) {
+        this.dependencies = List.of(dependencies);
+    }
+
+    public List<WorkbookStage> getDependencies() {
+        return dependencies;
+    }
+}
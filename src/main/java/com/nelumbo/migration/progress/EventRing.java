@@ -0,0 +1,144 @@
+package com.nelumbo.migration.progress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular sin locks con varios productores y varios lectores. Publicar es un
+ * incremento atómico y una escritura en el arreglo, así que los hilos de las filas nunca
+ * esperan a un lector: si un lector se atrasa más que la capacidad, los eventos más viejos
+ * se sobrescriben y el lector salta al más antiguo disponible contando los que perdió.
+ * <p>
+ * Cada lector lleva su propio {@link Cursor}; el buffer no sabe cuántos lectores hay.
+ */
+public final class EventRing<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * @param capacity se redondea a la potencia de dos siguiente
+     */
+    public EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void publish(T value) {
+        long seq = next.getAndIncrement();
+        slots.lazySet((int) (seq & mask), new Slot<>(seq, value));
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /** Cantidad de eventos publicados desde que se creó el buffer. */
+    public long published() {
+        return next.get();
+    }
+
+    /**
+     * Cursor en el evento más antiguo que sigue en el buffer.
+     */
+    public Cursor oldest() {
+        return new Cursor(Math.max(0, next.get() - slots.length()));
+    }
+
+    /**
+     * Cursor en el próximo evento que se publique.
+     */
+    public Cursor latest() {
+        return new Cursor(next.get());
+    }
+
+    /**
+     * Entrega al consumer hasta {@code max} eventos desde el cursor y lo avanza. Se detiene en
+     * el primer evento que todavía no termina de publicarse.
+     *
+     * @return eventos entregados
+     */
+    public int read(Cursor cursor, int max, Consumer<? super T> consumer) {
+        int delivered = 0;
+        while (delivered < max) {
+            long head = next.get();
+            if (cursor.position >= head) {
+                break;
+            }
+            if (head - cursor.position > slots.length()) {
+                this.skipTo(cursor, head - slots.length());
+                continue;
+            }
+            Slot<T> slot = slots.get((int) (cursor.position & mask));
+            if (slot == null || slot.seq < cursor.position) {
+                // El productor tomó la secuencia pero aún no escribe el evento
+                break;
+            }
+            if (slot.seq > cursor.position) {
+                // Se sobrescribió mientras leíamos
+                this.skipTo(cursor, next.get() - slots.length());
+                continue;
+            }
+            consumer.accept(slot.value);
+            cursor.position++;
+            delivered++;
+        }
+        return delivered;
+    }
+
+    /**
+     * Los últimos {@code count} eventos publicados, del más viejo al más nuevo.
+     */
+    public List<T> last(int count) {
+        long head = next.get();
+        long from = Math.max(Math.max(0, head - count), head - slots.length());
+        List<T> result = new ArrayList<>((int) (head - from));
+        for (long seq = from; seq < head; seq++) {
+            Slot<T> slot = slots.get((int) (seq & mask));
+            if (slot != null && slot.seq == seq) {
+                result.add(slot.value);
+            }
+        }
+        return result;
+    }
+
+    private void skipTo(Cursor cursor, long position) {
+        long target = Math.max(position, cursor.position + 1);
+        cursor.skipped += target - cursor.position;
+        cursor.position = target;
+    }
+
+    private record Slot<T>(long seq, T value) {
+    }
+
+    /**
+     * Posición de un lector. No es seguro entre hilos: cada lector usa el suyo.
+     */
+    public static final class Cursor {
+
+        private long position;
+        private long skipped;
+
+        private Cursor(long position) {
+            this.position = position;
+        }
+
+        public long position() {
+            return position;
+        }
+
+        /**
+         * Eventos sobrescritos antes de que el lector los alcanzara desde la última llamada.
+         */
+        public long takeSkipped() {
+            long taken = skipped;
+            skipped = 0;
+            return taken;
+        }
+    }
+}
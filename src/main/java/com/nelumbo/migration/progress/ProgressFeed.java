@@ -0,0 +1,72 @@
+package com.nelumbo.migration.progress;
+
+import com.nelumbo.migration.dispatch.RowOutcome;
+
+import java.util.List;
+
+/**
+ * Eventos de avance de un trabajo: el resultado de cada fila en un {@link EventRing} y las
+ * últimas filas con error en otro más chico. Los hilos de las filas solo publican; los
+ * suscriptores leen a su ritmo y el que se atrasa pierde filas, nunca frena la carga.
+ * <p>
+ * La velocidad que se informa es un promedio móvil exponencial (EWMA) de las filas por
+ * segundo, así que el ETA reacciona a cambios de ritmo sin saltar con cada muestra.
+ */
+public class ProgressFeed {
+
+    // Peso de la muestra nueva; con muestras de un segundo la velocidad refleja los últimos ~3 s
+    private static final double ALPHA = 0.3;
+    private static final long SAMPLE_NANOS = 1_000_000_000L;
+
+    private final EventRing<RowEvent> rows;
+    private final EventRing<RowEvent> errors;
+    private final int latestErrors;
+
+    private long sampledAt;
+    private long sampledRows;
+    private double rate = Double.NaN;
+
+    public ProgressFeed(int capacity, int latestErrors) {
+        this.rows = new EventRing<>(capacity);
+        this.errors = new EventRing<>(latestErrors);
+        this.latestErrors = latestErrors;
+    }
+
+    public void publish(String sheetName, RowOutcome outcome) {
+        RowEvent event = RowEvent.of(sheetName, outcome);
+        rows.publish(event);
+        if (!outcome.isSuccess()) {
+            errors.publish(event);
+        }
+    }
+
+    public EventRing<RowEvent> rows() {
+        return rows;
+    }
+
+    public List<RowEvent> latestErrors() {
+        return errors.last(latestErrors);
+    }
+
+    /**
+     * Filas por segundo suavizadas. Toma una muestra si pasó al menos un segundo desde la
+     * anterior, así que varios suscriptores consultando a la vez no alteran el promedio.
+     *
+     * @param processed filas procesadas hasta ahora
+     * @param seed      velocidad con la que arranca el promedio (la media desde el inicio)
+     */
+    public synchronized double rate(long processed, double seed) {
+        long now = System.nanoTime();
+        if (Double.isNaN(rate)) {
+            rate = seed;
+            sampledAt = now;
+            sampledRows = processed;
+        } else if (now - sampledAt >= SAMPLE_NANOS) {
+            double instant = (processed - sampledRows) * 1e9 / (now - sampledAt);
+            rate = ALPHA * instant + (1 - ALPHA) * rate;
+            sampledAt = now;
+            sampledRows = processed;
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,16 @@
+package com.nelumbo.migration.progress;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nelumbo.migration.dispatch.RowOutcome;
+
+/**
+ * Resultado de una fila tal como se envía a los suscriptores. El número de fila es el de
+ * Excel (la fila de encabezados es la 1).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RowEvent(String sheet, int row, RowOutcome.Status status, Long id, String error) {
+
+    public static RowEvent of(String sheetName, RowOutcome outcome) {
+        return new RowEvent(sheetName, outcome.getRowNum() + 1, outcome.getStatus(), outcome.getCreatedId(), outcome.getMessage());
+    }
+}
@@ -0,0 +1,26 @@
+package com.nelumbo.migration.registry;
+
+/**
+ * Entidades de core-api cuyo id se necesita en cargas posteriores.
+ */
+public enum EntityType {
+    COST_CENTER("cost-centers"),
+    STORE("stores"),
+    /** Clave: sucursal y departamento, ver {@link IdRegistry#key(String, String)}. */
+    STORE_DETAIL("store-details"),
+    WORK_POSITION("work-positions"),
+    WORK_PERIOD("work-periods"),
+    WORK_POSITION_CATEGORY("work-position-categories"),
+    /** Clave: la clave antigua del empleado. */
+    PROFILE("profiles");
+
+    private final String fileName;
+
+    EntityType(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
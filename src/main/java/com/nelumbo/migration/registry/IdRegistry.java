@@ -0,0 +1,66 @@
+package com.nelumbo.migration.registry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Ids que core-api asignó a cada entidad migrada, por nombre. Sobrevive a reinicios: las
+ * sucursales cargadas ayer siguen resolviendo cuando hoy se suben los cargos.
+ */
+@Slf4j
+@Component
+public class IdRegistry implements DisposableBean {
+
+    private static final String SEPARATOR = "\u0000";
+
+    private final Map<EntityType, IdStore> stores = new EnumMap<>(EntityType.class);
+
+    public IdRegistry(@Value("${migration.registry.dir:./migration-data/registry}") Path directory,
+                      @Value("${migration.registry.sync-writes:true}") boolean syncWrites) throws IOException {
+        Files.createDirectories(directory);
+        for (EntityType type : EntityType.values()) {
+            stores.put(type, new IdStore(directory, type.getFileName(), syncWrites));
+        }
+    }
+
+    /**
+     * Clave compuesta, p. ej. sucursal y departamento para {@link EntityType#STORE_DETAIL}.
+     */
+    public static String key(String first, String second) {
+        return first + SEPARATOR + second;
+    }
+
+    public Long find(EntityType type, String key) {
+        return key == null ? null : stores.get(type).find(key);
+    }
+
+    public void put(EntityType type, String key, Long id) {
+        if (key == null || id == null) {
+            return;
+        }
+        stores.get(type).put(key, id);
+    }
+
+    public long size(EntityType type) {
+        return stores.get(type).size();
+    }
+
+    @Override
+    public void destroy() {
+        stores.forEach((type, store) -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                log.error("Error closing " + type + " registry: " + e.getMessage());
+            }
+        });
+    }
+}
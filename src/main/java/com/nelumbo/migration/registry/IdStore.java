@@ -0,0 +1,351 @@
+package com.nelumbo.migration.registry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Nombre → id de un tipo de entidad. Cada registro se agrega a un log ({@code .log}) que es
+ * la fuente de verdad; el índice ({@code .idx}) es una tabla hash de direccionamiento abierto
+ * mapeada en memoria que guarda, por slot, el hash de la clave, la posición del registro en el
+ * log y el id. Las búsquedas no crean objetos en el heap salvo para comparar la clave.
+ *
+ * <p>Al abrir, si el índice se cerró bien solo se reaplica la cola del log que el índice no
+ * alcanzó a registrar; si no (caída del proceso), el índice se reconstruye desde el log.
+ */
+@Slf4j
+class IdStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x49445258;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 24;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    // Posiciones en la cabecera del índice
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_CLEAN = 12;
+    private static final int H_COUNT = 16;
+    private static final int H_LOG_LENGTH = 24;
+
+    private final String name;
+    private final Path logPath;
+    private final Path indexPath;
+    private final boolean syncWrites;
+    private final FileChannel logChannel;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedByteBuffer index;
+    private int capacity;
+    private long count;
+    private long logLength;
+
+    IdStore(Path directory, String name, boolean syncWrites) throws IOException {
+        this.name = name;
+        this.logPath = directory.resolve(name + ".log");
+        this.indexPath = directory.resolve(name + ".idx");
+        this.syncWrites = syncWrites;
+        this.logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.open();
+    }
+
+    Long find(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(bytes);
+        lock.readLock().lock();
+        try {
+            int slot = this.findSlot(bytes, hash);
+            return slot < 0 ? null : index.getLong(slotAt(slot) + 16);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(String key, long id) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(bytes);
+        lock.writeLock().lock();
+        try {
+            long offset = this.append(bytes, id);
+            this.insert(bytes, hash, offset, id);
+            index.putLong(H_COUNT, count);
+            index.putLong(H_LOG_LENGTH, logLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing " + name + " registry: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            logChannel.force(true);
+            index.putInt(H_CLEAN, 1);
+            index.force();
+            logChannel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        long start = System.nanoTime();
+        long valid = this.validIndexLogLength();
+        if (valid < 0) {
+            this.createIndex(INITIAL_CAPACITY);
+            this.replay(0);
+        } else {
+            this.mapIndex();
+            this.replay(valid);
+        }
+        // Hasta el cierre ordenado el índice en disco puede ir detrás del log
+        index.putInt(H_CLEAN, 0);
+        index.putLong(H_COUNT, count);
+        index.putLong(H_LOG_LENGTH, logLength);
+        index.force();
+        log.info("Registro " + name + ": " + count + " ids cargados en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Largo del log que el índice ya contiene, o -1 si el índice no sirve y hay que reconstruirlo.
+     */
+    private long validIndexLogLength() throws IOException {
+        if (!Files.exists(indexPath) || Files.size(indexPath) < HEADER_SIZE) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            int storedCapacity = header.getInt(H_CAPACITY);
+            boolean valid = header.getInt(H_MAGIC) == MAGIC
+                    && header.getInt(H_VERSION) == VERSION
+                    && header.getInt(H_CLEAN) == 1
+                    && Integer.bitCount(storedCapacity) == 1
+                    && channel.size() == HEADER_SIZE + (long) storedCapacity * SLOT_SIZE
+                    && header.getLong(H_LOG_LENGTH) <= logChannel.size();
+            if (!valid) {
+                log.warn("Index of " + name + " registry was not closed cleanly, rebuilding from the log");
+                return -1;
+            }
+            return header.getLong(H_LOG_LENGTH);
+        }
+    }
+
+    private void mapIndex() throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            index = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        capacity = index.getInt(H_CAPACITY);
+        count = index.getLong(H_COUNT);
+        logLength = index.getLong(H_LOG_LENGTH);
+    }
+
+    private void createIndex(int newCapacity) throws IOException {
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        MappedByteBuffer created = mapNew(tmp, newCapacity);
+        created.force();
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index = created;
+        capacity = newCapacity;
+        count = 0;
+        logLength = 0;
+    }
+
+    private static MappedByteBuffer mapNew(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            buffer.putInt(H_MAGIC, MAGIC);
+            buffer.putInt(H_VERSION, VERSION);
+            buffer.putInt(H_CAPACITY, capacity);
+            return buffer;
+        }
+    }
+
+    /**
+     * Reaplica los registros del log desde {@code from}. Un registro incompleto o con CRC
+     * inválido al final (escritura cortada) se descarta y el log se trunca ahí.
+     */
+    private void replay(long from) throws IOException {
+        long position = from;
+        long end = logChannel.size();
+        try (InputStream in = Files.newInputStream(logPath);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16))) {
+            in.skipNBytes(from);
+            while (position < end) {
+                int keyLength = data.readInt();
+                if (keyLength < 0 || position + 4 + keyLength + 12 > end) {
+                    break;
+                }
+                byte[] key = new byte[keyLength];
+                data.readFully(key);
+                long id = data.readLong();
+                int crc = data.readInt();
+                if (crc != crc(key, id)) {
+                    break;
+                }
+                this.insert(key, hash(key), position, id);
+                position += 4 + keyLength + 12;
+            }
+        } catch (EOFException e) {
+            // El último registro quedó a medias
+        }
+        if (position < end) {
+            log.warn("Discarding " + (end - position) + " bytes at the end of " + logPath);
+            logChannel.truncate(position);
+        }
+        logLength = position;
+        logChannel.position(logLength);
+    }
+
+    private long append(byte[] key, long id) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(4 + key.length + 12);
+        record.putInt(key.length).put(key).putLong(id).putInt(crc(key, id)).flip();
+        long offset = logLength;
+        while (record.hasRemaining()) {
+            logChannel.write(record, offset + record.position());
+        }
+        if (syncWrites) {
+            logChannel.force(false);
+        }
+        logLength = offset + record.capacity();
+        return offset;
+    }
+
+    private void insert(byte[] key, long hash, long offset, long id) throws IOException {
+        int existing = this.findSlot(key, hash);
+        if (existing >= 0) {
+            int base = slotAt(existing);
+            index.putLong(base + 8, offset);
+            index.putLong(base + 16, id);
+            return;
+        }
+        if ((count + 1) * 10 > (long) capacity * 7) {
+            this.grow();
+        }
+        int slot = (int) (hash & (capacity - 1));
+        while (index.getLong(slotAt(slot)) != 0) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+        int base = slotAt(slot);
+        index.putLong(base + 8, offset);
+        index.putLong(base + 16, id);
+        // El hash se escribe de último: marca el slot como ocupado
+        index.putLong(base, hash);
+        count++;
+    }
+
+    private int findSlot(byte[] key, long hash) {
+        int slot = (int) (hash & (capacity - 1));
+        long stored;
+        while ((stored = index.getLong(slotAt(slot))) != 0) {
+            if (stored == hash && this.keyEquals(index.getLong(slotAt(slot) + 8), key)) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(long offset, byte[] key) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(4 + key.length);
+            while (buffer.hasRemaining()) {
+                if (logChannel.read(buffer, offset + buffer.position()) < 0) {
+                    return false;
+                }
+            }
+            return buffer.getInt(0) == key.length
+                    && Arrays.equals(buffer.array(), 4, 4 + key.length, key, 0, key.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading " + name + " registry: " + e.getMessage(), e);
+        }
+    }
+
+    private void grow() throws IOException {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Registry " + name + " is full");
+        }
+        int newCapacity = capacity * 2;
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        MappedByteBuffer grown = mapNew(tmp, newCapacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = slotAt(slot);
+            long hash = index.getLong(base);
+            if (hash == 0) {
+                continue;
+            }
+            int target = (int) (hash & (newCapacity - 1));
+            while (grown.getLong(HEADER_SIZE + target * SLOT_SIZE) != 0) {
+                target = (target + 1) & (newCapacity - 1);
+            }
+            int newBase = HEADER_SIZE + target * SLOT_SIZE;
+            grown.putLong(newBase, hash);
+            grown.putLong(newBase + 8, index.getLong(base + 8));
+            grown.putLong(newBase + 16, index.getLong(base + 16));
+        }
+        grown.putLong(H_COUNT, count);
+        grown.putLong(H_LOG_LENGTH, logLength);
+        grown.force();
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index = grown;
+        capacity = newCapacity;
+    }
+
+    private static int slotAt(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * FNV-1a de 64 bits con un mezclado final; 0 se reserva para los slots vacíos.
+     */
+    static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private static int crc(byte[] key, long id) {
+        CRC32 crc = new CRC32();
+        crc.update(key);
+        crc.update(ByteBuffer.allocate(8).putLong(0, id).array());
+        return (int) crc.getValue();
+    }
+}
@@ -1,37 +1,63 @@
 package com.nelumbo.migration.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nelumbo.migration.artifact.ArtifactStore;
+import com.nelumbo.migration.cache.CatalogIndex;
+import com.nelumbo.migration.cache.GeoGazetteer;
+import com.nelumbo.migration.cache.OrgEntityHierarchy;
+import com.nelumbo.migration.cache.WorkPeriodCatalogue;
+import com.nelumbo.migration.dispatch.RowDispatcher;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import com.nelumbo.migration.dispatch.RowProgress;
+import com.nelumbo.migration.dispatch.RowReconciler;
+import com.nelumbo.migration.dispatch.RowTask;
+import com.nelumbo.migration.dispatch.SheetDispatch;
+import com.nelumbo.migration.excel.AnnotatedWorkbook;
+import com.nelumbo.migration.excel.ColumnPlan;
+import com.nelumbo.migration.excel.ExcelReader;
+import com.nelumbo.migration.excel.ReaderMode;
+import com.nelumbo.migration.excel.SheetCell;
+import com.nelumbo.migration.excel.InputFormat;
+import com.nelumbo.migration.excel.SheetJoin;
+import com.nelumbo.migration.excel.SheetRow;
+import com.nelumbo.migration.excel.SheetSelector;
 import com.nelumbo.migration.feign.*;
 import com.nelumbo.migration.feign.dto.*;
 import com.nelumbo.migration.feign.dto.requests.*;
 import com.nelumbo.migration.feign.dto.responses.*;
+import com.nelumbo.migration.registry.EntityType;
+import com.nelumbo.migration.registry.IdRegistry;
+import com.nelumbo.migration.validation.RowCheck;
+import com.nelumbo.migration.validation.SheetValidator;
+import com.nelumbo.migration.validation.ValidationReport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.math3.exception.NullArgumentException;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MigrationService {
 
-    private final CountryFeign countryFeign;
     private final CostCenterFeign costCenterFeign;
-    private final LoginFeign loginFeign;
     private final StoreFeign storeFeign;
     private final OrgEntityFeign orgEntityFeign;
     private final WorkPositionFeign workPositionFeign;
@@ -40,1126 +66,1101 @@ public class MigrationService {
     private final TabsFeign tabsFeign;
     private final WorksPositionCategoriesFeign worksPositionCategoriesFeign;
     private final WorkPeriodsFeign workPeriodsFeign;
-    private final WorkPeriodsTypesFeign workPeriodsTypesFeign;
-    private final WorkPeriodsMaxDurationsFeign workPeriodsMaxDurationsFeign;
-    private final WorkPeriodsMaxDailyDurationsFeign workPeriodsMaxDailyDurationsFeign;
-    private final DurationsFeign durationsFeign;
-    private final WorkTurnTypesFeign workTurnTypesFeign;
     private final ModelNamesFeign modelNamesFeign;
+    private final ExcelReader excelReader;
+    private final GeoGazetteer geoGazetteer;
+    private final WorkPeriodCatalogue workPeriodCatalogue;
+    private final RowDispatcher rowDispatcher;
+    private final IdRegistry idRegistry;
+    private final ArtifactStore artifactStore;
+    private final SheetValidator sheetValidator;
+    private final ObjectMapper objectMapper;
 
-    Map<String, Long> costCenterResponseMap = new ConcurrentHashMap<>();
-    Map<String, Long> storeResponseMap = new ConcurrentHashMap<>();
-    Map<String,Map<String, Long>> storeDetailResponseMap = new ConcurrentHashMap<>();
-    Map<String,Long> workPositionResponseMap = new ConcurrentHashMap<>();
-    Map<String,Long> workPeriodsMap = new ConcurrentHashMap<>();
-    Map<String,Long> workPositionCategoriesMap = new ConcurrentHashMap<>();
+    @Value("${migration.org-entities.page-size:200}")
+    private int orgEntityPageSize;
 
-    @Value("${email}")
-    private String email;
+    @Value("${migration.catalogs.search-limit:0}")
+    private int catalogSearchLimit;
 
-    @Value("${password}")
-    private String password;
+    @Value("${migration.excel.result-mode:dom}")
+    private ReaderMode resultMode;
+
+    @Value("${migration.excel.result-window:200}")
+    private int resultWindow;
+
+    @Value("${migration.validation.before-write:false}")
+    private boolean validateBeforeWrite;
 
     //constantes
-    private static final String BEARER = "Bearer ";
     private static final String MODIFIED = "modified_";
     private static final String SHEET = "Estamos con la hoja: ";
     private static final String COUNTROWS = "La cantidad de filas es: ";
-
-    public void migrateCostCenters(MultipartFile file) {
-        String bearerToken = this.getBearerToken();
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-            int numberOfRows = sheet.getPhysicalNumberOfRows();
-
-            for (int i = 1; i < numberOfRows; i++) {
-                try {
-                    Row row = sheet.getRow(i);
-                    CostCenterRequest costCenterRequest = new CostCenterRequest();
-                    Cell cellCode = row.getCell(0);
-                    costCenterRequest.setCode(cellCode.getCellType() == CellType.STRING ? cellCode.getStringCellValue() : "" + (int) cellCode.getNumericCellValue());
-                    costCenterRequest.setDenomination(row.getCell(1).getStringCellValue());
-
-                    DefaultResponse<List<CountryResponse>> countryResponse = countryFeign.findAll();
-                    Long countryId = countryResponse.getData().stream()
-                            .filter(country -> country.getName().equalsIgnoreCase(row.getCell(2).getStringCellValue()))
-                            .findFirst().map(CountryResponse::getId).orElseThrow(() -> new RuntimeException("country ".concat(row.getCell(2).getStringCellValue().concat(" not found"))));
-                    DefaultResponse<List<CountryResponse>> stateResponse = countryFeign.findAllStatesByCountryId(countryId);
-                    Long stateId = stateResponse.getData().stream()
-                            .filter(state -> state.getName().equalsIgnoreCase(row.getCell(3).getStringCellValue()))
-                            .findFirst().map(CountryResponse::getId).orElseThrow(() -> new RuntimeException("state ".concat(row.getCell(3).getStringCellValue().concat(" not found"))));
-                    DefaultResponse<List<CountryResponse>> cityResponse = countryFeign.findAllCitesByStateIdAndCountryId(countryId, stateId);
-                    Long cityId = cityResponse.getData().stream()
-                            .filter(city -> city.getName().equalsIgnoreCase(row.getCell(4).getStringCellValue()))
-                            .findFirst().map(CountryResponse::getId).orElseThrow(() -> new RuntimeException("city ".concat(row.getCell(4).getStringCellValue().concat(" not found"))));
-
-                    costCenterRequest.setCountryId(countryId);
-                    costCenterRequest.setStateId(stateId);
-                    costCenterRequest.setCityId(cityId);
-                    costCenterRequest.setStatusId(1L);
-
-                    DefaultResponse<CostCenterResponse> costCenterResponse = costCenterFeign.createCostCenter(bearerToken, costCenterRequest);
-                    costCenterResponseMap.put(costCenterResponse.getData().getDenomination(), costCenterResponse.getData().getId());
-                } catch (Exception e) {
-                    log.error("Error processing row " + (i + 1) + " in sheet centro de costos: " + e.getMessage());
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error processing Excel file: " + e.getMessage());
-        }
+    // Formatos compartidos por todas las filas; DateTimeFormatter es inmutable y seguro entre hilos
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+
+    // Nombres de las hojas, usados en los logs y para el límite de concurrencia por hoja
+    private static final String SHEET_COST_CENTERS = "centro de costos";
+    private static final String SHEET_STORES = "sucursales";
+    private static final String SHEET_STORE_ORG_ENTITIES = "sucursal_org_entities";
+    private static final String SHEET_WORK_POSITIONS = "cargos";
+    private static final String SHEET_PROFILES = "perfiles";
+    private static final String SHEET_STORE_WORK_PERIODS = "sucursal_jornadas";
+
+    // Columnas que usa cada hoja; el lector en streaming descarta el resto
+    private static final int[] COST_CENTER_COLUMNS = {0, 1, 2, 3, 4};
+    private static final int[] STORE_COLUMNS = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    private static final int[] STORE_ORG_ENTITY_COLUMNS = {0, 1, 2, 3, 4};
+    private static final int[] WORK_POSITION_COLUMNS = {0, 1, 2, 3, 4, 5};
+    private static final int[] PROFILE_COLUMNS = {0, 1, 2, 3, 4, 5, 6, 7, 12, 13, 14, 15, 17, 18, 19, 20, 21, 22, 25};
+    private static final int[] STORE_WORK_PERIOD_COLUMNS = {0, 1};
+
+    // Métodos Feign que escriben cada hoja, para estimar la latencia con lo medido en cargas anteriores
+    private static final String ENDPOINT_COST_CENTERS = "CostCenterFeign#createCostCenter(";
+    private static final String ENDPOINT_STORES = "StoreFeign#createStore(";
+    private static final String ENDPOINT_STORE_DETAILS = "StoreFeign#createStoreDetails(";
+    private static final String ENDPOINT_WORK_POSITIONS = "WorkPositionFeign#createWorkPosition(";
+    private static final String ENDPOINT_PROFILES = "ProfileFeign#createProfile(";
+    private static final String ENDPOINT_STORE_WORK_PERIODS = "StoreFeign#createStoreWorkPeriods(";
+
+    public void migrateCostCenters(MultipartFile file, RowProgress progress) {
+        this.migrateSheet(file, progress, SheetSelector.at(0), SHEET_COST_CENTERS, COST_CENTER_COLUMNS, ENDPOINT_COST_CENTERS,
+                this::migrateCostCenter, this.costCenterCheck(), this.registered(EntityType.COST_CENTER, 1));
     }
 
-    public void migrateStores(MultipartFile file) {
-        String bearerToken = this.getBearerToken();
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-
-            Sheet sheet = workbook.getSheetAt(1);
-            int numberOfRows = sheet.getPhysicalNumberOfRows();
-
-            for (int i = 1; i < numberOfRows; i++) {
-                try {
-                    Row row = sheet.getRow(i);
-                    StoreRequest storeRequest = new StoreRequest();
-                    Cell code = row.getCell(0);
-                    storeRequest.setCode(code.getCellType() == CellType.STRING ? code.getStringCellValue() : "" + (int) code.getNumericCellValue());
-                    storeRequest.setDenomination(row.getCell(1).getStringCellValue());
-
-                    DefaultResponse<List<CountryResponse>> countryResponse = countryFeign.findAll();
-                    Long countryId = countryResponse.getData().stream()
-                            .filter(country -> country.getName().equalsIgnoreCase(row.getCell(2).getStringCellValue()))
-                            .findFirst().map(CountryResponse::getId).orElseThrow(() -> new RuntimeException("country ".concat(row.getCell(2).getStringCellValue().concat(" not found"))));
-                    DefaultResponse<List<CountryResponse>> stateResponse = countryFeign.findAllStatesByCountryId(countryId);
-                    Long stateId = stateResponse.getData().stream()
-                            .filter(state -> state.getName().equalsIgnoreCase(row.getCell(3).getStringCellValue()))
-                            .findFirst().map(CountryResponse::getId).orElseThrow(() -> new RuntimeException("state ".concat(row.getCell(3).getStringCellValue().concat(" not found"))));
-                    DefaultResponse<List<CountryResponse>> cityResponse = countryFeign.findAllCitesByStateIdAndCountryId(countryId, stateId);
-                    Long cityId = cityResponse.getData().stream()
-                            .filter(city -> city.getName().equalsIgnoreCase(row.getCell(4).getStringCellValue()))
-                            .findFirst().map(CountryResponse::getId).orElseThrow(() -> new RuntimeException("city ".concat(row.getCell(4).getStringCellValue().concat(" not found"))));
-
-                    storeRequest.setCountryId(countryId);
-                    storeRequest.setStateId(stateId);
-                    storeRequest.setCityId(cityId);
-                    storeRequest.setStatusId(1L);
-                    storeRequest.setAddress(row.getCell(5).getStringCellValue());
-                    storeRequest.setZipcode("" + (int) row.getCell(6).getNumericCellValue());
-                    storeRequest.setLatitude(row.getCell(7).getNumericCellValue());
-                    storeRequest.setLongitude(row.getCell(8).getNumericCellValue());
-                    storeRequest.setGeorefDistance((long) row.getCell(9).getNumericCellValue());
-                    Long costCenterId = row.getCell(10) != null ? costCenterResponseMap.get(row.getCell(10).getStringCellValue()) : null;
-                    storeRequest.setCostCenterId(costCenterId);
-                    DefaultResponse<StoreResponse> storeResponse = storeFeign.createStore(bearerToken, storeRequest);
-                    storeResponseMap.put(storeResponse.getData().getDenomination(), storeResponse.getData().getId());
-                } catch (Exception e) {
-                    log.error("Error processing row " + (i + 1) + " in sheet sucursales: " + e.getMessage());
-                }
-            }
+    public File validateCostCenters(MultipartFile file, RowProgress progress) throws IOException {
+        return this.validateSheet(file, progress, SheetSelector.at(0), SHEET_COST_CENTERS, COST_CENTER_COLUMNS,
+                ENDPOINT_COST_CENTERS, this.costCenterCheck());
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing Excel file: " + e.getMessage());
-        }
+    private RowCheck costCenterCheck() {
+        return row -> {
+            this.costCenterRequest(row);
+            return 1;
+        };
     }
 
-    public void migrateStoresOrgEntities(MultipartFile file) {
-        String bearerToken = this.getBearerToken();
+    private CostCenterRequest costCenterRequest(SheetRow row) {
+        CostCenterRequest costCenterRequest = new CostCenterRequest();
+        SheetCell cellCode = row.getCell(0);
+        costCenterRequest.setCode(cellCode.getCellType() == CellType.STRING ? cellCode.getStringCellValue() : "" + (int) cellCode.getNumericCellValue());
+        costCenterRequest.setDenomination(row.getCell(1).getStringCellValue());
+
+        GeoGazetteer.GeoLocation location = geoGazetteer.resolve(row.getCell(2).getStringCellValue(),
+                row.getCell(3).getStringCellValue(), row.getCell(4).getStringCellValue());
+        costCenterRequest.setCountryId(location.getCountry().getId());
+        costCenterRequest.setStateId(location.getState().getId());
+        costCenterRequest.setCityId(location.getCity().getId());
+        costCenterRequest.setStatusId(1L);
+        return costCenterRequest;
+    }
 
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(2);
-            int numberOfRows = sheet.getPhysicalNumberOfRows();
+    private RowOutcome migrateCostCenter(SheetRow row) {
+        DefaultResponse<CostCenterResponse> costCenterResponse = costCenterFeign.createCostCenter(this.costCenterRequest(row));
+        idRegistry.put(EntityType.COST_CENTER, costCenterResponse.getData().getDenomination(), costCenterResponse.getData().getId());
+        return RowOutcome.created(0, costCenterResponse.getData().getId());
+    }
 
-            for (int i = 1; i < numberOfRows; i++) {
-                try {
-                    Row row = sheet.getRow(i);
+    public void migrateStores(MultipartFile file, RowProgress progress) {
+        this.migrateSheet(file, progress, SheetSelector.at(1), SHEET_STORES, STORE_COLUMNS, ENDPOINT_STORES,
+                this::migrateStore, this.storeCheck(), this.registered(EntityType.STORE, 1));
+    }
 
-                    Long storeId = storeResponseMap.get(row.getCell(0).getStringCellValue());
+    public File validateStores(MultipartFile file, RowProgress progress) throws IOException {
+        return this.validateSheet(file, progress, SheetSelector.at(1), SHEET_STORES, STORE_COLUMNS,
+                ENDPOINT_STORES, this.storeCheck());
+    }
 
-                    StoreDetailRequest storeDetailRequest = new StoreDetailRequest();
-                    List<Long> orgEntityDetailIds = storeDetailRequest.getOrgEntityDetailIds();
+    private RowCheck storeCheck() {
+        return row -> {
+            this.storeRequest(row);
+            return 1;
+        };
+    }
 
-                    Long regionId = null;
-                    Long divisionId = null;
-                    Long zonaId = null;
+    private StoreRequest storeRequest(SheetRow row) {
+        StoreRequest storeRequest = new StoreRequest();
+        SheetCell code = row.getCell(0);
+        storeRequest.setCode(code.getCellType() == CellType.STRING ? code.getStringCellValue() : "" + (int) code.getNumericCellValue());
+        storeRequest.setDenomination(row.getCell(1).getStringCellValue());
+
+        GeoGazetteer.GeoLocation location = geoGazetteer.resolve(row.getCell(2).getStringCellValue(),
+                row.getCell(3).getStringCellValue(), row.getCell(4).getStringCellValue());
+        storeRequest.setCountryId(location.getCountry().getId());
+        storeRequest.setStateId(location.getState().getId());
+        storeRequest.setCityId(location.getCity().getId());
+        storeRequest.setStatusId(1L);
+        storeRequest.setAddress(row.getCell(5).getStringCellValue());
+        storeRequest.setZipcode("" + (int) row.getCell(6).getNumericCellValue());
+        storeRequest.setLatitude(row.getCell(7).getNumericCellValue());
+        storeRequest.setLongitude(row.getCell(8).getNumericCellValue());
+        storeRequest.setGeorefDistance((long) row.getCell(9).getNumericCellValue());
+        Long costCenterId = null;
+        if (row.getCell(10) != null) {
+            costCenterId = idRegistry.find(EntityType.COST_CENTER, row.getCell(10).getStringCellValue());
+            if (costCenterId == null) throw new RuntimeException("cost center ".concat(row.getCell(10).getStringCellValue()).concat(" not found"));
+        }
+        storeRequest.setCostCenterId(costCenterId);
+        return storeRequest;
+    }
 
-                    Cell cellRegion = row.getCell(1);
-                    Cell cellDivision = row.getCell(2);
-                    Cell cellZona = row.getCell(3);
+    private RowOutcome migrateStore(SheetRow row) {
+        DefaultResponse<StoreResponse> storeResponse = storeFeign.createStore(this.storeRequest(row));
+        idRegistry.put(EntityType.STORE, storeResponse.getData().getDenomination(), storeResponse.getData().getId());
+        return RowOutcome.created(0, storeResponse.getData().getId());
+    }
 
-                    orgEntityDetailIds.add(1L);
-                    if (cellRegion != null || cellDivision != null || cellZona != null) {
-                        if (cellRegion != null) {
-                            regionId = getEntityId(bearerToken, cellRegion, 2L, 1L, "region");
-                            orgEntityDetailIds.add(regionId);
-                        }
+    /**
+     * La jerarquía se arma una vez por carga y la comparten todas las filas, también las de la validación.
+     */
+    public void migrateStoresOrgEntities(MultipartFile file, RowProgress progress) {
+        OrgEntityHierarchy hierarchy = new OrgEntityHierarchy(orgEntityFeign, orgEntityPageSize);
+        this.migrateSheet(file, progress, SheetSelector.at(2), SHEET_STORE_ORG_ENTITIES, STORE_ORG_ENTITY_COLUMNS, ENDPOINT_STORE_DETAILS,
+                row -> this.migrateStoreOrgEntities(row, hierarchy), this.storeOrgEntitiesCheck(hierarchy), this::reconcileStoreOrgEntities);
+    }
 
-                        if (cellDivision != null) {
-                            if (regionId == null) {
-                                throw new RuntimeException("Invalid geographic structure: missing region");
-                            }
-                            divisionId = getEntityId(bearerToken, cellDivision, 3L, regionId, "division");
-                            orgEntityDetailIds.add(divisionId);
-                        }
+    public File validateStoresOrgEntities(MultipartFile file, RowProgress progress) throws IOException {
+        return this.validateSheet(file, progress, SheetSelector.at(2), SHEET_STORE_ORG_ENTITIES, STORE_ORG_ENTITY_COLUMNS,
+                ENDPOINT_STORE_DETAILS, this.storeOrgEntitiesCheck(new OrgEntityHierarchy(orgEntityFeign, orgEntityPageSize)));
+    }
 
-                        if (cellZona != null) {
-                            if (regionId == null) {
-                                throw new RuntimeException("Invalid geographic structure: missing region and division");
-                            }
-                            if (divisionId == null) {
-                                throw new RuntimeException("Invalid geographic structure: missing division");
-                            }
-                            zonaId = getEntityId(bearerToken, cellZona, 4L, divisionId, "zona");
-                            orgEntityDetailIds.add(zonaId);
-                        }
-                    }
-                    storeFeign.createStoreDetails(bearerToken, storeDetailRequest, storeId);
-
-                    Cell cellDepartamento = row.getCell(4);
-                    if (cellDepartamento == null) throw new RuntimeException("store need one or more departments");
-                    String [] departments = cellDepartamento.getStringCellValue().split(",");
-
-                    storeDetailResponseMap.put(row.getCell(0).getStringCellValue(), new HashMap<>());
-                    for (String department : departments) {
-                        DefaultResponse<Page<OrgEntityResponse>> entityResponse = orgEntityFeign.findAllInstancesParentOrganizationEntityDetail(
-                                bearerToken, 5L, 0L);
-                        Long departmentId = entityResponse.getData().getContent().stream()
-                                .filter(entity -> entity.getName().equalsIgnoreCase(department))
-                                .findFirst()
-                                .map(OrgEntityResponse::getId)
-                                .orElseThrow(() -> new RuntimeException("department ".concat(department).concat(" not found")));
-                        orgEntityDetailIds = new ArrayList<>();
-                        orgEntityDetailIds.add(departmentId);
-                        storeDetailRequest.setOrgEntityDetailIds(orgEntityDetailIds);
-                        DefaultResponse<StoreDetailResponse> storeDetailResponse = storeFeign.createStoreDetails(bearerToken, storeDetailRequest, storeId);
-                        storeDetailResponseMap.get(row.getCell(0).getStringCellValue()).put(department, storeDetailResponse.getData().getId());
-                    }
-                } catch (Exception e) {
-                    log.error("Error processing row " + (i + 1) + " in sheet sucursal_org_entities: " + e.getMessage());
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error processing Excel file: " + e.getMessage());
-        }
+    private RowCheck storeOrgEntitiesCheck(OrgEntityHierarchy hierarchy) {
+        // Un detalle con la estructura geográfica y uno por cada departamento
+        return row -> 1 + this.storeOrgEntities(row, hierarchy).departmentIds().size();
     }
 
-    private Long getEntityId(String bearerToken, Cell cell, Long entityType, Long parentId, String entityName) {
-        DefaultResponse<Page<OrgEntityResponse>> entityResponse = orgEntityFeign.findAllInstancesParentOrganizationEntityDetail(
-                bearerToken, entityType, parentId
-        );
+    /**
+     * Sucursal, estructura geográfica y departamentos de una fila, ya resueltos contra la jerarquía.
+     */
+    /**
+     * Clave del detalle de sucursal por departamento. La hoja de detalles trae los departamentos
+     * separados por coma ("Ventas, Cajas") y la de cargos uno por celda: las dos se recortan igual.
+     */
+    private static String storeDetailKey(String store, String department) {
+        return IdRegistry.key(store.trim(), department.trim());
+    }
 
-        return entityResponse.getData().getContent().stream()
-                .filter(entity -> entity.getName().equalsIgnoreCase(cell.getStringCellValue()))
-                .findFirst()
-                .map(OrgEntityResponse::getId)
-                .orElseThrow(() -> new RuntimeException(entityName.concat(" ").concat(cell.getStringCellValue()).concat(" not found")));
+    private record StoreOrgEntities(Long storeId, List<Long> orgEntityDetailIds, List<String> departments,
+                                    List<Long> departmentIds) {
     }
 
-    public void migrateWorkPositions(MultipartFile file) {
-        String bearerToken = this.getBearerToken();
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-
-            Sheet sheet = workbook.getSheetAt(3);
-            int numberOfRows = sheet.getPhysicalNumberOfRows();
-
-            for (int i = 1; i < numberOfRows; i++) {
-                try {
-                    Row row = sheet.getRow(i);
-                    WorkPositionRequest workPositionRequest = new WorkPositionRequest();
-                    Cell code = row.getCell(0);
-                    workPositionRequest.setCode(code.getCellType() == CellType.STRING ? code.getStringCellValue() : "" + (int) code.getNumericCellValue());
-                    workPositionRequest.setDenomination(row.getCell(1).getStringCellValue());
-                    workPositionRequest.setAuthorizedStaff((long)row.getCell(2).getNumericCellValue());
-                    workPositionRequest.setStatusId(1L);
-                    workPositionRequest.setWorkPosCatId(workPositionCategoriesMap.get(row.getCell(3).getStringCellValue()));//workPosCatResponseMap.get(row.getCell(3).getStringCellValue())
-                    workPositionRequest.setStoreId(storeResponseMap.get(row.getCell(4).getStringCellValue()));
-                    workPositionRequest.setStoreOrganizativeId(storeDetailResponseMap.get(row.getCell(4).getStringCellValue()).get(row.getCell(5).getStringCellValue()));
-
-                    DefaultResponse<WorkPositionDetailResponse> workPositionDetailResponse = workPositionFeign.createWorkPosition(bearerToken, workPositionRequest);
-                    workPositionResponseMap.put(workPositionDetailResponse.getData().getWorkPosition().getDenomination(), workPositionDetailResponse.getData().getWorkPosition().getId());
-                } catch (Exception e) {
-                    log.error("Error processing row " + (i + 1) + " in sheet cargos: " + e.getMessage());
-                }
-            }
+    private StoreOrgEntities storeOrgEntities(SheetRow row, OrgEntityHierarchy hierarchy) {
+        Long storeId = idRegistry.find(EntityType.STORE, row.getCell(0).getStringCellValue());
+        if (storeId == null) throw new RuntimeException("store ".concat(row.getCell(0).getStringCellValue()).concat(" not found"));
 
-        } catch (Exception e) {
-            log.error("Error processing Excel file: " + e.getMessage());
-        }
-    }
+        List<Long> orgEntityDetailIds = new ArrayList<>();
+
+        Long regionId = null;
+        Long divisionId = null;
+        Long zonaId = null;
+
+        SheetCell cellRegion = row.getCell(1);
+        SheetCell cellDivision = row.getCell(2);
+        SheetCell cellZona = row.getCell(3);
+
+        orgEntityDetailIds.add(1L);
+        if (cellRegion != null || cellDivision != null || cellZona != null) {
+            if (cellRegion != null) {
+                regionId = hierarchy.resolve(2L, 1L, cellRegion.getStringCellValue(), "region");
+                orgEntityDetailIds.add(regionId);
+            }
 
-    public void migrateProfiles(MultipartFile file) {
-        String bearerToken = this.getBearerToken();
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-
-            Sheet sheet = workbook.getSheetAt(4);
-            int numberOfRows = sheet.getPhysicalNumberOfRows();
-
-            for (int i = 1; i < numberOfRows; i++) {
-                try {
-                    Row row = sheet.getRow(i);
-                    ProfileRequest profileRequest = new ProfileRequest();
-                    List<ProfileSecValueRequest> profileSecValueRequestList = new ArrayList<>();
-                    Cell clave = row.getCell(0);
-
-                    ProfileSecValueRequest informacionPersonal = new ProfileSecValueRequest();
-                    informacionPersonal.setKeyword("PSPI01");
-                    Map<String, Object> informacionPersonalValues = informacionPersonal.getFieldsValues();
-                    informacionPersonalValues.put("Primer Nombre", row.getCell(1).getStringCellValue());
-                    informacionPersonalValues.put("Segundo Nombre", row.getCell(2).getStringCellValue());
-                    informacionPersonalValues.put("Primer Apellido", row.getCell(3).getStringCellValue());
-                    informacionPersonalValues.put("Segundo Apellido", row.getCell(4).getStringCellValue());
-                    informacionPersonalValues.put("Sexo", row.getCell(5).getStringCellValue());
-                    informacionPersonalValues.put("Grupo sanguíneo", row.getCell(12).getStringCellValue());
-                    informacionPersonalValues.put("Estado civil", row.getCell(14).getStringCellValue());
-                    DateTimeFormatter formatters = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-                    LocalDate.parse(row.getCell(15).getStringCellValue(), formatters);
-                    informacionPersonalValues.put("Fecha de contratación", row.getCell(15).getStringCellValue());
-                    informacionPersonalValues.put("Clave antigua", clave.getCellType() == CellType.STRING ? clave.getStringCellValue() : "" + (int) clave.getNumericCellValue());
-
-                    ProfileSecValueRequest informacionBiografica = new ProfileSecValueRequest();
-                    informacionBiografica.setKeyword("PSBI02");
-                    Map<String, Object> informacionBiograficaValues = informacionBiografica.getFieldsValues();
-                    LocalDate.parse(row.getCell(13).getStringCellValue(), formatters);
-                    informacionBiograficaValues.put("Fecha de nacimiento", row.getCell(13).getStringCellValue());
-
-                    ProfileSecValueRequest datosPersonales = new ProfileSecValueRequest();
-                    datosPersonales.setKeyword("PSPD03");
-                    Map<String, Object> datosPersonalesValues = datosPersonales.getFieldsValues();
-                    datosPersonalesValues.put("RFC", row.getCell(6).getStringCellValue());
-                    datosPersonalesValues.put("CURP", row.getCell(7).getStringCellValue());
-
-                    ProfileSecValueRequest direccion = new ProfileSecValueRequest();
-                    direccion.setKeyword("PSAS05");
-                    Map<String, Object> direccionValues = direccion.getFieldsValues();
-                    direccionValues.put("Dirección", row.getCell(19).getStringCellValue());
-                    DefaultResponse<List<CountryResponse>> countryResponse = countryFeign.findAll();
-                    CountryResponse paisResidencia = countryResponse.getData().stream()
-                            .filter(country -> country.getName().equalsIgnoreCase(row.getCell(20).getStringCellValue()))
-                            .findFirst().orElseThrow(() -> new RuntimeException("country ".concat(row.getCell(2).getStringCellValue().concat(" not found"))));
-                    DefaultResponse<List<CountryResponse>> stateResponse = countryFeign.findAllStatesByCountryId(paisResidencia.getId());
-                    CountryResponse estadoResidencia = stateResponse.getData().stream()
-                            .filter(state -> state.getName().equalsIgnoreCase(row.getCell(21).getStringCellValue()))
-                            .findFirst().orElseThrow(() -> new RuntimeException("state ".concat(row.getCell(3).getStringCellValue().concat(" not found"))));
-                    DefaultResponse<List<CountryResponse>> cityResponse = countryFeign.findAllCitesByStateIdAndCountryId(paisResidencia.getId(), estadoResidencia.getId());
-                    CountryResponse ciudadResidencia = cityResponse.getData().stream()
-                            .filter(city -> city.getName().equalsIgnoreCase(row.getCell(22).getStringCellValue()))
-                            .findFirst().orElseThrow(() -> new RuntimeException("city ".concat(row.getCell(4).getStringCellValue().concat(" not found"))));
-                    direccionValues.put("Lugar de Residencia", Arrays.asList(paisResidencia, estadoResidencia, ciudadResidencia));
-
-                    ProfileSecValueRequest contacto = new ProfileSecValueRequest();
-                    contacto.setKeyword("PSCI06");
-                    Map<String, Object> contactoValues = contacto.getFieldsValues();
-                    contactoValues.put("Email Personal", row.getCell(17).getStringCellValue());
-                    contactoValues.put("Número telefónico", (int) row.getCell(18).getNumericCellValue());
-
-                    profileSecValueRequestList.add(informacionPersonal);
-                    profileSecValueRequestList.add(informacionBiografica);
-                    profileSecValueRequestList.add(datosPersonales);
-                    profileSecValueRequestList.add(direccion);
-                    profileSecValueRequestList.add(contacto);
-                    profileRequest.setSectionValues(profileSecValueRequestList);
-                    Long workPositionId = workPositionResponseMap.get(row.getCell(25).getStringCellValue());
-                    if (workPositionId == null) throw new RuntimeException("work position ".concat(row.getCell(25).getStringCellValue().concat(" not found")));
-                    profileRequest.setWorkPositionId(workPositionId);
-                    DefaultResponse<ProfileResponse> profileResponse = profileFeign.createProfile(bearerToken, profileRequest);
-
-                } catch (Exception e) {
-                    log.error("Error processing row " + (i + 1) + " in sheet perfiles: " + e.getMessage());
+            if (cellDivision != null) {
+                if (regionId == null) {
+                    throw new RuntimeException("Invalid geographic structure: missing region");
                 }
+                divisionId = hierarchy.resolve(3L, regionId, cellDivision.getStringCellValue(), "division");
+                orgEntityDetailIds.add(divisionId);
             }
 
-        } catch (Exception e) {
-            log.error("Error processing Excel file: " + e.getMessage());
-        }
-    }
-    public void migrateStoreWorkPeriods(MultipartFile file) {
-        String bearerToken = this.getBearerToken();
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-
-            Sheet sheet = workbook.getSheetAt(5);
-            int numberOfRows = sheet.getPhysicalNumberOfRows();
-
-            for (int i = 1; i < numberOfRows; i++) {
-                try {
-                    Row row = sheet.getRow(i);
-                    StoreWorkPeriodRequest storeWorkPeriodRequest = new StoreWorkPeriodRequest();
-                    String [] jornadas = row.getCell(1).getStringCellValue().split(",");
-                    Long storeId = storeResponseMap.get(row.getCell(0).getStringCellValue());
-                    if (storeId == null) throw new RuntimeException("Store ".concat(row.getCell(0).getStringCellValue()).concat(" not found"));
-                    for (String jornada:jornadas) {
-                        storeWorkPeriodRequest.setWorkPeriodId(workPeriodsMap.get(jornada));
-                        storeFeign.createStoreWorkPeriods(bearerToken, storeWorkPeriodRequest, storeId);
-                    }
-                } catch (Exception e) {
-                    log.error("Error processing row " + (i + 1) + " in sheet sucursal_jornadas: " + e.getMessage());
+            if (cellZona != null) {
+                if (regionId == null) {
+                    throw new RuntimeException("Invalid geographic structure: missing region and division");
+                }
+                if (divisionId == null) {
+                    throw new RuntimeException("Invalid geographic structure: missing division");
                 }
+                zonaId = hierarchy.resolve(4L, divisionId, cellZona.getStringCellValue(), "zona");
+                orgEntityDetailIds.add(zonaId);
             }
+        }
 
-        } catch (Exception e) {
-            log.error("Error processing Excel file: " + e.getMessage());
+        SheetCell cellDepartamento = row.getCell(4);
+        if (cellDepartamento == null) throw new RuntimeException("store need one or more departments");
+        List<String> departments = Arrays.stream(cellDepartamento.getStringCellValue().split(",")).map(String::trim).toList();
+        List<Long> departmentIds = new ArrayList<>();
+        for (String department : departments) {
+            departmentIds.add(hierarchy.resolve(5L, 0L, department, "department"));
         }
+        return new StoreOrgEntities(storeId, orgEntityDetailIds, departments, departmentIds);
     }
 
-    public File cargarCompensaciones(MultipartFile file) {
+    private RowOutcome migrateStoreOrgEntities(SheetRow row, OrgEntityHierarchy hierarchy) {
+        StoreOrgEntities entities = this.storeOrgEntities(row, hierarchy);
 
-        String bearerToken = this.getBearerToken();
+        StoreDetailRequest storeDetailRequest = new StoreDetailRequest();
+        storeDetailRequest.setOrgEntityDetailIds(entities.orgEntityDetailIds());
+        storeFeign.createStoreDetails(storeDetailRequest, entities.storeId());
 
-        File modifiedFile = null;
-
-        // Para abrir el workbook y que se cierre automáticamente al finalizar
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
+        for (int i = 0; i < entities.departments().size(); i++) {
+            List<Long> orgEntityDetailIds = new ArrayList<>();
+            orgEntityDetailIds.add(entities.departmentIds().get(i));
+            storeDetailRequest.setOrgEntityDetailIds(orgEntityDetailIds);
+            DefaultResponse<StoreDetailResponse> storeDetailResponse = storeFeign.createStoreDetails(storeDetailRequest, entities.storeId());
+            idRegistry.put(EntityType.STORE_DETAIL, storeDetailKey(row.getCell(0).getStringCellValue(), entities.departments().get(i)), storeDetailResponse.getData().getId());
+        }
+        return RowOutcome.created(0, entities.storeId());
+    }
 
-            // Nos posicionamos en la primera hoja
-            Sheet sheet = workbook.getSheet("compensation_categories");
+    public void migrateWorkPositions(MultipartFile file, RowProgress progress) {
+        this.migrateSheet(file, progress, SheetSelector.at(3), SHEET_WORK_POSITIONS, WORK_POSITION_COLUMNS, ENDPOINT_WORK_POSITIONS,
+                this::migrateWorkPosition, this.workPositionCheck(), this.registered(EntityType.WORK_POSITION, 1));
+    }
 
-            logSheetNameNumberOfRows(sheet);
+    public File validateWorkPositions(MultipartFile file, RowProgress progress) throws IOException {
+        return this.validateSheet(file, progress, SheetSelector.at(3), SHEET_WORK_POSITIONS, WORK_POSITION_COLUMNS,
+                ENDPOINT_WORK_POSITIONS, this.workPositionCheck());
+    }
 
-            // Crear un estilo de celda con color verde para los datos insertados correctamente
-            CellStyle cellStyle = this.greenCellStyle(workbook);
+    private RowCheck workPositionCheck() {
+        return row -> {
+            this.workPositionRequest(row);
+            return 1;
+        };
+    }
 
-            Row rowNames = sheet.getRow(0);
-            Map<String, Integer> fieldsExcel = new ConcurrentHashMap<>();
-            Integer cellCode = null;
-            Integer cellDenomination = null;
-            Integer cellStatus = null;
-
-            for (int i = 0; i < rowNames.getPhysicalNumberOfCells(); i++) {
-                Cell columnName = rowNames.getCell(i);
-
-                if(columnName == null) {
-                    throw new IllegalArgumentException("ColumnName can not be null, column: " + i);
-                } else if (columnName.getStringCellValue().equalsIgnoreCase("code")) {
-                    cellCode = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("denomination")) {
-                    cellDenomination = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("status")) {
-                    cellStatus = i;
-                } else {
-                    fieldsExcel.put(columnName.getStringCellValue(), i);
-                }
-            }
+    private WorkPositionRequest workPositionRequest(SheetRow row) {
+        WorkPositionRequest workPositionRequest = new WorkPositionRequest();
+        SheetCell code = row.getCell(0);
+        workPositionRequest.setCode(code.getCellType() == CellType.STRING ? code.getStringCellValue() : "" + (int) code.getNumericCellValue());
+        workPositionRequest.setDenomination(row.getCell(1).getStringCellValue());
+        workPositionRequest.setAuthorizedStaff((long)row.getCell(2).getNumericCellValue());
+        workPositionRequest.setStatusId(1L);
+        String category = row.getCell(3).getStringCellValue();
+        String store = row.getCell(4).getStringCellValue();
+        String department = row.getCell(5).getStringCellValue();
+        workPositionRequest.setWorkPosCatId(idRegistry.find(EntityType.WORK_POSITION_CATEGORY, category));//workPosCatResponseMap.get(row.getCell(3).getStringCellValue())
+        if (workPositionRequest.getWorkPosCatId() == null) throw new RuntimeException("work position category ".concat(category).concat(" not found"));
+        workPositionRequest.setStoreId(idRegistry.find(EntityType.STORE, store));
+        if (workPositionRequest.getStoreId() == null) throw new RuntimeException("store ".concat(store).concat(" not found"));
+        workPositionRequest.setStoreOrganizativeId(idRegistry.find(EntityType.STORE_DETAIL, storeDetailKey(store, department)));
+        if (workPositionRequest.getStoreOrganizativeId() == null) throw new RuntimeException("department ".concat(department).concat(" of store ").concat(store).concat(" not found"));
+        return workPositionRequest;
+    }
 
-            if(cellCode == null || cellDenomination == null) {
-                throw new IllegalArgumentException("Code column or denomination column do not exist");
-            }
+    private RowOutcome migrateWorkPosition(SheetRow row) {
+        DefaultResponse<WorkPositionDetailResponse> workPositionDetailResponse = workPositionFeign.createWorkPosition(this.workPositionRequest(row));
+        idRegistry.put(EntityType.WORK_POSITION, workPositionDetailResponse.getData().getWorkPosition().getDenomination(), workPositionDetailResponse.getData().getWorkPosition().getId());
+        return RowOutcome.created(0, workPositionDetailResponse.getData().getWorkPosition().getId());
+    }
 
-            // Recorrer la cantidad de filas a partir de la posición 1 porque la 0 son los nombres de las columnas
-            for (int i = 1; i < sheet.getPhysicalNumberOfRows(); i++) {
-                try {
-                    Row row = sheet.getRow(i);
-                    if(row.getCell(cellCode) == null) {
-                        throw new IllegalArgumentException("Code cell can not be null");
-                    }
+    public void migrateProfiles(MultipartFile file, RowProgress progress) {
+        this.migrateSheet(file, progress, SheetSelector.at(4), SHEET_PROFILES, PROFILE_COLUMNS, ENDPOINT_PROFILES,
+                this::migrateProfile, this.profileCheck(), this.registered(EntityType.PROFILE, 0));
+    }
 
-                    if(row.getCell(cellDenomination) == null) {
-                        throw new IllegalArgumentException("Denomination cell can not be null");
-                    }
+    public File validateProfiles(MultipartFile file, RowProgress progress) throws IOException {
+        return this.validateSheet(file, progress, SheetSelector.at(4), SHEET_PROFILES, PROFILE_COLUMNS,
+                ENDPOINT_PROFILES, this.profileCheck());
+    }
 
-                    String code = (row.getCell(cellCode).getCellType() == CellType.STRING) ? (row.getCell(cellCode).getStringCellValue()).trim() : ("" + (int) row.getCell(cellCode).getNumericCellValue());
-                    String denomination = (row.getCell(cellDenomination).getStringCellValue()).trim();
-                    Map<String, Object> fieldsValues = new ConcurrentHashMap<>();
+    private RowCheck profileCheck() {
+        return row -> {
+            this.profileRequest(row);
+            return 1;
+        };
+    }
 
-                    log.info("Compensacion a consultar con nombre: " + denomination + " \ncon codigo: " + code);
+    /**
+     * Sin modificador de acceso para los benchmarks de src/jmh.
+     */
+    ProfileRequest profileRequest(SheetRow row) {
+        ProfileRequest profileRequest = new ProfileRequest();
+        List<ProfileSecValueRequest> profileSecValueRequestList = new ArrayList<>();
+        SheetCell clave = row.getCell(0);
+
+        ProfileSecValueRequest informacionPersonal = new ProfileSecValueRequest();
+        informacionPersonal.setKeyword("PSPI01");
+        Map<String, Object> informacionPersonalValues = informacionPersonal.getFieldsValues();
+        informacionPersonalValues.put("Primer Nombre", row.getCell(1).getStringCellValue());
+        informacionPersonalValues.put("Segundo Nombre", row.getCell(2).getStringCellValue());
+        informacionPersonalValues.put("Primer Apellido", row.getCell(3).getStringCellValue());
+        informacionPersonalValues.put("Segundo Apellido", row.getCell(4).getStringCellValue());
+        informacionPersonalValues.put("Sexo", row.getCell(5).getStringCellValue());
+        informacionPersonalValues.put("Grupo sanguíneo", row.getCell(12).getStringCellValue());
+        informacionPersonalValues.put("Estado civil", row.getCell(14).getStringCellValue());
+        LocalDate.parse(row.getCell(15).getStringCellValue(), DATE_FORMAT);
+        informacionPersonalValues.put("Fecha de contratación", row.getCell(15).getStringCellValue());
+        informacionPersonalValues.put("Clave antigua", clave.getCellType() == CellType.STRING ? clave.getStringCellValue() : "" + (int) clave.getNumericCellValue());
+
+        ProfileSecValueRequest informacionBiografica = new ProfileSecValueRequest();
+        informacionBiografica.setKeyword("PSBI02");
+        Map<String, Object> informacionBiograficaValues = informacionBiografica.getFieldsValues();
+        LocalDate.parse(row.getCell(13).getStringCellValue(), DATE_FORMAT);
+        informacionBiograficaValues.put("Fecha de nacimiento", row.getCell(13).getStringCellValue());
+
+        ProfileSecValueRequest datosPersonales = new ProfileSecValueRequest();
+        datosPersonales.setKeyword("PSPD03");
+        Map<String, Object> datosPersonalesValues = datosPersonales.getFieldsValues();
+        datosPersonalesValues.put("RFC", row.getCell(6).getStringCellValue());
+        datosPersonalesValues.put("CURP", row.getCell(7).getStringCellValue());
+
+        ProfileSecValueRequest direccion = new ProfileSecValueRequest();
+        direccion.setKeyword("PSAS05");
+        Map<String, Object> direccionValues = direccion.getFieldsValues();
+        direccionValues.put("Dirección", row.getCell(19).getStringCellValue());
+        GeoGazetteer.GeoLocation residencia = geoGazetteer.resolve(row.getCell(20).getStringCellValue(),
+                row.getCell(21).getStringCellValue(), row.getCell(22).getStringCellValue());
+        direccionValues.put("Lugar de Residencia", Arrays.asList(residencia.getCountry(), residencia.getState(), residencia.getCity()));
+
+        ProfileSecValueRequest contacto = new ProfileSecValueRequest();
+        contacto.setKeyword("PSCI06");
+        Map<String, Object> contactoValues = contacto.getFieldsValues();
+        contactoValues.put("Email Personal", row.getCell(17).getStringCellValue());
+        contactoValues.put("Número telefónico", (int) row.getCell(18).getNumericCellValue());
+
+        profileSecValueRequestList.add(informacionPersonal);
+        profileSecValueRequestList.add(informacionBiografica);
+        profileSecValueRequestList.add(datosPersonales);
+        profileSecValueRequestList.add(direccion);
+        profileSecValueRequestList.add(contacto);
+        profileRequest.setSectionValues(profileSecValueRequestList);
+        Long workPositionId = idRegistry.find(EntityType.WORK_POSITION, row.getCell(25).getStringCellValue());
+        if (workPositionId == null) throw new RuntimeException("work position ".concat(row.getCell(25).getStringCellValue().concat(" not found")));
+        profileRequest.setWorkPositionId(workPositionId);
+        return profileRequest;
+    }
 
-                    // Consultamos si existe la compensación por denominacion
-                    DefaultResponse<List<CompCategoriesResponse>> compCategoriesRes = compCategoriesFeign.simplifiedSearch(bearerToken, denomination);
-                    boolean existsCompCategoriesByDeno = compCategoriesRes.getData().stream()
-                            .anyMatch(comp -> comp.getDenomination().equalsIgnoreCase(denomination));
+    private RowOutcome migrateProfile(SheetRow row) {
+        DefaultResponse<ProfileResponse> profileResponse = profileFeign.createProfile(this.profileRequest(row));
+        Long profileId = profileResponse.getData() != null ? profileResponse.getData().getId() : null;
+        idRegistry.put(EntityType.PROFILE, this.cellText(row.getCell(0)), profileId);
+        return RowOutcome.created(0, profileId);
+    }
 
-                    // Si existe, seguimos a la siguiente para no volverla a insertar
-                    if(existsCompCategoriesByDeno) {
-                        row.getCell(0).setCellStyle(cellStyle);
-                        continue;
-                    }
+    public void migrateStoreWorkPeriods(MultipartFile file, RowProgress progress) {
+        this.migrateSheet(file, progress, SheetSelector.at(5), SHEET_STORE_WORK_PERIODS, STORE_WORK_PERIOD_COLUMNS, ENDPOINT_STORE_WORK_PERIODS,
+                this::migrateStoreWorkPeriod, this.storeWorkPeriodCheck(), null);
+    }
 
-                    // Consultamos si existe la compensación por el código (no debe existir dos compensaciones con el mismo código)
-                    compCategoriesRes = compCategoriesFeign.simplifiedSearch(bearerToken, code);
-                    boolean existsCompCategoriesbyCode = compCategoriesRes.getData().stream()
-                            .anyMatch(comp -> comp.getCode().equalsIgnoreCase(code));
+    public File validateStoreWorkPeriods(MultipartFile file, RowProgress progress) throws IOException {
+        return this.validateSheet(file, progress, SheetSelector.at(5), SHEET_STORE_WORK_PERIODS, STORE_WORK_PERIOD_COLUMNS,
+                ENDPOINT_STORE_WORK_PERIODS, this.storeWorkPeriodCheck());
+    }
 
-                    if (existsCompCategoriesbyCode) {
-                        // Agregar celda con el mensaje de error en la fila que falló
-                        Cell errorCell = row.createCell(row.getPhysicalNumberOfCells());
-                        errorCell.setCellValue("Error: exist a compensation-category with the code");
-                        continue;
-                    }
+    private RowCheck storeWorkPeriodCheck() {
+        // Una llamada por jornada
+        return row -> this.workPeriodIds(row).size();
+    }
 
-                    fieldsExcel.forEach((nameColumn, position) -> {
-                        Cell cell = row.getCell(position);
-                        if (cell == null) {
-                            fieldsValues.put(nameColumn, null);
-                        } else {
-                            switch (cell.getCellType()) {
-                                case STRING:
-                                    fieldsValues.put(nameColumn, cell.getStringCellValue());
-                                    break;
-                                case NUMERIC:
-                                    if (org.apache.poi.ss.usermodel.DateUtil.isCellDateFormatted(cell)) {
-                                        fieldsValues.put(nameColumn, cell.getDateCellValue());
-                                    } else {
-                                        fieldsValues.put(nameColumn, cell.getNumericCellValue());
-                                    }
-                                    break;
-                                case BOOLEAN:
-                                    fieldsValues.put(nameColumn, cell.getBooleanCellValue());
-                                    break;
-                                default:
-                                    fieldsValues.put(nameColumn, null);
-                                    break;
-                            }
-                        }
-                    });
+    private List<Long> workPeriodIds(SheetRow row) {
+        List<Long> workPeriodIds = new ArrayList<>();
+        for (String jornada : row.getCell(1).getStringCellValue().split(",")) {
+            Long workPeriodId = idRegistry.find(EntityType.WORK_PERIOD, jornada);
+            if (workPeriodId == null) throw new RuntimeException("work period ".concat(jornada).concat(" not found"));
+            workPeriodIds.add(workPeriodId);
+        }
+        return workPeriodIds;
+    }
 
-                    long idEstatus = 1L;
-                    if(cellStatus != null) {
-                        idEstatus = row.getCell(cellStatus).getStringCellValue().equalsIgnoreCase("active") ? 1L : 2L;
-                    }
+    private RowOutcome migrateStoreWorkPeriod(SheetRow row) {
+        StoreWorkPeriodRequest storeWorkPeriodRequest = new StoreWorkPeriodRequest();
+        Long storeId = idRegistry.find(EntityType.STORE, row.getCell(0).getStringCellValue());
+        if (storeId == null) throw new RuntimeException("Store ".concat(row.getCell(0).getStringCellValue()).concat(" not found"));
+        for (Long workPeriodId : this.workPeriodIds(row)) {
+            storeWorkPeriodRequest.setWorkPeriodId(workPeriodId);
+            storeFeign.createStoreWorkPeriods(storeWorkPeriodRequest, storeId);
+        }
+        return RowOutcome.created(0, storeId);
+    }
 
-                    // Preparamos el objeto que irá en el body
-                    CompCategoriesRequest compCategories = new CompCategoriesRequest();
-                    compCategories.setCode(code);
-                    compCategories.setDenomination(denomination);
-                    compCategories.setFieldsValues(fieldsValues);
-                    compCategories.setStatusId(idEstatus);
-
-                    // Realizamos la petición
-                    compCategoriesFeign.createCompensationCategories(bearerToken, compCategories);
-                    row.getCell(0).setCellStyle(cellStyle);
-                } catch (Exception e) {
-                    this.logRowError(i, e);
-                    this.agregarCeldaError(sheet.getRow(i), e);
-                }
+    /**
+     * Lee la hoja en streaming y reparte sus filas; los migrate* no devuelven el workbook,
+     * así que el resultado de cada fila solo queda en el log. Con
+     * {@code migration.validation.before-write} la hoja se valida completa antes y las filas
+     * inválidas fallan con su error sin llamar a core-api.
+     */
+    private void migrateSheet(MultipartFile file, RowProgress progress, SheetSelector selector, String sheetName,
+                              int[] columns, String endpoint, RowTask task, RowCheck check, RowReconciler reconciler) {
+        try {
+            RowTask rowTask = task;
+            if (validateBeforeWrite) {
+                ValidationReport report = this.validate(file, progress, selector, sheetName, columns, endpoint, check);
+                rowTask = row -> {
+                    String error = report.errorAt(row.getRowNum());
+                    return error != null ? RowOutcome.failed(error) : task.process(row);
+                };
             }
-            // Archivo modificado para devolver
-            modifiedFile = this.createModifiedWorkbook(workbook, file);
+            RowTask dispatched = rowTask;
+            try (SheetDispatch dispatch = rowDispatcher.open(sheetName, progress, outcome -> { }).reconcileWith(reconciler)) {
+                excelReader.forEachDataRow(file, selector, columns, rows -> progress.expect(sheetName, rows), row -> dispatch.submit(row, dispatched));
+            }
+        } catch (CancellationException e) {
+            log.info(e.getMessage());
         } catch (Exception e) {
-            this.logProcessingExcelFile(e);
+            throw this.sheetFailed(sheetName, e);
         }
-        return modifiedFile;
     }
 
-    public File loadTabs(MultipartFile file) {
+    /**
+     * Valida la hoja sin escribir en core-api y guarda el reporte como JSON en el store de resultados.
+     */
+    private File validateSheet(MultipartFile file, RowProgress progress, SheetSelector selector, String sheetName,
+                               int[] columns, String endpoint, RowCheck check) throws IOException {
+        ValidationReport report = this.validate(file, progress, selector, sheetName, columns, endpoint, check);
+        File reportFile = artifactStore.newFile("validation_" + sheetName + "_" + file.getOriginalFilename() + ".json");
+        objectMapper.writeValue(reportFile, report);
+        return reportFile;
+    }
 
-        String bearerToken = this.getBearerToken();
+    private ValidationReport validate(MultipartFile file, RowProgress progress, SheetSelector selector, String sheetName,
+                                      int[] columns, String endpoint, RowCheck check) throws IOException {
+        SheetValidator.SheetValidation validation = sheetValidator.open(sheetName, endpoint, progress, check);
+        excelReader.forEachDataRow(file, selector, columns, rows -> progress.expect(sheetName, rows), validation::submit);
+        return validation.finish();
+    }
 
-        File modifiedFile = null;
+    /**
+     * Al retomar una carga, una fila que quedó a medias ya se creó si su nombre está en el registro.
+     */
+    private RowReconciler registered(EntityType type, int keyColumn) {
+        return row -> {
+            Long id = idRegistry.find(type, this.cellText(row.getCell(keyColumn)));
+            return id == null ? null : RowOutcome.existing(0, id);
+        };
+    }
 
-        // Para abrir el workbook y que se cierre automáticamente al finalizar
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
+    private RowOutcome reconcileStoreOrgEntities(SheetRow row) {
+        String store = this.cellText(row.getCell(0));
+        Long storeId = idRegistry.find(EntityType.STORE, store);
+        SheetCell cellDepartamento = row.getCell(4);
+        if (storeId == null || cellDepartamento == null) {
+            return null;
+        }
+        for (String department : cellDepartamento.getStringCellValue().split(",")) {
+            if (idRegistry.find(EntityType.STORE_DETAIL, storeDetailKey(store, department)) == null) {
+                return null;
+            }
+        }
+        return RowOutcome.existing(0, storeId);
+    }
 
-            // Nos posicionamos en la primera hoja
-            Sheet sheet = workbook.getSheet("compensation_tab");
+    private String cellText(SheetCell cell) {
+        if (cell == null) {
+            return null;
+        }
+        return cell.getCellType() == CellType.STRING ? cell.getStringCellValue() : "" + (int) cell.getNumericCellValue();
+    }
 
-            this.logSheetNameNumberOfRows(sheet);
+    public File cargarCompensaciones(MultipartFile file, RowProgress progress) {
 
-            // Crear un estilo de celda con color verde para los datos insertados correctamente
-            CellStyle cellStyle = this.greenCellStyle(workbook);
+        try {
+            return this.annotateSheet(file, progress, "compensation_categories", null, (rowNames, children) -> this.prepareCompensations(rowNames));
+        } catch (Exception e) {
+            throw this.sheetFailed("compensation_categories", e);
+        }
+    }
 
-            Row rowNames = sheet.getRow(0);
-            Map<String, Integer> fieldsExcel = new ConcurrentHashMap<>();
-            Integer cellCode = null;
-            Integer cellDenomination = null;
-            Integer cellStatus = null;
-            Integer cellMinSalary = null;
-            Integer cellMaxSalary = null;
-
-            for (int i = 0; i < rowNames.getPhysicalNumberOfCells(); i++) {
-                Cell columnName = rowNames.getCell(i);
-
-                if(columnName == null) {
-                    throw new IllegalArgumentException("ColumnName can not be null, column: " + i);
-                } else if (columnName.getStringCellValue().equalsIgnoreCase("code")) {
-                    cellCode = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("denomination")) {
-                    cellDenomination = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("status")) {
-                    cellStatus = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("max_authorized_salary")) {
-                    cellMinSalary = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("min_authorized_salary")) {
-                    cellMaxSalary = i;
-                } else {
-                    fieldsExcel.put(columnName.getStringCellValue(), i);
-                }
-            }
+    /**
+     * Columnas de la hoja de compensaciones a partir de sus encabezados. Sin modificador de acceso
+     * para los benchmarks de src/jmh.
+     */
+    RowTask prepareCompensations(SheetRow rowNames) {
+        ColumnPlan plan = ColumnPlan.compile(rowNames, "code", "denomination", "status");
 
-            if(cellCode == null || cellDenomination == null || cellMinSalary == null || cellMaxSalary == null) {
-                throw new IllegalArgumentException("code/denomination/max_authorized_salary/min_authorized_salary column do not exist");
-            }
+        if(!plan.hasColumns("code", "denomination")) {
+            throw new IllegalArgumentException("Code column or denomination column do not exist");
+        }
 
-            // Recorrer la cantidad de filas a partir de la posición 1 porque la 0 son los nombres de las columnas
-            for (int i = 1; i < sheet.getPhysicalNumberOfRows(); i++) {
-                try {
-                    Row row = sheet.getRow(i);
+        int codeColumn = plan.column("code");
+        int denominationColumn = plan.column("denomination");
+        int statusColumn = plan.column("status");
 
-                    if(row.getCell(cellCode) == null) {
-                        throw new IllegalArgumentException("code cell can not be null");
-                    }
+        // Categorías ya existentes, pedidas una sola vez para toda la hoja
+        CatalogIndex<CompCategoriesResponse> catalog = new CatalogIndex<>("compensation_categories",
+                search -> compCategoriesFeign.simplifiedSearch(search).getData(),
+                CompCategoriesResponse::getCode, CompCategoriesResponse::getDenomination, comp -> null, catalogSearchLimit);
 
-                    if(row.getCell(cellDenomination) == null) {
-                        throw new IllegalArgumentException("denomination cell can not be null");
-                    }
+        return row -> this.loadCompensation(row, codeColumn, denominationColumn, statusColumn, plan, catalog);
+    }
 
-                    if(row.getCell(cellMinSalary) == null) {
-                        throw new IllegalArgumentException("min_authorized_salary cell can not be null");
-                    }
+    private RowOutcome loadCompensation(SheetRow row, int cellCode, int cellDenomination, int cellStatus,
+                                        ColumnPlan plan, CatalogIndex<CompCategoriesResponse> catalog) {
+        if(row.getCell(cellCode) == null) {
+            throw new IllegalArgumentException("Code cell can not be null");
+        }
 
-                    if(row.getCell(cellMaxSalary) == null) {
-                        throw new IllegalArgumentException("max_authorized_salary cell can not be null");
-                    }
+        if(row.getCell(cellDenomination) == null) {
+            throw new IllegalArgumentException("Denomination cell can not be null");
+        }
 
-                    // Sacamos el código y el nombre de la compensación
-                    String code = (row.getCell(cellCode).getCellType() == CellType.STRING) ? (row.getCell(cellCode).getStringCellValue()).trim() : ("" + (int) row.getCell(cellCode).getNumericCellValue());
-                    String denomination = (row.getCell(cellDenomination).getStringCellValue()).trim();
-                    Map<String, Object> fieldsValues = new ConcurrentHashMap<>();
-                    Long minSalary = (long) row.getCell(cellMinSalary).getNumericCellValue();
-                    Long maxSalary = (long) row.getCell(cellMaxSalary).getNumericCellValue();
-
-                    log.info("Tabulador a consultar con nombre: " + denomination + " \ncon codigo: " + code);
-
-                    // Consultamos si existe la compensación por nombre
-                    DefaultResponse<List<TabsResponse>> tabsRes = tabsFeign.simplifiedSearch(bearerToken, denomination);
-                    boolean existsTabByDeno = tabsRes.getData().stream()
-                            .anyMatch(comp -> comp.getDenomination().equalsIgnoreCase(denomination));
-
-                    // Si existe, seguimos a la siguiente para no volverla a insertar
-                    if (existsTabByDeno) {
-                        log.info("Continuamos debido a que el tabulador ya existe!");
-                        row.getCell(0).setCellStyle(cellStyle);
-                        continue;
-                    }
+        String code = (row.getCell(cellCode).getCellType() == CellType.STRING) ? (row.getCell(cellCode).getStringCellValue()).trim() : ("" + (int) row.getCell(cellCode).getNumericCellValue());
+        String denomination = (row.getCell(cellDenomination).getStringCellValue()).trim();
 
-                    // Consultamos si existe la compensación por el código (no debe existir dos compensaciones con el mismo código)
-                    tabsRes = tabsFeign.simplifiedSearch(bearerToken, code);
-                    boolean existsTabByCode = tabsRes.getData().stream()
-                            .anyMatch(comp -> comp.getCode().equalsIgnoreCase(code));
+        log.info("Compensacion a consultar con nombre: " + denomination + " \ncon codigo: " + code);
 
-                    if (existsTabByCode) {
+        // Si ya existe por denominación seguimos a la siguiente; no debe haber dos compensaciones con el mismo código
+        CatalogIndex.Claim claim = catalog.claim(code, denomination);
+        if (claim == CatalogIndex.Claim.EXISTING) {
+            return RowOutcome.existing(0, null);
+        }
+        if (claim == CatalogIndex.Claim.CODE_TAKEN) {
+            return RowOutcome.failed("exist a compensation-category with the code");
+        }
 
-                        // Agregar celda con el mensaje de error en la fila que falló
-                        Row errorRow = sheet.getRow(i);
-                        Cell errorCell = errorRow.createCell(errorRow.getPhysicalNumberOfCells());
-                        errorCell.setCellValue("Error: exist a compensation-tab with the code");
-                        continue;
-                    }
+        try {
+            this.createCompensation(row, code, denomination, cellStatus, plan);
+        } catch (RuntimeException e) {
+            catalog.release(code, denomination);
+            throw e;
+        }
+        catalog.created(denomination, null);
+        return RowOutcome.created(0, null);
+    }
 
-                    if (minSalary < 0 || maxSalary < 0) {
-                        // Agregar celda con el mensaje de error en la fila que falló
-                        Row errorRow = sheet.getRow(i);
-                        Cell errorCell = errorRow.createCell(errorRow.getPhysicalNumberOfCells());
-                        errorCell.setCellValue("Error: max_authorized_salary or min_authorized_salary can not be less than zero");
-                        continue;
-                    }
+    private void createCompensation(SheetRow row, String code, String denomination,
+                                    int cellStatus, ColumnPlan plan) {
+        Map<String, Object> fieldsValues = plan.fieldsValues(row);
 
-                    fieldsExcel.forEach((nameColumn, position) -> {
-                        Cell cell = row.getCell(position);
-                        if (cell == null) {
-                            fieldsValues.put(nameColumn, null);
-                        } else {
-                            switch (cell.getCellType()) {
-                                case STRING:
-                                    fieldsValues.put(nameColumn, cell.getStringCellValue());
-                                    break;
-                                case NUMERIC:
-                                    if (org.apache.poi.ss.usermodel.DateUtil.isCellDateFormatted(cell)) {
-                                        fieldsValues.put(nameColumn, cell.getDateCellValue());
-                                    } else {
-                                        fieldsValues.put(nameColumn, cell.getNumericCellValue());
-                                    }
-                                    break;
-                                case BOOLEAN:
-                                    fieldsValues.put(nameColumn, cell.getBooleanCellValue());
-                                    break;
-                                default:
-                                    fieldsValues.put(nameColumn, null);
-                                    break;
-                            }
-                        }
-                    });
+        long idEstatus = 1L;
+        if(cellStatus >= 0) {
+            idEstatus = row.getCell(cellStatus).getStringCellValue().equalsIgnoreCase("active") ? 1L : 2L;
+        }
 
-                    long idEstatus = 1L;
-                    if(cellStatus != null) {
-                        idEstatus = row.getCell(cellStatus).getStringCellValue().equalsIgnoreCase("active") ? 1L : 2L;
-                    }
+        // Preparamos el objeto que irá en el body
+        CompCategoriesRequest compCategories = new CompCategoriesRequest();
+        compCategories.setCode(code);
+        compCategories.setDenomination(denomination);
+        compCategories.setFieldsValues(fieldsValues);
+        compCategories.setStatusId(idEstatus);
+
+        // Realizamos la petición
+        compCategoriesFeign.createCompensationCategories(compCategories);
+    }
+
+    public File loadTabs(MultipartFile file, RowProgress progress) {
 
-                    // Preparamos el objeto que irá en el body
-                    TabsRequest tabsRequest = new TabsRequest();
-                    tabsRequest.setCode(code);
-                    tabsRequest.setDenomination(denomination);
-                    tabsRequest.setMinAuthorizedSalary(minSalary);
-                    tabsRequest.setMaxAuthorizedSalary(maxSalary);
-                    tabsRequest.setStatusId(idEstatus);
-                    tabsRequest.setFieldsValues(fieldsValues);
-
-                    // Realizamos la petición
-                    tabsFeign.createTab(bearerToken, tabsRequest);
-                    row.getCell(0).setCellStyle(cellStyle);
-                } catch (Exception e) {
-                    this.logRowError(i, e);
-                    this.agregarCeldaError(sheet.getRow(i), e);
+        try {
+            return this.annotateSheet(file, progress, "compensation_tab", null, (rowNames, children) -> {
+                ColumnPlan plan = ColumnPlan.compile(rowNames, "code", "denomination", "status",
+                        "max_authorized_salary", "min_authorized_salary");
+
+                if(!plan.hasColumns("code", "denomination", "max_authorized_salary", "min_authorized_salary")) {
+                    throw new IllegalArgumentException("code/denomination/max_authorized_salary/min_authorized_salary column do not exist");
                 }
-            }
 
-            modifiedFile = this.createModifiedWorkbook(workbook, file);
+                int[] columns = {plan.column("code"), plan.column("denomination"),
+                        plan.column("max_authorized_salary"), plan.column("min_authorized_salary")};
+                int statusColumn = plan.column("status");
+
+                // Tabuladores ya existentes, pedidos una sola vez para toda la hoja
+                CatalogIndex<TabsResponse> catalog = new CatalogIndex<>("compensation_tab",
+                        search -> tabsFeign.simplifiedSearch(search).getData(),
+                        TabsResponse::getCode, TabsResponse::getDenomination, tab -> null, catalogSearchLimit);
+
+                return row -> this.loadTab(row, columns, statusColumn, plan, catalog);
+            });
         } catch (Exception e) {
-            this.logProcessingExcelFile(e);
+            throw this.sheetFailed("compensation_tab", e);
         }
-        return modifiedFile;
     }
 
-    public File loadWorkPositionCategories(MultipartFile file) {
-
-        String bearerToken = this.getBearerToken();
+    private RowOutcome loadTab(SheetRow row, int[] columns, int cellStatus,
+                               ColumnPlan plan, CatalogIndex<TabsResponse> catalog) {
+        int cellCode = columns[0];
+        int cellDenomination = columns[1];
+        int cellMinSalary = columns[2];
+        int cellMaxSalary = columns[3];
 
-        // Archivo modificado para devolver
-        File modifiedFile = new File(MODIFIED + file.getOriginalFilename());
+        if(row.getCell(cellCode) == null) {
+            throw new IllegalArgumentException("code cell can not be null");
+        }
 
-        // Para abrir el workbook y que se cierre automáticamente al finalizar
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
+        if(row.getCell(cellDenomination) == null) {
+            throw new IllegalArgumentException("denomination cell can not be null");
+        }
 
-            log.info("Entramos a recorrer el archivo");
+        if(row.getCell(cellMinSalary) == null) {
+            throw new IllegalArgumentException("min_authorized_salary cell can not be null");
+        }
 
-            // Nos posicionamos en la hoja
-            Sheet sheet = workbook.getSheet("work_position_categories");
+        if(row.getCell(cellMaxSalary) == null) {
+            throw new IllegalArgumentException("max_authorized_salary cell can not be null");
+        }
 
-            this.logSheetNameNumberOfRows(sheet);
+        // Sacamos el código y el nombre de la compensación
+        String code = (row.getCell(cellCode).getCellType() == CellType.STRING) ? (row.getCell(cellCode).getStringCellValue()).trim() : ("" + (int) row.getCell(cellCode).getNumericCellValue());
+        String denomination = (row.getCell(cellDenomination).getStringCellValue()).trim();
+        Long minSalary = (long) row.getCell(cellMinSalary).getNumericCellValue();
+        Long maxSalary = (long) row.getCell(cellMaxSalary).getNumericCellValue();
 
-            // Crear un estilo de celda con color verde para los datos insertados correctamente
-            CellStyle cellStyle = this.greenCellStyle(workbook);
+        log.info("Tabulador a consultar con nombre: " + denomination + " \ncon codigo: " + code);
 
-            Row rowNames = sheet.getRow(0);
-            Map<String, Integer> fieldsExcel = new ConcurrentHashMap<>();
-            Integer cellCode = null;
-            Integer cellDenomination = null;
-            Integer cellStatus = null;
-
-            for (int i = 0; i < rowNames.getPhysicalNumberOfCells(); i++) {
-                Cell columnName = rowNames.getCell(i);
-
-                if(columnName == null) {
-                    throw new IllegalArgumentException("ColumnName can not be null, column: " + i);
-                } else if (columnName.getStringCellValue().equalsIgnoreCase("code")) {
-                    cellCode = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("denomination")) {
-                    cellDenomination = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("status")) {
-                    cellStatus = i;
-                } else {
-                    fieldsExcel.put(columnName.getStringCellValue(), i);
-                }
-            }
+        // Si ya existe por denominación seguimos a la siguiente; no debe haber dos tabuladores con el mismo código
+        CatalogIndex.Claim claim = catalog.claim(code, denomination);
+        if (claim == CatalogIndex.Claim.EXISTING) {
+            log.info("Continuamos debido a que el tabulador ya existe!");
+            return RowOutcome.existing(0, null);
+        }
+        if (claim == CatalogIndex.Claim.CODE_TAKEN) {
+            return RowOutcome.failed("exist a compensation-tab with the code");
+        }
 
-            if(cellCode == null || cellDenomination == null) {
-                throw new IllegalArgumentException("code/denomination column do not exist");
-            }
+        if (minSalary < 0 || maxSalary < 0) {
+            catalog.release(code, denomination);
+            return RowOutcome.failed("max_authorized_salary or min_authorized_salary can not be less than zero");
+        }
 
-            // Recorrer la cantidad de filas a partir de la posición 1 porque la 0 son los nombres de las columnas
-            for (int i = 1; i < sheet.getPhysicalNumberOfRows(); i++) {
-                try {
-                    Row row = sheet.getRow(i);
+        try {
+            this.createTab(row, code, denomination, minSalary, maxSalary, cellStatus, plan);
+        } catch (RuntimeException e) {
+            catalog.release(code, denomination);
+            throw e;
+        }
+        catalog.created(denomination, null);
+        return RowOutcome.created(0, null);
+    }
 
-                    if(row.getCell(cellCode) == null) {
-                        throw new IllegalArgumentException("code cell can not be null");
-                    }
+    private void createTab(SheetRow row, String code, String denomination, Long minSalary, Long maxSalary,
+                           int cellStatus, ColumnPlan plan) {
+        Map<String, Object> fieldsValues = plan.fieldsValues(row);
 
-                    if(row.getCell(cellDenomination) == null) {
-                        throw new IllegalArgumentException("denomination cell can not be null");
-                    }
+        long idEstatus = 1L;
+        if(cellStatus >= 0) {
+            idEstatus = row.getCell(cellStatus).getStringCellValue().equalsIgnoreCase("active") ? 1L : 2L;
+        }
 
-                    // Sacamos el código y el nombre de la compensación
-                    String code = (row.getCell(cellCode).getCellType() == CellType.STRING) ? (row.getCell(cellCode).getStringCellValue()).trim() : ("" + (int) row.getCell(cellCode).getNumericCellValue());
-                    String denomination = (row.getCell(cellDenomination).getStringCellValue()).trim();
-                    Map<String, Object> fieldsValues = new ConcurrentHashMap<>();
-
-                    log.info("Puesto a consultar con nombre: " + denomination + " \ncon codigo: " + code);
-
-                    // Consultamos si existe la compensación por nombre
-                    DefaultResponse<List<WorkPositionCategoryResponse>> worksPositionsCategoriesRes = worksPositionCategoriesFeign.simplifiedSearch(bearerToken, denomination);
-                    boolean existsWorkByDeno = worksPositionsCategoriesRes.getData().stream()
-                            .anyMatch(comp -> {
-                                if(comp.getDenomination().equalsIgnoreCase(denomination)) {
-                                    workPositionCategoriesMap.put(comp.getDenomination(), comp.getId());
-                                    return true;
-                                }
-                                return false;
-                            });
-
-                    // Si existe, seguimos a la siguiente para no volverla a insertar
-                    if (existsWorkByDeno) {
-                        log.info("Continuamos debido a que ese puesto ya existe!");
-                        row.getCell(0).setCellStyle(cellStyle);
-                        continue;
-                    }
+        // Preparamos el objeto que irá en el body
+        TabsRequest tabsRequest = new TabsRequest();
+        tabsRequest.setCode(code);
+        tabsRequest.setDenomination(denomination);
+        tabsRequest.setMinAuthorizedSalary(minSalary);
+        tabsRequest.setMaxAuthorizedSalary(maxSalary);
+        tabsRequest.setStatusId(idEstatus);
+        tabsRequest.setFieldsValues(fieldsValues);
+
+        // Realizamos la petición
+        tabsFeign.createTab(tabsRequest);
+    }
 
-                    // Consultamos si existe la compensación por el código (no debe existir dos compensaciones con el mismo código)
-                    worksPositionsCategoriesRes = worksPositionCategoriesFeign.simplifiedSearch(bearerToken, code);
-                    boolean existsWorkByCode = worksPositionsCategoriesRes.getData().stream()
-                            .anyMatch(comp -> comp.getCode().equalsIgnoreCase(code));
-
-                    if (existsWorkByCode) {
-                        // Agregar celda con el mensaje de error en la fila que falló
-                        Row errorRow = sheet.getRow(i);
-                        Cell errorCell = errorRow.createCell(errorRow.getPhysicalNumberOfCells());
-                        errorCell.setCellValue("Error: exist a work-positions-category with the code");
-                        continue;
-                    }
+    public File loadWorkPositionCategories(MultipartFile file, RowProgress progress) {
 
-                    fieldsExcel.forEach((nameColumn, position) -> {
-                        Cell cell = row.getCell(position);
-                        if (cell == null) {
-                            fieldsValues.put(nameColumn, null);
-                        } else {
-                            switch (cell.getCellType()) {
-                                case STRING:
-                                    fieldsValues.put(nameColumn, cell.getStringCellValue());
-                                    break;
-                                case NUMERIC:
-                                    if (org.apache.poi.ss.usermodel.DateUtil.isCellDateFormatted(cell)) {
-                                        fieldsValues.put(nameColumn, cell.getDateCellValue());
-                                    } else {
-                                        fieldsValues.put(nameColumn, cell.getNumericCellValue());
-                                    }
-                                    break;
-                                case BOOLEAN:
-                                    fieldsValues.put(nameColumn, cell.getBooleanCellValue());
-                                    break;
-                                default:
-                                    fieldsValues.put(nameColumn, null);
-                                    break;
-                            }
-                        }
-                    });
+        log.info("Entramos a recorrer el archivo");
 
-                    long idEstatus = 1L;
-                    if(cellStatus != null) {
-                        idEstatus = row.getCell(cellStatus).getStringCellValue().equalsIgnoreCase("active") ? 1L : 2L;
-                    }
+        try {
+            return this.annotateSheet(file, progress, "work_position_categories", null, (rowNames, children) -> {
+                ColumnPlan plan = ColumnPlan.compile(rowNames, "code", "denomination", "status");
 
-                    // Preparamos el objeto que irá en el body
-                    WorkPositionCategoryRequest workPositionCategoryRequest = new WorkPositionCategoryRequest();
-                    workPositionCategoryRequest.setCode(code);
-                    workPositionCategoryRequest.setDenomination(denomination);
-                    workPositionCategoryRequest.setFieldsValues(fieldsValues);
-                    workPositionCategoryRequest.setStatusId(idEstatus);
-
-                    // Realizamos la petición
-                    DefaultResponse<WorkPositionCategoryResponse> wpc = worksPositionCategoriesFeign.createWorkPositionCategory(bearerToken, workPositionCategoryRequest);
-                    workPositionCategoriesMap.put(wpc.getData().getDenomination(), wpc.getData().getId());
-                    row.getCell(0).setCellStyle(cellStyle);
-                } catch (Exception e) {
-                    this.logRowError(i, e);
-                    this.agregarCeldaError(sheet.getRow(i), e);
+                if(!plan.hasColumns("code", "denomination")) {
+                    throw new IllegalArgumentException("code/denomination column do not exist");
                 }
-            }
-            modifiedFile = this.createModifiedWorkbook(workbook, file);
-        } catch (Exception e) {
-            this.logProcessingExcelFile(e);
-        }
-        return modifiedFile;
-    }
 
-    public File loadWorkPeriods(MultipartFile file) {
+                int codeColumn = plan.column("code");
+                int denominationColumn = plan.column("denomination");
+                int statusColumn = plan.column("status");
 
-        String bearerToken = this.getBearerToken();
+                // Categorías de puesto ya existentes, pedidas una sola vez para toda la hoja
+                CatalogIndex<WorkPositionCategoryResponse> catalog = new CatalogIndex<>("work_position_categories",
+                        search -> worksPositionCategoriesFeign.simplifiedSearch(search).getData(),
+                        WorkPositionCategoryResponse::getCode, WorkPositionCategoryResponse::getDenomination,
+                        WorkPositionCategoryResponse::getId, catalogSearchLimit);
 
-        List<WorkPeriodTypeResponse> workPeriodTypesList = workPeriodsTypesFeign.findAllWorkPeriodTypes(bearerToken).getData();
-        List<WorkPeriodMaxDurationsResponse> workPeriodMaxDurationsList = workPeriodsMaxDurationsFeign.findAllWorkPeriodsMaxDurations(bearerToken).getData();
-        List<WorkPeriodMaxDailyDurationsResponse> workPeriodMaxDailyDurationsResponseList = workPeriodsMaxDailyDurationsFeign.findAllWorkPeriodsMaxDailyDurations(bearerToken).getData();
-        List<DurationsResponse> durations = durationsFeign.findAllDurations(bearerToken).getData();
-        List<WorkTurnTypesResponse> workturntypes = workTurnTypesFeign.findAllWorkTurnTypes(bearerToken).getData();
+                return row -> this.loadWorkPositionCategory(row, codeColumn, denominationColumn, statusColumn, plan, catalog);
+            });
+        } catch (Exception e) {
+            throw this.sheetFailed("work_position_categories", e);
+        }
+    }
 
-        // Archivo modificado para devolver
-        File modifiedFile = new File(MODIFIED + file.getOriginalFilename());
+    private RowOutcome loadWorkPositionCategory(SheetRow row, int cellCode, int cellDenomination, int cellStatus,
+                                                ColumnPlan plan,
+                                                CatalogIndex<WorkPositionCategoryResponse> catalog) {
+        if(row.getCell(cellCode) == null) {
+            throw new IllegalArgumentException("code cell can not be null");
+        }
 
-        // Para abrir el workbook y que se cierre automáticamente al finalizar
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
+        if(row.getCell(cellDenomination) == null) {
+            throw new IllegalArgumentException("denomination cell can not be null");
+        }
 
-            // Nos posicionamos en la primera hoja
-            Sheet sheet = workbook.getSheet("work_periods");
+        // Sacamos el código y el nombre de la compensación
+        String code = (row.getCell(cellCode).getCellType() == CellType.STRING) ? (row.getCell(cellCode).getStringCellValue()).trim() : ("" + (int) row.getCell(cellCode).getNumericCellValue());
+        String denomination = (row.getCell(cellDenomination).getStringCellValue()).trim();
 
-            this.logSheetNameNumberOfRows(sheet);
+        log.info("Puesto a consultar con nombre: " + denomination + " \ncon codigo: " + code);
 
-            // Crear un estilo de celda con color verde para los datos insertados correctamente
-            CellStyle cellStyle = this.greenCellStyle(workbook);
-
-            Row rowNames = sheet.getRow(0);
-            Integer cellName = null;
-            Integer cellPeriodType = null;
-            Integer cellKeywordMaxDuration = null;
-            Integer cellMaxDailyDuration = null;
-
-
-            for (int i = 0; i < rowNames.getPhysicalNumberOfCells(); i++) {
-                Cell columnName = rowNames.getCell(i);
-
-                if(columnName == null) {
-                    throw new IllegalArgumentException("ColumnName can not be null, column: " + i);
-                } else if (columnName.getStringCellValue().equalsIgnoreCase("name")) {
-                    cellName = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("period_type")) {
-                    cellPeriodType = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("keyword_max_duracion")) {
-                    cellKeywordMaxDuration = i;
-                } else if(columnName.getStringCellValue().equalsIgnoreCase("max_daily_duration")) {
-                    cellMaxDailyDuration = i;
-                }
+        // Si ya existe por denominación seguimos a la siguiente; no debe haber dos categorías con el mismo código
+        CatalogIndex.Claim claim = catalog.claim(code, denomination);
+        if (claim == CatalogIndex.Claim.EXISTING) {
+            log.info("Continuamos debido a que ese puesto ya existe!");
+            Long existingId = catalog.idOf(denomination);
+            if (existingId != null) {
+                idRegistry.put(EntityType.WORK_POSITION_CATEGORY, denomination, existingId);
             }
+            return RowOutcome.existing(0, existingId);
+        }
+        if (claim == CatalogIndex.Claim.CODE_TAKEN) {
+            return RowOutcome.failed("exist a work-positions-category with the code");
+        }
 
-            if(cellName == null || cellPeriodType == null || cellKeywordMaxDuration == null || cellMaxDailyDuration == null) {
-                throw new IllegalArgumentException("name/period_type/keyword_max_duracion/max_daily_duration column do not exist");
-            }
+        WorkPositionCategoryResponse created;
+        try {
+            created = this.createWorkPositionCategory(row, code, denomination, cellStatus, plan);
+        } catch (RuntimeException e) {
+            catalog.release(code, denomination);
+            throw e;
+        }
+        // Se confirma antes de leer la respuesta: las filas repetidas esperan esta reserva
+        catalog.created(denomination, created != null ? created.getId() : null);
+        idRegistry.put(EntityType.WORK_POSITION_CATEGORY, created.getDenomination(), created.getId());
+        return RowOutcome.created(0, created.getId());
+    }
 
-            // Recorrer la cantidad de filas a partir de la posición 1 porque la 0 son los nombres de las columnas
-            for (int i = 1; i < sheet.getPhysicalNumberOfRows(); i++) {
-                try {
+    private WorkPositionCategoryResponse createWorkPositionCategory(SheetRow row, String code, String denomination,
+                                                                    int cellStatus, ColumnPlan plan) {
+        Map<String, Object> fieldsValues = plan.fieldsValues(row);
 
-                    List<WorkPeriodDetailRequest> workPeriodDetailList = new ArrayList<>();
+        long idEstatus = 1L;
+        if(cellStatus >= 0) {
+            idEstatus = row.getCell(cellStatus).getStringCellValue().equalsIgnoreCase("active") ? 1L : 2L;
+        }
 
-                    Row row = sheet.getRow(i);
+        // Preparamos el objeto que irá en el body
+        WorkPositionCategoryRequest workPositionCategoryRequest = new WorkPositionCategoryRequest();
+        workPositionCategoryRequest.setCode(code);
+        workPositionCategoryRequest.setDenomination(denomination);
+        workPositionCategoryRequest.setFieldsValues(fieldsValues);
+        workPositionCategoryRequest.setStatusId(idEstatus);
 
-                    if(row.getCell(cellName) == null) {
-                        throw new IllegalArgumentException("name cell can not be null");
-                    }
+        // Realizamos la petición
+        return worksPositionCategoriesFeign.createWorkPositionCategory(workPositionCategoryRequest).getData();
+    }
 
-                    if(row.getCell(cellPeriodType) == null) {
-                        throw new IllegalArgumentException("period_type cell can not be null");
-                    }
+    public File loadWorkPeriods(MultipartFile file, RowProgress progress) {
 
-                    if(row.getCell(cellKeywordMaxDuration) == null) {
-                        throw new IllegalArgumentException("keyword_max_duracion cell can not be null");
-                    }
+        // El mismo snapshot de catálogos para todas las filas de esta carga
+        WorkPeriodCatalogue.Snapshot catalogs = workPeriodCatalogue.snapshot();
+        // Un candado por nombre de periodo, para que dos filas con el mismo nombre no lo creen dos veces
+        Map<String, ReentrantLock> periodLocks = new ConcurrentHashMap<>();
 
-                    String name = (row.getCell(cellName).getStringCellValue()).trim();
-                    String periodType = (row.getCell(cellPeriodType).getStringCellValue()).trim();
-                    String keywordMaxDuration = (row.getCell(cellKeywordMaxDuration).getStringCellValue()).trim();
-                    Integer maxDailyDuration = (row.getCell(cellMaxDailyDuration) == null) ? null : (int)row.getCell(cellMaxDailyDuration).getNumericCellValue();
+        try {
+            // Los turnos de trabajo están en la hoja work_turns, agrupados por el nombre del periodo
+            return this.annotateSheet(file, progress, "work_periods", "work_turns", (rowNames, workTurns) -> {
+                ColumnPlan plan = ColumnPlan.compile(rowNames, "name", "period_type", "keyword_max_duracion", "max_daily_duration");
 
-                    log.info("Periodo de trabajo a consultar con nombre: " + name);
+                if(!plan.hasColumns("name", "period_type", "keyword_max_duracion", "max_daily_duration")) {
+                    throw new IllegalArgumentException("name/period_type/keyword_max_duracion/max_daily_duration column do not exist");
+                }
 
-                    // Consultamos si existe el periodo de trabajo por nombre
-                    DefaultResponse<WorkPeriodResponse> workPeriodResponse = workPeriodsFeign.findOneByName(bearerToken, name);
-                    boolean existsWorkPeriod = workPeriodResponse.getData() != null &&
-                            workPeriodResponse.getData().getName().equalsIgnoreCase(name);
+                int[] columns = {plan.column("name"), plan.column("period_type"),
+                        plan.column("keyword_max_duracion"), plan.column("max_daily_duration")};
 
-                    // Si existe, seguimos a la siguiente para no volverla a insertar
-                    if (existsWorkPeriod) {
-                        log.info("Continuamos debido a que existe una jornada laboral con ese nombre!");
-                        workPeriodsMap.put(workPeriodResponse.getData().getName(), workPeriodResponse.getData().getId());
-                        row.getCell(cellName).setCellStyle(cellStyle);
-                        continue;
-                    }
+                return row -> this.loadWorkPeriod(row, columns, catalogs, workTurns, periodLocks);
+            });
+        } catch (Exception e) {
+            throw this.sheetFailed("work_periods", e);
+        }
+    }
 
-                    Long idWorkPeriodType;
-                    Long idWorkPeriodMaxDailyDuration = null;
-                    if(periodType.equalsIgnoreCase("Horario Fijo")) {
+    private RowOutcome loadWorkPeriod(SheetRow row, int[] columns, WorkPeriodCatalogue.Snapshot catalogs,
+                                      SheetJoin workTurns, Map<String, ReentrantLock> periodLocks) throws Exception {
+        int cellName = columns[0];
+        int cellPeriodType = columns[1];
+        int cellKeywordMaxDuration = columns[2];
+        int cellMaxDailyDuration = columns[3];
 
-                        idWorkPeriodType = workPeriodTypesList
-                                .stream()
-                                .filter(wpt -> wpt.getName().equalsIgnoreCase("Fixed Scheduled/Regular shift"))
-                                .map(WorkPeriodTypeResponse::getId).findFirst().get();
+        if(row.getCell(cellName) == null) {
+            throw new IllegalArgumentException("name cell can not be null");
+        }
 
-                        log.info("El valor de max daily duration es: " + maxDailyDuration);
+        if(row.getCell(cellPeriodType) == null) {
+            throw new IllegalArgumentException("period_type cell can not be null");
+        }
 
-                        if(maxDailyDuration == 24) {
+        if(row.getCell(cellKeywordMaxDuration) == null) {
+            throw new IllegalArgumentException("keyword_max_duracion cell can not be null");
+        }
 
-                            idWorkPeriodMaxDailyDuration = workPeriodMaxDailyDurationsResponseList
-                                    .stream()
-                                    .filter(wpmd -> wpmd.getDuration() == 24)
-                                    .map(WorkPeriodMaxDailyDurationsResponse::getId).findFirst().orElseThrow();
+        String name = (row.getCell(cellName).getStringCellValue()).trim();
+        String periodType = (row.getCell(cellPeriodType).getStringCellValue()).trim();
+        String keywordMaxDuration = (row.getCell(cellKeywordMaxDuration).getStringCellValue()).trim();
+        Integer maxDailyDuration = (row.getCell(cellMaxDailyDuration) == null) ? null : (int)row.getCell(cellMaxDailyDuration).getNumericCellValue();
+
+        log.info("Periodo de trabajo a consultar con nombre: " + name);
+
+        // Las filas corren en paralelo: la consulta y la creación de un mismo nombre van de a una,
+        // así la segunda fila encuentra el periodo que creó la primera, como al cargar fila por fila
+        ReentrantLock lock = periodLocks.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ReentrantLock());
+        lock.lock();
+        try {
+            return this.createWorkPeriod(name, periodType, keywordMaxDuration, maxDailyDuration, cellName, catalogs, workTurns);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                        } else if(maxDailyDuration == 12) {
+    private RowOutcome createWorkPeriod(String name, String periodType, String keywordMaxDuration, Integer maxDailyDuration,
+                                        int cellName, WorkPeriodCatalogue.Snapshot catalogs, SheetJoin workTurns) throws Exception {
+        List<WorkPeriodDetailRequest> workPeriodDetailList = new ArrayList<>();
+        List<Integer> turnRows = new ArrayList<>();
+
+        // Consultamos si existe el periodo de trabajo por nombre
+        DefaultResponse<WorkPeriodResponse> workPeriodResponse = workPeriodsFeign.findOneByName(name);
+        boolean existsWorkPeriod = workPeriodResponse.getData() != null &&
+                workPeriodResponse.getData().getName().equalsIgnoreCase(name);
+
+        // Si existe, seguimos a la siguiente para no volverla a insertar
+        if (existsWorkPeriod) {
+            log.info("Continuamos debido a que existe una jornada laboral con ese nombre!");
+            idRegistry.put(EntityType.WORK_PERIOD, workPeriodResponse.getData().getName(), workPeriodResponse.getData().getId());
+            return RowOutcome.existing(cellName, workPeriodResponse.getData().getId());
+        }
 
-                            idWorkPeriodMaxDailyDuration = workPeriodMaxDailyDurationsResponseList
-                                    .stream()
-                                    .filter(wpt -> wpt.getDuration() == 12)
-                                    .map(WorkPeriodMaxDailyDurationsResponse::getId).findFirst().orElseThrow();
+        Long idWorkPeriodType;
+        Long idWorkPeriodMaxDailyDuration = null;
+        if(periodType.equalsIgnoreCase("Horario Fijo")) {
 
-                        } else if(maxDailyDuration == 8) {
+            idWorkPeriodType = catalogs.workPeriodTypeId("Fixed Scheduled/Regular shift");
 
-                            idWorkPeriodMaxDailyDuration = workPeriodMaxDailyDurationsResponseList
-                                    .stream()
-                                    .filter(wpt -> wpt.getDuration() == 8)
-                                    .map(WorkPeriodMaxDailyDurationsResponse::getId).findFirst().orElseThrow();
+            log.info("El valor de max daily duration es: " + maxDailyDuration);
 
-                        } else if(maxDailyDuration == 6) {
+            if(maxDailyDuration == null) {
+                throw new Exception("There is no max_daily_duration");
+            }
+            idWorkPeriodMaxDailyDuration = catalogs.maxDailyDurationId(maxDailyDuration);
 
-                            idWorkPeriodMaxDailyDuration = workPeriodMaxDailyDurationsResponseList
-                                    .stream()
-                                    .filter(wpt -> wpt.getDuration() == 6)
-                                    .map(WorkPeriodMaxDailyDurationsResponse::getId).findFirst().orElseThrow();
+        } else if(periodType.equalsIgnoreCase("Frecuencia Variable")) {
 
-                        } else if(maxDailyDuration == 4) {
+            idWorkPeriodType = catalogs.workPeriodTypeId("Variable frecuency shift");
 
-                            idWorkPeriodMaxDailyDuration = workPeriodMaxDailyDurationsResponseList
-                                    .stream()
-                                    .filter(wpt -> wpt.getDuration() == 4)
-                                    .map(WorkPeriodMaxDailyDurationsResponse::getId).findFirst().orElseThrow();
+        } else {
+            throw new Exception("There is no period with that name");
+        }
 
-                        } else {
-                            throw new Exception("There is no max_daily_duration");
-                        }
+        Long idWorkPeriodMaxDuration = catalogs.maxDurationId(keywordMaxDuration);
 
-                    } else if(periodType.equalsIgnoreCase("Frecuencia Variable")) {
+        // Recorremos los turnos de trabajo de este periodo
+        for (SheetRow workTurnRow : workTurns.childrenOf(name)) {
 
-                        idWorkPeriodType = workPeriodTypesList
-                                .stream()
-                                .filter(wpt -> wpt.getName().equalsIgnoreCase("Variable frecuency shift"))
-                                .map(WorkPeriodTypeResponse::getId).findFirst().orElseThrow();
+            Date dateFrom = null;
+            Date dateTo = null;
+            String from = "";
+            String to = "";
 
-                    } else {
-                        throw new Exception("There is no period with that name");
-                    }
+            if(periodType.equalsIgnoreCase("Horario Fijo")) {
+                dateFrom = workTurnRow.getCell(1).getDateCellValue();
+                dateTo = workTurnRow.getCell(2).getDateCellValue();
+            }
 
-                    Long idWorkPeriodMaxDuration = workPeriodMaxDurationsList
-                            .stream()
-                            .filter(wpmd -> wpmd.getKeyword().equalsIgnoreCase(keywordMaxDuration))
-                            .map(WorkPeriodMaxDurationsResponse::getId).findFirst().orElseThrow(() -> new Exception("There is no max_duration with that keyword"));
+            Integer dayOfWeek = (int) workTurnRow.getCell(3).getNumericCellValue();
+            String workTurnType = workTurnRow.getCell(4).getStringCellValue();
+            Integer duration = (workTurnRow.getCell(5) == null) ? 0 : (int) workTurnRow.getCell(5).getNumericCellValue();
 
-                    /*if(keywordMaxDuration.equalsIgnoreCase("48HWFT")) {
+            Long idWorkTurnType = catalogs.workTurnTypeId(workTurnType);
 
-                        idWorkPeriodMaxDuration = workPeriodMaxDurationsList
-                                .stream()
-                                .filter(wpmd -> wpmd.getKeyword().equalsIgnoreCase("48HWFT"))
-                                .map(WorkPeriodMaxDurationsResponse::getId).findFirst().orElseThrow();
+            Long idDuration = null;
+            if(duration != 0){
+                idDuration = catalogs.durationId(duration);
+            }
 
-                    } else if(keywordMaxDuration.equalsIgnoreCase("40HWFT")) {
 
-                        idWorkPeriodMaxDuration = workPeriodMaxDurationsList
-                                .stream()
-                                .filter(wpt -> wpt.getName().equalsIgnoreCase("40HWFT"))
-                                .map(WorkPeriodMaxDurationsResponse::getId).findFirst().orElseThrow();
+            if(dateFrom != null && dateTo != null) {
+                from = TIME_FORMAT.format(dateFrom.toInstant());
+                to = TIME_FORMAT.format(dateTo.toInstant());
+            }
 
-                    } else if(keywordMaxDuration.equalsIgnoreCase("30HWPT")) {
+            workPeriodDetailList.add(new WorkPeriodDetailRequest(
+                    from, to, dayOfWeek,
+                    idWorkTurnType, idDuration));
 
-                        idWorkPeriodMaxDuration = workPeriodMaxDurationsList
-                                .stream()
-                                .filter(wpmd -> wpmd.getKeyword().equalsIgnoreCase("30HWPT"))
-                                .map(WorkPeriodMaxDurationsResponse::getId).findFirst().orElseThrow();
+            turnRows.add(workTurnRow.getRowNum());
+        }
 
-                    } else if(keywordMaxDuration.equalsIgnoreCase("48HWST")) {
+        // Preparamos el objeto que irá en el body
+        WorkPeriodRequest workPeriodRequest = new WorkPeriodRequest();
+        workPeriodRequest.setName(name);
+        workPeriodRequest.setWorkPeriodTypeId(idWorkPeriodType);
+        workPeriodRequest.setWorkTurns(workPeriodDetailList);
+        workPeriodRequest.setWorkPeriodMaxDurationId(idWorkPeriodMaxDuration);
+        workPeriodRequest.setWorkPeriodMaxDailyDurationId(idWorkPeriodMaxDailyDuration);
+
+        log.info("LLenamos todos los workPeriod con el id nesario: \nName: " + workPeriodRequest.getName()
+                + "\nTipo de periodo de trabajo: " + idWorkPeriodType
+                + "\nMaximo de duracion id: " + idWorkPeriodMaxDuration
+                + "\nMaximo de duracion por dia id: " + idWorkPeriodMaxDailyDuration);
+
+        // Realizamos la petición
+        DefaultResponse<WorkPeriodResponse> wpr = workPeriodsFeign.createWorkPeriods(workPeriodRequest);
+        idRegistry.put(EntityType.WORK_PERIOD, wpr.getData().getName(), wpr.getData().getId());
+        return RowOutcome.created(0, wpr.getData().getId(), turnRows);
+    }
 
-                        idWorkPeriodMaxDuration = workPeriodMaxDurationsList
-                                .stream()
-                                .filter(wpt -> wpt.getName().equalsIgnoreCase("48HWST"))
-                                .map(WorkPeriodMaxDurationsResponse::getId).findFirst().orElseThrow();
+    /**
+     * Prepara la carga de una hoja a partir de su fila de encabezados: busca las columnas y
+     * devuelve la tarea de cada fila. {@code children} son las filas de la hoja hija agrupadas
+     * por su primera columna, o null si la carga no tiene hoja hija.
+     */
+    @FunctionalInterface
+    private interface SheetPreparation {
+        RowTask prepare(SheetRow rowNames, SheetJoin children);
+    }
 
-                    } else {
-                        throw new Exception("There is no max_duration with that keyword");
-                    }*/
+    /**
+     * Recorre una hoja de las cargas que devuelven el libro con cada fila marcada (verde si se
+     * migró, una celda con el error si no). Con {@code migration.excel.result-mode=dom} se abre el
+     * libro completo y se devuelve modificado; con {@code streaming} la hoja se lee por eventos y
+     * el resultado se escribe con {@link AnnotatedWorkbook}, así que la memoria no crece con las
+     * filas, pero el libro de resultado solo trae la hoja (y su hoja hija) sin el formato original.
+     */
+    private File annotateSheet(MultipartFile file, RowProgress progress, String sheetName, String childSheetName,
+                               SheetPreparation preparation) throws IOException {
+        InputFormat format = InputFormat.of(file);
+        if (!format.isWorkbook() && childSheetName != null) {
+            throw new IllegalArgumentException("Sheet " + childSheetName + " is required: " + format
+                    + " files hold a single sheet, upload an .xlsx workbook with " + sheetName + " and " + childSheetName);
+        }
+        // Un archivo de texto no tiene libro que devolver, el resultado se arma con sus filas
+        if (resultMode == ReaderMode.STREAMING || !format.isWorkbook()) {
+            return this.annotateSheetStreaming(file, progress, sheetName, childSheetName, preparation);
+        }
 
-                    // Nos posicionamos en la segunda hoja donde estan los tunos de trabajo
-                    //Sheet workTurnsSheet = workbook.getSheetAt(1);
-                    Sheet workTurnsSheet = workbook.getSheet("work_turns");
+        // Para abrir el workbook y que se cierre automáticamente al finalizar
+        try (Workbook workbook = excelReader.openWorkbook(file)) {
 
-                    log.info("Estamos con la hoja: " + workTurnsSheet.getSheetName());
+            Sheet sheet = workbook.getSheet(sheetName);
 
-                    // Cantidad de filas en la hoja
-                    int numberOfWorkTurns = workTurnsSheet.getPhysicalNumberOfRows();
+            this.logSheetNameNumberOfRows(sheet);
 
-                    log.info("La cantidad de filas de turnos de trabajo: " + workTurnsSheet.getPhysicalNumberOfRows());
+            // Crear un estilo de celda con color verde para los datos insertados correctamente
+            CellStyle cellStyle = this.greenCellStyle(workbook);
 
-                    // Recorrer la cantidad de filas a partir de la posición 1 porque la 0 son los nombres de las columnas
-                    for (int j = 1; j < numberOfWorkTurns; j++) {
+            Sheet childSheet = null;
+            SheetJoin children = null;
+            if (childSheetName != null) {
+                childSheet = workbook.getSheet(childSheetName);
+                this.logSheetNameNumberOfRows(childSheet);
 
-                        Row workTurnRow = workTurnsSheet.getRow(j);
-                        String nameWorkPeriod = workTurnRow.getCell(0).getStringCellValue();
-                        Date dateFrom = null;
-                        Date dateTo = null;
-                        String from = "";
-                        String to = "";
+                // Se copian las filas hijas una vez: los hilos no deben leer el workbook
+                children = SheetJoin.index(childSheet, 0);
+                log.info("Filas de " + childSheetName + " agrupadas en " + children.keys() + " llaves");
+            }
 
-                        //Verificamos si el nombre coincide sino continuamos
-                        if(!nameWorkPeriod.equalsIgnoreCase(name)) {
-                            continue;
-                        }
+            RowTask task = preparation.prepare(SheetRow.of(sheet.getRow(0), null), children);
 
-                        if(periodType.equalsIgnoreCase("Horario Fijo")) {
-                            dateFrom = workTurnRow.getCell(1).getDateCellValue();
-                            dateTo = workTurnRow.getCell(2).getDateCellValue();
-                        }
+            // Recorrer la cantidad de filas a partir de la posición 1 porque la 0 son los nombres de las columnas
+            this.dispatchRows(sheet, progress, childSheet, cellStyle, task);
 
-                        Integer dayOfWeek = (int) workTurnRow.getCell(3).getNumericCellValue();
-                        String workTurnType = workTurnRow.getCell(4).getStringCellValue();
-                        Integer duration = (workTurnRow.getCell(5) == null) ? 0 : (int) workTurnRow.getCell(5).getNumericCellValue();
-
-                        Long idWorkTurnType = workturntypes
-                                .stream()
-                                .filter(wtt -> wtt.getName().equalsIgnoreCase(workTurnType))
-                                .map(wtt -> wtt.getId()).findFirst().orElseThrow();
-
-                        Long idDuration = null;
-                        if(duration != 0){
-                            idDuration = durations
-                                    .stream()
-                                    .filter(d -> d.getAmount() == duration)
-                                    .map(d -> d.getId()).findFirst().orElseThrow();
-                        }
+            // Archivo modificado para devolver
+            return progress.writesWorkbook() ? this.createModifiedWorkbook(workbook, sheet, file) : null;
+        }
+    }
 
+    private File annotateSheetStreaming(MultipartFile file, RowProgress progress, String sheetName, String childSheetName,
+                                        SheetPreparation preparation) throws IOException {
+        List<SheetRow> childRows = new ArrayList<>();
+        SheetJoin children = null;
+        if (childSheetName != null) {
+            excelReader.forEachRow(file, SheetSelector.named(childSheetName), null, childRows::add);
+            children = SheetJoin.index(childRows.stream().filter(row -> row.getRowNum() > 0).toList(), 0);
+            log.info("Filas de " + childSheetName + " agrupadas en " + children.keys() + " llaves");
+        }
+        SheetJoin join = children;
+        boolean writes = progress.writesWorkbook();
 
-                        // Formatear la hora
-                        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
+        try (AnnotatedWorkbook result = new AnnotatedWorkbook(resultWindow)) {
+            AnnotatedWorkbook.AnnotatedSheet sheet = result.sheet(sheetName);
+            BitSet markedChildren = new BitSet();
+            RowTask[] task = new RowTask[1];
 
-                        if(dateFrom != null && dateTo != null) {
-                            from = timeFormat.format(dateFrom);
-                            to = timeFormat.format(dateTo);
+            try (SheetDispatch dispatch = rowDispatcher.open(sheetName, progress, outcome -> {
+                if (writes) {
+                    sheet.complete(outcome);
+                }
+                if (outcome.isSuccess()) {
+                    outcome.getChildRows().forEach(markedChildren::set);
+                }
+            })) {
+                excelReader.forEachRow(file, SheetSelector.named(sheetName), null,
+                        rows -> progress.expect(sheetName, rows - 1), row -> {
+                    if (row.getRowNum() == 0) {
+                        log.info(SHEET + sheetName);
+                        task[0] = preparation.prepare(row, join);
+                        if (writes) {
+                            sheet.write(row, -1, null);
                         }
+                        return;
+                    }
+                    if (task[0] == null) {
+                        throw new IllegalArgumentException("Sheet " + sheetName + " has no column names row");
+                    }
+                    if (writes) {
+                        sheet.pending(row);
+                    }
+                    dispatch.submit(row, task[0]);
+                });
+            } catch (CancellationException e) {
+                // Se devuelve el libro con las filas que alcanzaron a procesarse
+                log.info(e.getMessage());
+            }
 
-                        workPeriodDetailList.add(new WorkPeriodDetailRequest(
-                                from, to, dayOfWeek,
-                                idWorkTurnType, idDuration));
+            if (!writes) {
+                return null;
+            }
+            sheet.finish();
+            if (childSheetName != null) {
+                AnnotatedWorkbook.AnnotatedSheet childSheet = result.sheet(childSheetName);
+                for (SheetRow row : childRows) {
+                    childSheet.write(row, row.getRowNum() > 0 && markedChildren.get(row.getRowNum()) ? 0 : -1, null);
+                }
+            }
+            log.debug("Hoja " + sheetName + ": hasta " + sheet.getMaxPending() + " filas esperando a una anterior para escribirse");
 
-                        workTurnRow.getCell(0).setCellStyle(cellStyle);
-                    }
+            // Archivo modificado para devolver
+            File modifiedFile = artifactStore.newFile(MODIFIED + sheetName + "_" + InputFormat.of(file).workbookName(file.getOriginalFilename()));
+            result.write(modifiedFile);
+            return modifiedFile;
+        }
+    }
 
-                    // Preparamos el objeto que irá en el body
-                    WorkPeriodRequest workPeriodRequest = new WorkPeriodRequest();
-                    workPeriodRequest.setName(name);
-                    workPeriodRequest.setWorkPeriodTypeId(idWorkPeriodType);
-                    workPeriodRequest.setWorkTurns(workPeriodDetailList);
-                    workPeriodRequest.setWorkTurns(workPeriodDetailList);
-                    workPeriodRequest.setWorkPeriodMaxDurationId(idWorkPeriodMaxDuration);
-                    workPeriodRequest.setWorkPeriodMaxDailyDurationId(idWorkPeriodMaxDailyDuration);
-
-                    log.info("LLenamos todos los workPeriod con el id nesario: \nName: " + workPeriodRequest.getName()
-                            + "\nTipo de periodo de trabajo: " + idWorkPeriodType
-                            + "\nMaximo de duracion id: " + idWorkPeriodMaxDuration
-                            + "\nMaximo de duracion por dia id: " + idWorkPeriodMaxDailyDuration);
-
-                    // Realizamos la petición
-                    DefaultResponse<WorkPeriodResponse> wpr = workPeriodsFeign.createWorkPeriods(bearerToken, workPeriodRequest);
-                    workPeriodsMap.put(wpr.getData().getName(), wpr.getData().getId());
-                    row.getCell(0).setCellStyle(cellStyle);
-                } catch (Exception e) {
-                    log.error("Error processing row " + (i + 1) + " in Excel: " + e.getMessage());
-
-                    // Agregar celda con el mensaje de error en la fila que falló
-                    Row errorRow = sheet.getRow(i);
-                    Cell errorCell = errorRow.createCell(errorRow.getPhysicalNumberOfCells() + 1);
-                    errorCell.setCellValue("Error: " + e.getMessage());
+    /**
+     * Reparte las filas de datos de la hoja. Cada fila se copia antes de enviarla a otro hilo y
+     * el resultado se aplica al workbook en este hilo, porque POI no es seguro entre hilos.
+     * Si el trabajo se cancela se deja de enviar filas y el workbook queda como iba.
+     */
+    private void dispatchRows(Sheet sheet, RowProgress progress, Sheet childSheet, CellStyle cellStyle, RowTask task) {
+        progress.expect(sheet.getSheetName(), sheet.getPhysicalNumberOfRows() - 1);
+        try (SheetDispatch dispatch = rowDispatcher.open(sheet.getSheetName(), progress, outcome -> this.applyOutcome(sheet, childSheet, cellStyle, outcome))) {
+            for (int i = 1; i < sheet.getPhysicalNumberOfRows(); i++) {
+                Row row = sheet.getRow(i);
+                if (row != null) {
+                    dispatch.submit(SheetRow.of(row, null), task);
                 }
             }
+        } catch (CancellationException e) {
+            // Se devuelve el workbook con las filas que alcanzaron a procesarse
+            log.info(e.getMessage());
+        }
+    }
 
-            // Escribir el workbook modificado de nuevo en el archivo original
-            try (FileOutputStream fileOut = new FileOutputStream(modifiedFile)) {
-                workbook.write(fileOut);
-            } catch (IOException e) {
-                log.error("Error writing modified Excel file: " + e.getMessage());
+    private void applyOutcome(Sheet sheet, Sheet childSheet, CellStyle cellStyle, RowOutcome outcome) {
+        Row row = sheet.getRow(outcome.getRowNum());
+        if (!outcome.isSuccess()) {
+            this.agregarCeldaError(row, outcome.getMessage());
+            return;
+        }
+        this.markCell(row, outcome.getMarkColumn(), cellStyle);
+        if (childSheet != null) {
+            for (Integer childRow : outcome.getChildRows()) {
+                this.markCell(childSheet.getRow(childRow), 0, cellStyle);
             }
-        } catch (Exception e) {
-            log.error("Error processing Excel file: " + e.getMessage());
         }
-        return modifiedFile;
     }
 
-    private String getBearerToken() {
-        // Realizamos el login para obtener un token
-        LoginRequest loginRequest = new LoginRequest();
-        loginRequest.setEmail(email);
-        loginRequest.setPassword(password);
-        return  BEARER.concat(loginFeign.login(loginRequest).getData().getToken());
+    private void markCell(Row row, int column, CellStyle cellStyle) {
+        Cell cell = row.getCell(column);
+        if (cell != null) {
+            cell.setCellStyle(cellStyle);
+        }
     }
 
     private void logSheetNameNumberOfRows(Sheet sheet) {
@@ -1178,27 +1179,32 @@ public class MigrationService {
         return cellStyle;
     }
 
-    private void logRowError(int i, Exception e) {
-        log.error("Error processing row " + (i + 1) + " in Excel: " + e.getMessage());
-    }
-
-    private void logProcessingExcelFile(Exception e) {
+    /**
+     * Error de una carga que no pudo recorrer su hoja (no existe, no se puede leer, faltan
+     * columnas). Se relanza para que el trabajo, o la etapa del libro completo, quede FAILED y no
+     * completada sin filas.
+     */
+    private IllegalStateException sheetFailed(String sheetName, Exception e) {
         log.error("Error processing Excel file: " + e.getMessage());
+        return new IllegalStateException("Sheet " + sheetName + " could not be processed: " + e.getMessage(), e);
     }
 
-    private void agregarCeldaError(Row row, Exception e) {
+    private void agregarCeldaError(Row row, String message) {
         // Agregar celda con el mensaje de error en la fila que falló
         Cell errorCell = row.createCell(row.getPhysicalNumberOfCells());
-        errorCell.setCellValue("Error: " + e.getMessage());
+        errorCell.setCellValue("Error: " + message);
     }
 
-    private File createModifiedWorkbook(Workbook workbook, MultipartFile file) {
-        // Archivo modificado para devolver
-        File modifiedFile = new File(MODIFIED + file.getOriginalFilename());
+    private File createModifiedWorkbook(Workbook workbook, Sheet sheet, MultipartFile file) {
+        // Archivo modificado para devolver; lleva el nombre de la hoja porque varias cargas del mismo libro pueden correr a la vez
+        File modifiedFile = null;
 
-        // Escribir el workbook modificado de nuevo en el archivo original
-        try (FileOutputStream fileOut = new FileOutputStream(modifiedFile)) {
-            workbook.write(fileOut);
+        // Escribir el workbook modificado en un archivo nuevo del store de resultados
+        try {
+            modifiedFile = artifactStore.newFile(MODIFIED + sheet.getSheetName() + "_" + file.getOriginalFilename());
+            try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(modifiedFile))) {
+                workbook.write(fileOut);
+            }
         } catch (IOException e) {
             log.error("Error writing modified Excel file: " + e.getMessage());
         }
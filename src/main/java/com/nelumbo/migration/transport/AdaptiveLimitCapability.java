@@ -0,0 +1,81 @@
+package com.nelumbo.migration.transport;
+
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import com.nelumbo.migration.metrics.RequestTimingCapability;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pone un {@link AdaptiveLimiter} delante de cada método Feign (cada endpoint de core-api),
+ * de modo que la cantidad de peticiones en vuelo se adapta a la latencia que core-api muestra
+ * en ese momento. Con el limitador activo cada hoja admite hasta {@code max-limit} filas en
+ * vuelo ({@link com.nelumbo.migration.dispatch.RowDispatcher}), así que el límite puede crecer
+ * hasta el máximo y las filas que sobran esperan aquí su turno.
+ */
+public class AdaptiveLimitCapability implements Capability, Ordered {
+
+    private final LimiterProperties properties;
+    private final MigrationMetrics metrics;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveLimitCapability(LimiterProperties properties, MigrationMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> this.execute(client, request, options);
+    }
+
+    /**
+     * Envuelve al cliente por fuera de {@link com.nelumbo.migration.metrics.RequestTimingCapability},
+     * que mide solo la llamada HTTP.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * Limitadores por endpoint, con la clave del método Feign (por ejemplo StoreFeign#createStore(StoreRequest)).
+     */
+    public Map<String, AdaptiveLimiter> getLimiters() {
+        return limiters;
+    }
+
+    private Response execute(Client client, Request request, Request.Options options) throws IOException {
+        AdaptiveLimiter limiter = limiters.computeIfAbsent(RequestTimingCapability.endpoint(request), this::newLimiter);
+        long start;
+        try {
+            start = limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a core-api slot");
+        }
+
+        boolean failed = true;
+        try {
+            Response response = client.execute(request, options);
+            failed = response.status() >= 500 || response.status() == 429;
+            return response;
+        } finally {
+            limiter.release(start, failed);
+        }
+    }
+
+    private AdaptiveLimiter newLimiter(String endpoint) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(properties);
+        metrics.endpoint(endpoint, limiter, AdaptiveLimiter::getInFlight, AdaptiveLimiter::getLimit);
+        return limiter;
+    }
+
+}
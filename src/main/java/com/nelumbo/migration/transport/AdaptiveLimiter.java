@@ -0,0 +1,107 @@
+package com.nelumbo.migration.transport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de peticiones en vuelo de un endpoint de core-api, ajustado con AIMD: cada respuesta
+ * rápida con el límite lleno lo sube en 1/límite (uno por cada ronda completa) y una respuesta
+ * lenta o con error lo multiplica por backoffRatio. Solo las peticiones que salieron después de
+ * la última reducción pueden volver a reducirlo, para que una sola ráfaga lenta no lo hunda.
+ * <p>
+ * Usa ReentrantLock y no synchronized porque las filas corren en hilos virtuales.
+ */
+public class AdaptiveLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos = System.nanoTime();
+    private double averageLatencyNanos;
+
+    public AdaptiveLimiter(LimiterProperties properties) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.targetLatencyNanos = properties.getTargetLatency().toNanos();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.limit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+    }
+
+    /**
+     * Espera a que haya lugar y devuelve el instante de salida de la petición.
+     */
+    public long acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                available.await();
+            }
+            inFlight++;
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registra la respuesta de una petición que salió en {@code startNanos}.
+     *
+     * @param failed core-api no respondió o respondió con un error de sobrecarga (5xx, 429)
+     */
+    public void release(long startNanos, boolean failed) {
+        long now = System.nanoTime();
+        long latency = now - startNanos;
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+            averageLatencyNanos = averageLatencyNanos == 0 ? latency : averageLatencyNanos * 0.9 + latency * 0.1;
+
+            if (failed || latency > targetLatencyNanos) {
+                if (startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAverageLatencyMillis() {
+        lock.lock();
+        try {
+            return TimeUnit.NANOSECONDS.toMillis((long) averageLatencyNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.nelumbo.migration.transport;
+
+import com.nelumbo.migration.dispatch.CallContext;
+import com.nelumbo.migration.dispatch.RetryBudget;
+import feign.RetryableException;
+import feign.Retryer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reintentos de las llamadas a core-api. Un 401 se repite una sola vez y sin espera, con el
+ * token que pone el interceptor de autenticación. Los errores transitorios (estados de
+ * {@link RetryProperties#getStatuses()} y fallas de conexión) se repiten con backoff
+ * exponencial con jitter hasta maxAttempts, descontando cada reintento del presupuesto del
+ * trabajo en curso. Feign clona el retryer en cada llamada.
+ */
+@Slf4j
+public class BackoffRetryer implements Retryer {
+
+    private final RetryProperties properties;
+    private int retries;
+    private boolean unauthorizedRetried;
+
+    public BackoffRetryer(RetryProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (e.status() == 401) {
+            if (unauthorizedRetried) {
+                throw e;
+            }
+            unauthorizedRetried = true;
+            return;
+        }
+
+        if (retries + 1 >= properties.getMaxAttempts()) {
+            throw e;
+        }
+        CallContext context = CallContext.current();
+        RetryBudget budget = context != null ? context.budget() : RetryBudget.UNLIMITED;
+        if (!budget.tryAcquire()) {
+            log.warn("Retry budget exhausted, not retrying " + e.method() + " " + e.request().url() + ": " + e.getMessage());
+            throw e;
+        }
+        retries++;
+
+        long delay = properties.backoffMillis(retries, e.retryAfter());
+        log.info("Retrying " + e.method() + " " + e.request().url() + " in " + delay + "ms (retry " + retries + "): " + e.getMessage());
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    @Override
+    public Retryer clone() {
+        return new BackoffRetryer(properties);
+    }
+}
@@ -0,0 +1,48 @@
+package com.nelumbo.migration.transport;
+
+import com.nelumbo.migration.auth.FeignAuthConfig;
+import com.nelumbo.migration.dispatch.CallContext;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.Retryer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reintentos de todos los clientes Feign. Las peticiones que crean registros llevan una clave
+ * de idempotencia derivada de la hoja y del contenido de la fila, así que un POST repetido
+ * (por un reintento o por volver a cargar la hoja) no crea duplicados en core-api.
+ * <p>
+ * El login queda fuera: puede correr dentro de una fila (al renovar el token) y no debe gastar
+ * una clave de la fila, y core-api no debe devolverle un token guardado.
+ */
+@Configuration
+public class FeignRetryConfig {
+
+    @Bean
+    public Retryer backoffRetryer(RetryProperties properties) {
+        return new BackoffRetryer(properties);
+    }
+
+    @Bean
+    public RequestInterceptor idempotencyKeyInterceptor(RetryProperties properties) {
+        return template -> {
+            String method = template.method();
+            if (!Request.HttpMethod.POST.name().equals(method) && !Request.HttpMethod.PATCH.name().equals(method)) {
+                return;
+            }
+            if (FeignAuthConfig.LOGIN_CLIENT.equals(template.feignTarget().name())) {
+                return;
+            }
+            // En un reintento la plantilla ya trae su clave y debe conservarla
+            if (template.headers().containsKey(properties.getIdempotencyHeader())) {
+                return;
+            }
+            CallContext context = CallContext.current();
+            String key = context != null ? context.nextIdempotencyKey() : null;
+            if (key != null) {
+                template.header(properties.getIdempotencyHeader(), key);
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.nelumbo.migration.transport;
+
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import feign.Capability;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ajustes de los clientes Feign que dependen del transporte elegido en
+ * {@code migration.http.transport}; el cliente en sí lo crea spring-cloud-openfeign según
+ * las banderas que pone {@link TransportEnvironmentPostProcessor}.
+ */
+@Configuration
+public class FeignTransportConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = TransportEnvironmentPostProcessor.TRANSPORT, havingValue = "http2")
+    public Capability gzipResponseCapability() {
+        return new GzipResponseCapability();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "migration.limiter.enabled", havingValue = "true", matchIfMissing = true)
+    public AdaptiveLimitCapability adaptiveLimitCapability(LimiterProperties properties, MigrationMetrics metrics) {
+        return new AdaptiveLimitCapability(properties, metrics);
+    }
+}
@@ -0,0 +1,40 @@
+package com.nelumbo.migration.transport;
+
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import feign.Util;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Descomprime las respuestas gzip. El cliente HTTP/2 de la JDK no lo hace; HttpClient 5 y
+ * HttpURLConnection sí, por eso solo se usa en el modo http2. Feign busca los métodos de una
+ * Capability por reflexión, así que la clase debe ser pública.
+ */
+public class GzipResponseCapability implements Capability {
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> decompress(client.execute(request, options));
+    }
+
+    static Response decompress(Response response) throws IOException {
+        Collection<String> encoding = response.headers().get(HttpHeaders.CONTENT_ENCODING);
+        if (response.body() == null || encoding == null
+                || encoding.stream().noneMatch(value -> value.trim().equalsIgnoreCase(Util.ENCODING_GZIP))) {
+            return response;
+        }
+        Map<String, Collection<String>> headers = new HashMap<>(response.headers());
+        headers.keySet().removeIf(name -> name.equalsIgnoreCase(HttpHeaders.CONTENT_ENCODING)
+                || name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH));
+        InputStream body = new GZIPInputStream(response.body().asInputStream());
+        return response.toBuilder().headers(headers).body(body, null).build();
+    }
+}
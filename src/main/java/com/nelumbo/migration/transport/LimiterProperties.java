@@ -0,0 +1,30 @@
+package com.nelumbo.migration.transport;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "migration.limiter")
+public class LimiterProperties {
+
+    private boolean enabled = true;
+
+    /** Peticiones en vuelo con las que empieza cada endpoint. */
+    private int initialLimit = 8;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 64;
+
+    /** Latencia de core-api por encima de la cual se reduce el límite. */
+    private Duration targetLatency = Duration.ofMillis(500);
+
+    /** Factor por el que se multiplica el límite al reducirlo. */
+    private double backoffRatio = 0.7;
+}
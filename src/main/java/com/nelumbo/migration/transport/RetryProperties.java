@@ -0,0 +1,47 @@
+package com.nelumbo.migration.transport;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "migration.retry")
+public class RetryProperties {
+
+    /** Intentos por llamada, contando el primero. */
+    private int maxAttempts = 4;
+
+    private Duration initialBackoff = Duration.ofMillis(200);
+
+    private Duration maxBackoff = Duration.ofSeconds(5);
+
+    /** Estados de core-api que se consideran transitorios. */
+    private Set<Integer> statuses = Set.of(502, 503, 504);
+
+    /** Encabezado con la clave de idempotencia de las peticiones que crean registros. */
+    private String idempotencyHeader = "Idempotency-Key";
+
+    public boolean isTransient(int status) {
+        return statuses.contains(status);
+    }
+
+    /**
+     * Espera antes del reintento {@code retry} (1, 2, ...): aleatoria entre cero y el backoff
+     * exponencial, sin pasar de maxBackoff. Si core-api mandó Retry-After se espera al menos eso.
+     */
+    public long backoffMillis(int retry, Long retryAfter) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(retry - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (retryAfter != null) {
+            delay = Math.max(delay, Math.min(maxBackoff.toMillis(), retryAfter - System.currentTimeMillis()));
+        }
+        return Math.max(0, delay);
+    }
+}
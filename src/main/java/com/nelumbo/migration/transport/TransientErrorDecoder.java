@@ -0,0 +1,44 @@
+package com.nelumbo.migration.transport;
+
+import feign.Response;
+import feign.RetryableException;
+import feign.codec.ErrorDecoder;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collection;
+
+/**
+ * Marca para reintento las respuestas de core-api con un estado transitorio (502, 503, ...);
+ * el resto se decodifica como siempre.
+ */
+public class TransientErrorDecoder implements ErrorDecoder {
+
+    private final RetryProperties properties;
+    private final ErrorDecoder delegate = new ErrorDecoder.Default();
+
+    public TransientErrorDecoder(RetryProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        if (!properties.isTransient(response.status())) {
+            return delegate.decode(methodKey, response);
+        }
+        return new RetryableException(response.status(), "core-api responded " + response.status() + " to " + methodKey,
+                response.request().httpMethod(), retryAfter(response), response.request());
+    }
+
+    private static Long retryAfter(Response response) {
+        Collection<String> values = response.headers().get(HttpHeaders.RETRY_AFTER);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        try {
+            return System.currentTimeMillis() + Long.parseLong(values.iterator().next().trim()) * 1000;
+        } catch (NumberFormatException e) {
+            // Retry-After con fecha HTTP: se usa solo el backoff propio
+            return null;
+        }
+    }
+}
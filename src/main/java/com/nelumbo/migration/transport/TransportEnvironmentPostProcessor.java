@@ -0,0 +1,32 @@
+package com.nelumbo.migration.transport;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Traduce {@code migration.http.transport} a las banderas de spring-cloud-openfeign que eligen
+ * el cliente HTTP. Se agregan con la menor prioridad, así que una bandera puesta a mano gana.
+ */
+public class TransportEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String TRANSPORT = "migration.http.transport";
+    private static final String HC5_ENABLED = "spring.cloud.openfeign.httpclient.hc5.enabled";
+    private static final String HTTP2_ENABLED = "spring.cloud.openfeign.http2client.enabled";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        TransportMode mode = TransportMode.valueOf(environment.getProperty(TRANSPORT, TransportMode.POOLED.name())
+                .trim().toUpperCase(Locale.ROOT));
+
+        Map<String, Object> flags = new HashMap<>();
+        flags.put(HC5_ENABLED, mode == TransportMode.POOLED);
+        flags.put(HTTP2_ENABLED, mode == TransportMode.HTTP2);
+        environment.getPropertySources().addLast(new MapPropertySource("migrationTransport", flags));
+    }
+}
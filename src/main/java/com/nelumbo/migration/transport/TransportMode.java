@@ -0,0 +1,13 @@
+package com.nelumbo.migration.transport;
+
+/**
+ * Cliente HTTP sobre el que corren los clientes Feign.
+ */
+public enum TransportMode {
+    /** HttpURLConnection de la JDK, sin pool configurable ni compresión. */
+    DEFAULT,
+    /** Apache HttpClient 5 con pool de conexiones por ruta y keep-alive. */
+    POOLED,
+    /** HttpClient de la JDK: HTTP/2 cuando core-api lo acepta, si no HTTP/1.1 con keep-alive. */
+    HTTP2
+}
@@ -0,0 +1,17 @@
+package com.nelumbo.migration.validation;
+
+import com.nelumbo.migration.excel.SheetRow;
+
+/**
+ * Validación de una fila sin escribir en core-api: lee los mismos valores y resuelve las mismas
+ * referencias que la carga de la fila, y lanza la misma excepción si la fila no sirve.
+ * Puede ejecutarse en cualquier hilo, como {@link com.nelumbo.migration.dispatch.RowTask}.
+ */
+@FunctionalInterface
+public interface RowCheck {
+
+    /**
+     * @return llamadas de escritura a core-api que hará la carga de la fila
+     */
+    int check(SheetRow row) throws Exception;
+}
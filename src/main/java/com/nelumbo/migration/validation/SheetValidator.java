@@ -0,0 +1,165 @@
+package com.nelumbo.migration.validation;
+
+import com.nelumbo.migration.dispatch.CallContext;
+import com.nelumbo.migration.dispatch.RowDispatcher;
+import com.nelumbo.migration.dispatch.RowProgress;
+import com.nelumbo.migration.excel.SheetRow;
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Valida las filas de una hoja en paralelo antes de escribir nada. Las filas se juntan en bloques
+ * de {@code chunk-size} a medida que se leen y cada bloque se parte en rangos de {@code threshold}
+ * filas que corren en los hilos virtuales de {@link RowDispatcher}: revisar una fila puede
+ * bloquear en core-api (gazetteer, entidades organizativas, catálogos) con la caché fría. Los
+ * resultados de los rangos se combinan en orden, así que el reporte sale ordenado por fila y la
+ * memoria depende del bloque y no de la hoja.
+ */
+@Slf4j
+@Component
+public class SheetValidator {
+
+    private final RowDispatcher rowDispatcher;
+    private final MigrationMetrics metrics;
+    private final int chunkSize;
+    private final int threshold;
+    private final int maxErrors;
+    private final Duration defaultLatency;
+
+    public SheetValidator(RowDispatcher rowDispatcher, MigrationMetrics metrics,
+                          @Value("${migration.validation.chunk-size:8192}") int chunkSize,
+                          @Value("${migration.validation.threshold:256}") int threshold,
+                          @Value("${migration.validation.max-errors:1000}") int maxErrors,
+                          @Value("${migration.validation.default-latency:150ms}") Duration defaultLatency) {
+        this.rowDispatcher = rowDispatcher;
+        this.metrics = metrics;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.threshold = Math.max(1, threshold);
+        this.maxErrors = maxErrors;
+        this.defaultLatency = defaultLatency;
+    }
+
+    /**
+     * @param endpoint prefijo del método Feign que escribe las filas, para estimar la latencia
+     */
+    public SheetValidation open(String sheetName, String endpoint, RowProgress progress, RowCheck check) {
+        return new SheetValidation(sheetName, endpoint, progress, check);
+    }
+
+    /**
+     * Validación de una hoja. El hilo que lee el archivo llama a {@link #submit} con cada fila
+     * de datos y a {@link #finish} al terminar.
+     */
+    public final class SheetValidation {
+
+        private final String sheetName;
+        private final String endpoint;
+        private final RowProgress progress;
+        private final RowCheck check;
+        private final CallContext context;
+        private final List<SheetRow> chunk = new ArrayList<>();
+        private final Map<Integer, String> errors = new HashMap<>();
+        private final List<ValidationReport.InvalidRow> invalid = new ArrayList<>();
+        private long validRows;
+        private long remoteCalls;
+
+        private SheetValidation(String sheetName, String endpoint, RowProgress progress, RowCheck check) {
+            this.sheetName = sheetName;
+            this.endpoint = endpoint;
+            this.progress = progress;
+            this.check = check;
+            // Las referencias que no están en memoria se consultan a core-api con el contexto del trabajo
+            this.context = CallContext.current();
+        }
+
+        public void submit(SheetRow row) {
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                this.flush();
+            }
+        }
+
+        public ValidationReport finish() {
+            this.flush();
+            Duration measured = metrics.meanLatency(endpoint);
+            // Las filas en vuelo que tendría la carga, con el techo del limitador si está activo
+            ValidationReport report = new ValidationReport(sheetName, validRows, invalid, errors, remoteCalls,
+                    measured != null ? measured : defaultLatency, measured != null, rowDispatcher.concurrencyFor(sheetName));
+            log.info("Hoja " + sheetName + " validada: " + report.getValidRows() + " filas válidas, " + report.getInvalidRows()
+                    + " con error, " + report.getRemoteCalls() + " llamadas a core-api, unos " + report.getEstimatedSeconds() + " s");
+            return report;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            if (progress.isCancelled()) {
+                throw new CancellationException("Validation of sheet " + sheetName + " cancelled");
+            }
+            List<CompletableFuture<Partial>> ranges = new ArrayList<>();
+            for (int from = 0; from < chunk.size(); from += threshold) {
+                int start = from;
+                int end = Math.min(chunk.size(), from + threshold);
+                ranges.add(rowDispatcher.supply(() -> this.checkRange(start, end)));
+            }
+            Partial partial = new Partial();
+            for (CompletableFuture<Partial> range : ranges) {
+                partial.append(range.join());
+            }
+            validRows += partial.validRows;
+            remoteCalls += partial.remoteCalls;
+            for (ValidationReport.InvalidRow row : partial.invalid) {
+                errors.put(row.row() - 1, row.error());
+                if (invalid.size() < maxErrors) {
+                    invalid.add(row);
+                }
+            }
+            chunk.clear();
+        }
+
+        private Partial checkRange(int from, int to) {
+            Partial partial = new Partial();
+            for (int i = from; i < to; i++) {
+                this.check(chunk.get(i), partial);
+            }
+            return partial;
+        }
+
+        private void check(SheetRow row, Partial partial) {
+            try {
+                int calls = context != null ? CallContext.call(context, () -> check.check(row)) : check.check(row);
+                partial.validRows++;
+                partial.remoteCalls += calls;
+            } catch (Exception e) {
+                // Sin mensaje es casi siempre una celda vacía que la carga usa sin revisar
+                String message = e instanceof NullPointerException || e.getMessage() == null ? "Missing required cell" : e.getMessage();
+                partial.invalid.add(new ValidationReport.InvalidRow(row.getRowNum() + 1, message));
+            }
+        }
+    }
+
+    private static final class Partial {
+
+        private long validRows;
+        private long remoteCalls;
+        private final List<ValidationReport.InvalidRow> invalid = new ArrayList<>();
+
+        Partial append(Partial next) {
+            validRows += next.validRows;
+            remoteCalls += next.remoteCalls;
+            invalid.addAll(next.invalid);
+            return this;
+        }
+    }
+}
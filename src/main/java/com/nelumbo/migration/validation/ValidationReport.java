@@ -0,0 +1,63 @@
+package com.nelumbo.migration.validation;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de validar una hoja: las filas que la carga rechazaría y cuánto costaría cargar el
+ * resto. El tiempo estimado es {@code remoteCalls × latency / concurrency}, con las filas en
+ * vuelo que usaría la carga (hasta {@code migration.limiter.max-limit} con el limitador activo);
+ * no cuenta los reintentos ni que el limitador empieza con menos, así que es un piso.
+ */
+@Getter
+public class ValidationReport {
+
+    private final String sheet;
+    private final long rows;
+    private final long validRows;
+    private final long invalidRows;
+    /** Las primeras filas inválidas, hasta {@code migration.validation.max-errors}. */
+    private final List<InvalidRow> invalid;
+    private final boolean truncated;
+    private final long remoteCalls;
+    private final long latencyMillis;
+    /** La latencia es la media medida en las cargas anteriores y no la configurada por defecto. */
+    private final boolean latencyMeasured;
+    private final int concurrency;
+    private final long estimatedSeconds;
+    @JsonIgnore
+    private final Map<Integer, String> errors;
+
+    ValidationReport(String sheet, long validRows, List<InvalidRow> invalid, Map<Integer, String> errors,
+                     long remoteCalls, Duration latency, boolean latencyMeasured, int concurrency) {
+        this.sheet = sheet;
+        this.rows = validRows + errors.size();
+        this.validRows = validRows;
+        this.invalidRows = errors.size();
+        this.invalid = invalid;
+        this.truncated = invalid.size() < errors.size();
+        this.errors = errors;
+        this.remoteCalls = remoteCalls;
+        this.latencyMillis = latency.toMillis();
+        this.latencyMeasured = latencyMeasured;
+        this.concurrency = concurrency;
+        this.estimatedSeconds = (long) Math.ceil(remoteCalls * (latency.toNanos() / 1e9) / concurrency);
+    }
+
+    /**
+     * Error de la fila (base 0), o null si es válida.
+     */
+    public String errorAt(int rowNum) {
+        return errors.get(rowNum);
+    }
+
+    /**
+     * @param row fila como la ve el usuario en el libro (base 1)
+     */
+    public record InvalidRow(int row, String error) {
+    }
+}
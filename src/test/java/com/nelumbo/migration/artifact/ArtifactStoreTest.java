@@ -0,0 +1,58 @@
+package com.nelumbo.migration.artifact;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sameNameGetsDifferentFiles() throws IOException {
+        ArtifactStore store = new ArtifactStore(dir, Duration.ofHours(1), DataSize.ofMegabytes(1));
+        File first = store.newFile("MODIFIED_tabs.xlsx");
+        File second = store.newFile("../../MODIFIED_tabs.xlsx");
+
+        assertNotEquals(first, second);
+        assertEquals("MODIFIED_tabs.xlsx", second.getName());
+        assertEquals(dir.toAbsolutePath().normalize(), second.toPath().getParent().getParent());
+
+        Files.writeString(first.toPath(), "x");
+        store.delete(first);
+        assertFalse(first.getParentFile().exists());
+    }
+
+    @Test
+    void evictsExpiredAndOldestOverSize() throws IOException {
+        ArtifactStore store = new ArtifactStore(dir, Duration.ofHours(1), DataSize.ofBytes(15));
+        File expired = this.write(store, "expired.xlsx", 1, Instant.now().minus(Duration.ofHours(2)));
+        File oldest = this.write(store, "oldest.xlsx", 10, Instant.now().minusSeconds(60));
+        File newest = this.write(store, "newest.xlsx", 10, Instant.now());
+
+        store.evict();
+
+        assertFalse(expired.exists());
+        assertFalse(oldest.exists());
+        assertTrue(newest.exists());
+    }
+
+    private File write(ArtifactStore store, String name, int bytes, Instant modified) throws IOException {
+        File file = store.newFile(name);
+        Files.write(file.toPath(), new byte[bytes]);
+        Files.setLastModifiedTime(file.toPath(), FileTime.from(modified));
+        Files.setLastModifiedTime(file.toPath().getParent(), FileTime.from(modified));
+        return file;
+    }
+}
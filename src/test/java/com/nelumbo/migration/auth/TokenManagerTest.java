@@ -0,0 +1,143 @@
+package com.nelumbo.migration.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nelumbo.migration.feign.LoginFeign;
+import com.nelumbo.migration.feign.dto.requests.LoginRequest;
+import com.nelumbo.migration.feign.dto.responses.DefaultResponse;
+import com.nelumbo.migration.feign.dto.responses.LoginResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenManagerTest {
+
+    /**
+     * Login de core-api que devuelve el token que arma {@code tokens} con el número de login.
+     */
+    static class StubLogin implements LoginFeign {
+        final AtomicInteger logins = new AtomicInteger();
+        private final IntFunction<String> tokens;
+        private final CountDownLatch release;
+
+        StubLogin(IntFunction<String> tokens, CountDownLatch release) {
+            this.tokens = tokens;
+            this.release = release;
+        }
+
+        @Override
+        public DefaultResponse<LoginResponse> login(LoginRequest loginRequest) {
+            int login = logins.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LoginResponse response = new LoginResponse();
+            response.setToken(tokens.apply(login));
+            return new DefaultResponse<>(response);
+        }
+    }
+
+    private static String jwt(Instant expiresAt) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String claims = "{\"sub\":\"migration\",\"exp\":" + expiresAt.getEpochSecond() + "}";
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".firma";
+    }
+
+    private static TokenManager manager(LoginFeign login, Duration defaultTtl) {
+        return new TokenManager(login, new ObjectMapper(), "migration@example.com", "secret", defaultTtl, Duration.ofMinutes(1));
+    }
+
+    private static StubLogin login(IntFunction<String> tokens) {
+        return new StubLogin(tokens, new CountDownLatch(0));
+    }
+
+    @Test
+    void concurrentCallersShareASingleLogin() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StubLogin login = new StubLogin(n -> "token-" + n, release);
+        TokenManager manager = manager(login, Duration.ofMinutes(30));
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<String>> callers = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                callers.add(executor.submit(manager::getAuthorization));
+            }
+            // Todos quedan esperando el login en curso
+            while (login.logins.get() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<String> caller : callers) {
+                assertEquals("Bearer token-1", caller.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, login.logins.get());
+    }
+
+    @Test
+    void invalidateIgnoresATokenThatWasAlreadyReplaced() {
+        StubLogin login = login(n -> "token-" + n);
+        TokenManager manager = manager(login, Duration.ofMinutes(30));
+
+        String first = manager.getAuthorization();
+        manager.invalidate(first);
+        String second = manager.getAuthorization();
+        assertEquals("Bearer token-2", second);
+
+        // Un 401 tardío de una petición hecha con el primer token no fuerza otro login
+        manager.invalidate(first);
+        assertEquals(second, manager.getAuthorization());
+        assertEquals(2, login.logins.get());
+    }
+
+    @Test
+    void readsTheExpirationFromTheJwt() {
+        // Vence dentro del margen de renovación (1 minuto): cada uso hace login
+        StubLogin expiring = login(n -> jwt(Instant.now().plusSeconds(30)));
+        TokenManager manager = manager(expiring, Duration.ofHours(1));
+        manager.getAuthorization();
+        manager.getAuthorization();
+        assertEquals(2, expiring.logins.get());
+
+        StubLogin valid = login(n -> jwt(Instant.now().plus(Duration.ofHours(1))));
+        manager = manager(valid, Duration.ZERO);
+        manager.getAuthorization();
+        manager.getAuthorization();
+        assertEquals(1, valid.logins.get());
+    }
+
+    @Test
+    void tokensWithoutExpirationUseTheDefaultTtl() {
+        StubLogin opaque = login(n -> "opaque-" + n);
+        TokenManager manager = manager(opaque, Duration.ofHours(1));
+        manager.getAuthorization();
+        manager.getAuthorization();
+        assertEquals(1, opaque.logins.get());
+
+        // Un ttl por debajo del margen de renovación obliga a renovar en cada uso
+        StubLogin shortLived = login(n -> "opaque-" + n);
+        manager = manager(shortLived, Duration.ofSeconds(30));
+        manager.getAuthorization();
+        assertEquals("Bearer opaque-2", manager.getAuthorization());
+        assertEquals(2, shortLived.logins.get());
+    }
+}
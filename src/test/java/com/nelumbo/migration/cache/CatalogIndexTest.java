@@ -0,0 +1,111 @@
+package com.nelumbo.migration.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogIndexTest {
+
+    record Item(String code, String denomination, Long id) {
+    }
+
+    @Test
+    void prefetchedCatalogAnswersWithoutSearching() {
+        List<String> searches = new ArrayList<>();
+        List<Item> catalog = List.of(new Item("A1", "Bono", 10L), new Item("B2", "Vales", 20L));
+        CatalogIndex<Item> index = new CatalogIndex<>("items", term -> {
+            searches.add(term);
+            return catalog;
+        }, Item::code, Item::denomination, Item::id, 100);
+
+        assertTrue(index.isComplete());
+        assertEquals(CatalogIndex.Claim.EXISTING, index.claim("X9", " bono "));
+        assertEquals(10L, index.idOf("BONO"));
+        assertEquals(CatalogIndex.Claim.CODE_TAKEN, index.claim("b2", "Otro"));
+        assertEquals(CatalogIndex.Claim.CLAIMED, index.claim("C3", "Nuevo"));
+        index.created("Nuevo", null);
+        // La misma fila repetida en la hoja ya no se vuelve a crear
+        assertEquals(CatalogIndex.Claim.EXISTING, index.claim("C3", "Nuevo"));
+        assertEquals(CatalogIndex.Claim.CODE_TAKEN, index.claim("C3", "Distinto"));
+        assertEquals(List.of(""), searches);
+    }
+
+    @Test
+    void releasedAndCreatedClaims() {
+        CatalogIndex<Item> index = new CatalogIndex<>("items", term -> List.of(new Item("A1", "Bono", 10L)),
+                Item::code, Item::denomination, Item::id, 0);
+
+        assertEquals(CatalogIndex.Claim.CLAIMED, index.claim("C3", "Nuevo"));
+        index.release("C3", "Nuevo");
+        assertEquals(CatalogIndex.Claim.CLAIMED, index.claim("C3", "Nuevo"));
+        assertNull(index.idOf("Nuevo"));
+        index.created("Nuevo", 30L);
+        assertEquals(30L, index.idOf("nuevo"));
+    }
+
+    @Test
+    void truncatedOrFailedPrefetchFallsBackToSearch() {
+        List<String> searches = new ArrayList<>();
+        CatalogIndex<Item> index = new CatalogIndex<>("items", term -> {
+            searches.add(term);
+            if (term.isEmpty()) {
+                throw new IllegalStateException("search can not be empty");
+            }
+            return term.equals("B2") ? List.of(new Item("B2", "Vales", 20L)) : List.of();
+        }, Item::code, Item::denomination, Item::id, 0);
+
+        assertFalse(index.isComplete());
+        assertEquals(CatalogIndex.Claim.CODE_TAKEN, index.claim("B2", "Otro"));
+        assertEquals(CatalogIndex.Claim.CODE_TAKEN, index.claim("B2", "Otro"));
+        assertEquals(List.of("", "Otro", "B2"), searches);
+
+        CatalogIndex<Item> truncated = new CatalogIndex<>("items", term -> List.of(new Item("A1", "Bono", 10L)),
+                Item::code, Item::denomination, Item::id, 1);
+        assertFalse(truncated.isComplete());
+    }
+
+    @Test
+    void withoutAKnownLimitThePrefetchIsOnlyAHint() {
+        List<String> searches = new ArrayList<>();
+        // core-api corta la búsqueda vacía en un registro y no dice cuántos hay
+        CatalogIndex<Item> index = new CatalogIndex<>("items", term -> {
+            searches.add(term);
+            return term.isEmpty() || term.equalsIgnoreCase("Bono") ? List.of(new Item("A1", "Bono", 10L))
+                    : term.equalsIgnoreCase("Vales") ? List.of(new Item("B2", "Vales", 20L)) : List.of();
+        }, Item::code, Item::denomination, Item::id, 0);
+
+        assertFalse(index.isComplete());
+        // Lo precargado responde sin consultar; lo demás se busca antes de darlo por nuevo
+        assertEquals(CatalogIndex.Claim.EXISTING, index.claim("A1", "Bono"));
+        assertEquals(CatalogIndex.Claim.EXISTING, index.claim("B2", "Vales"));
+        assertEquals(20L, index.idOf("vales"));
+        assertEquals(List.of("", "Vales"), searches);
+    }
+
+    @Test
+    void aRepeatedDenominationWaitsForTheRowThatClaimedIt() throws Exception {
+        CatalogIndex<Item> index = new CatalogIndex<>("items", term -> List.of(new Item("A1", "Bono", 10L)),
+                Item::code, Item::denomination, Item::id, 100);
+
+        // La primera fila falla: la repetida no la da por existente y la intenta ella
+        assertEquals(CatalogIndex.Claim.CLAIMED, index.claim("C3", "Nuevo"));
+        CompletableFuture<CatalogIndex.Claim> repeated = CompletableFuture.supplyAsync(() -> index.claim("C3", "Nuevo"));
+        Thread.sleep(50);
+        assertFalse(repeated.isDone());
+        index.release("C3", "Nuevo");
+        assertEquals(CatalogIndex.Claim.CLAIMED, repeated.get(5, TimeUnit.SECONDS));
+
+        // Esta vez se crea: la repetida queda como existente
+        repeated = CompletableFuture.supplyAsync(() -> index.claim("C3", "Nuevo"));
+        Thread.sleep(50);
+        assertFalse(repeated.isDone());
+        index.created("Nuevo", 30L);
+        assertEquals(CatalogIndex.Claim.EXISTING, repeated.get(5, TimeUnit.SECONDS));
+        assertEquals(30L, index.idOf("nuevo"));
+    }
+}
@@ -0,0 +1,165 @@
+package com.nelumbo.migration.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nelumbo.migration.feign.CountryFeign;
+import com.nelumbo.migration.feign.dto.responses.CountryResponse;
+import com.nelumbo.migration.feign.dto.responses.DefaultResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGazetteerTest {
+
+    /**
+     * core-api con un país, un estado y las ciudades de {@code cities}; cuenta las llamadas.
+     */
+    static class StubCountries implements CountryFeign {
+        final List<String> cities = new ArrayList<>(List.of("Monterrey", "San Pedro Garza García"));
+        final AtomicInteger calls = new AtomicInteger();
+        volatile boolean down;
+
+        private void call() {
+            calls.incrementAndGet();
+            if (down) {
+                throw new IllegalStateException("core-api unavailable");
+            }
+        }
+
+        @Override
+        public DefaultResponse<List<CountryResponse>> findAll() {
+            this.call();
+            return new DefaultResponse<>(List.of(place(1L, "México")));
+        }
+
+        @Override
+        public DefaultResponse<List<CountryResponse>> findAllStatesByCountryId(Long countryId) {
+            this.call();
+            return new DefaultResponse<>(List.of(place(10L, "Nuevo León")));
+        }
+
+        @Override
+        public DefaultResponse<List<CountryResponse>> findAllCitesByStateIdAndCountryId(Long countryId, Long stateId) {
+            this.call();
+            List<CountryResponse> found = new ArrayList<>();
+            for (int i = 0; i < cities.size(); i++) {
+                found.add(place(100L + i, cities.get(i)));
+            }
+            return new DefaultResponse<>(found);
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    private final List<GeoGazetteer> opened = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        opened.forEach(GeoGazetteer::destroy);
+    }
+
+    private static CountryResponse place(Long id, String name) {
+        CountryResponse place = new CountryResponse();
+        place.setId(id);
+        place.setName(name);
+        return place;
+    }
+
+    private GeoGazetteer gazetteer(CountryFeign feign, Duration maxAge, Duration missRefresh) {
+        GeoGazetteer gazetteer = new GeoGazetteer(feign, new ObjectMapper(), dir.resolve("gazetteer.json"), maxAge,
+                missRefresh, Duration.ofHours(1));
+        gazetteer.loadSnapshot();
+        opened.add(gazetteer);
+        return gazetteer;
+    }
+
+    @Test
+    void resolvesNormalizedNamesAndLoadsEachLevelOnce() {
+        StubCountries feign = new StubCountries();
+        GeoGazetteer gazetteer = gazetteer(feign, Duration.ofDays(7), Duration.ofHours(1));
+
+        GeoGazetteer.GeoLocation location = gazetteer.resolve("mexico", "NUEVO LEON", "san pedro  garza garcia");
+        assertEquals(1L, location.getCountry().getId());
+        assertEquals(10L, location.getState().getId());
+        assertEquals(101L, location.getCity().getId());
+        assertEquals(100L, gazetteer.resolve("México", "Nuevo León", "Monterrey").getCity().getId());
+        assertEquals(3, feign.calls.get());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> gazetteer.resolve("Perú", "Lima", "Lima"));
+        assertEquals("country Perú not found", e.getMessage());
+        e = assertThrows(RuntimeException.class, () -> gazetteer.resolve("México", "Jalisco", "Guadalajara"));
+        assertEquals("state Jalisco not found", e.getMessage());
+        // Sin pasar miss-refresh los nombres que faltan no vuelven a consultar a core-api
+        assertEquals(3, feign.calls.get());
+    }
+
+    @Test
+    void aMissRefetchesTheLevelOnceAfterMissRefresh() {
+        StubCountries feign = new StubCountries();
+        GeoGazetteer gazetteer = gazetteer(feign, Duration.ofDays(7), Duration.ZERO);
+        gazetteer.resolve("México", "Nuevo León", "Monterrey");
+        int calls = feign.calls.get();
+
+        // Una ciudad que se agregó en core-api después de cargar el nivel
+        feign.cities.add("Apodaca");
+        assertEquals(102L, gazetteer.resolve("México", "Nuevo León", "Apodaca").getCity().getId());
+        assertEquals(calls + 1, feign.calls.get());
+        // Las ciudades ya conocidas siguen sin consultar
+        gazetteer.resolve("México", "Nuevo León", "Monterrey");
+        assertEquals(calls + 1, feign.calls.get());
+    }
+
+    @Test
+    void theSnapshotKeepsWhenEachLevelWasFetched() throws Exception {
+        StubCountries feign = new StubCountries();
+        GeoGazetteer first = gazetteer(feign, Duration.ofDays(7), Duration.ofHours(1));
+        first.resolve("México", "Nuevo León", "Monterrey");
+        first.flushSnapshot();
+        assertTrue(Files.exists(dir.resolve("gazetteer.json")));
+
+        // Vigente: un reinicio resuelve desde el snapshot sin llamar a core-api
+        StubCountries warm = new StubCountries();
+        gazetteer(warm, Duration.ofDays(7), Duration.ofHours(1)).resolve("Mexico", "Nuevo Leon", "Monterrey");
+        assertEquals(0, warm.calls.get());
+
+        // Vencido: cada nivel se vuelve a pedir al usarlo, aunque el archivo sea reciente
+        StubCountries stale = new StubCountries();
+        stale.cities.add("Apodaca");
+        GeoGazetteer expired = gazetteer(stale, Duration.ZERO, Duration.ofHours(1));
+        assertEquals(102L, expired.resolve("México", "Nuevo León", "Apodaca").getCity().getId());
+        assertEquals(3, stale.calls.get());
+    }
+
+    @Test
+    void aFailedRefreshIsRetriedAfterMissRefreshAndNotAfterMaxAge() throws Exception {
+        StubCountries feign = new StubCountries();
+        GeoGazetteer gazetteer = gazetteer(feign, Duration.ofMillis(300), Duration.ofMillis(100));
+        gazetteer.resolve("México", "Nuevo León", "Monterrey");
+        assertEquals(3, feign.calls.get());
+
+        // Vence con core-api caído: se intenta una vez por nivel y se sigue con lo que había
+        Thread.sleep(350);
+        feign.down = true;
+        assertEquals(100L, gazetteer.resolve("México", "Nuevo León", "Monterrey").getCity().getId());
+        assertEquals(6, feign.calls.get());
+        gazetteer.resolve("México", "Nuevo León", "Monterrey");
+        assertEquals(6, feign.calls.get());
+
+        // Sigue vencido: pasado miss-refresh se reintenta, sin esperar otro max-age
+        Thread.sleep(150);
+        feign.down = false;
+        gazetteer.resolve("México", "Nuevo León", "Monterrey");
+        assertEquals(9, feign.calls.get());
+        gazetteer.resolve("México", "Nuevo León", "Monterrey");
+        assertEquals(9, feign.calls.get());
+    }
+}
@@ -0,0 +1,17 @@
+package com.nelumbo.migration.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NamesTest {
+
+    @Test
+    void ignoresAccentsCaseAndRepeatedSpaces() {
+        assertEquals("nuevo leon", Names.normalize("Nuevo León"));
+        assertEquals("nuevo leon", Names.normalize("  NUEVO \t LEON "));
+        assertEquals("mexico", Names.normalize("México"));
+        assertEquals("san jose del cabo", Names.normalize("San José del Cabo"));
+        assertEquals("", Names.normalize(null));
+    }
+}
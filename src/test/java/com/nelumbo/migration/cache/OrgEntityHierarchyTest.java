@@ -0,0 +1,146 @@
+package com.nelumbo.migration.cache;
+
+import com.nelumbo.migration.feign.OrgEntityFeign;
+import com.nelumbo.migration.feign.dto.Page;
+import com.nelumbo.migration.feign.dto.responses.DefaultResponse;
+import com.nelumbo.migration.feign.dto.responses.OrgEntityResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgEntityHierarchyTest {
+
+    private static final long DEPARTMENT = 1L;
+    private static final long CITY = 2L;
+
+    enum Paging { LAST, TOTAL_PAGES, NONE }
+
+    /**
+     * core-api con instancias fijas por (tipo de entidad, padre), paginadas según {@code paging};
+     * cuenta las páginas pedidas.
+     */
+    static class StubOrgEntities implements OrgEntityFeign {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final List<String> requested = new ArrayList<>();
+        private final Map<String, List<String>> instances = new HashMap<>();
+        private final Paging paging;
+
+        StubOrgEntities(Paging paging) {
+            this.paging = paging;
+        }
+
+        StubOrgEntities with(long entityType, long parentId, String... names) {
+            instances.put(entityType + "/" + parentId, List.of(names));
+            return this;
+        }
+
+        @Override
+        public DefaultResponse<Page<OrgEntityResponse>> findAllInstancesParentOrganizationEntityDetail(
+                Long orgEntityId, Long orgEntDetParentId, Integer page, Integer size) {
+            calls.incrementAndGet();
+            requested.add(orgEntityId + "/" + orgEntDetParentId + "#" + page);
+            List<String> names = instances.getOrDefault(orgEntityId + "/" + orgEntDetParentId, List.of());
+            int totalPages = Math.max(1, (names.size() + size - 1) / size);
+            List<OrgEntityResponse> content = new ArrayList<>();
+            for (int i = page * size; i < Math.min(names.size(), (page + 1) * size); i++) {
+                OrgEntityResponse entity = new OrgEntityResponse();
+                entity.setId(orgEntityId * 1000 + i);
+                entity.setName(names.get(i));
+                content.add(entity);
+            }
+            Page<OrgEntityResponse> response = new Page<>();
+            response.setContent(content);
+            response.setNumber(page);
+            switch (paging) {
+                case LAST -> response.setLast(page >= totalPages - 1);
+                case TOTAL_PAGES -> response.setTotalPages(totalPages);
+                case NONE -> { }
+            }
+            return new DefaultResponse<>(response);
+        }
+    }
+
+    @Test
+    void stopsPagingOnceTheNameIsFound() {
+        StubOrgEntities feign = new StubOrgEntities(Paging.LAST)
+                .with(DEPARTMENT, 0, "Antioquia", "Bolívar", "Cundinamarca", "Santander", "Valle del Cauca");
+        OrgEntityHierarchy hierarchy = new OrgEntityHierarchy(feign, 2);
+
+        assertEquals(DEPARTMENT * 1000 + 2, hierarchy.resolve(DEPARTMENT, 0, " cundinamarca ", "Department"));
+        assertEquals(2, feign.calls.get());
+        // Lo ya leído no se vuelve a pedir
+        assertEquals(DEPARTMENT * 1000 + 1, hierarchy.resolve(DEPARTMENT, 0, "BOLIVAR", "Department"));
+        assertEquals(2, feign.calls.get());
+    }
+
+    @Test
+    void theLastFlagEndsTheLevel() {
+        StubOrgEntities feign = new StubOrgEntities(Paging.LAST).with(DEPARTMENT, 0, "Antioquia", "Bolívar", "Cundinamarca");
+        OrgEntityHierarchy hierarchy = new OrgEntityHierarchy(feign, 2);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> hierarchy.resolve(DEPARTMENT, 0, "Meta", "Department"));
+        assertEquals("Department Meta not found", e.getMessage());
+        assertEquals(2, feign.calls.get());
+        // Un nivel completo no se vuelve a recorrer en cada fila
+        assertThrows(RuntimeException.class, () -> hierarchy.resolve(DEPARTMENT, 0, "Meta", "Department"));
+        assertEquals(2, feign.calls.get());
+    }
+
+    @Test
+    void totalPagesEndsTheLevelWithoutTheLastFlag() {
+        StubOrgEntities feign = new StubOrgEntities(Paging.TOTAL_PAGES).with(DEPARTMENT, 0, "Antioquia", "Bolívar", "Cundinamarca");
+        OrgEntityHierarchy hierarchy = new OrgEntityHierarchy(feign, 2);
+
+        assertThrows(RuntimeException.class, () -> hierarchy.resolve(DEPARTMENT, 0, "Meta", "Department"));
+        assertEquals(List.of("1/0#0", "1/0#1"), feign.requested);
+    }
+
+    @Test
+    void withoutPagingMetadataTheFirstPageIsTheWholeLevel() {
+        StubOrgEntities feign = new StubOrgEntities(Paging.NONE).with(DEPARTMENT, 0, "Antioquia", "Bolívar", "Cundinamarca");
+        OrgEntityHierarchy hierarchy = new OrgEntityHierarchy(feign, 2);
+
+        assertThrows(RuntimeException.class, () -> hierarchy.resolve(DEPARTMENT, 0, "Cundinamarca", "Department"));
+        assertEquals(1, feign.calls.get());
+    }
+
+    @Test
+    void anEmptyPageEndsTheLevel() {
+        StubOrgEntities feign = new StubOrgEntities(Paging.LAST);
+        OrgEntityHierarchy hierarchy = new OrgEntityHierarchy(feign, 2);
+
+        assertThrows(RuntimeException.class, () -> hierarchy.resolve(CITY, 7, "Medellín", "City"));
+        assertThrows(RuntimeException.class, () -> hierarchy.resolve(CITY, 7, "Envigado", "City"));
+        assertEquals(1, feign.calls.get());
+    }
+
+    @Test
+    void departmentsAreLoadedOncePerUpload() {
+        StubOrgEntities feign = new StubOrgEntities(Paging.LAST)
+                .with(DEPARTMENT, 0, "Antioquia", "Cundinamarca")
+                .with(CITY, DEPARTMENT * 1000, "Medellín", "Envigado")
+                .with(CITY, DEPARTMENT * 1000 + 1, "Bogotá");
+        OrgEntityHierarchy hierarchy = new OrgEntityHierarchy(feign, 10);
+
+        // Filas de una carga que repiten departamento con ciudades distintas
+        String[][] rows = {{"Antioquia", "Medellín"}, {"Cundinamarca", "Bogotá"}, {"antioquia", "Envigado"},
+                {"ANTIOQUIA", "Medellin"}, {"Cundinamarca", "bogota"}};
+        for (String[] row : rows) {
+            Long department = hierarchy.resolve(DEPARTMENT, 0, row[0], "Department");
+            assertNotNull(hierarchy.resolve(CITY, department, row[1], "City"));
+        }
+
+        assertEquals(List.of("1/0#0", "2/1000#0", "2/1001#0"), feign.requested);
+
+        // Otra carga arma su propia jerarquía y vuelve a leer core-api
+        new OrgEntityHierarchy(feign, 10).resolve(DEPARTMENT, 0, "Antioquia", "Department");
+        assertEquals(4, feign.calls.get());
+    }
+}
@@ -0,0 +1,51 @@
+package com.nelumbo.migration.cache;
+
+import com.nelumbo.migration.feign.dto.responses.DurationsResponse;
+import com.nelumbo.migration.feign.dto.responses.WorkPeriodMaxDailyDurationsResponse;
+import com.nelumbo.migration.feign.dto.responses.WorkPeriodMaxDurationsResponse;
+import com.nelumbo.migration.feign.dto.responses.WorkPeriodTypeResponse;
+import com.nelumbo.migration.feign.dto.responses.WorkTurnTypesResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkPeriodCatalogueTest {
+
+    @Test
+    void snapshotResolvesEveryCatalogueByValue() {
+        WorkPeriodTypeResponse fixed = new WorkPeriodTypeResponse();
+        fixed.setId(1L);
+        fixed.setName("Fixed Scheduled/Regular shift");
+        WorkPeriodMaxDurationsResponse weekly = new WorkPeriodMaxDurationsResponse();
+        weekly.setId(2L);
+        weekly.setKeyword("WEEKLY_48");
+        WorkPeriodMaxDailyDurationsResponse eight = new WorkPeriodMaxDailyDurationsResponse();
+        eight.setId(3L);
+        eight.setDuration(8);
+        DurationsResponse ninety = new DurationsResponse();
+        ninety.setId(4L);
+        ninety.setAmount(90);
+        DurationsResponse huge = new DurationsResponse();
+        huge.setId(5L);
+        huge.setAmount(100_000);
+        WorkTurnTypesResponse rest = new WorkTurnTypesResponse();
+        rest.setId(6L);
+        rest.setName("Descanso");
+
+        WorkPeriodCatalogue.Snapshot snapshot = new WorkPeriodCatalogue.Snapshot(List.of(fixed), List.of(weekly),
+                List.of(eight), List.of(ninety, huge), List.of(rest), Instant.now().plusSeconds(60));
+
+        assertEquals(1L, snapshot.workPeriodTypeId("fixed scheduled/regular shift"));
+        assertEquals(2L, snapshot.maxDurationId("weekly_48"));
+        assertEquals(3L, snapshot.maxDailyDurationId(8));
+        assertEquals(4L, snapshot.durationId(90));
+        assertEquals(5L, snapshot.durationId(100_000));
+        assertEquals(6L, snapshot.workTurnTypeId("DESCANSO"));
+        assertThrows(RuntimeException.class, () -> snapshot.maxDailyDurationId(12));
+        assertThrows(RuntimeException.class, () -> snapshot.durationId(-1));
+        assertThrows(RuntimeException.class, () -> snapshot.workTurnTypeId("Guardia"));
+    }
+}
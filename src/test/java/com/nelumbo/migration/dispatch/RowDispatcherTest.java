@@ -0,0 +1,61 @@
+package com.nelumbo.migration.dispatch;
+
+import com.nelumbo.migration.excel.SheetCell;
+import com.nelumbo.migration.excel.SheetRow;
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import com.nelumbo.migration.transport.AdaptiveLimiter;
+import com.nelumbo.migration.transport.LimiterProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowDispatcherTest {
+
+    private static LimiterProperties limiter(boolean enabled) {
+        LimiterProperties properties = new LimiterProperties();
+        properties.setEnabled(enabled);
+        properties.setInitialLimit(4);
+        properties.setMaxLimit(24);
+        properties.setTargetLatency(Duration.ofSeconds(10));
+        return properties;
+    }
+
+    @Test
+    void theLimiterRaisesTheRowCeilingButNotTheSequentialMode() {
+        DispatchProperties properties = new DispatchProperties();
+        properties.setSheets(Map.of("perfiles", 32));
+
+        assertEquals(24, new RowDispatcher(properties, limiter(true), MigrationMetrics.NONE).concurrencyFor("sucursales"));
+        assertEquals(32, new RowDispatcher(properties, limiter(true), MigrationMetrics.NONE).concurrencyFor("perfiles"));
+        assertEquals(8, new RowDispatcher(properties, limiter(false), MigrationMetrics.NONE).concurrencyFor("sucursales"));
+
+        properties.setMode(DispatchProperties.Mode.SEQUENTIAL);
+        assertEquals(1, new RowDispatcher(properties, limiter(true), MigrationMetrics.NONE).concurrencyFor("sucursales"));
+    }
+
+    @Test
+    void fastRowsLetTheLimiterGrowPastTheDispatchConcurrency() throws Exception {
+        LimiterProperties limiterProperties = limiter(true);
+        AdaptiveLimiter endpoint = new AdaptiveLimiter(limiterProperties);
+        RowDispatcher dispatcher = new RowDispatcher(new DispatchProperties(), limiterProperties, MigrationMetrics.NONE);
+
+        try (SheetDispatch dispatch = dispatcher.open("sucursales", RowProgress.NONE, outcome -> { })) {
+            for (int i = 1; i <= 2000; i++) {
+                dispatch.submit(new SheetRow(i, new SheetCell[]{SheetCell.ofString(0, "fila " + i)}), row -> {
+                    // Una llamada a core-api que responde rápido
+                    long start = endpoint.acquire();
+                    Thread.sleep(1);
+                    endpoint.release(start, false);
+                    return RowOutcome.created(0, null);
+                });
+            }
+        } finally {
+            dispatcher.destroy();
+        }
+
+        assertEquals(24, endpoint.getLimit());
+    }
+}
@@ -0,0 +1,164 @@
+package com.nelumbo.migration.dispatch;
+
+import com.nelumbo.migration.excel.SheetCell;
+import com.nelumbo.migration.excel.SheetRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SheetDispatchTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static SheetRow row(int rowNum) {
+        return new SheetRow(rowNum, new SheetCell[]{SheetCell.ofString(0, "fila " + rowNum)});
+    }
+
+    private SheetDispatch open(RowProgress progress, List<RowOutcome> sink, int limit) {
+        Thread owner = Thread.currentThread();
+        return new SheetDispatch("hoja", progress, outcome -> {
+            // El sink modifica el workbook: solo puede correr en el hilo que envía las filas
+            assertSame(owner, Thread.currentThread());
+            sink.add(outcome);
+        }, (outcome, nanos) -> {
+        }, executor, limit);
+    }
+
+    @Test
+    void boundsRowsInFlightAndDrainsEveryOutcomeOnTheCallingThread() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<RowOutcome> outcomes = new ArrayList<>();
+
+        try (SheetDispatch dispatch = open(RowProgress.NONE, outcomes, 3)) {
+            for (int i = 1; i <= 40; i++) {
+                int rowNum = i;
+                dispatch.submit(row(i), row -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(2);
+                    inFlight.decrementAndGet();
+                    if (rowNum % 10 == 0) {
+                        throw new IllegalStateException("row " + rowNum + " rejected");
+                    }
+                    return RowOutcome.created(0, (long) rowNum);
+                });
+            }
+        }
+
+        assertTrue(maxInFlight.get() <= 3, "max in flight " + maxInFlight.get());
+        assertEquals(40, outcomes.size());
+        assertEquals(4, outcomes.stream().filter(outcome -> !outcome.isSuccess()).count());
+        RowOutcome failed = outcomes.stream().filter(outcome -> outcome.getRowNum() == 20).findFirst().orElseThrow();
+        assertEquals("row 20 rejected", failed.getMessage());
+    }
+
+    @Test
+    void cancellationStopsNewRowsAndWaitsForTheOnesInFlight() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicInteger processed = new AtomicInteger();
+        List<RowOutcome> outcomes = new ArrayList<>();
+        RowProgress progress = new RowProgress() {
+            @Override
+            public void record(RowOutcome outcome) {
+                if (processed.incrementAndGet() == 5) {
+                    cancelled.set(true);
+                }
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled.get();
+            }
+        };
+
+        SheetDispatch dispatch = open(progress, outcomes, 2);
+        int submitted = 0;
+        try {
+            for (int i = 1; i <= 100; i++) {
+                dispatch.submit(row(i), row -> RowOutcome.created(0, null));
+                submitted++;
+            }
+            fail("submit should stop once the job is cancelled");
+        } catch (CancellationException e) {
+            assertTrue(e.getMessage().startsWith("Sheet hoja cancelled before row"));
+        } finally {
+            dispatch.close();
+        }
+
+        assertTrue(submitted < 100);
+        assertEquals(submitted, processed.get());
+        assertEquals(submitted, outcomes.size());
+    }
+
+    @Test
+    void confirmedRowsAreNotProcessedAgain() {
+        List<RowOutcome> outcomes = new ArrayList<>();
+        AtomicInteger processed = new AtomicInteger();
+        List<Integer> intents = new ArrayList<>();
+        RowJournal journal = new RowJournal() {
+            @Override
+            public RowOutcome confirmed(SheetRow row) {
+                return row.getRowNum() % 2 == 0 ? RowOutcome.existing(0, 7L) : null;
+            }
+
+            @Override
+            public boolean inFlight(SheetRow row) {
+                return false;
+            }
+
+            @Override
+            public synchronized void intent(SheetRow row) {
+                intents.add(row.getRowNum());
+            }
+
+            @Override
+            public void record(SheetRow row, RowOutcome outcome) {
+            }
+        };
+        RowProgress progress = new RowProgress() {
+            @Override
+            public void record(RowOutcome outcome) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public RowJournal journal(String sheetName) {
+                return journal;
+            }
+        };
+
+        try (SheetDispatch dispatch = open(progress, outcomes, 4)) {
+            for (int i = 1; i <= 10; i++) {
+                dispatch.submit(row(i), row -> {
+                    processed.incrementAndGet();
+                    return RowOutcome.created(0, null);
+                });
+            }
+        }
+
+        assertEquals(5, processed.get());
+        assertEquals(5, intents.size());
+        assertEquals(10, outcomes.size());
+        RowOutcome skipped = outcomes.stream().filter(outcome -> outcome.getRowNum() == 4).findFirst().orElseThrow();
+        assertEquals(RowOutcome.Status.EXISTING, skipped.getStatus());
+        assertEquals(7L, skipped.getCreatedId());
+    }
+}
@@ -0,0 +1,56 @@
+package com.nelumbo.migration.excel;
+
+import com.nelumbo.migration.dispatch.RowOutcome;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnnotatedWorkbookTest {
+
+    @TempDir
+    Path dir;
+
+    private static SheetRow row(int rowNum, String code) {
+        return new SheetRow(rowNum, new SheetCell[]{SheetCell.ofString(0, code), SheetCell.ofNumeric(1, rowNum, false)});
+    }
+
+    @Test
+    void rowsCompletedOutOfOrderAreWrittenInSheetOrder() throws IOException {
+        File target = dir.resolve("result.xlsx").toFile();
+        try (AnnotatedWorkbook result = new AnnotatedWorkbook(2)) {
+            AnnotatedWorkbook.AnnotatedSheet sheet = result.sheet("tabs");
+            sheet.write(row(0, "code"), -1, null);
+            for (int i = 1; i <= 4; i++) {
+                sheet.pending(row(i, "C" + i));
+            }
+            sheet.complete(RowOutcome.created(0, 10L).at(3));
+            sheet.complete(RowOutcome.failed("boom").at(2));
+            sheet.complete(RowOutcome.existing(1, 20L).at(1));
+            // La fila 4 quedó sin resultado (carga cancelada)
+            sheet.finish();
+            assertEquals(4, sheet.getMaxPending());
+            result.write(target);
+        }
+
+        try (Workbook workbook = new XSSFWorkbook(new FileInputStream(target))) {
+            Sheet sheet = workbook.getSheet("tabs");
+            assertEquals(4, sheet.getLastRowNum());
+            assertEquals("C2", sheet.getRow(2).getCell(0).getStringCellValue());
+            assertEquals("Error: boom", sheet.getRow(2).getCell(2).getStringCellValue());
+            assertEquals(FillPatternType.SOLID_FOREGROUND, sheet.getRow(1).getCell(1).getCellStyle().getFillPattern());
+            assertEquals(FillPatternType.SOLID_FOREGROUND, sheet.getRow(3).getCell(0).getCellStyle().getFillPattern());
+            assertEquals(FillPatternType.NO_FILL, sheet.getRow(4).getCell(0).getCellStyle().getFillPattern());
+            assertEquals(4.0, sheet.getRow(4).getCell(1).getNumericCellValue());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.nelumbo.migration.excel;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnPlanTest {
+
+    private static SheetRow header(String... names) {
+        SheetCell[] cells = new SheetCell[names.length];
+        for (int c = 0; c < names.length; c++) {
+            cells[c] = SheetCell.ofString(c, names[c]);
+        }
+        return new SheetRow(0, cells);
+    }
+
+    @Test
+    void resolvesReservedColumnsAndConvertsTheRestAsFields() {
+        ColumnPlan plan = ColumnPlan.compile(header("Code", "color", "DENOMINATION", "alta", "activo", "peso", "nota"),
+                "code", "denomination", "status");
+
+        assertEquals(0, plan.column("code"));
+        assertEquals(2, plan.column("denomination"));
+        assertEquals(-1, plan.column("status"));
+        assertTrue(plan.hasColumns("code", "denomination"));
+        assertFalse(plan.hasColumns("code", "status"));
+        assertEquals(5, plan.getFieldCount());
+
+        double alta = DateUtil.getExcelDate(LocalDateTime.of(2024, 1, 31, 9, 30));
+        SheetRow row = new SheetRow(1, new SheetCell[]{
+                SheetCell.ofNumeric(0, 7, false),
+                SheetCell.ofString(1, "rojo"),
+                SheetCell.ofString(2, "Bono"),
+                SheetCell.ofNumeric(3, alta, true),
+                SheetCell.ofBoolean(4, true),
+                SheetCell.ofNumeric(5, 1.5, false)});
+
+        Map<String, Object> fields = plan.fieldsValues(row);
+        assertEquals(5, fields.size());
+        assertEquals("rojo", fields.get("color"));
+        assertEquals(DateUtil.getJavaDate(alta), fields.get("alta"));
+        assertInstanceOf(Date.class, fields.get("alta"));
+        assertEquals(true, fields.get("activo"));
+        assertEquals(1.5, fields.get("peso"));
+        // Una celda vacía queda como null en vez de fallar la fila
+        assertTrue(fields.containsKey("nota"));
+        assertNull(fields.get("nota"));
+    }
+
+    @Test
+    void rejectsHeadersWithEmptyColumns() {
+        SheetRow header = new SheetRow(0, new SheetCell[]{SheetCell.ofString(0, "code"), null, SheetCell.ofString(2, "x")});
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ColumnPlan.compile(header, "code"));
+        assertEquals("ColumnName can not be null, column: 1", e.getMessage());
+    }
+}
@@ -0,0 +1,151 @@
+package com.nelumbo.migration.excel;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExcelReaderTest {
+
+    @Test
+    void streamingAndDomReadTheSameValues() throws IOException {
+        MockMultipartFile file = workbook();
+
+        List<SheetRow> streaming = read(new ExcelReader(ReaderMode.STREAMING), file, SheetSelector.named("work_turns"));
+        List<SheetRow> dom = read(new ExcelReader(ReaderMode.DOM), file, SheetSelector.named("work_turns"));
+
+        assertEquals(dom.size(), streaming.size());
+        for (int i = 0; i < dom.size(); i++) {
+            SheetRow expected = dom.get(i);
+            SheetRow actual = streaming.get(i);
+            assertEquals(expected.getRowNum(), actual.getRowNum());
+            for (int c = 0; c < expected.getLastCellNum(); c++) {
+                SheetCell e = expected.getCell(c);
+                SheetCell a = actual.getCell(c);
+                if (e == null) {
+                    assertNull(a);
+                    continue;
+                }
+                assertEquals(e.getCellType(), a.getCellType());
+                assertEquals(e.isDateFormatted(), a.isDateFormatted());
+                if (e.getCellType() == CellType.STRING) {
+                    assertEquals(e.getStringCellValue(), a.getStringCellValue());
+                } else if (e.getCellType() == CellType.NUMERIC) {
+                    assertEquals(e.getNumericCellValue(), a.getNumericCellValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    void streamingProjectsColumnsAndSelectsSheetByIndex() throws IOException {
+        List<SheetRow> rows = new ArrayList<>();
+        new ExcelReader(ReaderMode.STREAMING).forEachDataRow(workbook(), SheetSelector.at(1), new int[]{0, 3}, rows::add);
+
+        assertEquals(2, rows.size());
+        assertEquals("Jornada A", rows.get(0).getCell(0).getStringCellValue());
+        assertNull(rows.get(0).getCell(1));
+        assertEquals(1d, rows.get(0).getCell(3).getNumericCellValue());
+    }
+
+    @Test
+    void csvReadsLikeTheSheet() throws IOException {
+        String csv = "\uFEFFname;code;staff;hired;notes\r\n"
+                + "Jornada A;007;3;2024-01-31;\"dice \"\"hola\"\"; adiós\"\r\n"
+                + "\r\n"
+                + ";;;;\n"
+                + "Jornada B;12;;;\"dos\nlíneas\"\n";
+        List<SheetRow> rows = read(new ExcelReader(ReaderMode.STREAMING),
+                new MockMultipartFile("file", "turns.csv", null, csv.getBytes(StandardCharsets.UTF_8)), SheetSelector.at(3));
+
+        assertEquals(3, rows.size());
+        assertEquals("name", rows.get(0).getCell(0).getStringCellValue());
+        SheetRow first = rows.get(1);
+        assertEquals(1, first.getRowNum());
+        assertEquals(CellType.STRING, first.getCell(1).getCellType());
+        assertEquals("007", first.getCell(1).getStringCellValue());
+        assertEquals(7d, first.getCell(1).getNumericCellValue());
+        assertEquals(CellType.NUMERIC, first.getCell(2).getCellType());
+        assertEquals("3", first.getCell(2).getStringCellValue());
+        assertTrue(first.getCell(3).isDateFormatted());
+        assertEquals(LocalDate.of(2024, 1, 31), first.getCell(3).getDateCellValue().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+        assertEquals("dice \"hola\"; adiós", first.getCell(4).getStringCellValue());
+        SheetRow second = rows.get(2);
+        assertEquals(4, second.getRowNum());
+        assertNull(second.getCell(2));
+        assertEquals("dos\nlíneas", second.getCell(4).getStringCellValue());
+        assertEquals(5, second.getLastCellNum());
+    }
+
+    @Test
+    void gzipNdjsonReadsLikeTheSheet() throws IOException {
+        String ndjson = "{\"name\":\"Jornada A\",\"code\":\"12\",\"staff\":3,\"active\":true}\n"
+                + "\n"
+                + "{\"staff\":4.5,\"name\":\"Jornada B\",\"extra\":1,\"code\":null}\n";
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(ndjson.getBytes(StandardCharsets.UTF_8));
+        }
+        List<SheetRow> rows = new ArrayList<>();
+        new ExcelReader(ReaderMode.DOM).forEachDataRow(new MockMultipartFile("file", "turns.ndjson.gz", null, gzip.toByteArray()),
+                SheetSelector.named("work_turns"), new int[]{0, 1, 2}, rows::add);
+
+        assertEquals(2, rows.size());
+        assertEquals("Jornada A", rows.get(0).getCell(0).getStringCellValue());
+        assertEquals(CellType.STRING, rows.get(0).getCell(1).getCellType());
+        assertEquals(12d, rows.get(0).getCell(1).getNumericCellValue());
+        assertEquals(3d, rows.get(0).getCell(2).getNumericCellValue());
+        assertNull(rows.get(0).getCell(3));
+        assertEquals(2, rows.get(1).getRowNum());
+        assertEquals("Jornada B", rows.get(1).getCell(0).getStringCellValue());
+        assertNull(rows.get(1).getCell(1));
+        assertEquals(4.5, rows.get(1).getCell(2).getNumericCellValue());
+    }
+
+    private static List<SheetRow> read(ExcelReader reader, MockMultipartFile file, SheetSelector selector) throws IOException {
+        List<SheetRow> rows = new ArrayList<>();
+        reader.forEachRow(file, selector, null, rows::add);
+        return rows;
+    }
+
+    private static MockMultipartFile workbook() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            workbook.createSheet("work_periods").createRow(0).createCell(0).setCellValue("name");
+
+            Sheet turns = workbook.createSheet("work_turns");
+            CellStyle time = workbook.createCellStyle();
+            time.setDataFormat(workbook.createDataFormat().getFormat("HH:mm"));
+            Row header = turns.createRow(0);
+            String[] names = {"work_period", "from", "to", "day_of_week", "type", "duration"};
+            for (int i = 0; i < names.length; i++) {
+                header.createCell(i).setCellValue(names[i]);
+            }
+            for (int r = 1; r <= 2; r++) {
+                Row row = turns.createRow(r);
+                row.createCell(0).setCellValue("Jornada A");
+                row.createCell(1).setCellValue(0.375);
+                row.getCell(1).setCellStyle(time);
+                row.createCell(2).setCellValue(0.75);
+                row.getCell(2).setCellStyle(time);
+                row.createCell(3).setCellValue(r);
+                row.createCell(4).setCellValue("Laboral");
+            }
+            workbook.write(out);
+            return new MockMultipartFile("file", "test.xlsx", null, out.toByteArray());
+        }
+    }
+}
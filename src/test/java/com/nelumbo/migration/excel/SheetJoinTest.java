@@ -0,0 +1,32 @@
+package com.nelumbo.migration.excel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SheetJoinTest {
+
+    private static SheetRow turn(int rowNum, SheetCell key) {
+        return new SheetRow(rowNum, new SheetCell[]{key, SheetCell.ofNumeric(1, rowNum, false)});
+    }
+
+    @Test
+    void groupsChildRowsByKeyKeepingSheetOrder() {
+        SheetJoin join = SheetJoin.index(List.of(
+                turn(1, SheetCell.ofString(0, "Jornada A")),
+                turn(2, SheetCell.ofString(0, "jornada b")),
+                turn(3, SheetCell.ofString(0, " JORNADA A ")),
+                turn(4, null),
+                turn(5, SheetCell.ofNumeric(0, 40, false))), 0);
+
+        assertEquals(4, join.size());
+        assertEquals(3, join.keys());
+        assertEquals(List.of(1, 3), join.childrenOf("jornada a").stream().map(SheetRow::getRowNum).toList());
+        assertEquals(1, join.childrenOf("Jornada B").size());
+        assertEquals(5, join.childrenOf("40").get(0).getRowNum());
+        assertTrue(join.childrenOf("Jornada C").isEmpty());
+        assertTrue(join.childrenOf(null).isEmpty());
+    }
+}
@@ -0,0 +1,190 @@
+package com.nelumbo.migration.job;
+
+import com.nelumbo.migration.artifact.ArtifactStore;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import com.nelumbo.migration.journal.JournalStore;
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobServiceTest {
+
+    /**
+     * Cola de trabajos que no corre nada hasta {@link #runAll()}, en el hilo del test; con
+     * {@code full} rechaza como el pool con la cola llena.
+     */
+    static class QueuedExecutor extends ThreadPoolTaskExecutor {
+        final List<Runnable> queued = new ArrayList<>();
+        boolean full;
+
+        @Override
+        public void execute(Runnable task) {
+            if (full) {
+                throw new TaskRejectedException("queue full");
+            }
+            queued.add(task);
+        }
+
+        void runAll() {
+            List<Runnable> tasks = new ArrayList<>(queued);
+            queued.clear();
+            tasks.forEach(Runnable::run);
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    private final QueuedExecutor executor = new QueuedExecutor();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ArtifactStore artifactStore;
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        artifactStore = new ArtifactStore(dir.resolve("artifacts"), Duration.ofHours(24), DataSize.ofMegabytes(10));
+        JournalStore journalStore = new JournalStore(dir.resolve("journal"), false, Duration.ofHours(24));
+        jobService = new JobService(executor, journalStore, artifactStore, new MigrationMetrics(registry));
+        ReflectionTestUtils.setField(jobService, "spoolDir", dir.resolve("uploads"));
+        ReflectionTestUtils.setField(jobService, "outcomesDir", dir.resolve("outcomes"));
+        ReflectionTestUtils.setField(jobService, "retention", Duration.ofHours(24));
+        ReflectionTestUtils.setField(jobService, "progressBufferSize", 16);
+        ReflectionTestUtils.setField(jobService, "progressLatestErrors", 1);
+        ReflectionTestUtils.setField(jobService, "retryBudgetPerJob", 10);
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "sucursales.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Path> journals() throws Exception {
+        try (var files = Files.list(dir.resolve("journal"))) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    void aRejectedJobAnswersServiceUnavailableAndIsForgotten() {
+        executor.full = true;
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> jobService.submit("stores", file("a"), (upload, job) -> null));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertTrue(executor.queued.isEmpty());
+    }
+
+    @Test
+    void aCompletedJobRecordsItsRowsAndDropsItsJournal() throws Exception {
+        MigrationJob job = jobService.submit("stores", file("sucursal 1"), (upload, current) -> {
+            current.record("sucursales", RowOutcome.created(0, 1L).at(1));
+            return null;
+        }, ResultFormat.OUTCOMES, true);
+        assertEquals(JobStatus.QUEUED, job.getStatus());
+
+        executor.runAll();
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getSucceeded().get());
+        assertEquals(job.getOutcomes().getPath().toFile(), job.getResult());
+        assertTrue(journals().isEmpty());
+    }
+
+    @Test
+    void cancellingAQueuedJobSkipsItsWork() throws Exception {
+        AtomicReference<MigrationJob> ran = new AtomicReference<>();
+        MigrationJob job = jobService.submit("stores", file("a"), (upload, current) -> {
+            ran.set(current);
+            return null;
+        });
+
+        assertSame(job, jobService.cancel(job.getId()).orElseThrow());
+        assertEquals(JobStatus.CANCELLED, job.getStatus());
+        executor.runAll();
+
+        assertNull(ran.get());
+        assertEquals(JobStatus.CANCELLED, job.getStatus());
+    }
+
+    @Test
+    void cancellingARunningJobKeepsItsJournalForResume() throws Exception {
+        MigrationJob job = jobService.submit("stores", file("sucursal 1"), (upload, current) -> {
+            jobService.cancel(current.getId());
+            assertTrue(current.isCancelled());
+            return null;
+        });
+
+        executor.runAll();
+
+        assertEquals(JobStatus.CANCELLED, job.getStatus());
+        assertEquals(1, journals().size());
+    }
+
+    @Test
+    void aStreamedUploadIsReadWhileItArrives() throws Exception {
+        AtomicReference<String> read = new AtomicReference<>();
+        MigrationJob job = jobService.submit("stores", "sucursales.csv", "text/csv",
+                new ByteArrayInputStream("nombre\nsucursal 1\n".getBytes(StandardCharsets.UTF_8)), (upload, current) -> {
+                    try (InputStream in = upload.getInputStream()) {
+                        read.set(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                    return null;
+                }, ResultFormat.OUTCOMES, true);
+        // El trabajo se encoló antes de recibir el cuerpo
+        assertEquals(1, executor.queued.size());
+
+        executor.runAll();
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals("nombre\nsucursal 1\n", read.get());
+        try (var uploads = Files.list(dir.resolve("uploads"))) {
+            assertEquals(0, uploads.count());
+        }
+    }
+
+    @Test
+    void purgeRemovesOutcomesArtifactsAndJobMeters() throws Exception {
+        ReflectionTestUtils.setField(jobService, "retention", Duration.ZERO);
+        File artifact = artifactStore.newFile("libro.xlsx");
+        Files.writeString(artifact.toPath(), "libro");
+        MigrationJob job = jobService.submit("stores", file("sucursal 1"), (upload, current) -> {
+            current.record("sucursales", RowOutcome.created(0, 1L).at(1));
+            new MigrationMetrics(registry).rows("sucursales").accept(RowOutcome.created(0, 1L).at(1), 1_000);
+            return artifact;
+        });
+        executor.runAll();
+        Path outcomes = job.getOutcomes().getPath();
+        assertTrue(Files.exists(outcomes));
+        assertFalse(registry.find("migration.rows").tag("job", job.getId()).meters().isEmpty());
+
+        Thread.sleep(5);
+        // Cualquier trabajo nuevo purga los que pasaron la retención
+        jobService.submit("stores", file("otro"), (upload, current) -> null);
+
+        assertTrue(jobService.find(job.getId()).isEmpty());
+        assertFalse(Files.exists(outcomes));
+        assertFalse(artifact.exists());
+        assertTrue(registry.find("migration.rows").tag("job", job.getId()).meters().isEmpty());
+    }
+}
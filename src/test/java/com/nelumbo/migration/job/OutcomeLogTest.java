@@ -0,0 +1,43 @@
+package com.nelumbo.migration.job;
+
+import com.nelumbo.migration.dispatch.RowOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutcomeLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesOneLinePerRowAndFailuresApart() throws IOException {
+        OutcomeLog log = OutcomeLog.open(dir, "job-1");
+        try (log) {
+            log.append("tabs", RowOutcome.created(0, 42L).at(1));
+            log.append("tabs", RowOutcome.existing(0, 7L).at(2));
+            log.append("tabs", RowOutcome.failed("Code cell can not be null \"A\"").at(3));
+        }
+        // Después de cerrarse ya no se escribe
+        log.append("tabs", RowOutcome.failed("late").at(4));
+
+        assertEquals(List.of(
+                "{\"sheet\":\"tabs\",\"row\":2,\"status\":\"CREATED\",\"id\":42}",
+                "{\"sheet\":\"tabs\",\"row\":3,\"status\":\"EXISTING\",\"id\":7}",
+                "{\"sheet\":\"tabs\",\"row\":4,\"status\":\"FAILED\",\"error\":\"Code cell can not be null \\\"A\\\"\"}"),
+                Files.readAllLines(log.getPath()));
+        assertEquals(List.of(
+                "{\"sheet\":\"tabs\",\"row\":4,\"status\":\"FAILED\",\"error\":\"Code cell can not be null \\\"A\\\"\"}"),
+                Files.readAllLines(log.getFailuresPath()));
+
+        log.delete();
+        assertFalse(Files.exists(log.getPath()));
+        assertFalse(Files.exists(log.getFailuresPath()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.nelumbo.migration.journal;
+
+import com.nelumbo.migration.dispatch.RowJournal;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import com.nelumbo.migration.excel.SheetCell;
+import com.nelumbo.migration.excel.SheetRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumeSkipsConfirmedRowsAndReportsInFlightOnes() throws IOException {
+        Path path = dir.resolve("profiles.wal");
+        SheetRow done = row(1, "ana");
+        SheetRow interrupted = row(2, "luis");
+        SheetRow failed = row(3, "eva");
+
+        try (JobJournal journal = new JobJournal(path, true, () -> { })) {
+            RowJournal sheet = journal.sheet("perfiles");
+            sheet.intent(done);
+            sheet.record(done, RowOutcome.created(0, 42L));
+            sheet.intent(interrupted);
+            sheet.intent(failed);
+            sheet.record(failed, RowOutcome.failed("boom"));
+        }
+
+        try (JobJournal journal = new JobJournal(path, true, () -> { })) {
+            assertEquals(1, journal.getConfirmedRows());
+            assertEquals(1, journal.getInFlightRows());
+            RowJournal sheet = journal.sheet("perfiles");
+
+            RowOutcome confirmed = sheet.confirmed(done);
+            assertNotNull(confirmed);
+            assertEquals(42L, confirmed.getCreatedId());
+            assertTrue(sheet.inFlight(interrupted));
+            assertNull(sheet.confirmed(failed));
+            assertFalse(sheet.inFlight(failed));
+            // Si la fila cambió en el archivo se vuelve a procesar
+            assertNull(sheet.confirmed(row(1, "ana maria")));
+            assertNull(journal.sheet("cargos").confirmed(done));
+        }
+    }
+
+    @Test
+    void concurrentRowsAllReachTheJournal() throws IOException {
+        Path path = dir.resolve("stores.wal");
+
+        try (JobJournal journal = new JobJournal(path, true, () -> { });
+             ExecutorService rows = Executors.newVirtualThreadPerTaskExecutor()) {
+            RowJournal sheet = journal.sheet("sucursales");
+            for (int i = 1; i <= 200; i++) {
+                SheetRow row = row(i, "sucursal " + i);
+                rows.submit(() -> {
+                    sheet.intent(row);
+                    sheet.record(row, RowOutcome.created(0, (long) row.getRowNum()));
+                });
+            }
+        }
+
+        try (JobJournal journal = new JobJournal(path, true, () -> { })) {
+            assertEquals(200, journal.getConfirmedRows());
+            assertEquals(0, journal.getInFlightRows());
+            assertEquals(150L, journal.sheet("sucursales").confirmed(row(150, "sucursal 150")).getCreatedId());
+        }
+    }
+
+    private static SheetRow row(int rowNum, String name) {
+        return new SheetRow(rowNum, new SheetCell[]{SheetCell.ofString(0, name)});
+    }
+}
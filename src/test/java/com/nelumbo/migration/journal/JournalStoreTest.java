@@ -0,0 +1,103 @@
+package com.nelumbo.migration.journal;
+
+import com.nelumbo.migration.dispatch.RowJournal;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import com.nelumbo.migration.excel.SheetCell;
+import com.nelumbo.migration.excel.SheetRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static final SheetRow ROW = new SheetRow(1, new SheetCell[]{SheetCell.ofString(0, "ana")});
+
+    private JournalStore store() {
+        return new JournalStore(dir, false, Duration.ofHours(24));
+    }
+
+    private static ByteArrayInputStream file(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void confirm(JobJournal journal) {
+        RowJournal sheet = journal.sheet("perfiles");
+        sheet.intent(ROW);
+        sheet.record(ROW, RowOutcome.created(0, 42L));
+    }
+
+    @Test
+    void aFinishedJournalIsDeletedOnClose() throws IOException {
+        JournalStore store = store();
+        Path path;
+        try (JobJournal journal = store.open("profiles", file("perfiles"), true)) {
+            path = journal.getPath();
+            confirm(journal);
+            assertFalse(journal.hasRowsInFlight());
+            journal.finish();
+        }
+        assertFalse(Files.exists(path));
+
+        try (JobJournal journal = store.open("profiles", file("perfiles"), true)) {
+            assertEquals(0, journal.getConfirmedRows());
+        }
+    }
+
+    @Test
+    void anUnfinishedJournalIsResumedUnlessResumeIsOff() throws IOException {
+        JournalStore store = store();
+        try (JobJournal journal = store.open("profiles", file("perfiles"), true)) {
+            confirm(journal);
+            journal.sheet("perfiles").intent(new SheetRow(2, new SheetCell[]{SheetCell.ofString(0, "luis")}));
+            assertTrue(journal.hasRowsInFlight());
+        }
+
+        try (JobJournal journal = store.open("profiles", file("perfiles"), true)) {
+            assertEquals(1, journal.getConfirmedRows());
+            assertEquals(1, journal.getInFlightRows());
+        }
+
+        try (JobJournal journal = store.open("profiles", file("perfiles"), false)) {
+            assertEquals(0, journal.getConfirmedRows());
+            assertNull(journal.sheet("perfiles").confirmed(ROW));
+        }
+    }
+
+    @Test
+    void journalsPastTheRetentionArePurged() throws IOException {
+        JournalStore store = store();
+        Path stale;
+        Path recent;
+        try (JobJournal journal = store.open("profiles", file("viejo"), true)) {
+            stale = journal.getPath();
+            confirm(journal);
+        }
+        try (JobJournal journal = store.open("profiles", file("reciente"), true)) {
+            recent = journal.getPath();
+            confirm(journal);
+        }
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+
+        try (JobJournal journal = store.open("stores", file("sucursales"), true)) {
+            assertFalse(Files.exists(stale));
+            assertTrue(Files.exists(recent));
+            // El diario abierto no se toca aunque esté vencido
+            Files.setLastModifiedTime(journal.getPath(), FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+            store.purgeExpired();
+            assertTrue(Files.exists(journal.getPath()));
+        }
+    }
+}
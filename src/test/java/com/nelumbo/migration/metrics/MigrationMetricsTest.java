@@ -0,0 +1,38 @@
+package com.nelumbo.migration.metrics;
+
+import com.nelumbo.migration.dispatch.CallContext;
+import com.nelumbo.migration.dispatch.RetryBudget;
+import com.nelumbo.migration.dispatch.RowOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationMetricsTest {
+
+    @Test
+    void onlyRowCountersCarryTheJobAndAreRemovedWithIt() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MigrationMetrics metrics = new MigrationMetrics(registry);
+
+        for (String job : new String[]{"a", "b"}) {
+            CallContext.call(CallContext.forJob(job, "stores", RetryBudget.UNLIMITED), () -> {
+                metrics.rows("sucursales").accept(RowOutcome.created(0, 1L).at(1), 1_000_000);
+                metrics.parsed("streaming", 2048, System.nanoTime());
+                return null;
+            });
+        }
+
+        // Un histograma por tipo de carga, sin importar cuántos trabajos corrieron
+        assertEquals(1, registry.find("migration.rows.duration").timers().size());
+        assertEquals(2, registry.find("migration.rows.duration").tag("type", "stores").timer().count());
+        assertEquals(1, registry.find("migration.workbook.parse").timers().size());
+        assertEquals(1.0, registry.find("migration.rows").tag("job", "a").tag("outcome", "created").counter().count());
+
+        metrics.removeJob("a");
+
+        assertTrue(registry.find("migration.rows").tag("job", "a").meters().isEmpty());
+        assertEquals(3, registry.find("migration.rows").tag("job", "b").meters().size());
+        assertEquals(1, registry.find("migration.rows.duration").timers().size());
+    }
+}
@@ -0,0 +1,146 @@
+package com.nelumbo.migration.orchestration;
+
+import com.nelumbo.migration.dispatch.RowProgress;
+import com.nelumbo.migration.job.MigrationJob;
+import com.nelumbo.migration.job.ResultFormat;
+import com.nelumbo.migration.progress.ProgressFeed;
+import com.nelumbo.migration.service.MigrationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkbookOrchestratorTest {
+
+    /**
+     * Servicio que solo anota el orden en que empieza y termina cada carga; las cargas de
+     * {@code failing} fallan como una hoja que no existe.
+     */
+    static class StubService extends MigrationService {
+
+        final List<String> events = new CopyOnWriteArrayList<>();
+        private final Set<WorkbookStage> failing;
+
+        StubService(Set<WorkbookStage> failing) {
+            super(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+            this.failing = failing;
+        }
+
+        private File stage(WorkbookStage stage) {
+            events.add("start " + stage);
+            if (failing.contains(stage)) {
+                throw new IllegalStateException("Sheet of " + stage + " could not be processed");
+            }
+            events.add("end " + stage);
+            return null;
+        }
+
+        @Override
+        public void migrateCostCenters(MultipartFile file, RowProgress progress) {
+            this.stage(WorkbookStage.COST_CENTERS);
+        }
+
+        @Override
+        public void migrateStores(MultipartFile file, RowProgress progress) {
+            this.stage(WorkbookStage.STORES);
+        }
+
+        @Override
+        public void migrateStoresOrgEntities(MultipartFile file, RowProgress progress) {
+            this.stage(WorkbookStage.STORES_ORG_ENTITIES);
+        }
+
+        @Override
+        public File loadWorkPositionCategories(MultipartFile file, RowProgress progress) {
+            return this.stage(WorkbookStage.WORK_POSITION_CATEGORIES);
+        }
+
+        @Override
+        public void migrateWorkPositions(MultipartFile file, RowProgress progress) {
+            this.stage(WorkbookStage.WORK_POSITIONS);
+        }
+
+        @Override
+        public void migrateProfiles(MultipartFile file, RowProgress progress) {
+            this.stage(WorkbookStage.PROFILES);
+        }
+
+        @Override
+        public File loadWorkPeriods(MultipartFile file, RowProgress progress) {
+            return this.stage(WorkbookStage.WORK_PERIODS);
+        }
+
+        @Override
+        public void migrateStoreWorkPeriods(MultipartFile file, RowProgress progress) {
+            this.stage(WorkbookStage.STORE_WORK_PERIODS);
+        }
+
+        @Override
+        public File cargarCompensaciones(MultipartFile file, RowProgress progress) {
+            return this.stage(WorkbookStage.COMPENSATIONS);
+        }
+
+        @Override
+        public File loadTabs(MultipartFile file, RowProgress progress) {
+            return this.stage(WorkbookStage.TABS);
+        }
+    }
+
+    private WorkbookOrchestrator orchestrator;
+
+    @AfterEach
+    void shutdown() {
+        orchestrator.destroy();
+    }
+
+    private Map<String, String> run(StubService service) throws Exception {
+        orchestrator = new WorkbookOrchestrator(service, null);
+        MigrationJob job = new MigrationJob("job", "workbook", "libro.xlsx", ResultFormat.WORKBOOK, new ProgressFeed(16, 1));
+        MultipartFile file = new MockMultipartFile("file", "libro.xlsx", null, new byte[0]);
+        assertNull(orchestrator.run(file, job));
+        return new ConcurrentHashMap<>(job.getStages());
+    }
+
+    @Test
+    void everyStageStartsAfterTheStagesItDependsOn() throws Exception {
+        StubService service = new StubService(Set.of());
+
+        Map<String, String> stages = run(service);
+
+        for (WorkbookStage stage : WorkbookStage.values()) {
+            assertEquals("COMPLETED", stages.get(stage.name()), stage.name());
+            int start = service.events.indexOf("start " + stage);
+            for (WorkbookStage dependency : stage.getDependencies()) {
+                assertTrue(service.events.indexOf("end " + dependency) < start, stage + " started before " + dependency);
+            }
+        }
+    }
+
+    @Test
+    void aFailedStageSkipsEveryStageThatDependsOnIt() throws Exception {
+        StubService service = new StubService(Set.of(WorkbookStage.STORES));
+
+        Map<String, String> stages = run(service);
+
+        assertEquals("COMPLETED", stages.get("COST_CENTERS"));
+        assertEquals("FAILED", stages.get("STORES"));
+        for (WorkbookStage skipped : List.of(WorkbookStage.STORES_ORG_ENTITIES, WorkbookStage.WORK_POSITIONS,
+                WorkbookStage.PROFILES, WorkbookStage.STORE_WORK_PERIODS)) {
+            assertEquals("SKIPPED", stages.get(skipped.name()), skipped.name());
+            assertFalse(service.events.contains("start " + skipped), skipped + " should not run");
+        }
+        for (WorkbookStage independent : List.of(WorkbookStage.WORK_POSITION_CATEGORIES, WorkbookStage.WORK_PERIODS,
+                WorkbookStage.COMPENSATIONS, WorkbookStage.TABS)) {
+            assertEquals("COMPLETED", stages.get(independent.name()), independent.name());
+        }
+    }
+}
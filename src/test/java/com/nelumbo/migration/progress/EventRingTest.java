@@ -0,0 +1,51 @@
+package com.nelumbo.migration.progress;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingTest {
+
+    @Test
+    void readerFollowsPublishedEventsInOrder() {
+        EventRing<Integer> ring = new EventRing<>(6);
+        assertEquals(8, ring.capacity());
+        EventRing.Cursor cursor = ring.oldest();
+        for (int i = 0; i < 5; i++) {
+            ring.publish(i);
+        }
+
+        List<Integer> read = new ArrayList<>();
+        assertEquals(3, ring.read(cursor, 3, read::add));
+        assertEquals(2, ring.read(cursor, 10, read::add));
+        assertEquals(0, ring.read(cursor, 10, read::add));
+        assertEquals(List.of(0, 1, 2, 3, 4), read);
+        assertEquals(0, cursor.takeSkipped());
+        assertEquals(List.of(3, 4), ring.last(2));
+    }
+
+    @Test
+    void slowReaderSkipsOverwrittenEvents() {
+        EventRing<Integer> ring = new EventRing<>(4);
+        EventRing.Cursor slow = ring.oldest();
+        for (int i = 0; i < 10; i++) {
+            ring.publish(i);
+        }
+
+        List<Integer> read = new ArrayList<>();
+        ring.read(slow, 10, read::add);
+        assertEquals(List.of(6, 7, 8, 9), read);
+        assertEquals(6, slow.takeSkipped());
+        assertEquals(0, slow.takeSkipped());
+        assertEquals(List.of(6, 7, 8, 9), ring.last(100));
+
+        EventRing.Cursor late = ring.latest();
+        ring.publish(10);
+        read.clear();
+        ring.read(late, 10, read::add);
+        assertEquals(List.of(10), read);
+    }
+}
@@ -0,0 +1,54 @@
+package com.nelumbo.migration.registry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void idsSurviveReopenAndIndexGrowth() throws IOException {
+        try (IdStore store = new IdStore(dir, "stores", false)) {
+            for (int i = 0; i < 5000; i++) {
+                store.put("sucursal " + i, i);
+            }
+            store.put("sucursal 7", 70);
+        }
+
+        try (IdStore store = new IdStore(dir, "stores", false)) {
+            assertEquals(5000, store.size());
+            assertEquals(70L, store.find("sucursal 7"));
+            assertEquals(4999L, store.find("sucursal 4999"));
+            assertNull(store.find("sucursal 5000"));
+        }
+    }
+
+    @Test
+    void rebuildsIndexAndDropsTornRecordAfterCrash() throws IOException {
+        IdStore crashed = new IdStore(dir, "stores", false);
+        crashed.put("norte", 1);
+        crashed.put("sur", 2);
+        // Sin close(): el índice queda marcado como no cerrado; se simula un registro cortado
+        try (FileChannel log = FileChannel.open(dir.resolve("stores.log"), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            log.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 5, 'e', 's'}));
+        }
+
+        try (IdStore store = new IdStore(dir, "stores", false)) {
+            assertEquals(2, store.size());
+            assertEquals(1L, store.find("norte"));
+            assertEquals(2L, store.find("sur"));
+            store.put("este", 3);
+            assertEquals(3L, store.find("este"));
+        }
+    }
+}
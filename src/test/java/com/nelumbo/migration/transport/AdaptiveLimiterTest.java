@@ -0,0 +1,53 @@
+package com.nelumbo.migration.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private static LimiterProperties properties() {
+        LimiterProperties properties = new LimiterProperties();
+        properties.setInitialLimit(4);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(6);
+        properties.setTargetLatency(Duration.ofSeconds(10));
+        properties.setBackoffRatio(0.5);
+        return properties;
+    }
+
+    @Test
+    void growsWhileSaturatedAndFastUpToTheMaximum() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(properties());
+        for (int round = 0; round < 50; round++) {
+            int limit = limiter.getLimit();
+            long[] starts = new long[limit];
+            for (int i = 0; i < limit; i++) {
+                starts[i] = limiter.acquire();
+            }
+            for (long start : starts) {
+                limiter.release(start, false);
+            }
+        }
+        assertEquals(6, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void failuresCutTheLimitOncePerWave() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(properties());
+        long first = limiter.acquire();
+        long second = limiter.acquire();
+        limiter.release(first, true);
+        // Salió antes de la reducción: no vuelve a reducir
+        limiter.release(second, true);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.release(limiter.acquire(), true);
+        assertEquals(1, limiter.getLimit());
+        limiter.release(limiter.acquire(), true);
+        assertEquals(1, limiter.getLimit());
+    }
+}
@@ -0,0 +1,72 @@
+package com.nelumbo.migration.transport;
+
+import com.nelumbo.migration.dispatch.CallContext;
+import com.nelumbo.migration.dispatch.RetryBudget;
+import feign.Request;
+import feign.RetryableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackoffRetryerTest {
+
+    private static RetryableException unavailable(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "http://core-api/v1/stores", Map.of(), null, null, null);
+        return new RetryableException(status, "core-api responded " + status, Request.HttpMethod.POST, (Long) null, request);
+    }
+
+    private static RetryProperties properties() {
+        RetryProperties properties = new RetryProperties();
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(2));
+        return properties;
+    }
+
+    @Test
+    void stopsAtMaxAttemptsAndSharesTheJobBudget() throws Exception {
+        RetryBudget budget = new RetryBudget(4);
+        BackoffRetryer retryer = new BackoffRetryer(properties());
+
+        CallContext.call(CallContext.forJob("job", "stores", budget), () -> {
+            BackoffRetryer first = (BackoffRetryer) retryer.clone();
+            first.continueOrPropagate(unavailable(503));
+            first.continueOrPropagate(unavailable(503));
+            first.continueOrPropagate(unavailable(503));
+            assertThrows(RetryableException.class, () -> first.continueOrPropagate(unavailable(503)));
+
+            BackoffRetryer second = (BackoffRetryer) retryer.clone();
+            second.continueOrPropagate(unavailable(502));
+            assertThrows(RetryableException.class, () -> second.continueOrPropagate(unavailable(502)));
+            return null;
+        });
+        assertEquals(4, budget.getUsed());
+    }
+
+    @Test
+    void unauthorizedIsRetriedOnceWithoutBudget() {
+        RetryBudget budget = new RetryBudget(0);
+        BackoffRetryer retryer = new BackoffRetryer(properties());
+
+        assertDoesNotThrow(() -> CallContext.call(CallContext.forJob("job", "stores", budget), () -> {
+            retryer.continueOrPropagate(unavailable(401));
+            return null;
+        }));
+        assertThrows(RetryableException.class, () -> retryer.continueOrPropagate(unavailable(401)));
+    }
+
+    @Test
+    void rowKeysAreDeterministicPerRowAndCall() {
+        CallContext job = CallContext.forJob("job", "stores", RetryBudget.UNLIMITED);
+        CallContext first = job.forRow("sucursales", 42L);
+        CallContext again = CallContext.forJob("other", "stores", RetryBudget.UNLIMITED).forRow("sucursales", 42L);
+
+        String key = first.nextIdempotencyKey();
+        assertEquals(key, again.nextIdempotencyKey());
+        assertNotEquals(key, first.nextIdempotencyKey());
+        assertNotEquals(key, job.forRow("sucursales", 43L).nextIdempotencyKey());
+        assertNull(job.nextIdempotencyKey());
+    }
+}
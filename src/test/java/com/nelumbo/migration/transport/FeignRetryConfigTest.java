@@ -0,0 +1,54 @@
+package com.nelumbo.migration.transport;
+
+import com.nelumbo.migration.dispatch.CallContext;
+import com.nelumbo.migration.dispatch.RetryBudget;
+import com.nelumbo.migration.feign.LoginFeign;
+import com.nelumbo.migration.feign.StoreFeign;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import feign.Target;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeignRetryConfigTest {
+
+    private final RetryProperties properties = new RetryProperties();
+    private final RequestInterceptor interceptor = new FeignRetryConfig().idempotencyKeyInterceptor(properties);
+
+    private static RequestTemplate post(Class<?> type, String client) {
+        RequestTemplate template = new RequestTemplate().method(Request.HttpMethod.POST);
+        template.feignTarget(new Target.HardCodedTarget<>(type, client, "http://core-api/v1/" + client));
+        return template;
+    }
+
+    private Collection<String> key(RequestTemplate template) {
+        return template.headers().get(properties.getIdempotencyHeader());
+    }
+
+    @Test
+    void loginInsideARowDoesNotUseTheRowKeys() throws Exception {
+        CallContext job = CallContext.forJob("job", "stores", RetryBudget.UNLIMITED);
+
+        RequestTemplate plain = post(StoreFeign.class, "store");
+        CallContext.call(job.forRow("sucursales", 42L), () -> {
+            interceptor.apply(plain);
+            return null;
+        });
+
+        RequestTemplate login = post(LoginFeign.class, "login");
+        RequestTemplate afterLogin = post(StoreFeign.class, "store");
+        CallContext.call(job.forRow("sucursales", 42L), () -> {
+            interceptor.apply(login);
+            interceptor.apply(afterLogin);
+            return null;
+        });
+
+        assertNull(key(login));
+        assertNotNull(key(plain));
+        assertEquals(key(plain), key(afterLogin));
+    }
+}
@@ -0,0 +1,107 @@
+package com.nelumbo.migration.validation;
+
+import com.nelumbo.migration.dispatch.DispatchProperties;
+import com.nelumbo.migration.dispatch.RowDispatcher;
+import com.nelumbo.migration.dispatch.RowProgress;
+import com.nelumbo.migration.excel.SheetCell;
+import com.nelumbo.migration.excel.SheetRow;
+import com.nelumbo.migration.metrics.MigrationMetrics;
+import com.nelumbo.migration.transport.LimiterProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SheetValidatorTest {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private RowDispatcher dispatcher;
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.destroy();
+    }
+
+    private SheetValidator validator(DispatchProperties properties, boolean limiterEnabled, int chunkSize, int threshold, int maxErrors) {
+        LimiterProperties limiter = new LimiterProperties();
+        limiter.setEnabled(limiterEnabled);
+        limiter.setMaxLimit(64);
+        dispatcher = new RowDispatcher(properties, limiter, MigrationMetrics.NONE);
+        return new SheetValidator(dispatcher, MigrationMetrics.NONE, chunkSize, threshold, maxErrors, Duration.ofMillis(200));
+    }
+
+    @Test
+    void reportsInvalidRowsInOrderAndEstimatesTheLoad() {
+        DispatchProperties properties = new DispatchProperties();
+        properties.setConcurrency(4);
+        // Bloques y rangos chicos para que la hoja se reparta en varias tareas
+        SheetValidator validator = validator(properties, false, 100, 8, 3);
+        SheetValidator.SheetValidation validation = validator.open("perfiles", "ProfileFeign#createProfile(", RowProgress.NONE, row -> {
+            LocalDate.parse(row.getCell(1).getStringCellValue(), DATE);
+            return 2;
+        });
+        for (int rowNum = 1; rowNum <= 1000; rowNum++) {
+            // Cada 100 filas una fecha mal escrita y cada 250 una sin fecha
+            SheetCell date = rowNum % 250 == 0 ? null : SheetCell.ofString(1, rowNum % 100 == 0 ? "2024-01-31" : "31/01/2024");
+            validation.submit(new SheetRow(rowNum, new SheetCell[]{SheetCell.ofNumeric(0, rowNum, false), date}));
+        }
+        ValidationReport report = validation.finish();
+
+        assertEquals(1000, report.getRows());
+        assertEquals(988, report.getValidRows());
+        assertEquals(12, report.getInvalidRows());
+        assertEquals(List.of(101, 201, 251), report.getInvalid().stream().map(ValidationReport.InvalidRow::row).toList());
+        assertTrue(report.isTruncated());
+        assertEquals("Missing required cell", report.errorAt(250));
+        assertTrue(report.errorAt(100).contains("could not be parsed"));
+        assertNull(report.errorAt(99));
+
+        assertEquals(1976, report.getRemoteCalls());
+        assertFalse(report.isLatencyMeasured());
+        assertEquals(4, report.getConcurrency());
+        // 1976 llamadas de 200 ms con 4 en vuelo
+        assertEquals(99, report.getEstimatedSeconds());
+    }
+
+    @Test
+    void rowsThatBlockOnCoreApiRunWiderThanTheCpuCount() {
+        SheetValidator validator = validator(new DispatchProperties(), false, 1000, 1, 10);
+        int rows = Runtime.getRuntime().availableProcessors() * 4;
+        // Cada revisión espera a todas las demás, como filas bloqueadas en core-api con la caché fría
+        CyclicBarrier coldCache = new CyclicBarrier(rows);
+        SheetValidator.SheetValidation validation = validator.open("sucursales", "StoreFeign#createStore(", RowProgress.NONE, row -> {
+            coldCache.await(10, TimeUnit.SECONDS);
+            return 1;
+        });
+        for (int rowNum = 1; rowNum <= rows; rowNum++) {
+            validation.submit(new SheetRow(rowNum, new SheetCell[]{SheetCell.ofString(0, "sucursal " + rowNum)}));
+        }
+        ValidationReport report = validation.finish();
+
+        assertEquals(rows, report.getValidRows());
+        assertEquals(0, report.getInvalidRows());
+    }
+
+    @Test
+    void theEstimateUsesTheRowsInFlightOfTheLoad() {
+        // Con el limitador activo la carga deja hasta max-limit filas en vuelo, no las 8 de la hoja
+        SheetValidator validator = validator(new DispatchProperties(), true, 100, 8, 3);
+        SheetValidator.SheetValidation validation = validator.open("sucursales", "StoreFeign#createStore(", RowProgress.NONE, row -> 1);
+        for (int rowNum = 1; rowNum <= 640; rowNum++) {
+            validation.submit(new SheetRow(rowNum, new SheetCell[]{SheetCell.ofString(0, "sucursal " + rowNum)}));
+        }
+        ValidationReport report = validation.finish();
+
+        assertEquals(64, report.getConcurrency());
+        // 640 llamadas de 200 ms con 64 en vuelo
+        assertEquals(2, report.getEstimatedSeconds());
+    }
+}